@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.benchmark;
+
+import androidx.annotation.NonNull;
+
+import com.amazon.appanalyticshub.AnalyticsCollector;
+import com.amazon.appanalyticshub.Event;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * <p>
+ * Collectors used by the benchmarks.
+ * </p>
+ */
+final class BenchmarkCollectors {
+
+    private BenchmarkCollectors() {
+    }
+
+    /**
+     * Creates a collector that only consumes the event, so that the benchmark measures the
+     * cost of the hub and not of the collector.
+     *
+     * @param name      of the collector.
+     * @param blackhole consuming the events.
+     * @return the collector.
+     */
+    static AnalyticsCollector consuming(@NonNull final String name, @NonNull final Blackhole blackhole) {
+        return new AnalyticsCollector() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                blackhole.consume(event);
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.benchmark;
+
+import com.amazon.appanalyticshub.AppAnalyticsHub;
+import com.amazon.appanalyticshub.Event;
+import com.amazon.appanalyticshub.EventFilter;
+import com.amazon.appanalyticshub.EventType;
+import com.amazon.appanalyticshub.FieldProjection;
+import com.amazon.appanalyticshub.Priority;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Cost of the collector filters and projections on {@link AppAnalyticsHub#recordEvent},
+ * fanning an event out to 5 collectors without filters, with a filter on every collector that
+ * keeps the event and one that drops it, and with a projection on every collector.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CollectorFilterBenchmark {
+
+    private static final int COLLECTOR_COUNT = 5;
+
+    @Param({"none", "keep", "drop", "project"})
+    public String stage;
+
+    private AppAnalyticsHub hub;
+    private Event event;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        hub = new AppAnalyticsHub();
+        for (int i = 0; i < COLLECTOR_COUNT; i++) {
+            String name = "collector" + i;
+            hub.addCollectorToEventType(EventType.ENGAGEMENT,
+                    BenchmarkCollectors.consuming(name, blackhole));
+            if (stage.equals("keep") || stage.equals("drop")) {
+                hub.setCollectorFilter(name, EventFilter.and(
+                        EventFilter.nameMatches(stage.equals("keep") ? "Playback*" : "Screen*"),
+                        EventFilter.priorityIs(Priority.NORMAL, Priority.HIGH),
+                        EventFilter.dataIs("screen", "home", "player")));
+            } else if (stage.equals("project")) {
+                hub.setCollectorProjection(name, new FieldProjection()
+                        .includeData("contentId")
+                        .includeCounters("frames"));
+            }
+        }
+        event = new Event("PlaybackStart", "Player", EventType.ENGAGEMENT.name(), Priority.NORMAL)
+                .addData("contentId", "a1b2c3")
+                .addData("screen", "player")
+                .addData("sessionId", "s1")
+                .addCounter("frames", 1)
+                .addCounter("drops", 0)
+                .addTimer("startup", 120);
+    }
+
+    @Benchmark
+    public void recordEvent() {
+        hub.recordEvent(event);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.benchmark;
+
+import com.amazon.appanalyticshub.EncodedEventView;
+import com.amazon.appanalyticshub.Event;
+import com.amazon.appanalyticshub.EventDecoder;
+import com.amazon.appanalyticshub.EventEncoder;
+import com.amazon.appanalyticshub.Priority;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Encoding and decoding an event with the binary codec compared to JSON, and reading a single
+ * counter through an {@link EncodedEventView} compared to decoding the whole event.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventCodecBenchmark {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final EventEncoder encoder = new EventEncoder();
+    private final EventDecoder decoder = new EventDecoder();
+    private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    private Event event;
+    private ByteBuffer encoded;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JSONException {
+        event = new Event("PlaybackProgress", "Player", "PLAYBACK", Priority.NORMAL)
+                .addData("contentId", "a1b2c3d4")
+                .addData("quality", "HD")
+                .addData("device", "phone")
+                .addCounter("frames", 1200)
+                .addCounter("droppedFrames", 3)
+                .addTimer("bufferTime", 153.5)
+                .addMetric("autoplay", true)
+                .addMetric("codec", "h264");
+        encoder.reset();
+        buffer.clear();
+        encoder.encode(event, buffer);
+        buffer.flip();
+        encoded = ByteBuffer.allocate(buffer.remaining());
+        encoded.put(buffer).flip();
+        json = toJson(event).toString().getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeBinary() {
+        encoder.reset();
+        buffer.clear();
+        encoder.encode(event, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Event decodeBinary() {
+        decoder.reset();
+        return decoder.decode(encoded.duplicate());
+    }
+
+    @Benchmark
+    public Double readCounterDecoded() {
+        decoder.reset();
+        return decoder.decode(encoded.duplicate()).getCounters().get("droppedFrames");
+    }
+
+    @Benchmark
+    public Double readCounterView() {
+        return new EncodedEventView(encoded).getCounter("droppedFrames");
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws JSONException {
+        return toJson(event).toString().getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public Event decodeJson() throws JSONException {
+        JSONObject object = new JSONObject(new String(json, UTF_8));
+        Event decoded = new Event(object.getString("name"), object.optString("source", null),
+                object.getString("eventType"), Priority.valueOf(object.getString("priority")));
+        JSONObject data = object.getJSONObject("data");
+        for (Iterator<String> keys = data.keys(); keys.hasNext(); ) {
+            String key = keys.next();
+            decoded.addData(key, data.getString(key));
+        }
+        JSONObject counters = object.getJSONObject("counters");
+        for (Iterator<String> keys = counters.keys(); keys.hasNext(); ) {
+            String key = keys.next();
+            decoded.addCounter(key, counters.getDouble(key));
+        }
+        JSONObject timers = object.getJSONObject("timers");
+        for (Iterator<String> keys = timers.keys(); keys.hasNext(); ) {
+            String key = keys.next();
+            decoded.addTimer(key, timers.getDouble(key));
+        }
+        JSONObject metrics = object.getJSONObject("metrics");
+        for (Iterator<String> keys = metrics.keys(); keys.hasNext(); ) {
+            String key = keys.next();
+            decoded.addMetric(key, metrics.get(key));
+        }
+        return decoded;
+    }
+
+    private static JSONObject toJson(Event event) throws JSONException {
+        return new JSONObject()
+                .put("name", event.getName())
+                .put("source", event.getSource())
+                .put("eventType", event.getEventType())
+                .put("priority", event.getPriority().name())
+                .put("data", new JSONObject(event.getData()))
+                .put("counters", new JSONObject(event.getCounters()))
+                .put("timers", new JSONObject(event.getTimers()))
+                .put("metrics", new JSONObject(event.getMetrics()));
+    }
+}
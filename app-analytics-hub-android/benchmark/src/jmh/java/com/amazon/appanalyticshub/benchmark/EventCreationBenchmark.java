@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.benchmark;
+
+import com.amazon.appanalyticshub.Event;
+import com.amazon.appanalyticshub.EventFactory;
+import com.amazon.appanalyticshub.EventType;
+import com.amazon.appanalyticshub.Priority;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Cost of creating an event through the constructor, an {@link EventFactory} and the event
+ * pool of the factory.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventCreationBenchmark {
+
+    private final EventFactory eventFactory = new EventFactory("Player", EventType.ENGAGEMENT);
+
+    @Benchmark
+    public Event constructor() {
+        return new Event("PlaybackStart", "Player", EventType.ENGAGEMENT.name(), Priority.NORMAL);
+    }
+
+    @Benchmark
+    public Event factory() {
+        return eventFactory.createEvent("PlaybackStart", Priority.NORMAL);
+    }
+
+    @Benchmark
+    public Event pooled() {
+        Event event = eventFactory.acquireEvent("PlaybackStart", Priority.NORMAL);
+        eventFactory.releaseEvent(event);
+        return event;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.benchmark;
+
+import com.amazon.appanalyticshub.Event;
+import com.amazon.appanalyticshub.EventFactory;
+import com.amazon.appanalyticshub.EventType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Throughput and allocation of the fluent counter, timer and data chains used to fill an
+ * event. Run with the gc profiler to see the bytes allocated per chain.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventMutationBenchmark {
+
+    private final EventFactory eventFactory = new EventFactory("Player", EventType.ENGAGEMENT);
+
+    @Benchmark
+    public Event counterChain() {
+        Event event = eventFactory.acquireEvent("Scroll", null);
+        event.addCounter("scrolls", 1)
+                .incrementCounter("scrolls")
+                .addCounter("items", 12)
+                .incrementCounter("items", 3)
+                .addCounter("flings", 1);
+        eventFactory.releaseEvent(event);
+        return event;
+    }
+
+    @Benchmark
+    public Event timerChain() {
+        Event event = eventFactory.acquireEvent("Render", null);
+        event.addTimer("layout", 1.25)
+                .incrementTimer("layout", 0.5)
+                .addTimer("draw", 3.75)
+                .incrementTimer("draw", 0.25);
+        eventFactory.releaseEvent(event);
+        return event;
+    }
+
+    @Benchmark
+    public Event mixedChainNewEvent() {
+        return eventFactory.createEvent("PlaybackProgress")
+                .addData("contentId", "a1b2c3")
+                .addCounter("frames", 60)
+                .incrementCounter("frames", 60)
+                .addTimer("bufferTime", 12.5);
+    }
+}
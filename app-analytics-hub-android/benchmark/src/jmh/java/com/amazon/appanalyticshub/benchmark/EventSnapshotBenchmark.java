@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.benchmark;
+
+import com.amazon.appanalyticshub.AppAnalyticsHub;
+import com.amazon.appanalyticshub.Event;
+import com.amazon.appanalyticshub.EventFactory;
+import com.amazon.appanalyticshub.EventType;
+import com.amazon.appanalyticshub.Priority;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Cost of the snapshot {@link AppAnalyticsHub#recordEvent} takes of an event, for plain and
+ * pooled events with 1 and 8 fields of every kind, against copying the data, counters, timers
+ * and metrics of the event into new maps as a defensive copy would.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventSnapshotBenchmark {
+
+    @Param({"1", "8"})
+    public int fieldCount;
+
+    private AppAnalyticsHub hub;
+    private EventFactory eventFactory;
+    private Event event;
+    private String[] fieldNames;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        hub = new AppAnalyticsHub();
+        hub.setDefaultAnalyticsCollector(BenchmarkCollectors.consuming("collector", blackhole));
+        eventFactory = new EventFactory("Player", EventType.ENGAGEMENT);
+        fieldNames = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fieldNames[i] = "field" + i;
+        }
+        event = addFields(new Event("PlaybackStart", "Player", EventType.ENGAGEMENT.name(),
+                Priority.NORMAL));
+    }
+
+    @Benchmark
+    public void recordEvent() {
+        hub.recordEvent(event);
+    }
+
+    @Benchmark
+    public void recordPooledEvent() {
+        Event pooled = addFields(eventFactory.acquireEvent("PlaybackStart", Priority.NORMAL));
+        hub.recordEvent(pooled);
+        eventFactory.releaseEvent(pooled);
+    }
+
+    @Benchmark
+    public void defensiveCopy(Blackhole blackhole) {
+        Map<String, String> data = new HashMap<>(event.getData());
+        Map<String, Double> counters = new HashMap<>(event.getCounters());
+        Map<String, Double> timers = new HashMap<>(event.getTimers());
+        Map<String, Object> metrics = new HashMap<>(event.getMetrics());
+        blackhole.consume(data);
+        blackhole.consume(counters);
+        blackhole.consume(timers);
+        blackhole.consume(metrics);
+    }
+
+    private Event addFields(Event target) {
+        for (String fieldName : fieldNames) {
+            target.addData(fieldName, "value")
+                    .addCounter(fieldName, 1)
+                    .addTimer(fieldName, 1)
+                    .addMetric(fieldName, "value");
+        }
+        return target;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.benchmark;
+
+import com.amazon.appanalyticshub.AppAnalyticsHub;
+import com.amazon.appanalyticshub.Event;
+import com.amazon.appanalyticshub.EventType;
+import com.amazon.appanalyticshub.MetricsConfig;
+import com.amazon.appanalyticshub.Priority;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Overhead of the hub metrics on {@link AppAnalyticsHub#recordEvent}, with the metrics
+ * disabled and enabled, fanning an event out to 1 and 5 collectors from one thread and from
+ * several threads sharing the hub.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HubMetricsBenchmark {
+
+    @Param({"false", "true"})
+    public boolean metricsEnabled;
+
+    @Param({"1", "5"})
+    public int collectorCount;
+
+    private AppAnalyticsHub hub;
+    private Event event;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        hub = new AppAnalyticsHub();
+        for (int i = 0; i < collectorCount; i++) {
+            hub.addCollectorToEventType(EventType.ENGAGEMENT,
+                    BenchmarkCollectors.consuming("collector" + i, blackhole));
+        }
+        if (metricsEnabled) {
+            hub.enableMetrics(new MetricsConfig());
+        }
+        event = new Event("PlaybackStart", "Player", EventType.ENGAGEMENT.name(), Priority.NORMAL)
+                .addData("contentId", "a1b2c3")
+                .addCounter("frames", 1);
+    }
+
+    @Benchmark
+    public void recordEvent() {
+        hub.recordEvent(event);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordEventFourThreads() {
+        hub.recordEvent(event);
+    }
+}
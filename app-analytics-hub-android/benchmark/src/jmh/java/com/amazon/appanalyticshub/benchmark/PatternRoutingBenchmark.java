@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.benchmark;
+
+import com.amazon.appanalyticshub.AppAnalyticsHub;
+import com.amazon.appanalyticshub.Event;
+import com.amazon.appanalyticshub.Priority;
+import com.amazon.appanalyticshub.RoutingSpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Cost of {@link AppAnalyticsHub#recordEvent} for an event type routed by an exact route and
+ * for one routed by wildcard patterns, whose route is memoized after the first lookup.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PatternRoutingBenchmark {
+
+    private static final int PATTERN_COUNT = 50;
+
+    private AppAnalyticsHub hub;
+    private Event exactEvent;
+    private Event patternEvent;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        hub = new AppAnalyticsHub();
+        RoutingSpec spec = new RoutingSpec()
+                .addCollector(BenchmarkCollectors.consuming("playback", blackhole))
+                .addCollector(BenchmarkCollectors.consuming("errors", blackhole))
+                .addRoute("PLAYBACK_START", "playback")
+                .addRoute("PLAYBACK_*", "playback")
+                .addRoute("*_ERROR", "errors");
+        for (int i = 0; i < PATTERN_COUNT; i++) {
+            spec.addRoute("FEATURE_" + i + "_*", "playback");
+        }
+        hub.setRouting(spec);
+        exactEvent = new Event("Start", "Player", "PLAYBACK_START", Priority.NORMAL);
+        patternEvent = new Event("Error", "Player", "PLAYBACK_ERROR", Priority.NORMAL);
+    }
+
+    @Benchmark
+    public void recordExactRoute() {
+        hub.recordEvent(exactEvent);
+    }
+
+    @Benchmark
+    public void recordPatternRoute() {
+        hub.recordEvent(patternEvent);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.benchmark;
+
+import com.amazon.appanalyticshub.AnalyticsCollector;
+import com.amazon.appanalyticshub.AppAnalyticsHub;
+import com.amazon.appanalyticshub.RoutingSpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Startup cost of wiring 100 and 500 event types to 3 of 20 collectors each, one
+ * {@link AppAnalyticsHub#addRegisteredCollectorToEventType} call per route against a single
+ * {@link AppAnalyticsHub#setRouting} call.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoutingStartupBenchmark {
+
+    private static final int COLLECTOR_COUNT = 20;
+    private static final int COLLECTORS_PER_ROUTE = 3;
+
+    @Param({"100", "500"})
+    public int routeCount;
+
+    private AnalyticsCollector[] collectors;
+    private String[] eventTypes;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        collectors = new AnalyticsCollector[COLLECTOR_COUNT];
+        for (int i = 0; i < COLLECTOR_COUNT; i++) {
+            collectors[i] = BenchmarkCollectors.consuming("collector" + i, blackhole);
+        }
+        eventTypes = new String[routeCount];
+        for (int i = 0; i < routeCount; i++) {
+            eventTypes[i] = "EVENT_TYPE_" + i;
+        }
+    }
+
+    @Benchmark
+    public AppAnalyticsHub routeOneByOne() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        for (AnalyticsCollector collector : collectors) {
+            hub.registerCollector(collector);
+        }
+        for (int i = 0; i < routeCount; i++) {
+            for (int j = 0; j < COLLECTORS_PER_ROUTE; j++) {
+                hub.addRegisteredCollectorToEventType(eventTypes[i], collectorName(i, j));
+            }
+        }
+        hub.setDefaultAnalyticsCollector(collectors[0]);
+        return hub;
+    }
+
+    @Benchmark
+    public AppAnalyticsHub routeWithSpec() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        RoutingSpec spec = new RoutingSpec();
+        for (AnalyticsCollector collector : collectors) {
+            spec.addCollector(collector);
+        }
+        for (int i = 0; i < routeCount; i++) {
+            spec.addRoute(eventTypes[i], collectorName(i, 0), collectorName(i, 1), collectorName(i, 2));
+        }
+        hub.setRouting(spec.setDefaultCollector(collectors[0].getName()));
+        return hub;
+    }
+
+    private String collectorName(int route, int index) {
+        return collectors[(route + index * 7) % COLLECTOR_COUNT].getName();
+    }
+}
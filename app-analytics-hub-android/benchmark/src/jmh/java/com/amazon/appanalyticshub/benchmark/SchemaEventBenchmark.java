@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.benchmark;
+
+import com.amazon.appanalyticshub.AppAnalyticsHub;
+import com.amazon.appanalyticshub.Event;
+import com.amazon.appanalyticshub.EventFactory;
+import com.amazon.appanalyticshub.EventSchema;
+import com.amazon.appanalyticshub.EventType;
+import com.amazon.appanalyticshub.SchemaEvent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Cost of filling a well-known event by field name in string-keyed maps compared with filling
+ * an event created from its {@link EventSchema} by slot. Run with the gc profiler to compare
+ * the bytes allocated per event.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SchemaEventBenchmark {
+
+    private final EventFactory eventFactory = new EventFactory("Player", EventType.ENGAGEMENT);
+    private final EventSchema schema = new EventSchema("PlaybackProgress", EventType.ENGAGEMENT)
+            .setSource("Player")
+            .addData("contentId")
+            .addData("quality")
+            .addCounter("frames")
+            .addCounter("stalls")
+            .addTimer("bufferTime")
+            .addMetric("autoplay");
+    private final int contentId;
+    private final int quality;
+    private final int frames;
+    private final int stalls;
+    private final int bufferTime;
+    private final int autoplay;
+
+    public SchemaEventBenchmark() {
+        new AppAnalyticsHub().registerSchema(schema);
+        contentId = schema.getDataSlot("contentId");
+        quality = schema.getDataSlot("quality");
+        frames = schema.getCounterSlot("frames");
+        stalls = schema.getCounterSlot("stalls");
+        bufferTime = schema.getTimerSlot("bufferTime");
+        autoplay = schema.getMetricSlot("autoplay");
+    }
+
+    @Benchmark
+    public Event byName() {
+        return eventFactory.createEvent("PlaybackProgress")
+                .addData("contentId", "a1b2c3")
+                .addData("quality", "hd")
+                .addCounter("frames", 60)
+                .incrementCounter("frames", 60)
+                .addCounter("stalls", 1)
+                .addTimer("bufferTime", 12.5)
+                .addMetric("autoplay", true);
+    }
+
+    @Benchmark
+    public SchemaEvent bySlot() {
+        return schema.createEvent()
+                .addData(contentId, "a1b2c3")
+                .addData(quality, "hd")
+                .addCounter(frames, 60)
+                .incrementCounter(frames, 60)
+                .addCounter(stalls, 1)
+                .addTimer(bufferTime, 12.5)
+                .addMetric(autoplay, true);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.benchmark;
+
+import androidx.annotation.NonNull;
+
+import com.amazon.appanalyticshub.AnalyticsCollector;
+import com.amazon.appanalyticshub.AppAnalyticsHub;
+import com.amazon.appanalyticshub.AsyncDispatchConfig;
+import com.amazon.appanalyticshub.Event;
+import com.amazon.appanalyticshub.EventType;
+import com.amazon.appanalyticshub.OverflowPolicy;
+import com.amazon.appanalyticshub.Priority;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Time the recording thread is held by {@link AppAnalyticsHub#recordEvent} when the collector
+ * is slow, with the collector called inline and with asynchronous dispatch handing the event
+ * to the dispatcher thread, the way the React Native module hands the events of the bridge to
+ * its recording worker.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SlowCollectorBenchmark {
+
+    /**
+     * Work done by the collector for every event, in {@link Blackhole#consumeCPU} tokens.
+     */
+    private static final long COLLECTOR_TOKENS = 10000;
+
+    @Param({"false", "true"})
+    public boolean asyncDispatch;
+
+    private AppAnalyticsHub hub;
+    private Event event;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        hub = new AppAnalyticsHub();
+        hub.addCollectorToEventType(EventType.OPERATIONAL, new AnalyticsCollector() {
+            @Override
+            public String getName() {
+                return "slow";
+            }
+
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                Blackhole.consumeCPU(COLLECTOR_TOKENS);
+                blackhole.consume(event);
+            }
+        });
+        if (asyncDispatch) {
+            hub.startAsyncDispatch(new AsyncDispatchConfig()
+                    .setOverflowPolicy(OverflowPolicy.DROP_OLDEST));
+        }
+        event = new Event("Tap", "Bridge", EventType.OPERATIONAL.name(), Priority.NORMAL)
+                .addData("screen", "home");
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (asyncDispatch) {
+            hub.stopAsyncDispatch(1000);
+        }
+    }
+
+    @Benchmark
+    public void recordEvent() {
+        hub.recordEvent(event);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.benchmark;
+
+import com.amazon.appanalyticshub.Event;
+import com.amazon.appanalyticshub.EventType;
+import com.amazon.appanalyticshub.TimerHistogram;
+import com.amazon.appanalyticshub.TimerMetric;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Cost of timing a section with a {@link TimerMetric} and recording it in its parent event,
+ * with and without a {@link TimerHistogram}.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TimerMetricBenchmark {
+
+    private final Event event = new Event("Render", "Feed", EventType.OPERATIONAL.name());
+    private final TimerMetric timerMetric = new TimerMetric("draw", event);
+    private final TimerMetric histogramTimerMetric = new TimerMetric("draw", event)
+            .setHistogram(new TimerHistogram());
+
+    @Benchmark
+    public TimerMetric startStop() {
+        timerMetric.startTimer();
+        timerMetric.stopTimer();
+        return timerMetric;
+    }
+
+    @Benchmark
+    public TimerMetric startStopWithHistogram() {
+        histogramTimerMetric.startTimer();
+        histogramTimerMetric.stopTimer();
+        return histogramTimerMetric;
+    }
+
+    @Benchmark
+    public Event startRecord() {
+        TimerMetric timer = new TimerMetric("layout", event);
+        timer.startTimer();
+        timer.recordTimer();
+        return event;
+    }
+}
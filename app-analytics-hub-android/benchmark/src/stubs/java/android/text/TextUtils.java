@@ -0,0 +1,20 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package android.text;
+
+/**
+ * <p>
+ * JVM stand-in for the Android text utilities used by the library.
+ * </p>
+ */
+public final class TextUtils {
+
+    private TextUtils() {
+    }
+
+    public static boolean isEmpty(CharSequence str) {
+        return str == null || str.length() == 0;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * Configuration of the aggregation of an event type. Events with the same name, source and
+ * values of the key data are rolled up over a tumbling window into one event carrying the sum
+ * of their counters and timers.
+ * </p>
+ */
+public class AggregationConfig {
+
+    /**
+     * Name of the counter holding the number of events rolled up in an aggregated event.
+     */
+    public static final String AGGREGATED_EVENT_COUNT = "aggregatedEventCount";
+
+    /**
+     * Default length of the window.
+     */
+    public static final long DEFAULT_WINDOW_MILLIS = 60 * 1000;
+
+    /**
+     * Default maximum number of distinct keys aggregated at the same time.
+     */
+    public static final int DEFAULT_MAX_KEYS = 1000;
+
+    private long windowMillis;
+    private List<String> keyDataNames;
+    private int maxKeys;
+    private int stripes;
+
+    public AggregationConfig() {
+        windowMillis = DEFAULT_WINDOW_MILLIS;
+        keyDataNames = Collections.emptyList();
+        maxKeys = DEFAULT_MAX_KEYS;
+        stripes = defaultStripes();
+    }
+
+    /**
+     * Sets the length of the window after which the aggregated events are emitted.
+     *
+     * @param windowMillis time in milliseconds, has to be positive.
+     * @return the current config.
+     */
+    public AggregationConfig setWindowMillis(long windowMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Window has to be positive.");
+        }
+        this.windowMillis = windowMillis;
+        return this;
+    }
+
+    /**
+     * Sets the names of the data whose values are part of the aggregation key, next to the
+     * name and source of the events. The other data and the metrics are not aggregated.
+     *
+     * @param keyDataNames names of the data.
+     * @return the current config.
+     */
+    public AggregationConfig setKeyDataNames(@NonNull String... keyDataNames) {
+        this.keyDataNames = Collections.unmodifiableList(Arrays.asList(keyDataNames.clone()));
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of distinct keys aggregated at the same time. Events with a new
+     * key beyond it are recorded without aggregation.
+     *
+     * @param maxKeys number of keys, has to be positive.
+     * @return the current config.
+     */
+    public AggregationConfig setMaxKeys(int maxKeys) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("Max keys has to be positive.");
+        }
+        this.maxKeys = maxKeys;
+        return this;
+    }
+
+    /**
+     * Sets the number of stripes of every accumulator, the more threads record the same key
+     * concurrently the more stripes avoid contention. Defaults to the number of processors,
+     * up to 8.
+     *
+     * @param stripes number of stripes, has to be a power of two.
+     * @return the current config.
+     */
+    public AggregationConfig setStripes(int stripes) {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripes have to be a positive power of two.");
+        }
+        this.stripes = stripes;
+        return this;
+    }
+
+    /**
+     * Gets the length of the window.
+     *
+     * @return the time in milliseconds.
+     */
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Gets the names of the data whose values are part of the aggregation key.
+     *
+     * @return read-only list of names.
+     */
+    @NonNull
+    public List<String> getKeyDataNames() {
+        return keyDataNames;
+    }
+
+    /**
+     * Gets the maximum number of distinct keys aggregated at the same time.
+     *
+     * @return the number of keys.
+     */
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    /**
+     * Gets the number of stripes of every accumulator.
+     *
+     * @return the number of stripes.
+     */
+    public int getStripes() {
+        return stripes;
+    }
+
+    private static int defaultStripes() {
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        return Integer.highestOneBit(Math.max(processors, 1));
+    }
+}
@@ -8,29 +8,588 @@ package com.amazon.appanalyticshub;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>
  * AppAnalyticsHub is used to register different analytics collectors, registering analytics
  * collectors to different event type and records an event to different collectors.
  * </p>
+ * <p>
+ * The hub is thread safe. Recording an event does not take any lock, changes to the routing
+ * are serialized and published atomically as a new {@link RoutingTable}. The collector name
+ * sets of the event types are never modified in place, they are copied on write.
+ * </p>
  */
 public class AppAnalyticsHub implements AnalyticsHub {
 
-    private Map<String, Set<String>> eventTypeToCollectorMap;
-    private Map<String, AnalyticsCollector> registeredCollectors;
-    private AnalyticsCollector defaultAnalyticsCollector;
+    private final Map<String, Set<String>> eventTypeToCollectorMap;
+    private final Map<String, AnalyticsCollector> registeredCollectors;
+    private final Map<String, EventBatcher> batchers;
+    private final Map<String, IsolatedCollector> isolators;
+    private final Map<String, SamplingPolicy> collectorSamplingPolicies;
+    private final Map<String, EventFilter> collectorFilters;
+    private final Map<String, FieldProjection> collectorProjections;
+    private final Object routingLock;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService deliveryExecutor;
+    private ScheduledFuture<?> journalSyncTask;
+    private ScheduledFuture<?> metricsEmitTask;
+    private volatile EventJournal journal;
+    private volatile AnalyticsCollector defaultAnalyticsCollector;
+    private volatile RoutingTable routingTable;
+    private volatile AsyncEventDispatcher asyncDispatcher;
+    private volatile MetricsRecorder metrics;
+    private volatile Map<String, EventAggregator> aggregators;
+    private volatile Map<String, EventCoalescer> coalescers;
+    private volatile Map<String, SamplingPolicy> samplingPolicies;
+    private volatile Map<String, EventSchema> schemas;
 
     public AppAnalyticsHub() {
-        eventTypeToCollectorMap = new HashMap<>();
-        registeredCollectors = new HashMap<>();
+        eventTypeToCollectorMap = new ConcurrentHashMap<>();
+        registeredCollectors = new ConcurrentHashMap<>();
+        batchers = new HashMap<>();
+        isolators = new HashMap<>();
+        collectorSamplingPolicies = new HashMap<>();
+        collectorFilters = new HashMap<>();
+        collectorProjections = new HashMap<>();
+        routingLock = new Object();
+        routingTable = RoutingTable.empty();
+        aggregators = Collections.emptyMap();
+        coalescers = Collections.emptyMap();
+        samplingPolicies = Collections.emptyMap();
+        schemas = Collections.emptyMap();
+    }
+
+    /**
+     * Registers the schema of a well-known event, validating it once and freezing it. Events
+     * created from the schema store their fields by slot instead of by name.
+     *
+     * @param schema of the events.
+     * @throws IllegalArgumentException if the schema is invalid or another schema is already
+     *                                  registered for the same event name.
+     */
+    public void registerSchema(@NonNull EventSchema schema) {
+        synchronized (routingLock) {
+            EventSchema existing = schemas.get(schema.getName());
+            if (existing == schema) {
+                return;
+            }
+            if (existing != null) {
+                throw new IllegalArgumentException("A schema is already registered for "
+                        + schema.getName() + ".");
+            }
+            schema.register();
+            Map<String, EventSchema> updated = new HashMap<>(schemas);
+            updated.put(schema.getName(), schema);
+            schemas = updated;
+        }
+    }
+
+    /**
+     * Gets the schema registered for an event name.
+     *
+     * @param eventName name of the events.
+     * @return the schema or null if none is registered.
+     */
+    @Nullable
+    public EventSchema getSchema(@NonNull String eventName) {
+        return schemas.get(eventName);
+    }
+
+    /**
+     * Sets the sampling policy of an event type. Events of the type the policy does not keep
+     * are dropped before anything else is done with them, the others have the rate they were
+     * kept at multiplied into their sample rate.
+     *
+     * @param eventType type of the events to sample.
+     * @param policy    to apply, null to keep every event.
+     */
+    public void setSamplingPolicy(@NonNull String eventType, @Nullable SamplingPolicy policy) {
+        synchronized (routingLock) {
+            Map<String, SamplingPolicy> updated = new HashMap<>(samplingPolicies);
+            if (policy != null) {
+                updated.put(eventType, policy);
+            } else {
+                updated.remove(eventType);
+            }
+            samplingPolicies = updated;
+        }
+    }
+
+    /**
+     * Sets the sampling policy of a collector. The events routed to the collector that the
+     * policy does not keep are not delivered to it, the other collectors are not affected.
+     *
+     * @param collectorName name of the collector.
+     * @param policy        to apply, null to deliver every event.
+     */
+    public void setCollectorSamplingPolicy(@NonNull String collectorName, @Nullable SamplingPolicy policy) {
+        synchronized (routingLock) {
+            if (policy != null) {
+                collectorSamplingPolicies.put(collectorName, policy);
+            } else {
+                collectorSamplingPolicies.remove(collectorName);
+            }
+            rebuildRoutingTable();
+        }
+    }
+
+    /**
+     * Sets the filter of a collector. The events routed to the collector that the filter does
+     * not keep are not delivered to it, the other collectors are not affected. The filter is
+     * compiled once here, not on every event.
+     *
+     * @param collectorName name of the collector.
+     * @param filter        to apply, null to deliver every event.
+     */
+    public void setCollectorFilter(@NonNull String collectorName, @Nullable EventFilter filter) {
+        synchronized (routingLock) {
+            if (filter != null) {
+                collectorFilters.put(collectorName, filter.compile());
+            } else {
+                collectorFilters.remove(collectorName);
+            }
+            rebuildRoutingTable();
+        }
+    }
+
+    /**
+     * Sets the projection of a collector. The collector receives copies of the events routed
+     * to it holding only the fields of the projection, the other collectors are not affected.
+     *
+     * @param collectorName name of the collector.
+     * @param projection    to apply, null to deliver every field.
+     */
+    public void setCollectorProjection(@NonNull String collectorName,
+                                       @Nullable FieldProjection projection) {
+        synchronized (routingLock) {
+            if (projection != null && !projection.isIdentity()) {
+                collectorProjections.put(collectorName, projection.copy());
+            } else {
+                collectorProjections.remove(collectorName);
+            }
+            rebuildRoutingTable();
+        }
+    }
+
+    /**
+     * Enables the aggregation of the events of the given type. Instead of being recorded one
+     * by one, the events are rolled up by name, source and values of the key data of the
+     * config, and one event per key with the sums of their counters and timers is recorded
+     * every window.
+     *
+     * @param eventType type of the events to aggregate.
+     * @param config    of the aggregation.
+     */
+    public void enableAggregation(@NonNull String eventType, @NonNull AggregationConfig config) {
+        EventAggregator previous;
+        synchronized (routingLock) {
+            Map<String, EventAggregator> updated = new HashMap<>(aggregators);
+            previous = updated.put(eventType, new EventAggregator(config, new EventSink() {
+                @Override
+                public void deliverEvent(@NonNull Event event) {
+                    dispatchEvent(event);
+                }
+            }, getScheduler(), getDeliveryExecutor()));
+            aggregators = updated;
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Disables the aggregation of the events of the given type, recording the events
+     * aggregated so far.
+     *
+     * @param eventType type of the aggregated events.
+     */
+    public void disableAggregation(@NonNull String eventType) {
+        EventAggregator aggregator;
+        synchronized (routingLock) {
+            Map<String, EventAggregator> updated = new HashMap<>(aggregators);
+            aggregator = updated.remove(eventType);
+            aggregators = updated;
+        }
+        if (aggregator != null) {
+            aggregator.close();
+        } else {
+            Log.w(Constants.TAG, "Trying to disable aggregation for " + eventType +
+                    " without enabling it.");
+        }
+    }
+
+    /**
+     * Enables the coalescing of the events of the given type. Duplicates of an event, with the
+     * same name, source, priority and data, recorded within the window of the config are merged
+     * into one event carrying the sums of their counters, which is recorded once the window
+     * elapsed.
+     *
+     * @param eventType type of the events to coalesce.
+     * @param config    of the coalescing.
+     */
+    public void enableCoalescing(@NonNull String eventType, @NonNull CoalescingConfig config) {
+        EventCoalescer previous;
+        synchronized (routingLock) {
+            Map<String, EventCoalescer> updated = new HashMap<>(coalescers);
+            previous = updated.put(eventType, new EventCoalescer(config, new EventSink() {
+                @Override
+                public void deliverEvent(@NonNull Event event) {
+                    dispatchEvent(event);
+                }
+            }, getScheduler(), getDeliveryExecutor()));
+            coalescers = updated;
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Disables the coalescing of the events of the given type, recording the events held so
+     * far.
+     *
+     * @param eventType type of the coalesced events.
+     */
+    public void disableCoalescing(@NonNull String eventType) {
+        EventCoalescer coalescer;
+        synchronized (routingLock) {
+            Map<String, EventCoalescer> updated = new HashMap<>(coalescers);
+            coalescer = updated.remove(eventType);
+            coalescers = updated;
+        }
+        if (coalescer != null) {
+            coalescer.close();
+        } else {
+            Log.w(Constants.TAG, "Trying to disable coalescing for " + eventType +
+                    " without enabling it.");
+        }
+    }
+
+    /**
+     * Enables batching for the given collector, registering it if it is not registered. The
+     * events routed to the collector are accumulated and handed over through
+     * {@link BatchAnalyticsCollector#recordEvents} whenever one of the limits of the config is
+     * reached.
+     *
+     * @param collector collector to batch the events for.
+     * @param config    limits of the batches.
+     */
+    public void enableBatching(@NonNull BatchAnalyticsCollector collector, @NonNull BatchConfig config) {
+        EventBatcher previous;
+        synchronized (routingLock) {
+            if (registeredCollectors.get(collector.getName()) == null) {
+                registeredCollectors.put(collector.getName(), collector);
+            }
+            previous = batchers.put(collector.getName(),
+                    new EventBatcher(collector, config, getScheduler(), getDeliveryExecutor()));
+            rebuildRoutingTable();
+        }
+        if (previous != null) {
+            previous.flush();
+        }
+    }
+
+    /**
+     * Disables batching for the collector with the given name, handing over the events
+     * accumulated so far.
+     *
+     * @param collectorName name of the collector.
+     */
+    public void disableBatching(@NonNull String collectorName) {
+        EventBatcher batcher;
+        synchronized (routingLock) {
+            batcher = batchers.remove(collectorName);
+            if (batcher != null) {
+                rebuildRoutingTable();
+            }
+        }
+        if (batcher != null) {
+            batcher.flush();
+        } else {
+            Log.w(Constants.TAG, "Trying to disable batching for " + collectorName +
+                    " without enabling it.");
+        }
+    }
+
+    /**
+     * Isolates the given collector, registering it if it is not registered. The events and
+     * batches routed to the collector are delivered on a dedicated thread through a bounded
+     * queue, with a circuit breaker that drops them while the collector keeps failing, is stuck
+     * or falls behind.
+     *
+     * @param collector collector to isolate.
+     * @param config    of the isolation.
+     */
+    public void enableIsolation(@NonNull AnalyticsCollector collector, @NonNull IsolationConfig config) {
+        IsolatedCollector previous;
+        synchronized (routingLock) {
+            if (registeredCollectors.get(collector.getName()) == null) {
+                registeredCollectors.put(collector.getName(), collector);
+            }
+            previous = isolators.put(collector.getName(), new IsolatedCollector(collector, config));
+            rebuildRoutingTable();
+        }
+        if (previous != null) {
+            previous.shutdown(config.getTimeoutMillis());
+        }
+    }
+
+    /**
+     * Stops isolating the collector with the given name, the collector is called on the
+     * recording thread again once the events already queued for it are delivered.
+     *
+     * @param collectorName name of the collector.
+     * @param timeoutMillis maximum time to wait for the queued events to be delivered.
+     */
+    public void disableIsolation(@NonNull String collectorName, long timeoutMillis) {
+        IsolatedCollector isolator;
+        synchronized (routingLock) {
+            isolator = isolators.remove(collectorName);
+            if (isolator != null) {
+                rebuildRoutingTable();
+            }
+        }
+        if (isolator != null) {
+            isolator.shutdown(timeoutMillis);
+        } else {
+            Log.w(Constants.TAG, "Trying to disable isolation for " + collectorName +
+                    " without enabling it.");
+        }
+    }
+
+    /**
+     * Gets the delivery counters of an isolated collector.
+     *
+     * @param collectorName name of the collector.
+     * @return the collector stats or null if the collector is not isolated.
+     */
+    @Nullable
+    public CollectorStats getCollectorStats(@NonNull String collectorName) {
+        IsolatedCollector isolator;
+        synchronized (routingLock) {
+            isolator = isolators.get(collectorName);
+        }
+        return isolator != null ? isolator.getStats() : null;
+    }
+
+    /**
+     * Enables the on-device journal. Every recorded event is appended to the journal before
+     * being delivered and each collector keeps a checkpoint before the oldest event it has not
+     * received yet, so that events lost when the process dies are replayed to the collectors
+     * the next time the journal is enabled. Enable the journal after linking the collectors, the replay runs in
+     * the background and only reaches the collectors that are linked at that time.
+     *
+     * @param config of the journal.
+     * @return true if the journal was enabled.
+     */
+    public boolean enableJournal(@NonNull JournalConfig config) {
+        synchronized (routingLock) {
+            if (journal != null) {
+                Log.w(Constants.TAG, "The journal has already been enabled.");
+                return false;
+            }
+            try {
+                journal = EventJournal.open(config, getDeliveryExecutor());
+            } catch (IOException e) {
+                Log.e(Constants.TAG, "Could not open the journal in " + config.getDirectory(), e);
+                return false;
+            }
+            final EventJournal openedJournal = journal;
+            rebuildRoutingTable();
+            getDeliveryExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    openedJournal.replay(new EventSink() {
+                        @Override
+                        public void deliverEvent(@NonNull Event event) {
+                            replayToCollectors(openedJournal, event);
+                        }
+                    });
+                }
+            });
+            journalSyncTask = getScheduler().scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    openedJournal.sync();
+                }
+            }, config.getSyncIntervalMillis(), config.getSyncIntervalMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        }
+    }
+
+    /**
+     * Disables the on-device journal, saving the checkpoints of the collectors.
+     */
+    public void disableJournal() {
+        EventJournal closedJournal;
+        synchronized (routingLock) {
+            closedJournal = journal;
+            if (closedJournal == null) {
+                Log.w(Constants.TAG, "Trying to disable the journal without enabling it.");
+                return;
+            }
+            journal = null;
+            journalSyncTask.cancel(false);
+            journalSyncTask = null;
+            rebuildRoutingTable();
+        }
+        closedJournal.close();
+    }
+
+    /**
+     * Records the events coalesced and aggregated so far and hands the events accumulated in
+     * every batch over to the collectors, for example when the application goes to the
+     * background.
+     */
+    public void flush() {
+        for (EventCoalescer coalescer : coalescers.values()) {
+            coalescer.flush();
+        }
+        for (EventAggregator aggregator : aggregators.values()) {
+            aggregator.flush();
+        }
+        List<EventBatcher> toFlush;
+        synchronized (routingLock) {
+            toFlush = new ArrayList<>(batchers.values());
+        }
+        for (EventBatcher batcher : toFlush) {
+            batcher.flush();
+        }
+    }
+
+    /**
+     * Switches the hub to asynchronous dispatch. Recorded events are queued in a bounded buffer
+     * and delivered to the collectors on a dedicated thread, so that slow collectors do not
+     * stall the recording thread. When the buffer is full the configured {@link OverflowPolicy}
+     * is applied, {@link Priority#CRITICAL} events are never dropped.
+     *
+     * @param config of the asynchronous dispatcher.
+     */
+    public void startAsyncDispatch(@NonNull AsyncDispatchConfig config) {
+        synchronized (routingLock) {
+            if (asyncDispatcher != null) {
+                Log.w(Constants.TAG, "Asynchronous dispatch has already been started.");
+                return;
+            }
+            AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(config, new EventSink() {
+                @Override
+                public void deliverEvent(@NonNull Event event) {
+                    try {
+                        deliverToCollectors(event);
+                    } finally {
+                        dispatched(event);
+                    }
+                }
+            }, new EventSink() {
+                @Override
+                public void deliverEvent(@NonNull Event event) {
+                    dispatched(event);
+                }
+            });
+            dispatcher.start();
+            asyncDispatcher = dispatcher;
+        }
+    }
+
+    /**
+     * Switches the hub back to synchronous dispatch, delivering the events still queued before
+     * returning.
+     *
+     * @param timeoutMillis maximum time to wait for the queued events to be delivered.
+     */
+    public void stopAsyncDispatch(long timeoutMillis) {
+        AsyncEventDispatcher dispatcher;
+        synchronized (routingLock) {
+            dispatcher = asyncDispatcher;
+            if (dispatcher == null) {
+                Log.w(Constants.TAG, "Trying to stop asynchronous dispatch without starting it.");
+                return;
+            }
+            asyncDispatcher = null;
+        }
+        // Stopped outside of the lock, the collectors it still delivers to may change the
+        // routing.
+        dispatcher.stop(timeoutMillis);
+    }
+
+    /**
+     * Gets the counters of the asynchronous dispatcher.
+     *
+     * @return the dispatch stats or null if the hub dispatches synchronously.
+     */
+    @Nullable
+    public DispatchStats getDispatchStats() {
+        AsyncEventDispatcher dispatcher = asyncDispatcher;
+        return dispatcher != null ? dispatcher.getStats() : null;
+    }
+
+    /**
+     * Enables the metrics the hub keeps about itself: the events recorded, dropped and handed
+     * to collectors per event type, and the time spent in every collector. If the config has
+     * an emit interval, the metrics of every interval are also recorded as an
+     * {@link EventType#OPERATIONAL} event named {@link MetricsConfig#METRICS_EVENT_NAME}.
+     * Enabling the metrics again starts over.
+     *
+     * @param config of the metrics.
+     */
+    public void enableMetrics(@NonNull MetricsConfig config) {
+        synchronized (routingLock) {
+            cancelMetricsEmission();
+            final MetricsRecorder recorder = new MetricsRecorder(config);
+            metrics = recorder;
+            if (config.getEmitIntervalMillis() > 0) {
+                metricsEmitTask = getScheduler().scheduleAtFixedRate(new OffloadedTask(getDeliveryExecutor(),
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                recordEvent(MetricsRecorder.toEvent(recorder.snapshot(true)));
+                            }
+                        }), config.getEmitIntervalMillis(), config.getEmitIntervalMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Disables the metrics the hub keeps about itself.
+     */
+    public void disableMetrics() {
+        synchronized (routingLock) {
+            if (metrics == null) {
+                Log.w(Constants.TAG, "Trying to disable the metrics without enabling them.");
+                return;
+            }
+            cancelMetricsEmission();
+            metrics = null;
+        }
+    }
+
+    /**
+     * Gets the metrics the hub keeps about itself, since they were enabled or, if they are
+     * emitted, since they were last emitted.
+     *
+     * @return the hub metrics or null if the metrics are not enabled.
+     */
+    @Nullable
+    public HubMetrics getMetrics() {
+        MetricsRecorder recorder = metrics;
+        return recorder != null ? recorder.snapshot(false) : null;
     }
 
     /**
@@ -38,7 +597,10 @@ public class AppAnalyticsHub implements AnalyticsHub {
      */
     @Override
     public void setDefaultAnalyticsCollector(AnalyticsCollector defaultAnalyticsCollector) {
-        this.defaultAnalyticsCollector = defaultAnalyticsCollector;
+        synchronized (routingLock) {
+            this.defaultAnalyticsCollector = defaultAnalyticsCollector;
+            rebuildRoutingTable();
+        }
     }
 
     /**
@@ -47,13 +609,21 @@ public class AppAnalyticsHub implements AnalyticsHub {
     @Override
     public void removeCollectorFromEventType(@NonNull String eventType,
                                              @NonNull AnalyticsCollector collector) {
-        Set<String> collectors = eventTypeToCollectorMap.get(eventType);
-        if (collectors != null) {
-            collectors.remove(collector.getName());
-            eventTypeToCollectorMap.put(eventType, collectors);
-        } else {
-            Log.w(Constants.TAG, "Trying to remove collector from without registering any " +
-                    "collectors");
+        synchronized (routingLock) {
+            Set<String> collectors = eventTypeToCollectorMap.get(eventType);
+            if (collectors != null) {
+                collectors = new HashSet<>(collectors);
+                collectors.remove(collector.getName());
+                if (collectors.isEmpty()) {
+                    eventTypeToCollectorMap.remove(eventType);
+                } else {
+                    eventTypeToCollectorMap.put(eventType, collectors);
+                }
+                rebuildRoutingTable();
+            } else {
+                Log.w(Constants.TAG, "Trying to remove collector from without registering any " +
+                        "collectors");
+            }
         }
     }
 
@@ -80,11 +650,13 @@ public class AppAnalyticsHub implements AnalyticsHub {
      */
     @Override
     public List<AnalyticsCollector> getCollectors(@NonNull String eventType) {
-        Set<String> collectorNames = eventTypeToCollectorMap.get(eventType);
+        // Resolved by the routing table, so that the event types matching a pattern route
+        // list the collectors of the pattern like their events are delivered to them.
         List<AnalyticsCollector> collectors = new ArrayList<>();
-        if (collectorNames != null) {
-            for (String collectorName : collectorNames) {
-                collectors.add(registeredCollectors.get(collectorName));
+        for (String collectorName : routingTable.getCollectorNames(eventType)) {
+            AnalyticsCollector collector = registeredCollectors.get(collectorName);
+            if (collector != null) {
+                collectors.add(collector);
             }
         }
         return collectors;
@@ -104,7 +676,46 @@ public class AppAnalyticsHub implements AnalyticsHub {
      */
     @Override
     public void registerCollector(@NonNull AnalyticsCollector collector) {
-        registeredCollectors.put(collector.getName(), collector);
+        synchronized (routingLock) {
+            registeredCollectors.put(collector.getName(), collector);
+            rebuildRoutingTable();
+        }
+    }
+
+    /**
+     * Replaces the routing of the hub with the given spec in one step: registers the
+     * collectors of the spec, replaces the routes of every event type and the default
+     * collector, and builds the routing table once. Collectors already registered stay
+     * registered and can be used by the routes of the spec. The spec is validated first, an
+     * invalid spec leaves the routing unchanged.
+     *
+     * @param spec of the routing.
+     * @throws IllegalArgumentException if a route or the default collector names a collector
+     *                                  neither in the spec nor registered.
+     */
+    public void setRouting(@NonNull RoutingSpec spec) {
+        Map<String, AnalyticsCollector> specCollectors = spec.getCollectors();
+        Map<String, Set<String>> specRoutes = spec.getRoutes();
+        synchronized (routingLock) {
+            for (Map.Entry<String, Set<String>> route : specRoutes.entrySet()) {
+                for (String collectorName : route.getValue()) {
+                    checkRoutable(collectorName, specCollectors, route.getKey());
+                }
+            }
+            String defaultName = spec.getDefaultCollector();
+            if (defaultName != null) {
+                checkRoutable(defaultName, specCollectors, "default");
+            }
+            registeredCollectors.putAll(specCollectors);
+            eventTypeToCollectorMap.clear();
+            for (Map.Entry<String, Set<String>> route : specRoutes.entrySet()) {
+                if (!route.getValue().isEmpty()) {
+                    eventTypeToCollectorMap.put(route.getKey(), new HashSet<>(route.getValue()));
+                }
+            }
+            defaultAnalyticsCollector = defaultName != null ? registeredCollectors.get(defaultName) : null;
+            rebuildRoutingTable();
+        }
     }
 
     /**
@@ -112,20 +723,232 @@ public class AppAnalyticsHub implements AnalyticsHub {
      */
     @Override
     public void recordEvent(@NonNull Event event) {
-        String eventType = event.getEventType();
-        List<AnalyticsCollector> collectors = getCollectors(eventType);
-        boolean isRecordedInDefault = false;
+        MetricsRecorder recorder = metrics;
+        if (recorder != null) {
+            recorder.eventRecorded(event.getEventType());
+        }
+        double sampleRate = event.getSampleRate();
+        Map<String, SamplingPolicy> policies = samplingPolicies;
+        if (!policies.isEmpty()) {
+            SamplingPolicy policy = policies.get(event.getEventType());
+            if (policy != null) {
+                double rate = policy.apply(event);
+                if (rate <= 0) {
+                    if (recorder != null) {
+                        recorder.eventDropped(event.getEventType());
+                    }
+                    return;
+                }
+                sampleRate *= rate;
+            }
+        }
+        Map<String, EventAggregator> currentAggregators = aggregators;
+        if (!currentAggregators.isEmpty()) {
+            EventAggregator aggregator = currentAggregators.get(event.getEventType());
+            if (aggregator != null && aggregator.add(event, sampleRate)) {
+                return;
+            }
+        }
+        Map<String, EventCoalescer> currentCoalescers = coalescers;
+        if (!currentCoalescers.isEmpty()) {
+            EventCoalescer coalescer = currentCoalescers.get(event.getEventType());
+            if (coalescer != null && coalescer.add(event, sampleRate)) {
+                return;
+            }
+        }
+        // The stages after this point may hold the event after this call returns, they get a
+        // snapshot so that the caller can keep using the event.
+        EventSnapshot snapshot = event.snapshot(sampleRate);
+        try {
+            dispatchEvent(snapshot);
+        } finally {
+            snapshot.release();
+        }
+    }
+
+    private void dispatchEvent(@NonNull Event event) {
+        EventJournal eventJournal = journal;
+        if (eventJournal != null) {
+            event.journalSequence = eventJournal.append(event);
+        }
+        AsyncEventDispatcher dispatcher = asyncDispatcher;
+        if (dispatcher != null && dispatcher.enqueue(event)) {
+            return;
+        }
+        try {
+            deliverToCollectors(event);
+        } finally {
+            dispatched(event);
+        }
+    }
+
+    /**
+     * Lets the journal checkpoints move past an event that the collectors received, that the
+     * stages in front of them hold or that they will never receive.
+     */
+    private void dispatched(@NonNull Event event) {
+        EventJournal eventJournal = journal;
+        if (eventJournal != null && event.journalSequence >= 0) {
+            eventJournal.dispatched(event.journalSequence);
+        }
+    }
+
+    private void deliverToCollectors(@NonNull Event event) {
+        AnalyticsCollector[] collectors = routingTable.route(event.getEventType());
+        MetricsRecorder recorder = metrics;
+        if (recorder == null) {
+            for (AnalyticsCollector collector : collectors) {
+                deliverToCollector(collector, event);
+            }
+            return;
+        }
+        recorder.eventFannedOut(event.getEventType(), collectors.length);
+        long start = System.nanoTime();
         for (AnalyticsCollector collector : collectors) {
-            if (defaultAnalyticsCollector != null && collector.getName().equals(defaultAnalyticsCollector.getName())) {
-                isRecordedInDefault = true;
+            boolean delivered = deliverToCollector(collector, event);
+            // The end of a delivery is the start of the next one, saving a clock reading at the
+            // price of counting the bookkeeping of a collector in the time of the next one.
+            long end = System.nanoTime();
+            recorder.collectorFinished(collector.getName(), end - start, !delivered);
+            start = end;
+        }
+    }
+
+    private void replayToCollectors(@NonNull EventJournal replayedJournal, @NonNull Event event) {
+        for (AnalyticsCollector collector : routingTable.route(event.getEventType())) {
+            if (replayedJournal.needsReplay(collector.getName(), event.journalSequence)) {
+                deliverToCollector(collector, event);
             }
+        }
+    }
+
+    /**
+     * Delivers the event to one collector, containing its failures so that the next
+     * collectors still receive the event.
+     *
+     * @return false if the collector failed.
+     */
+    private boolean deliverToCollector(@NonNull AnalyticsCollector collector, @NonNull Event event) {
+        try {
             collector.recordEvent(event);
+            return true;
+        } catch (RuntimeException e) {
+            Log.e(Constants.TAG, "Collector " + collector.getName() + " failed to record event "
+                    + event.getName(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Publishes a new routing table reflecting the current collectors, has to be called while
+     * holding the routing lock after every change to the routing.
+     */
+    private void rebuildRoutingTable() {
+        Map<String, AnalyticsCollector> deliveryTargets = new HashMap<>();
+        for (AnalyticsCollector collector : registeredCollectors.values()) {
+            deliveryTargets.put(collector.getName(), getDeliveryTarget(collector));
+        }
+        AnalyticsCollector defaultTarget = defaultAnalyticsCollector != null
+                ? getDeliveryTarget(defaultAnalyticsCollector) : null;
+        routingTable = RoutingTable.build(eventTypeToCollectorMap, deliveryTargets, defaultTarget);
+    }
+
+    /**
+     * Gets what the routing table delivers to in place of the collector, either the collector
+     * itself or the stages in front of it.
+     *
+     * @param collector registered or default collector.
+     * @return the delivery target or null if its filter drops every event.
+     */
+    @Nullable
+    private AnalyticsCollector getDeliveryTarget(@NonNull AnalyticsCollector collector) {
+        AnalyticsCollector target = collector;
+        JournalCheckpointer checkpointer = null;
+        if (journal != null) {
+            journal.registerCollector(collector.getName());
+            checkpointer = new JournalCheckpointer(collector, journal);
+            target = checkpointer;
         }
-        if (!isRecordedInDefault && defaultAnalyticsCollector != null) {
-            defaultAnalyticsCollector.recordEvent(event);
+        IsolatedCollector isolator = isolators.get(collector.getName());
+        if (isolator != null && isolator.getCollector() == collector) {
+            isolator.setDeliveryTarget(target, checkpointer);
+            target = isolator;
+        }
+        EventBatcher batcher = batchers.get(collector.getName());
+        if (batcher != null && batcher.getCollector() == collector) {
+            batcher.setDeliveryTarget((BatchAnalyticsCollector) target, checkpointer);
+            target = batcher;
+        }
+        FieldProjection projection = collectorProjections.get(collector.getName());
+        if (projection != null) {
+            target = new ProjectedCollector(target, projection);
+        }
+        SamplingPolicy policy = collectorSamplingPolicies.get(collector.getName());
+        if (policy != null) {
+            target = new SampledCollector(target, policy);
+        }
+        EventFilter filter = collectorFilters.get(collector.getName());
+        if (filter == EventFilter.NONE) {
+            return null;
+        }
+        if (filter != null && filter != EventFilter.ALL) {
+            target = new FilteredCollector(target, filter);
+        }
+        return target;
+    }
+
+    /**
+     * Checks that a route of a spec names a collector of the spec or a registered one, has to
+     * be called while holding the routing lock.
+     */
+    private void checkRoutable(@NonNull String collectorName,
+                               @NonNull Map<String, AnalyticsCollector> specCollectors,
+                               @NonNull String route) {
+        if (!specCollectors.containsKey(collectorName)
+                && !registeredCollectors.containsKey(collectorName)) {
+            throw new IllegalArgumentException("Route " + route + " names collector "
+                    + collectorName + " which is neither in the spec nor registered.");
+        }
+    }
+
+    /**
+     * Stops emitting the metrics, has to be called while holding the routing lock.
+     */
+    private void cancelMetricsEmission() {
+        if (metricsEmitTask != null) {
+            metricsEmitTask.cancel(false);
+            metricsEmitTask = null;
         }
     }
 
+    /**
+     * Gets the scheduler shared by the timed stages of the hub, creating it on first use. It
+     * only keeps the time and syncs the journal, the timed work calling the collectors runs on
+     * the delivery executor. Has to be called while holding the routing lock.
+     *
+     * @return the scheduler.
+     */
+    private ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("scheduler"));
+        }
+        return scheduler;
+    }
+
+    /**
+     * Gets the executor running the timed work of the stages that calls the collectors,
+     * creating it on first use. Its threads are created on demand, so that a slow collector
+     * only holds up its own deliveries. Has to be called while holding the routing lock.
+     *
+     * @return the delivery executor.
+     */
+    private ExecutorService getDeliveryExecutor() {
+        if (deliveryExecutor == null) {
+            deliveryExecutor = Executors.newCachedThreadPool(new DaemonThreadFactory("delivery"));
+        }
+        return deliveryExecutor;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -139,15 +962,16 @@ public class AppAnalyticsHub implements AnalyticsHub {
      */
     @Override
     public void addCollectorToEventType(@NonNull String eventType, @NonNull AnalyticsCollector collector) {
-        if (registeredCollectors.get(collector.getName()) == null) {
-            registeredCollectors.put(collector.getName(), collector);
-        }
-        Set<String> collectors = eventTypeToCollectorMap.get(eventType);
-        if (collectors == null) {
-            collectors = new HashSet<>();
+        synchronized (routingLock) {
+            if (registeredCollectors.get(collector.getName()) == null) {
+                registeredCollectors.put(collector.getName(), collector);
+            }
+            Set<String> existing = eventTypeToCollectorMap.get(eventType);
+            Set<String> collectors = existing != null ? new HashSet<>(existing) : new HashSet<String>();
+            collectors.add(collector.getName());
+            eventTypeToCollectorMap.put(eventType, collectors);
+            rebuildRoutingTable();
         }
-        collectors.add(collector.getName());
-        eventTypeToCollectorMap.put(eventType, collectors);
     }
 
     /**
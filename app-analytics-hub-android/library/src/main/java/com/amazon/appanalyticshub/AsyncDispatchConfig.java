@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+/**
+ * <p>
+ * Configuration of the asynchronous dispatch mode of {@link AppAnalyticsHub}. Events are
+ * queued in one lane per {@link Priority}, each with its own capacity, and the lanes are
+ * drained by weighted round robin, most urgent lane first.
+ * </p>
+ */
+public class AsyncDispatchConfig {
+
+    /**
+     * Default number of events that can be queued before the overflow policy kicks in.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Default number of {@link Priority#HIGH} or {@link Priority#CRITICAL} events that can be
+     * queued.
+     */
+    public static final int DEFAULT_PRIORITY_LANE_CAPACITY = 128;
+
+    /**
+     * Default number of events drained per round from the {@link Priority#CRITICAL},
+     * {@link Priority#HIGH} and {@link Priority#NORMAL} lanes.
+     */
+    public static final int DEFAULT_CRITICAL_WEIGHT = 16;
+    public static final int DEFAULT_HIGH_WEIGHT = 4;
+    public static final int DEFAULT_NORMAL_WEIGHT = 1;
+
+    /**
+     * Default time a caller waits for space in the queue when blocking.
+     */
+    public static final long DEFAULT_MAX_BLOCK_MILLIS = 100;
+
+    private final int[] capacities;
+    private final int[] weights;
+    private OverflowPolicy overflowPolicy;
+    private long maxBlockMillis;
+
+    public AsyncDispatchConfig() {
+        capacities = new int[Priority.values().length];
+        weights = new int[Priority.values().length];
+        capacities[Priority.NORMAL.ordinal()] = DEFAULT_CAPACITY;
+        capacities[Priority.HIGH.ordinal()] = DEFAULT_PRIORITY_LANE_CAPACITY;
+        capacities[Priority.CRITICAL.ordinal()] = DEFAULT_PRIORITY_LANE_CAPACITY;
+        weights[Priority.NORMAL.ordinal()] = DEFAULT_NORMAL_WEIGHT;
+        weights[Priority.HIGH.ordinal()] = DEFAULT_HIGH_WEIGHT;
+        weights[Priority.CRITICAL.ordinal()] = DEFAULT_CRITICAL_WEIGHT;
+        overflowPolicy = OverflowPolicy.DROP_OLDEST;
+        maxBlockMillis = DEFAULT_MAX_BLOCK_MILLIS;
+    }
+
+    /**
+     * Sets the number of {@link Priority#NORMAL} events the queue can hold. The queue is
+     * allocated up front.
+     *
+     * @param capacity of the normal lane, has to be positive.
+     * @return the current config.
+     */
+    public AsyncDispatchConfig setCapacity(int capacity) {
+        return setCapacity(Priority.NORMAL, capacity);
+    }
+
+    /**
+     * Sets the number of events of a priority the queue can hold. The queue is allocated up
+     * front.
+     *
+     * @param priority of the lane.
+     * @param capacity of the lane, has to be positive.
+     * @return the current config.
+     */
+    public AsyncDispatchConfig setCapacity(@NonNull Priority priority, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity has to be positive.");
+        }
+        this.capacities[priority.ordinal()] = capacity;
+        return this;
+    }
+
+    /**
+     * Sets the number of events of a priority drained per round of the weighted round robin,
+     * the higher the weight the larger the share of the dispatcher the lane gets when all the
+     * lanes are busy. Every lane gets at least its weight per round, so no lane starves.
+     *
+     * @param priority of the lane.
+     * @param weight   of the lane, has to be positive.
+     * @return the current config.
+     */
+    public AsyncDispatchConfig setWeight(@NonNull Priority priority, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight has to be positive.");
+        }
+        this.weights[priority.ordinal()] = weight;
+        return this;
+    }
+
+    /**
+     * Sets the policy applied when an event is recorded while the queue is full.
+     *
+     * @param overflowPolicy policy to apply.
+     * @return the current config.
+     */
+    public AsyncDispatchConfig setOverflowPolicy(@NonNull OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * Sets the maximum time a caller waits for space in the queue, used by the
+     * {@link OverflowPolicy#BLOCK} policy and for {@link Priority#CRITICAL} events.
+     *
+     * @param maxBlockMillis time to wait in milliseconds.
+     * @return the current config.
+     */
+    public AsyncDispatchConfig setMaxBlockMillis(long maxBlockMillis) {
+        if (maxBlockMillis < 0) {
+            throw new IllegalArgumentException("Block time cannot be negative.");
+        }
+        this.maxBlockMillis = maxBlockMillis;
+        return this;
+    }
+
+    /**
+     * Gets the capacity of the {@link Priority#NORMAL} lane of the queue.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return getCapacity(Priority.NORMAL);
+    }
+
+    /**
+     * Gets the capacity of the lane of a priority.
+     *
+     * @param priority of the lane.
+     * @return the capacity.
+     */
+    public int getCapacity(@NonNull Priority priority) {
+        return capacities[priority.ordinal()];
+    }
+
+    /**
+     * Gets the weight of the lane of a priority.
+     *
+     * @param priority of the lane.
+     * @return the weight.
+     */
+    public int getWeight(@NonNull Priority priority) {
+        return weights[priority.ordinal()];
+    }
+
+    /**
+     * Gets the overflow policy.
+     *
+     * @return the overflow policy.
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Gets the maximum time a caller waits for space in the queue.
+     *
+     * @return the time in milliseconds.
+     */
+    public long getMaxBlockMillis() {
+        return maxBlockMillis;
+    }
+}
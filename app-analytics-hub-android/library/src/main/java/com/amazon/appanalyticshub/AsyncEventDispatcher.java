@@ -0,0 +1,228 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Queues recorded events in an {@link EventRingBuffer} and hands them to the next stage on a
+ * dedicated thread, so that slow collectors do not stall the thread recording the event.
+ * </p>
+ * <p>
+ * Before delivering each drained event the dispatcher checks for queued
+ * {@link Priority#CRITICAL} events and delivers them first, so that a critical event waits
+ * for at most one delivery in progress rather than for a whole drained batch.
+ * </p>
+ */
+class AsyncEventDispatcher implements Runnable {
+
+    /**
+     * Maximum number of events moved out of the ring buffer per lock acquisition.
+     */
+    private static final int DRAIN_BATCH_SIZE = 64;
+
+    /**
+     * Time the dispatcher thread waits for events before checking whether it was stopped.
+     */
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final EventRingBuffer ringBuffer;
+    private final OverflowPolicy overflowPolicy;
+    private final long maxBlockNanos;
+    private final EventSink sink;
+    private final EventSink droppedSink;
+    private final Thread thread;
+    private final AtomicLong enqueuedCount;
+    private final AtomicLong droppedCount;
+    private final AtomicLong deliveredCount;
+    private final AtomicLong totalDrainLatencyNanos;
+    private final AtomicLong maxDrainLatencyNanos;
+    private final AtomicLong[] maxPriorityDrainLatencyNanos;
+    private final Event[] critical;
+    private final long[] criticalTimes;
+    private volatile boolean running;
+
+    /**
+     * @param config      of the dispatch.
+     * @param sink        to deliver the queued events to on the dispatcher thread.
+     * @param droppedSink to hand the events dropped by the overflow policy to.
+     */
+    AsyncEventDispatcher(@NonNull AsyncDispatchConfig config, @NonNull EventSink sink,
+                         @NonNull EventSink droppedSink) {
+        this.ringBuffer = new EventRingBuffer(config, droppedSink);
+        this.droppedSink = droppedSink;
+        this.overflowPolicy = config.getOverflowPolicy();
+        this.maxBlockNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxBlockMillis());
+        this.sink = sink;
+        this.thread = new Thread(this, Constants.TAG + "-dispatcher");
+        this.thread.setDaemon(true);
+        enqueuedCount = new AtomicLong();
+        droppedCount = new AtomicLong();
+        deliveredCount = new AtomicLong();
+        totalDrainLatencyNanos = new AtomicLong();
+        maxDrainLatencyNanos = new AtomicLong();
+        maxPriorityDrainLatencyNanos = new AtomicLong[Priority.values().length];
+        for (int i = 0; i < maxPriorityDrainLatencyNanos.length; i++) {
+            maxPriorityDrainLatencyNanos[i] = new AtomicLong();
+        }
+        critical = new Event[DRAIN_BATCH_SIZE];
+        criticalTimes = new long[DRAIN_BATCH_SIZE];
+    }
+
+    /**
+     * Starts the dispatcher thread.
+     */
+    void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Stops accepting events, delivers the ones already queued and waits for the dispatcher
+     * thread to finish. Events that raced with the shutdown are not queued, their recording
+     * thread delivers them.
+     *
+     * @param timeoutMillis maximum time to wait for the queued events to be delivered.
+     */
+    void stop(long timeoutMillis) {
+        // Closed under the lock of the buffer, no event can be queued after the final drain.
+        ringBuffer.close();
+        running = false;
+        try {
+            thread.join(timeoutMillis);
+            if (!thread.isAlive()) {
+                drainRemaining();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues the event for delivery on the dispatcher thread.
+     *
+     * @param event to be queued.
+     * @return false if the event was neither queued nor dropped and the caller has to deliver
+     * it, which happens when the dispatcher is stopped or a {@link Priority#CRITICAL} event
+     * did not fit in the queue.
+     */
+    boolean enqueue(@NonNull Event event) {
+        if (!running) {
+            return false;
+        }
+        event.retain();
+        int result = ringBuffer.offer(event, System.nanoTime(), overflowPolicy, maxBlockNanos);
+        if (result == EventRingBuffer.CLOSED) {
+            event.release();
+            return false;
+        }
+        if (result == EventRingBuffer.REJECTED) {
+            if (event.getPriority() == Priority.CRITICAL) {
+                event.release();
+                return false;
+            }
+            droppedCount.incrementAndGet();
+            droppedSink.deliverEvent(event);
+            event.release();
+            return true;
+        }
+        if (result == EventRingBuffer.ACCEPTED_EVICTED_OLDEST) {
+            droppedCount.incrementAndGet();
+        }
+        enqueuedCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Gets a snapshot of the dispatcher counters.
+     *
+     * @return the dispatch stats.
+     */
+    DispatchStats getStats() {
+        Priority[] priorities = Priority.values();
+        int[] priorityQueueDepths = new int[priorities.length];
+        long[] priorityMaxLatencies = new long[priorities.length];
+        for (Priority priority : priorities) {
+            priorityQueueDepths[priority.ordinal()] = ringBuffer.size(priority);
+            priorityMaxLatencies[priority.ordinal()] = maxPriorityDrainLatencyNanos[priority.ordinal()].get();
+        }
+        return new DispatchStats(enqueuedCount.get(), droppedCount.get(), deliveredCount.get(),
+                ringBuffer.size(), ringBuffer.capacity(), totalDrainLatencyNanos.get(),
+                maxDrainLatencyNanos.get(), priorityQueueDepths, priorityMaxLatencies);
+    }
+
+    @Override
+    public void run() {
+        Event[] drained = new Event[DRAIN_BATCH_SIZE];
+        long[] drainedTimes = new long[DRAIN_BATCH_SIZE];
+        try {
+            while (running) {
+                int count = ringBuffer.drainTo(drained, drainedTimes, POLL_NANOS);
+                deliverAll(drained, drainedTimes, count);
+            }
+            drainRemaining();
+        } catch (InterruptedException e) {
+            Log.w(Constants.TAG, "Dispatcher thread interrupted, events still queued: "
+                    + ringBuffer.size());
+        }
+    }
+
+    private void drainRemaining() throws InterruptedException {
+        Event[] drained = new Event[DRAIN_BATCH_SIZE];
+        long[] drainedTimes = new long[DRAIN_BATCH_SIZE];
+        int count;
+        while ((count = ringBuffer.drainTo(drained, drainedTimes, 0)) > 0) {
+            deliverAll(drained, drainedTimes, count);
+        }
+    }
+
+    private void deliverAll(Event[] drained, long[] drainedTimes, int count) {
+        for (int i = 0; i < count; i++) {
+            if (ringBuffer.hasCritical()) {
+                deliverCritical();
+            }
+            deliver(drained[i], drainedTimes[i]);
+            drained[i] = null;
+        }
+    }
+
+    private void deliverCritical() {
+        int count;
+        while ((count = ringBuffer.drainCriticalTo(critical, criticalTimes)) > 0) {
+            for (int i = 0; i < count; i++) {
+                deliver(critical[i], criticalTimes[i]);
+                critical[i] = null;
+            }
+        }
+    }
+
+    private void deliver(Event event, long enqueueTime) {
+        long latency = System.nanoTime() - enqueueTime;
+        totalDrainLatencyNanos.addAndGet(latency);
+        updateMax(maxDrainLatencyNanos, latency);
+        updateMax(maxPriorityDrainLatencyNanos[event.getPriority().ordinal()], latency);
+        deliveredCount.incrementAndGet();
+        try {
+            sink.deliverEvent(event);
+        } catch (RuntimeException e) {
+            Log.e(Constants.TAG, "Failed to deliver event " + event.getName(), e);
+        } finally {
+            event.release();
+        }
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Extension of {@link AnalyticsCollector} for collectors that can record several events at
+ * once. When batching is enabled for such a collector the hub accumulates events and hands
+ * them over in batches, see {@link AppAnalyticsHub#enableBatching}.
+ * </p>
+ */
+public interface BatchAnalyticsCollector extends AnalyticsCollector {
+
+    /**
+     * Records the batch of events sent to the collector, in the order they were recorded.
+     *
+     * @param events to be recorded.
+     */
+    void recordEvents(@NonNull List<Event> events);
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Configuration of the batching of events for a {@link BatchAnalyticsCollector}. A batch is
+ * flushed to the collector as soon as one of the limits is reached.
+ * </p>
+ */
+public class BatchConfig {
+
+    /**
+     * Default maximum number of events in a batch.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 50;
+
+    /**
+     * Default maximum estimated size of a batch in bytes.
+     */
+    public static final long DEFAULT_MAX_BATCH_BYTES = 64 * 1024;
+
+    /**
+     * Default maximum time an event waits in a batch.
+     */
+    public static final long DEFAULT_MAX_LATENCY_MILLIS = 5000;
+
+    private int maxBatchSize;
+    private long maxBatchBytes;
+    private long maxLatencyMillis;
+    private final long[] priorityMaxLatencyMillis;
+    private boolean flushOnHighPriority;
+
+    public BatchConfig() {
+        maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+        maxBatchBytes = DEFAULT_MAX_BATCH_BYTES;
+        maxLatencyMillis = DEFAULT_MAX_LATENCY_MILLIS;
+        priorityMaxLatencyMillis = new long[Priority.values().length];
+        Arrays.fill(priorityMaxLatencyMillis, -1);
+        flushOnHighPriority = true;
+    }
+
+    /**
+     * Sets the maximum number of events in a batch.
+     *
+     * @param maxBatchSize number of events, has to be positive.
+     * @return the current config.
+     */
+    public BatchConfig setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size has to be positive.");
+        }
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum estimated size of a batch in bytes.
+     *
+     * @param maxBatchBytes size in bytes, has to be positive.
+     * @return the current config.
+     */
+    public BatchConfig setMaxBatchBytes(long maxBatchBytes) {
+        if (maxBatchBytes <= 0) {
+            throw new IllegalArgumentException("Batch bytes have to be positive.");
+        }
+        this.maxBatchBytes = maxBatchBytes;
+        return this;
+    }
+
+    /**
+     * Sets the maximum time an event waits in a batch before the batch is flushed.
+     *
+     * @param maxLatencyMillis time in milliseconds, has to be positive.
+     * @return the current config.
+     */
+    public BatchConfig setMaxLatencyMillis(long maxLatencyMillis) {
+        if (maxLatencyMillis <= 0) {
+            throw new IllegalArgumentException("Latency has to be positive.");
+        }
+        this.maxLatencyMillis = maxLatencyMillis;
+        return this;
+    }
+
+    /**
+     * Sets the maximum time an event of the given priority waits in a batch, overriding the
+     * maximum latency of the config for that priority. The batch is flushed at the earliest
+     * deadline of its events. Only applies to {@link Priority#HIGH} and
+     * {@link Priority#CRITICAL} events when flushing on high priority is disabled.
+     *
+     * @param priority         of the events.
+     * @param maxLatencyMillis time in milliseconds, 0 to flush as soon as such an event is added.
+     * @return the current config.
+     */
+    public BatchConfig setMaxLatencyMillis(@NonNull Priority priority, long maxLatencyMillis) {
+        if (maxLatencyMillis < 0) {
+            throw new IllegalArgumentException("Latency cannot be negative.");
+        }
+        this.priorityMaxLatencyMillis[priority.ordinal()] = maxLatencyMillis;
+        return this;
+    }
+
+    /**
+     * Sets whether {@link Priority#HIGH} and {@link Priority#CRITICAL} events flush the batch
+     * they are added to immediately. Enabled by default.
+     *
+     * @param flushOnHighPriority true to flush immediately.
+     * @return the current config.
+     */
+    public BatchConfig setFlushOnHighPriority(boolean flushOnHighPriority) {
+        this.flushOnHighPriority = flushOnHighPriority;
+        return this;
+    }
+
+    /**
+     * Gets the maximum number of events in a batch.
+     *
+     * @return the number of events.
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Gets the maximum estimated size of a batch in bytes.
+     *
+     * @return the size in bytes.
+     */
+    public long getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    /**
+     * Gets the maximum time an event waits in a batch.
+     *
+     * @return the time in milliseconds.
+     */
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    /**
+     * Gets the maximum time an event of the given priority waits in a batch.
+     *
+     * @param priority of the events.
+     * @return the time in milliseconds.
+     */
+    public long getMaxLatencyMillis(@NonNull Priority priority) {
+        long latency = priorityMaxLatencyMillis[priority.ordinal()];
+        return latency >= 0 ? latency : maxLatencyMillis;
+    }
+
+    /**
+     * Gets whether high priority events flush the batch immediately.
+     *
+     * @return true if they flush immediately.
+     */
+    public boolean isFlushOnHighPriority() {
+        return flushOnHighPriority;
+    }
+}
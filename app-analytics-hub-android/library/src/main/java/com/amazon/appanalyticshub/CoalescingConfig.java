@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+/**
+ * <p>
+ * Configuration of the coalescing of an event type. Events with the same name, source, event
+ * type, priority and data recorded within the window of the first one are merged into one event
+ * carrying the sum of their counters.
+ * </p>
+ */
+public class CoalescingConfig {
+
+    /**
+     * Name of the counter holding the number of events merged into a coalesced event, only set
+     * when more than one event was merged.
+     */
+    public static final String COALESCED_EVENT_COUNT = "coalescedEventCount";
+
+    /**
+     * Default time duplicates of an event are merged into it.
+     */
+    public static final long DEFAULT_WINDOW_MILLIS = 100;
+
+    /**
+     * Default number of distinct events held at the same time.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 64;
+
+    private long windowMillis;
+    private int cacheSize;
+
+    public CoalescingConfig() {
+        windowMillis = DEFAULT_WINDOW_MILLIS;
+        cacheSize = DEFAULT_CACHE_SIZE;
+    }
+
+    /**
+     * Sets the time after its first occurrence during which the duplicates of an event are
+     * merged into it, the merged event is recorded once it elapsed.
+     *
+     * @param windowMillis time in milliseconds, has to be positive.
+     * @return the current config.
+     */
+    public CoalescingConfig setWindowMillis(long windowMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Window has to be positive.");
+        }
+        this.windowMillis = windowMillis;
+        return this;
+    }
+
+    /**
+     * Sets the number of distinct events held at the same time. Events that find no room in
+     * the cache are recorded without coalescing.
+     *
+     * @param cacheSize number of events, has to be a power of two.
+     * @return the current config.
+     */
+    public CoalescingConfig setCacheSize(int cacheSize) {
+        if (cacheSize <= 0 || Integer.bitCount(cacheSize) != 1) {
+            throw new IllegalArgumentException("Cache size has to be a positive power of two.");
+        }
+        this.cacheSize = cacheSize;
+        return this;
+    }
+
+    /**
+     * Gets the time during which the duplicates of an event are merged into it.
+     *
+     * @return the time in milliseconds.
+     */
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Gets the number of distinct events held at the same time.
+     *
+     * @return the number of events.
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+/**
+ * <p>
+ * Base class of the hub stages that sit in front of a single collector. The routing table
+ * delivers events to the decorator in place of the collector it decorates.
+ * </p>
+ */
+abstract class CollectorDecorator implements AnalyticsCollector {
+
+    private final AnalyticsCollector delegate;
+
+    CollectorDecorator(@NonNull AnalyticsCollector delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Gets the collector at the end of the chain of decorators.
+     *
+     * @return the decorated collector.
+     */
+    AnalyticsCollector getCollector() {
+        AnalyticsCollector collector = delegate;
+        while (collector instanceof CollectorDecorator) {
+            collector = ((CollectorDecorator) collector).delegate;
+        }
+        return collector;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+/**
+ * <p>
+ * Time {@link AppAnalyticsHub} spent handing events to a collector, part of
+ * {@link HubMetrics}. For a batched or isolated collector it is the time spent handing the
+ * event to the batch or the queue in front of it.
+ * </p>
+ */
+public class CollectorMetrics {
+
+    private final String collectorName;
+    private final long deliveredCount;
+    private final long failedCount;
+    private final HistogramSnapshot recordEventTime;
+
+    CollectorMetrics(@NonNull String collectorName, long deliveredCount, long failedCount,
+                     @NonNull HistogramSnapshot recordEventTime) {
+        this.collectorName = collectorName;
+        this.deliveredCount = deliveredCount;
+        this.failedCount = failedCount;
+        this.recordEventTime = recordEventTime;
+    }
+
+    /**
+     * Gets the name of the collector.
+     *
+     * @return the collector name.
+     */
+    @NonNull
+    public String getCollectorName() {
+        return collectorName;
+    }
+
+    /**
+     * Gets the number of events the collector recorded without failing.
+     *
+     * @return the delivered count.
+     */
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    /**
+     * Gets the number of events the collector threw an exception for.
+     *
+     * @return the failed count.
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Gets the distribution of the time spent in {@link AnalyticsCollector#recordEvent}.
+     *
+     * @return the histogram snapshot.
+     */
+    @NonNull
+    public HistogramSnapshot getRecordEventTime() {
+        return recordEventTime;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "collectorName = " + collectorName +
+                " delivered = " + deliveredCount +
+                " failed = " + failedCount +
+                " recordEventTime = " + recordEventTime;
+    }
+}
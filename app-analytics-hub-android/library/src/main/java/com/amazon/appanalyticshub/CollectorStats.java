@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+/**
+ * <p>
+ * Point in time snapshot of the delivery to an isolated collector of {@link AppAnalyticsHub}.
+ * </p>
+ */
+public class CollectorStats {
+
+    private final String collectorName;
+    private final long deliveredCount;
+    private final long failedCount;
+    private final long timedOutCount;
+    private final long droppedCount;
+    private final int queueDepth;
+    private final boolean circuitOpen;
+
+    CollectorStats(@NonNull String collectorName, long deliveredCount, long failedCount,
+                   long timedOutCount, long droppedCount, int queueDepth, boolean circuitOpen) {
+        this.collectorName = collectorName;
+        this.deliveredCount = deliveredCount;
+        this.failedCount = failedCount;
+        this.timedOutCount = timedOutCount;
+        this.droppedCount = droppedCount;
+        this.queueDepth = queueDepth;
+        this.circuitOpen = circuitOpen;
+    }
+
+    /**
+     * Gets the name of the collector.
+     *
+     * @return the collector name.
+     */
+    @NonNull
+    public String getCollectorName() {
+        return collectorName;
+    }
+
+    /**
+     * Gets the number of events and batches the collector recorded without failing.
+     *
+     * @return the delivered count.
+     */
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    /**
+     * Gets the number of events and batches the collector threw an exception for.
+     *
+     * @return the failed count.
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Gets the number of events and batches the collector took longer than the timeout for.
+     *
+     * @return the timed out count.
+     */
+    public long getTimedOutCount() {
+        return timedOutCount;
+    }
+
+    /**
+     * Gets the number of events and batches dropped because the queue was full or the circuit
+     * breaker was open.
+     *
+     * @return the dropped count.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Gets the number of deliveries waiting for the collector, how far it lags behind.
+     *
+     * @return the queue depth.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Gets whether the circuit breaker is open and events routed to the collector are dropped.
+     *
+     * @return true if the circuit breaker is open.
+     */
+    public boolean isCircuitOpen() {
+        return circuitOpen;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "collectorName = " + collectorName +
+                " delivered = " + deliveredCount +
+                " failed = " + failedCount +
+                " timedOut = " + timedOutCount +
+                " dropped = " + droppedCount +
+                " queueDepth = " + queueDepth +
+                " circuitOpen = " + circuitOpen;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Creates the named daemon threads used by the hub, so that they never keep the process alive.
+ * </p>
+ */
+class DaemonThreadFactory implements ThreadFactory {
+
+    private final String name;
+    private final AtomicInteger threadCount;
+
+    DaemonThreadFactory(@NonNull String name) {
+        this.name = name;
+        this.threadCount = new AtomicInteger();
+    }
+
+    @Override
+    public Thread newThread(@NonNull Runnable runnable) {
+        Thread thread = new Thread(runnable, Constants.TAG + "-" + name + "-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+/**
+ * <p>
+ * Point in time snapshot of the asynchronous dispatcher of {@link AppAnalyticsHub}, used to
+ * size the queue under real load.
+ * </p>
+ */
+public class DispatchStats {
+
+    private final long enqueuedCount;
+    private final long droppedCount;
+    private final long deliveredCount;
+    private final int queueDepth;
+    private final int capacity;
+    private final long totalDrainLatencyNanos;
+    private final long maxDrainLatencyNanos;
+    private final int[] priorityQueueDepths;
+    private final long[] priorityMaxDrainLatencyNanos;
+
+    DispatchStats(long enqueuedCount, long droppedCount, long deliveredCount, int queueDepth,
+                  int capacity, long totalDrainLatencyNanos, long maxDrainLatencyNanos,
+                  @NonNull int[] priorityQueueDepths, @NonNull long[] priorityMaxDrainLatencyNanos) {
+        this.enqueuedCount = enqueuedCount;
+        this.droppedCount = droppedCount;
+        this.deliveredCount = deliveredCount;
+        this.queueDepth = queueDepth;
+        this.capacity = capacity;
+        this.totalDrainLatencyNanos = totalDrainLatencyNanos;
+        this.maxDrainLatencyNanos = maxDrainLatencyNanos;
+        this.priorityQueueDepths = priorityQueueDepths;
+        this.priorityMaxDrainLatencyNanos = priorityMaxDrainLatencyNanos;
+    }
+
+    /**
+     * Gets the number of events accepted into the queue.
+     *
+     * @return the enqueued count.
+     */
+    public long getEnqueuedCount() {
+        return enqueuedCount;
+    }
+
+    /**
+     * Gets the number of events discarded because the queue was full.
+     *
+     * @return the dropped count.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Gets the number of events handed to the collectors by the dispatcher thread.
+     *
+     * @return the delivered count.
+     */
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    /**
+     * Gets the number of events waiting in the queue.
+     *
+     * @return the queue depth.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Gets the number of events of a priority waiting in the queue.
+     *
+     * @param priority of the events.
+     * @return the queue depth of the lane.
+     */
+    public int getQueueDepth(@NonNull Priority priority) {
+        return priorityQueueDepths[priority.ordinal()];
+    }
+
+    /**
+     * Gets the capacity of the queue.
+     *
+     * @return the capacity of all the lanes.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the average time between an event being queued and being handed to the collectors.
+     *
+     * @return the average drain latency in nanoseconds.
+     */
+    public long getAverageDrainLatencyNanos() {
+        return deliveredCount > 0 ? totalDrainLatencyNanos / deliveredCount : 0;
+    }
+
+    /**
+     * Gets the longest time between an event being queued and being handed to the collectors.
+     *
+     * @return the maximum drain latency in nanoseconds.
+     */
+    public long getMaxDrainLatencyNanos() {
+        return maxDrainLatencyNanos;
+    }
+
+    /**
+     * Gets the longest time between an event of a priority being queued and being handed to
+     * the collectors.
+     *
+     * @param priority of the events.
+     * @return the maximum drain latency in nanoseconds.
+     */
+    public long getMaxDrainLatencyNanos(@NonNull Priority priority) {
+        return priorityMaxDrainLatencyNanos[priority.ordinal()];
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "enqueued = " + enqueuedCount +
+                " dropped = " + droppedCount +
+                " delivered = " + deliveredCount +
+                " queueDepth = " + queueDepth +
+                " capacity = " + capacity +
+                " averageDrainLatencyNanos = " + getAverageDrainLatencyNanos() +
+                " maxDrainLatencyNanos = " + maxDrainLatencyNanos +
+                " criticalMaxDrainLatencyNanos = " + getMaxDrainLatencyNanos(Priority.CRITICAL);
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>
+ * Map of strings to primitive doubles using open addressing with linear probing over
+ * parallel key and value arrays, used for the counters and timers of an {@link Event}.
+ * Updating a value neither boxes it nor allocates an entry, and the handful of entries an
+ * event usually has fit in the initial arrays.
+ * </p>
+ * <p>
+ * Collectors see the map through the read-only {@link Map} returned by {@link #asMap()}.
+ * </p>
+ */
+class DoubleMap implements DoubleValues {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private String[] keys;
+    private double[] values;
+    private int size;
+    private Map<String, Double> view;
+
+    DoubleMap() {
+        keys = new String[INITIAL_CAPACITY];
+        values = new double[INITIAL_CAPACITY];
+    }
+
+    private DoubleMap(String[] keys, double[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * Copies the map.
+     *
+     * @return the copy.
+     */
+    @NonNull
+    DoubleMap copy() {
+        return new DoubleMap(keys.clone(), values.clone(), size);
+    }
+
+    /**
+     * Adds the delta to the value of the key, creating it with the delta if missing.
+     *
+     * @param key   of the value.
+     * @param delta to add.
+     * @return true if the key was created.
+     */
+    boolean add(@NonNull String key, double delta) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            values[index] += delta;
+            return false;
+        }
+        insert(key, delta);
+        return true;
+    }
+
+    /**
+     * Sets the value of the key.
+     *
+     * @param key   of the value.
+     * @param value to set.
+     */
+    void put(@NonNull String key, double value) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            values[index] = value;
+        } else {
+            insert(key, value);
+        }
+    }
+
+    /**
+     * Gets the value of the key.
+     *
+     * @param key          of the value.
+     * @param defaultValue returned if the key is missing.
+     * @return the value.
+     */
+    double get(@NonNull String key, double defaultValue) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : defaultValue;
+    }
+
+    /**
+     * Checks whether the key is present.
+     *
+     * @param key to check.
+     * @return true if present.
+     */
+    boolean containsKey(@NonNull String key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Removes the key, shifting back the entries that probed past it so that lookups never
+     * need tombstones.
+     *
+     * @param key to remove.
+     */
+    void remove(@NonNull String key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return;
+        }
+        int mask = keys.length - 1;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != null) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = 0;
+        size--;
+    }
+
+    /**
+     * Removes every key, keeping the arrays for reuse.
+     */
+    void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    /**
+     * Gets the number of keys.
+     *
+     * @return the size.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the slot capacity, the position of every key is below it.
+     *
+     * @return the capacity.
+     */
+    @Override
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Gets the key at the given slot.
+     *
+     * @param slot below {@link #capacity()}.
+     * @return the key or null if the slot is empty.
+     */
+    @Nullable
+    @Override
+    public String keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Gets the value at the given slot.
+     *
+     * @param slot of a key.
+     * @return the value.
+     */
+    @Override
+    public double valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Gets a read-only {@link Map} view of this map, values are boxed as they are read.
+     *
+     * @return the view.
+     */
+    @NonNull
+    @Override
+    public Map<String, Double> asMap() {
+        if (view == null) {
+            view = new MapView();
+        }
+        return view;
+    }
+
+    private int indexOf(String key) {
+        int mask = keys.length - 1;
+        int index = slot(key, mask);
+        String candidate;
+        while ((candidate = keys[index]) != null) {
+            if (candidate.equals(key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(String key, double value) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        int index = slot(key, mask);
+        while (keys[index] != null) {
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        double[] oldValues = values;
+        keys = new String[oldKeys.length * 2];
+        values = new double[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int slot(String key, int mask) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Read-only view of the enclosing map.
+     */
+    private class MapView extends AbstractMap<String, Double> {
+
+        private Set<Entry<String, Double>> entries;
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && indexOf((String) key) >= 0;
+        }
+
+        @Override
+        public Double get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            int index = indexOf((String) key);
+            return index >= 0 ? values[index] : null;
+        }
+
+        @NonNull
+        @Override
+        public Set<Entry<String, Double>> entrySet() {
+            if (entries == null) {
+                entries = new AbstractSet<Entry<String, Double>>() {
+                    @NonNull
+                    @Override
+                    public Iterator<Entry<String, Double>> iterator() {
+                        return new EntryIterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+                };
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Iterator over the occupied slots of the enclosing map.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<String, Double>> {
+
+        private int next = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public Map.Entry<String, Double> next() {
+            if (next >= keys.length) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Double> entry =
+                    new AbstractMap.SimpleImmutableEntry<>(keys[next], values[next]);
+            next = advance(next + 1);
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Event counters and timers are read-only.");
+        }
+
+        private int advance(int from) {
+            int index = from;
+            while (index < keys.length && keys[index] == null) {
+                index++;
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Map;
+
+/**
+ * <p>
+ * Primitive storage of the counters or timers of an {@link Event}, read slot by slot by the
+ * stages of the hub so that they neither box the values nor allocate entries.
+ * </p>
+ */
+interface DoubleValues {
+
+    /**
+     * Gets the number of values.
+     *
+     * @return the size.
+     */
+    int size();
+
+    /**
+     * Gets the slot capacity, the position of every value is below it.
+     *
+     * @return the capacity.
+     */
+    int capacity();
+
+    /**
+     * Gets the name of the value at the given slot.
+     *
+     * @param slot below {@link #capacity()}.
+     * @return the name or null if the slot is empty.
+     */
+    @Nullable
+    String keyAt(int slot);
+
+    /**
+     * Gets the value at the given slot.
+     *
+     * @param slot of a value.
+     * @return the value.
+     */
+    double valueAt(int slot);
+
+    /**
+     * Gets a read-only {@link Map} view of the values, boxed as they are read.
+     *
+     * @return the view.
+     */
+    @NonNull
+    Map<String, Double> asMap();
+}
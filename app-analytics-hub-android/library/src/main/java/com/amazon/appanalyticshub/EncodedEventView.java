@@ -0,0 +1,321 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Read-only view of a self-contained encoded event, one written right after
+ * {@link EventEncoder#reset()}, backed by the buffer it was written to. The priority is read
+ * in place and the name, source and event type are only decoded when first asked for. A
+ * single data, counter or timer entry is found by scanning the encoded entries and comparing
+ * their keys as UTF-8 bytes, only the value found is decoded, so an event can be routed or
+ * filtered without copying it or materializing its maps. {@link #toEvent()} decodes the
+ * whole event.
+ * </p>
+ * <p>
+ * A view is not thread safe.
+ * </p>
+ */
+public class EncodedEventView {
+
+    private static final int DATA = 0;
+    private static final int COUNTERS = 1;
+    private static final int TIMERS = 2;
+
+    private final ByteBuffer buffer;
+    /**
+     * Position and length in the buffer of every string of the dictionary of the event, used
+     * while scanning the entries.
+     */
+    private int[] dictionarySpans;
+    private String name;
+    private String source;
+    private String eventType;
+    private boolean headerRead;
+
+    /**
+     * Creates a view of the event starting at the position of the buffer. The buffer is
+     * shared, not copied, and has to stay unchanged while the view is used.
+     *
+     * @param buffer containing the encoded event.
+     */
+    public EncodedEventView(@NonNull ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    /**
+     * Gets priority of the event
+     *
+     * @return the event priority.
+     */
+    @NonNull
+    public Priority getPriority() {
+        return EventCodec.readPriority(buffer.duplicate());
+    }
+
+    /**
+     * Gets name of the event
+     *
+     * @return the event name.
+     */
+    @NonNull
+    public String getName() {
+        readHeader();
+        return name;
+    }
+
+    /**
+     * Gets source of the event
+     *
+     * @return the event source.
+     */
+    @Nullable
+    public String getSource() {
+        readHeader();
+        return source;
+    }
+
+    /**
+     * Gets event type of the event
+     *
+     * @return the event type.
+     */
+    @NonNull
+    public String getEventType() {
+        readHeader();
+        return eventType;
+    }
+
+    /**
+     * Gets the value of a data entry without decoding the other entries.
+     *
+     * @param key of the data entry.
+     * @return the value, or null if the event has no such entry.
+     * @throws IllegalArgumentException if the buffer does not contain a valid event.
+     */
+    @Nullable
+    public String getData(@NonNull String key) {
+        ByteBuffer entries = buffer.duplicate();
+        int spanCount = findEntry(entries, DATA, key);
+        return spanCount >= 0 ? readValueString(entries, spanCount) : null;
+    }
+
+    /**
+     * Gets the value of a counter without decoding the other entries.
+     *
+     * @param key of the counter.
+     * @return the value, or null if the event has no such counter.
+     * @throws IllegalArgumentException if the buffer does not contain a valid event.
+     */
+    @Nullable
+    public Double getCounter(@NonNull String key) {
+        return getNumber(COUNTERS, key);
+    }
+
+    /**
+     * Gets the value of a timer without decoding the other entries.
+     *
+     * @param key of the timer.
+     * @return the value, or null if the event has no such timer.
+     * @throws IllegalArgumentException if the buffer does not contain a valid event.
+     */
+    @Nullable
+    public Double getTimer(@NonNull String key) {
+        return getNumber(TIMERS, key);
+    }
+
+    /**
+     * Decodes the whole event.
+     *
+     * @return the event.
+     * @throws IllegalArgumentException if the buffer does not contain a valid event.
+     */
+    @NonNull
+    public Event toEvent() {
+        return new EventDecoder().decode(buffer.duplicate());
+    }
+
+    private Double getNumber(int section, String key) {
+        ByteBuffer entries = buffer.duplicate();
+        if (findEntry(entries, section, key) < 0) {
+            return null;
+        }
+        try {
+            return EventCodec.readNumber(entries);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated event.", e);
+        }
+    }
+
+    /**
+     * Scans the entries of the event up to the entry with the given key in the given
+     * section, recording the strings of the dictionary on the way.
+     *
+     * @return the number of dictionary strings, with the buffer positioned at the value of
+     * the entry, or -1 if there is no such entry.
+     */
+    private int findEntry(ByteBuffer entries, int section, String key) {
+        byte[] keyBytes = key.getBytes(EventCodec.UTF_8);
+        int spanCount = 0;
+        try {
+            EventCodec.readPriority(entries);
+            for (int i = 0; i < 3; i++) {
+                spanCount = skipString(entries, spanCount);
+            }
+            for (int current = DATA; current <= section; current++) {
+                for (int i = EventCodec.readCount(entries); i > 0; i--) {
+                    if (current == section) {
+                        int keyStart = entries.position();
+                        spanCount = skipString(entries, spanCount);
+                        if (keyEquals(entries, keyStart, spanCount, keyBytes)) {
+                            return spanCount;
+                        }
+                    } else {
+                        spanCount = skipString(entries, spanCount);
+                    }
+                    if (current == DATA) {
+                        spanCount = skipString(entries, spanCount);
+                    } else {
+                        EventCodec.readNumber(entries);
+                    }
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated event.", e);
+        }
+        return -1;
+    }
+
+    /**
+     * Skips the string at the position of the buffer, recording the span of a literal.
+     *
+     * @return the number of dictionary strings.
+     */
+    private int skipString(ByteBuffer entries, int spanCount) {
+        long tag = EventCodec.readVarint(entries);
+        if (tag == EventCodec.STRING_NULL) {
+            return spanCount;
+        }
+        if ((tag & 1) == 1) {
+            if ((tag >>> 1) >= spanCount) {
+                throw new IllegalArgumentException("Unknown dictionary entry " + (tag >>> 1));
+            }
+            return spanCount;
+        }
+        long length = (tag >>> 1) - 1;
+        if (length > entries.remaining()) {
+            throw new IllegalArgumentException("Malformed string length " + length);
+        }
+        int start = entries.position();
+        entries.position(start + (int) length);
+        if (spanCount >= EventCodec.MAX_DICTIONARY_SIZE) {
+            return spanCount;
+        }
+        if (dictionarySpans == null) {
+            dictionarySpans = new int[32];
+        } else if (spanCount * 2 == dictionarySpans.length) {
+            dictionarySpans = Arrays.copyOf(dictionarySpans, dictionarySpans.length * 2);
+        }
+        dictionarySpans[spanCount * 2] = start;
+        dictionarySpans[spanCount * 2 + 1] = (int) length;
+        return spanCount + 1;
+    }
+
+    /**
+     * Checks whether the key string skipped from the given position equals the key.
+     */
+    private boolean keyEquals(ByteBuffer entries, int keyStart, int spanCount, byte[] keyBytes) {
+        ByteBuffer tagBuffer = entries.duplicate();
+        tagBuffer.position(keyStart);
+        long tag = EventCodec.readVarint(tagBuffer);
+        int start;
+        int length;
+        if (tag == EventCodec.STRING_NULL) {
+            throw new IllegalArgumentException("Unexpected null entry.");
+        } else if ((tag & 1) == 1) {
+            int index = (int) (tag >>> 1);
+            start = dictionarySpans[index * 2];
+            length = dictionarySpans[index * 2 + 1];
+        } else {
+            start = tagBuffer.position();
+            length = (int) ((tag >>> 1) - 1);
+        }
+        if (length != keyBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (entries.get(start + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the string value at the position of the buffer.
+     */
+    private String readValueString(ByteBuffer entries, int spanCount) {
+        try {
+            long tag = EventCodec.readVarint(entries);
+            int start;
+            int length;
+            if (tag == EventCodec.STRING_NULL) {
+                throw new IllegalArgumentException("Unexpected null entry.");
+            } else if ((tag & 1) == 1) {
+                long index = tag >>> 1;
+                if (index >= spanCount) {
+                    throw new IllegalArgumentException("Unknown dictionary entry " + index);
+                }
+                start = dictionarySpans[(int) index * 2];
+                length = dictionarySpans[(int) index * 2 + 1];
+            } else {
+                start = entries.position();
+                length = (int) ((tag >>> 1) - 1);
+                if (length < 0 || length > entries.remaining()) {
+                    throw new IllegalArgumentException("Malformed string length " + length);
+                }
+            }
+            if (entries.hasArray()) {
+                return new String(entries.array(), entries.arrayOffset() + start, length, EventCodec.UTF_8);
+            }
+            byte[] bytes = new byte[length];
+            ByteBuffer value = entries.duplicate();
+            value.position(start);
+            value.get(bytes);
+            return new String(bytes, EventCodec.UTF_8);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated event.", e);
+        }
+    }
+
+    private void readHeader() {
+        if (headerRead) {
+            return;
+        }
+        ByteBuffer header = buffer.duplicate();
+        List<String> dictionary = new ArrayList<>(3);
+        try {
+            EventCodec.readPriority(header);
+            name = EventCodec.readString(header, dictionary);
+            source = EventCodec.readString(header, dictionary);
+            eventType = EventCodec.readString(header, dictionary);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated event.", e);
+        }
+        if (name == null || eventType == null) {
+            throw new IllegalArgumentException("Event without name or event type.");
+        }
+        headerRead = true;
+    }
+}
@@ -9,16 +9,42 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * <p>
  * Event class which would be used by for recording in analytics collector.
  * </p>
+ * <p>
+ * The data, counter, timer, timer histogram and metric maps are only allocated once something
+ * is added to them, until then their getters return an empty read-only map. The getters
+ * always return read-only views, fields are only changed through the adders and removers.
+ * </p>
+ * <p>
+ * When the event is recorded the hub delivers an immutable snapshot of it to the collectors,
+ * so the event can be changed or recorded again right away without the collectors, including
+ * the ones running on other threads, seeing the change.
+ * </p>
  */
 public class Event {
 
+    private static final AtomicIntegerFieldUpdater<Event> REFERENCES =
+            AtomicIntegerFieldUpdater.newUpdater(Event.class, "references");
+
+    /**
+     * Fields of an event shared with its snapshots, which it copies before changing them.
+     */
+    static final int SHARED_DATA = 1;
+    static final int SHARED_COUNTERS = 1 << 1;
+    static final int SHARED_TIMERS = 1 << 2;
+    static final int SHARED_TIMER_HISTOGRAMS = 1 << 3;
+    static final int SHARED_METRICS = 1 << 4;
+    static final int SHARED_ALL = SHARED_DATA | SHARED_COUNTERS | SHARED_TIMERS
+            | SHARED_TIMER_HISTOGRAMS | SHARED_METRICS;
+
     /**
      * The name distinguishing this event.
      */
@@ -48,20 +74,60 @@ public class Event {
     private Map<String, String> data;
 
     /**
-     * Variable to store all the counter metrics linked to this Event.
+     * Variable to store all the counter metrics linked to this Event, kept as primitive
+     * doubles so that updating a counter does not box.
+     */
+    private DoubleMap counters;
+
+    /**
+     * Variable to store all the timer metrics linked to this Event, kept as primitive
+     * doubles so that updating a timer does not box.
      */
-    private Map<String, Double> counters;
+    private DoubleMap timers;
 
     /**
-     * Variable to store all the timer metrics linked to this Event.
+     * Variable to store the distributions of the timers linked to this Event.
      */
-    private Map<String, Double> timers;
+    private Map<String, HistogramSnapshot> timerHistograms;
 
     /**
      * Variable to store all the custom metrics linked to this Event.
      */
     private Map<String, Object> metrics;
 
+    /**
+     * Read-only views of the maps above, created with the first read.
+     */
+    private Map<String, String> dataView;
+    private Map<String, HistogramSnapshot> timerHistogramsView;
+    private Map<String, Object> metricsView;
+
+    /**
+     * Maps shared with snapshots of the event, they are copied before being changed.
+     */
+    private int sharedFields;
+
+    /**
+     * Probability the event was kept with by the sampling policies applied to it.
+     */
+    private double sampleRate = 1;
+
+    /**
+     * Sequence of the event in the journal of the hub recording it, -1 if not journaled.
+     */
+    long journalSequence = -1;
+
+    /**
+     * Pool the event is returned to once released, null if the event is not pooled.
+     */
+    private final EventPool pool;
+
+    /**
+     * Number of holders of a pooled event, the caller that acquired it and the hub stages
+     * that still have to deliver it.
+     */
+    private volatile int references;
+
     /**
      * Creates an event with the given name, source, event type and Normal priority.
      *
@@ -82,15 +148,306 @@ public class Event {
      * @param priority  of the event.
      */
     public Event(@NonNull String name, @Nullable String source, @NonNull String eventType, @Nullable Priority priority) {
+        this(null);
+        this.name = name;
+        this.source = source;
+        this.eventType = eventType;
+        this.priority = priority != null ? priority : Priority.NORMAL;
+    }
+
+    /**
+     * Creates an empty event owned by the given pool, it has to be reset before use.
+     *
+     * @param pool the event is returned to once released.
+     */
+    Event(@Nullable EventPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Reinitializes a pooled event, clearing everything recorded in it but keeping the
+     * allocated maps for reuse.
+     *
+     * @param name      of the event.
+     * @param source    of the event.
+     * @param eventType of the event.
+     * @param priority  of the event.
+     */
+    void reset(@NonNull String name, @Nullable String source, @NonNull String eventType,
+               @Nullable Priority priority) {
         this.name = name;
         this.source = source;
         this.eventType = eventType;
         this.priority = priority != null ? priority : Priority.NORMAL;
-        data = new HashMap<>();
-        counters = new HashMap<>();
-        timers = new HashMap<>();
-        metrics = new HashMap<>();
+        this.journalSequence = -1;
+        this.sampleRate = 1;
+        // The event is only reset once every snapshot sharing its maps was released, so the
+        // maps are cleared and reused.
+        if (data != null) {
+            data.clear();
+        }
+        if (counters != null) {
+            counters.clear();
+        }
+        if (timers != null) {
+            timers.clear();
+        }
+        if (timerHistograms != null) {
+            timerHistograms.clear();
+        }
+        if (metrics != null) {
+            metrics.clear();
+        }
+        this.sharedFields = 0;
+        references = 1;
+    }
+
+    /**
+     * Takes an immutable snapshot of the event. The snapshot shares the maps of the event,
+     * which copies them the next time they are changed. The snapshot of a pooled event holds
+     * the event until released, so that its maps are only cleared and reused once no snapshot
+     * shares them anymore.
+     *
+     * @param sampleRate of the snapshot.
+     * @return the snapshot, held once by the caller.
+     */
+    @NonNull
+    EventSnapshot snapshot(double sampleRate) {
+        EventSnapshot snapshot = new EventSnapshot(name, source, eventType, priority);
+        shareFieldsWith(snapshot);
+        snapshot.setSampleRate(sampleRate);
+        Event pooled = getPooledEvent();
+        if (pooled != null) {
+            pooled.retain();
+            snapshot.setPooledEvent(pooled);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Gets the pooled event whose maps the event uses.
+     *
+     * @return the event itself if pooled, null otherwise.
+     */
+    @Nullable
+    Event getPooledEvent() {
+        return pool != null ? this : null;
+    }
+
+    /**
+     * Shares the fields of the event with a snapshot, so that they are copied before they are
+     * next changed.
+     *
+     * @param snapshot to share the fields with.
+     */
+    void shareFieldsWith(@NonNull EventSnapshot snapshot) {
+        sharedFields = SHARED_ALL;
+        snapshot.share(data, counters, timers, timerHistograms, metrics);
+    }
+
+    /**
+     * Shares the timer histograms of the event with a snapshot, for subclasses keeping the
+     * other fields themselves.
+     *
+     * @return the timer histograms or null if none were added.
+     */
+    @Nullable
+    Map<String, HistogramSnapshot> shareTimerHistograms() {
+        sharedFields |= SHARED_TIMER_HISTOGRAMS;
+        return timerHistograms;
+    }
+
+    /**
+     * Adds a holder to a pooled event, so that it is not returned to the pool before the
+     * holder releases it. Does nothing for events that are not pooled.
+     */
+    void retain() {
+        if (pool != null) {
+            REFERENCES.incrementAndGet(this);
+        }
+    }
+
+    /**
+     * Removes a holder from a pooled event, returning it to its pool when it was the last one.
+     * Does nothing for events that are not pooled.
+     */
+    void release() {
+        if (pool == null) {
+            return;
+        }
+        int remaining = REFERENCES.decrementAndGet(this);
+        if (remaining == 0) {
+            pool.recycle(this);
+        } else if (remaining < 0) {
+            REFERENCES.incrementAndGet(this);
+            Log.e(Constants.TAG, "Event " + name + " released more often than acquired.");
+        }
+    }
+
+    /**
+     * Copies the data, counters, timers, timer histograms, metrics and sample rate of another
+     * event into this one, without the warnings of the public adders.
+     *
+     * @param other event to copy the fields of.
+     */
+    void copyFieldsFrom(@NonNull Event other) {
+        copyFieldsFrom(other, null);
+    }
+
+    /**
+     * Copies the fields of another event kept by a projection into this one, without the
+     * warnings of the public adders. The sample rate is always copied.
+     *
+     * @param other      event to copy the fields of.
+     * @param projection of the fields to copy, null to copy them all.
+     */
+    void copyFieldsFrom(@NonNull Event other, @Nullable FieldProjection projection) {
+        String[] keptData = projection != null ? projection.getData() : null;
+        Map<String, String> otherData = other.getData();
+        if (keptData == null) {
+            for (Map.Entry<String, String> entry : otherData.entrySet()) {
+                addData(entry.getKey(), entry.getValue());
+            }
+        } else {
+            for (String key : keptData) {
+                String value = otherData.get(key);
+                if (value != null) {
+                    addData(key, value);
+                }
+            }
+        }
+        String[] keptCounters = projection != null ? projection.getCounters() : null;
+        if (keptCounters == null || keptCounters.length > 0) {
+            addValues(false, other.getCounterValues(), keptCounters);
+        }
+        String[] keptTimers = projection != null ? projection.getTimers() : null;
+        if (keptTimers == null || keptTimers.length > 0) {
+            addValues(true, other.getTimerValues(), keptTimers);
+        }
+        String[] keptHistograms = projection != null ? projection.getTimerHistograms() : null;
+        Map<String, HistogramSnapshot> otherHistograms = other.getTimerHistograms();
+        if (keptHistograms == null) {
+            for (Map.Entry<String, HistogramSnapshot> entry : otherHistograms.entrySet()) {
+                addTimerHistogram(entry.getKey(), entry.getValue());
+            }
+        } else {
+            for (String key : keptHistograms) {
+                HistogramSnapshot histogram = otherHistograms.get(key);
+                if (histogram != null) {
+                    addTimerHistogram(key, histogram);
+                }
+            }
+        }
+        String[] keptMetrics = projection != null ? projection.getMetrics() : null;
+        Map<String, Object> otherMetrics = other.getMetrics();
+        if (keptMetrics == null) {
+            for (Map.Entry<String, Object> entry : otherMetrics.entrySet()) {
+                addMetric(entry.getKey(), entry.getValue());
+            }
+        } else {
+            for (String key : keptMetrics) {
+                Object value = otherMetrics.get(key);
+                if (value != null) {
+                    addMetric(key, value);
+                }
+            }
+        }
+        sampleRate = other.getSampleRate();
+    }
+
+    /**
+     * Adds the given counter values to the counters of the event, creating the missing ones
+     * without the warning of {@link #incrementCounter(String, double)}.
+     *
+     * @param values counters to add, null if none.
+     */
+    void mergeCounters(@Nullable DoubleValues values) {
+        addValues(false, values, null);
+    }
+
+    /**
+     * Adds values to the counters or timers of the event.
+     *
+     * @param toTimers true to add to the timers, false to the counters.
+     * @param values   to add, null if none.
+     * @param kept     keys of the values to add, null to add them all.
+     */
+    private void addValues(boolean toTimers, @Nullable DoubleValues values,
+                           @Nullable String[] kept) {
+        if (values == null) {
+            return;
+        }
+        for (int slot = 0; slot < values.capacity(); slot++) {
+            String key = values.keyAt(slot);
+            if (key != null && (kept == null || contains(kept, key))) {
+                (toTimers ? ownTimers() : ownCounters()).add(key, values.valueAt(slot));
+            }
+        }
+    }
+
+    /**
+     * Gets the data to change, creating it or copying it if shared with a snapshot.
+     */
+    private Map<String, String> ownData() {
+        if (data == null) {
+            data = new HashMap<>();
+        } else if ((sharedFields & SHARED_DATA) != 0) {
+            data = new HashMap<>(data);
+            dataView = null;
+            sharedFields &= ~SHARED_DATA;
+        }
+        return data;
+    }
+
+    private DoubleMap ownCounters() {
+        if (counters == null) {
+            counters = new DoubleMap();
+        } else if ((sharedFields & SHARED_COUNTERS) != 0) {
+            counters = counters.copy();
+            sharedFields &= ~SHARED_COUNTERS;
+        }
+        return counters;
+    }
+
+    private DoubleMap ownTimers() {
+        if (timers == null) {
+            timers = new DoubleMap();
+        } else if ((sharedFields & SHARED_TIMERS) != 0) {
+            timers = timers.copy();
+            sharedFields &= ~SHARED_TIMERS;
+        }
+        return timers;
+    }
 
+    private Map<String, HistogramSnapshot> ownTimerHistograms() {
+        if (timerHistograms == null) {
+            timerHistograms = new HashMap<>();
+        } else if ((sharedFields & SHARED_TIMER_HISTOGRAMS) != 0) {
+            timerHistograms = new HashMap<>(timerHistograms);
+            timerHistogramsView = null;
+            sharedFields &= ~SHARED_TIMER_HISTOGRAMS;
+        }
+        return timerHistograms;
+    }
+
+    private Map<String, Object> ownMetrics() {
+        if (metrics == null) {
+            metrics = new HashMap<>();
+        } else if ((sharedFields & SHARED_METRICS) != 0) {
+            metrics = new HashMap<>(metrics);
+            metricsView = null;
+            sharedFields &= ~SHARED_METRICS;
+        }
+        return metrics;
+    }
+
+    private static boolean contains(String[] names, String name) {
+        for (String candidate : names) {
+            if (candidate.equals(name)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -101,7 +458,7 @@ public class Event {
      * @return the current event.
      */
     public Event addData(@NonNull String name, @NonNull String value) {
-        data.put(name, value);
+        ownData().put(name, value);
         return this;
     }
 
@@ -112,11 +469,11 @@ public class Event {
      * @return the current event.
      */
     public Event removeData(@NonNull String name) {
-        if (!data.containsKey(name)) {
+        if (data == null || !data.containsKey(name)) {
             Log.w(Constants.TAG, "Trying to remove non existent data.");
             return this;
         }
-        data.remove(name);
+        ownData().remove(name);
         return this;
     }
 
@@ -140,13 +497,9 @@ public class Event {
      * @return the current event.
      */
     public Event incrementCounter(@NonNull String name, double incrementBy) {
-        Double value = this.counters.get(name);
-        if (value == null) {
-            value = 0d;
+        if (ownCounters().add(name, incrementBy)) {
             Log.w(Constants.TAG, "Creating counter as it doesn't exist.");
         }
-        value += incrementBy;
-        this.counters.put(name, value);
         return this;
     }
 
@@ -161,6 +514,20 @@ public class Event {
         return this.incrementCounter(name, 1);
     }
 
+    /**
+     * Sets the counter metric to the value provided, creating it if it doesn't exist. Unlike
+     * {@link #incrementCounter(String, double)} creating the counter is expected and not
+     * warned about, for events built from a complete set of fields.
+     *
+     * @param name  of the counter
+     * @param value of the counter
+     * @return the current event.
+     */
+    public Event setCounter(@NonNull String name, double value) {
+        ownCounters().put(name, value);
+        return this;
+    }
+
     /**
      * Removes the counter.
      *
@@ -168,7 +535,9 @@ public class Event {
      * @return the current event.
      */
     public Event removeCounter(@NonNull String name) {
-        this.counters.remove(name);
+        if (this.counters != null && this.counters.containsKey(name)) {
+            ownCounters().remove(name);
+        }
         return this;
     }
 
@@ -192,13 +561,52 @@ public class Event {
      * @return the current event.
      */
     public Event incrementTimer(String name, double incrementBy) {
-        Double value = this.timers.get(name);
-        if (value == null) {
-            value = 0d;
+        if (ownTimers().add(name, incrementBy)) {
             Log.w(Constants.TAG, "Creating timer as it doesn't exist.");
         }
-        value += incrementBy;
-        this.timers.put(name, value);
+        return this;
+    }
+
+    /**
+     * Sets the timer metric to the value provided, creating it if it doesn't exist. Unlike
+     * {@link #incrementTimer(String, double)} creating the timer is expected and not warned
+     * about, for events built from a complete set of fields.
+     *
+     * @param name  of the timer
+     * @param value of the timer
+     * @return the current event.
+     */
+    public Event setTimer(@NonNull String name, double value) {
+        ownTimers().put(name, value);
+        return this;
+    }
+
+    /**
+     * Adds the distribution of a timer to the event. If the event already has a distribution
+     * for the timer both are merged.
+     *
+     * @param name      of the timer
+     * @param histogram distribution of the timer
+     * @return the current event.
+     * @throws IllegalArgumentException if the distributions cannot be merged.
+     */
+    public Event addTimerHistogram(@NonNull String name, @NonNull HistogramSnapshot histogram) {
+        Map<String, HistogramSnapshot> histograms = ownTimerHistograms();
+        HistogramSnapshot current = histograms.get(name);
+        histograms.put(name, current != null ? current.merge(histogram) : histogram);
+        return this;
+    }
+
+    /**
+     * Removes the distribution of a timer.
+     *
+     * @param name of the timer
+     * @return the current event.
+     */
+    public Event removeTimerHistogram(@NonNull String name) {
+        if (this.timerHistograms != null && this.timerHistograms.containsKey(name)) {
+            ownTimerHistograms().remove(name);
+        }
         return this;
     }
 
@@ -211,7 +619,7 @@ public class Event {
      */
     public Event addMetric(String name, Object value) {
         if (value instanceof String || value instanceof Boolean) {
-            this.metrics.put(name, value);
+            ownMetrics().put(name, value);
         } else {
             Log.e(Constants.TAG, "Metric not added as the value is not a string or boolean");
         }
@@ -225,7 +633,9 @@ public class Event {
      * @return the current event.
      */
     public Event removeTimer(String name) {
-        this.timers.remove(name);
+        if (this.timers != null && this.timers.containsKey(name)) {
+            ownTimers().remove(name);
+        }
         return this;
     }
 
@@ -275,6 +685,25 @@ public class Event {
         return priority;
     }
 
+    /**
+     * Gets the probability the event was kept with by the sampling policies of its event type,
+     * 1 if it was not sampled. An event kept at a rate of 0.1 stands for 10 events.
+     *
+     * @return the sample rate, from above 0 to 1.
+     */
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Sets the probability the event was kept with.
+     *
+     * @param sampleRate from above 0 to 1.
+     */
+    void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
     /**
      * Sets priority of the event.
      */
@@ -285,37 +714,84 @@ public class Event {
     /**
      * Gets data of the event
      *
-     * @return the event's data.
+     * @return read-only view of the event's data.
      */
     public Map<String, String> getData() {
-        return data;
+        if (data == null) {
+            return Collections.emptyMap();
+        }
+        if (dataView == null) {
+            dataView = Collections.unmodifiableMap(data);
+        }
+        return dataView;
     }
 
     /**
      * Gets counters of the event
      *
-     * @return the event's counter
+     * @return read-only view of the event's counter
      */
     public Map<String, Double> getCounters() {
-        return counters;
+        return counters != null ? counters.asMap() : Collections.<String, Double>emptyMap();
     }
 
     /**
      * Gets timers of the event
      *
-     * @return the event's timer
+     * @return read-only view of the event's timer
      */
     public Map<String, Double> getTimers() {
+        return timers != null ? timers.asMap() : Collections.<String, Double>emptyMap();
+    }
+
+    /**
+     * Gets timer distributions of the event
+     *
+     * @return read-only view of the event's timer histograms
+     */
+    public Map<String, HistogramSnapshot> getTimerHistograms() {
+        if (timerHistograms == null) {
+            return Collections.emptyMap();
+        }
+        if (timerHistogramsView == null) {
+            timerHistogramsView = Collections.unmodifiableMap(timerHistograms);
+        }
+        return timerHistogramsView;
+    }
+
+    /**
+     * Gets the primitive storage of the counters, for stages that read them without boxing.
+     *
+     * @return the counters or null if none were added.
+     */
+    @Nullable
+    DoubleValues getCounterValues() {
+        return counters;
+    }
+
+    /**
+     * Gets the primitive storage of the timers, for stages that read them without boxing.
+     *
+     * @return the timers or null if none were added.
+     */
+    @Nullable
+    DoubleValues getTimerValues() {
         return timers;
     }
 
     /**
      * Gets metrics of the event
      *
-     * @return the event's metrics.
+     * @return read-only view of the event's metrics.
      */
     public Map<String, Object> getMetrics() {
-        return metrics;
+        if (metrics == null) {
+            return Collections.emptyMap();
+        }
+        if (metricsView == null) {
+            metricsView = Collections.unmodifiableMap(metrics);
+        }
+        return metricsView;
     }
 
     @NonNull
@@ -325,9 +801,11 @@ public class Event {
                 " source = " + source +
                 " eventType = " + eventType +
                 " priority = " + priority +
-                " data = " + data +
-                " counters = " + counters +
-                " timers = " + timers +
-                " metrics = " + metrics;
+                " sampleRate = " + sampleRate +
+                " data = " + getData() +
+                " counters = " + getCounters() +
+                " timers = " + getTimers() +
+                " timerHistograms = " + getTimerHistograms() +
+                " metrics = " + getMetrics();
     }
 }
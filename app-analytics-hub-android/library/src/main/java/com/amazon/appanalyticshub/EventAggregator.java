@@ -0,0 +1,306 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Rolls up the events of an event type by name, source and values of the key data over a
+ * tumbling window. When the window closes one event per key is emitted with the sums of the
+ * counters and timers of the events rolled up and their number in the
+ * {@link AggregationConfig#AGGREGATED_EVENT_COUNT} counter. Sampled events are weighted by the
+ * inverse of their sample rate, so that the sums estimate the events recorded before sampling
+ * and the aggregated events are emitted with a sample rate of 1.
+ * </p>
+ * <p>
+ * Adding an event does not take any lock, the sums are kept in {@link StripedDoubleAdder}s.
+ * Keys without events in a window are not emitted and their accumulators are retired when the
+ * window closes, so that the {@link AggregationConfig#getMaxKeys()} limit applies to the keys
+ * in use rather than to every key ever seen. A thread that added to an accumulator retired
+ * meanwhile drains it itself, so that retiring never loses an update. The values of an event
+ * added while its window closes can be emitted in that window and the event counted in the
+ * next one.
+ * {@link Priority#CRITICAL} events are never aggregated.
+ * </p>
+ */
+class EventAggregator {
+
+    private final String[] keyDataNames;
+    private final int maxKeys;
+    private final int stripes;
+    private final EventSink sink;
+    private final ConcurrentHashMap<Key, Accumulator> accumulators;
+    private final ScheduledFuture<?> windowTask;
+    private boolean warnedMaxKeys;
+
+    /**
+     * @param config           of the aggregation.
+     * @param sink             to emit the aggregated events to.
+     * @param scheduler        closing the windows.
+     * @param deliveryExecutor emitting the aggregated events of the windows closed by the
+     *                         scheduler.
+     */
+    EventAggregator(@NonNull AggregationConfig config, @NonNull EventSink sink,
+                    @NonNull ScheduledExecutorService scheduler, @NonNull Executor deliveryExecutor) {
+        List<String> names = config.getKeyDataNames();
+        this.keyDataNames = names.toArray(new String[names.size()]);
+        this.maxKeys = config.getMaxKeys();
+        this.stripes = config.getStripes();
+        this.sink = sink;
+        this.accumulators = new ConcurrentHashMap<>();
+        this.windowTask = scheduler.scheduleAtFixedRate(new OffloadedTask(deliveryExecutor, new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }), config.getWindowMillis(), config.getWindowMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds the event to the accumulator of its key.
+     *
+     * @param event to aggregate, it is not kept.
+     * @return false if the event is not aggregated and has to be recorded as is.
+     */
+    boolean add(@NonNull Event event) {
+        return add(event, event.getSampleRate());
+    }
+
+    /**
+     * Adds the event to the accumulator of its key.
+     *
+     * @param event      to aggregate, it is not kept.
+     * @param sampleRate of the event, in place of the one it carries.
+     * @return false if the event is not aggregated and has to be recorded as is.
+     */
+    boolean add(@NonNull Event event, double sampleRate) {
+        if (event.getPriority() == Priority.CRITICAL) {
+            return false;
+        }
+        Key key = new Key(event, keyDataNames);
+        Accumulator accumulator = accumulators.get(key);
+        if (accumulator == null || accumulator.retired) {
+            if (accumulators.size() >= maxKeys) {
+                warnMaxKeys(event);
+                return false;
+            }
+            Accumulator created = new Accumulator(key, event.getPriority(), stripes);
+            accumulator = accumulators.putIfAbsent(key, created);
+            if (accumulator == null) {
+                accumulator = created;
+            }
+        }
+        accumulator.add(event, 1 / sampleRate);
+        // Retired while adding, the flush may have drained it before the values were added.
+        if (accumulator.retired) {
+            deliver(accumulator.drain());
+        }
+        return true;
+    }
+
+    /**
+     * Closes the current window, emitting the aggregated events and retiring the accumulators
+     * of the keys without events in the window.
+     */
+    synchronized void flush() {
+        Iterator<Accumulator> iterator = accumulators.values().iterator();
+        while (iterator.hasNext()) {
+            Accumulator accumulator = iterator.next();
+            Event aggregated = accumulator.drain();
+            if (aggregated == null) {
+                iterator.remove();
+                accumulator.retired = true;
+                // Events added since the drain above, the later ones are drained by their
+                // own threads.
+                aggregated = accumulator.drain();
+            }
+            deliver(aggregated);
+        }
+    }
+
+    /**
+     * Stops closing windows and emits the events aggregated so far.
+     */
+    void close() {
+        windowTask.cancel(false);
+        flush();
+    }
+
+    private void deliver(@Nullable Event aggregated) {
+        if (aggregated == null) {
+            return;
+        }
+        try {
+            sink.deliverEvent(aggregated);
+        } catch (RuntimeException e) {
+            Log.e(Constants.TAG, "Could not deliver aggregated event " + aggregated.getName(), e);
+        }
+    }
+
+    private void warnMaxKeys(Event event) {
+        if (!warnedMaxKeys) {
+            warnedMaxKeys = true;
+            Log.w(Constants.TAG, "Too many aggregation keys for " + event.getEventType()
+                    + ", recording new keys without aggregation.");
+        }
+    }
+
+    /**
+     * Name, source, event type and key data values of an event.
+     */
+    private static final class Key {
+        final String name;
+        final String source;
+        final String eventType;
+        final String[] values;
+        final String[] valueNames;
+        private final int hash;
+
+        Key(Event event, String[] keyDataNames) {
+            this.name = event.getName();
+            this.source = event.getSource();
+            this.eventType = event.getEventType();
+            this.valueNames = keyDataNames;
+            this.values = new String[keyDataNames.length];
+            Map<String, String> data = event.getData();
+            for (int i = 0; i < keyDataNames.length; i++) {
+                values[i] = data.get(keyDataNames[i]);
+            }
+            int h = name.hashCode();
+            h = 31 * h + (source != null ? source.hashCode() : 0);
+            h = 31 * h + eventType.hashCode();
+            this.hash = 31 * h + Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash
+                    && name.equals(other.name)
+                    && (source != null ? source.equals(other.source) : other.source == null)
+                    && eventType.equals(other.eventType)
+                    && Arrays.equals(values, other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Sums of the events of a key.
+     */
+    private static final class Accumulator {
+        private final Key key;
+        private final Priority priority;
+        private final int stripes;
+        private final StripedDoubleAdder count;
+        private final ConcurrentHashMap<String, StripedDoubleAdder> counters;
+        private final ConcurrentHashMap<String, StripedDoubleAdder> timers;
+
+        /**
+         * Set once the accumulator is removed from the aggregator, it is not added to anymore
+         * by threads looking it up afterwards.
+         */
+        volatile boolean retired;
+
+        Accumulator(Key key, Priority priority, int stripes) {
+            this.key = key;
+            this.priority = priority;
+            this.stripes = stripes;
+            this.count = new StripedDoubleAdder(stripes);
+            this.counters = new ConcurrentHashMap<>();
+            this.timers = new ConcurrentHashMap<>();
+        }
+
+        /**
+         * Adds the counters and timers of the event before counting it, so that an event
+         * counted in a window always has its values in it or in an earlier window.
+         */
+        /**
+         * @param weight number of events the event stands for, the inverse of its sample rate.
+         */
+        void add(Event event, double weight) {
+            addAll(counters, event.getCounterValues(), weight);
+            addAll(timers, event.getTimerValues(), weight);
+            count.add(weight);
+        }
+
+        /**
+         * Takes the sums of the current window.
+         *
+         * @return the aggregated event or null if no event was added.
+         */
+        @Nullable
+        Event drain() {
+            double events = count.sumThenReset();
+            if (events == 0) {
+                return null;
+            }
+            Event aggregated = new Event(key.name, key.source, key.eventType, priority);
+            for (int i = 0; i < key.values.length; i++) {
+                if (key.values[i] != null) {
+                    aggregated.addData(key.valueNames[i], key.values[i]);
+                }
+            }
+            for (Map.Entry<String, StripedDoubleAdder> entry : counters.entrySet()) {
+                double sum = entry.getValue().sumThenReset();
+                if (sum != 0) {
+                    aggregated.setCounter(entry.getKey(), sum);
+                }
+            }
+            for (Map.Entry<String, StripedDoubleAdder> entry : timers.entrySet()) {
+                double sum = entry.getValue().sumThenReset();
+                if (sum != 0) {
+                    aggregated.setTimer(entry.getKey(), sum);
+                }
+            }
+            aggregated.setCounter(AggregationConfig.AGGREGATED_EVENT_COUNT, events);
+            return aggregated;
+        }
+
+        private void addAll(ConcurrentHashMap<String, StripedDoubleAdder> sums, @Nullable DoubleValues values,
+                double weight) {
+            if (values == null) {
+                return;
+            }
+            for (int slot = 0; slot < values.capacity(); slot++) {
+                String name = values.keyAt(slot);
+                if (name != null) {
+                    StripedDoubleAdder sum = sums.get(name);
+                    if (sum == null) {
+                        StripedDoubleAdder created = new StripedDoubleAdder(stripes);
+                        sum = sums.putIfAbsent(name, created);
+                        if (sum == null) {
+                            sum = created;
+                        }
+                    }
+                    sum.add(values.valueAt(slot) * weight);
+                }
+            }
+        }
+    }
+}
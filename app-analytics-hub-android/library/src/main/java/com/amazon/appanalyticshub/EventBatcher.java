@@ -0,0 +1,262 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Accumulates the events routed to a {@link BatchAnalyticsCollector} and hands them over in
+ * batches, flushing when the batch reaches the configured number of events or estimated size,
+ * when one of its events has waited for the configured latency of its priority, or when a
+ * high priority event is added.
+ * </p>
+ * <p>
+ * A batch filled by a recorded event is swapped out on the recording thread and queued, and
+ * the queued batches are handed over on the delivery executor of the hub, so that recording
+ * never waits for the collector. The flushes due to the latency are fired by the scheduler of
+ * the hub and run on the delivery executor as well, so that a slow collector never holds up
+ * the scheduler. Batches are handed over while holding the delivery lock, the queued batches
+ * first, so that the collector receives them in the order they were filled even when several
+ * threads flush.
+ * </p>
+ */
+class EventBatcher extends CollectorDecorator {
+
+    /**
+     * Estimated fixed cost of an event and of each of its entries in bytes.
+     */
+    private static final int EVENT_OVERHEAD_BYTES = 16;
+    private static final int NUMBER_BYTES = 8;
+
+    private final BatchConfig config;
+    private final ScheduledExecutorService scheduler;
+    private final Executor deliveryExecutor;
+    private final Object deliveryLock;
+    private volatile BatchAnalyticsCollector deliveryTarget;
+    private volatile JournalCheckpointer checkpointer;
+    private final ArrayDeque<List<Event>> filledBatches;
+    private final Runnable deliverFilledBatches;
+    private boolean deliveryScheduled;
+    private List<Event> batch;
+    private long batchBytes;
+    private long generation;
+    private long deadlineNanos;
+
+    /**
+     * @param collector        to hand the batches to.
+     * @param config           limits of the batches.
+     * @param scheduler        firing the flushes due to the latency.
+     * @param deliveryExecutor running the flushes fired by the scheduler.
+     */
+    EventBatcher(@NonNull BatchAnalyticsCollector collector, @NonNull BatchConfig config,
+                 @NonNull ScheduledExecutorService scheduler, @NonNull Executor deliveryExecutor) {
+        super(collector);
+        this.deliveryTarget = collector;
+        this.config = config;
+        this.scheduler = scheduler;
+        this.deliveryExecutor = deliveryExecutor;
+        this.deliveryLock = new Object();
+        this.filledBatches = new ArrayDeque<>();
+        this.deliverFilledBatches = new Runnable() {
+            @Override
+            public void run() {
+                synchronized (deliveryLock) {
+                    deliverFilledBatches();
+                }
+            }
+        };
+        this.batch = new ArrayList<>(config.getMaxBatchSize());
+        this.deadlineNanos = Long.MAX_VALUE;
+    }
+
+    @Override
+    public void recordEvent(@NonNull Event event) {
+        boolean scheduleDelivery = false;
+        JournalCheckpointer eventCheckpointer = checkpointer;
+        if (eventCheckpointer != null) {
+            eventCheckpointer.hold(event);
+        }
+        synchronized (this) {
+            event.retain();
+            batch.add(event);
+            batchBytes += estimateSize(event);
+            long latencyMillis = config.getMaxLatencyMillis(event.getPriority());
+            if (batch.size() >= config.getMaxBatchSize()
+                    || batchBytes >= config.getMaxBatchBytes()
+                    || latencyMillis == 0
+                    || (config.isFlushOnHighPriority() && event.getPriority() != Priority.NORMAL)) {
+                filledBatches.add(takeBatch());
+                scheduleDelivery = !deliveryScheduled;
+                deliveryScheduled = true;
+            } else {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(latencyMillis);
+                if (deadlineNanos == Long.MAX_VALUE || deadline - deadlineNanos < 0) {
+                    deadlineNanos = deadline;
+                    scheduleFlush(generation, latencyMillis);
+                }
+            }
+        }
+        if (scheduleDelivery) {
+            scheduleDelivery();
+        }
+    }
+
+    /**
+     * Sets what the batches are handed to, the collector itself or the stages directly in
+     * front of it.
+     *
+     * @param deliveryTarget to hand the batches to.
+     * @param checkpointer   journal checkpoint of the collector holding the batched events,
+     *                       null if the hub has no journal.
+     */
+    void setDeliveryTarget(@NonNull BatchAnalyticsCollector deliveryTarget,
+                           @Nullable JournalCheckpointer checkpointer) {
+        this.deliveryTarget = deliveryTarget;
+        this.checkpointer = checkpointer;
+    }
+
+    /**
+     * Hands the events accumulated so far to the collector on the calling thread, including
+     * the filled batches still waiting for the delivery executor.
+     */
+    void flush() {
+        synchronized (deliveryLock) {
+            synchronized (this) {
+                if (!batch.isEmpty()) {
+                    filledBatches.add(takeBatch());
+                }
+            }
+            deliverFilledBatches();
+        }
+    }
+
+    private void flushGeneration(long batchGeneration) {
+        synchronized (deliveryLock) {
+            synchronized (this) {
+                if (batchGeneration == generation && !batch.isEmpty()) {
+                    filledBatches.add(takeBatch());
+                }
+            }
+            deliverFilledBatches();
+        }
+    }
+
+    /**
+     * Hands the filled batches over in the order they were queued, has to be called while
+     * holding the delivery lock.
+     */
+    private void deliverFilledBatches() {
+        while (true) {
+            List<Event> events;
+            synchronized (this) {
+                events = filledBatches.poll();
+                if (events == null) {
+                    deliveryScheduled = false;
+                    return;
+                }
+            }
+            deliverBatch(events);
+        }
+    }
+
+    private void scheduleDelivery() {
+        try {
+            deliveryExecutor.execute(deliverFilledBatches);
+        } catch (RejectedExecutionException e) {
+            Log.w(Constants.TAG, "Could not hand the batch for " + getName()
+                    + " to the delivery executor, handing it over on the recording thread.");
+            deliverFilledBatches.run();
+        }
+    }
+
+    private List<Event> takeBatch() {
+        List<Event> events = batch;
+        batch = new ArrayList<>(config.getMaxBatchSize());
+        batchBytes = 0;
+        deadlineNanos = Long.MAX_VALUE;
+        generation++;
+        return events;
+    }
+
+    private void scheduleFlush(final long batchGeneration, long delayMillis) {
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        deliveryExecutor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                flushGeneration(batchGeneration);
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        Log.w(Constants.TAG, "Could not run the flush of the batch for " + getName());
+                    }
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            Log.w(Constants.TAG, "Could not schedule the flush of the batch for " + getName());
+        }
+    }
+
+    private void deliverBatch(List<Event> events) {
+        try {
+            deliveryTarget.recordEvents(events);
+        } catch (RuntimeException e) {
+            Log.e(Constants.TAG, "Collector " + getName() + " failed to record a batch of "
+                    + events.size() + " events.", e);
+        } finally {
+            for (Event event : events) {
+                event.release();
+            }
+        }
+    }
+
+    /**
+     * Estimates the size of the event once serialized by a collector.
+     *
+     * @param event to estimate.
+     * @return the estimated size in bytes.
+     */
+    static long estimateSize(@NonNull Event event) {
+        long size = EVENT_OVERHEAD_BYTES + length(event.getName()) + length(event.getSource())
+                + length(event.getEventType());
+        for (Map.Entry<String, String> entry : event.getData().entrySet()) {
+            size += length(entry.getKey()) + length(entry.getValue());
+        }
+        for (String name : event.getCounters().keySet()) {
+            size += length(name) + NUMBER_BYTES;
+        }
+        for (String name : event.getTimers().keySet()) {
+            size += length(name) + NUMBER_BYTES;
+        }
+        for (Map.Entry<String, HistogramSnapshot> entry : event.getTimerHistograms().entrySet()) {
+            size += length(entry.getKey()) + NUMBER_BYTES * entry.getValue().getBucketCount();
+        }
+        for (Map.Entry<String, Object> entry : event.getMetrics().entrySet()) {
+            Object value = entry.getValue();
+            size += length(entry.getKey()) + (value instanceof String ? length((String) value) : 1);
+        }
+        return size;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
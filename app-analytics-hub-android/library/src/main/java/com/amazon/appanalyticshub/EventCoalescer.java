@@ -0,0 +1,249 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Merges the duplicates of the events of an event type recorded within a short window, as
+ * happens when a re-rendered screen records the same event several times. Events with the same
+ * name, source, event type, priority and data are duplicates, their counters are summed into a
+ * copy of the first one which is recorded once its window elapsed, with the number of events
+ * merged in the {@link CoalescingConfig#COALESCED_EVENT_COUNT} counter. The timers, timer
+ * histograms and metrics of the duplicates are dropped.
+ * </p>
+ * <p>
+ * The held events live in a fixed-size open addressing cache indexed by a 64 bit fingerprint of
+ * the fields that make up a duplicate, probed a few slots deep. The cache arrays are allocated
+ * once. The copies are not pooled, so that the collectors can keep the snapshots of them they
+ * receive. Expired events are recorded when their slot is probed again and by a sweep every
+ * window. Events that find no free slot are recorded without coalescing,
+ * {@link Priority#CRITICAL} events are never coalesced.
+ * </p>
+ */
+class EventCoalescer {
+
+    /**
+     * Number of slots probed for a duplicate or a free slot.
+     */
+    private static final int MAX_PROBES = 4;
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private final long windowNanos;
+    private final int mask;
+    private final EventSink sink;
+    private final long[] fingerprints;
+    private final long[] deadlines;
+    private final Event[] held;
+    private final int[] counts;
+    private final Object sweepLock;
+    private final Event[] swept;
+    private final ScheduledFuture<?> sweepTask;
+
+    /**
+     * @param config           of the coalescing.
+     * @param sink             to record the coalesced events to.
+     * @param scheduler        firing the sweeps.
+     * @param deliveryExecutor running the sweeps fired by the scheduler.
+     */
+    EventCoalescer(@NonNull CoalescingConfig config, @NonNull EventSink sink,
+                   @NonNull ScheduledExecutorService scheduler, @NonNull Executor deliveryExecutor) {
+        int size = config.getCacheSize();
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(config.getWindowMillis());
+        this.mask = size - 1;
+        this.sink = sink;
+        this.fingerprints = new long[size];
+        this.deadlines = new long[size];
+        this.held = new Event[size];
+        this.counts = new int[size];
+        this.sweepLock = new Object();
+        this.swept = new Event[size];
+        this.sweepTask = scheduler.scheduleAtFixedRate(new OffloadedTask(deliveryExecutor, new Runnable() {
+            @Override
+            public void run() {
+                sweep(false);
+            }
+        }), config.getWindowMillis(), config.getWindowMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Merges the event into a held duplicate or holds a copy of it.
+     *
+     * @param event to coalesce, it is not kept.
+     * @return false if the event is not coalesced and has to be recorded as is.
+     */
+    boolean add(@NonNull Event event) {
+        return add(event, event.getSampleRate());
+    }
+
+    /**
+     * Merges the event into a held duplicate or holds a copy of it.
+     *
+     * @param event      to coalesce, it is not kept.
+     * @param sampleRate of the event, in place of the one it carries.
+     * @return false if the event is not coalesced and has to be recorded as is.
+     */
+    boolean add(@NonNull Event event, double sampleRate) {
+        if (event.getPriority() == Priority.CRITICAL) {
+            return false;
+        }
+        long fingerprint = fingerprint(event);
+        long now = System.nanoTime();
+        Event expired = null;
+        boolean coalesced = false;
+        synchronized (this) {
+            int home = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+            int free = -1;
+            for (int probe = 0; probe < MAX_PROBES && probe <= mask; probe++) {
+                int index = (home + probe) & mask;
+                Event candidate = held[index];
+                if (candidate != null && expired == null && now - deadlines[index] >= 0) {
+                    expired = take(index);
+                    candidate = null;
+                }
+                if (candidate == null) {
+                    if (free < 0) {
+                        free = index;
+                    }
+                } else if (fingerprints[index] == fingerprint && isDuplicate(candidate, event)) {
+                    candidate.mergeCounters(event.getCounterValues());
+                    counts[index]++;
+                    coalesced = true;
+                    break;
+                }
+            }
+            if (!coalesced && free >= 0) {
+                Event copy = new Event(event.getName(), event.getSource(),
+                        event.getEventType(), event.getPriority());
+                copy.copyFieldsFrom(event);
+                copy.setSampleRate(sampleRate);
+                fingerprints[free] = fingerprint;
+                deadlines[free] = now + windowNanos;
+                held[free] = copy;
+                counts[free] = 1;
+                coalesced = true;
+            }
+        }
+        if (expired != null) {
+            deliver(expired);
+        }
+        return coalesced;
+    }
+
+    /**
+     * Records every held event right away.
+     */
+    void flush() {
+        sweep(true);
+    }
+
+    /**
+     * Stops sweeping and records the events held so far.
+     */
+    void close() {
+        sweepTask.cancel(false);
+        flush();
+    }
+
+    private void sweep(boolean all) {
+        synchronized (sweepLock) {
+            int count = 0;
+            long now = System.nanoTime();
+            synchronized (this) {
+                for (int index = 0; index < held.length; index++) {
+                    if (held[index] != null && (all || now - deadlines[index] >= 0)) {
+                        swept[count++] = take(index);
+                    }
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                deliver(swept[i]);
+                swept[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Removes the event of a slot, adding the number of events merged into it. Has to be called
+     * while holding the lock of the coalescer.
+     */
+    private Event take(int index) {
+        Event event = held[index];
+        if (counts[index] > 1) {
+            event.addCounter(CoalescingConfig.COALESCED_EVENT_COUNT, counts[index]);
+        }
+        held[index] = null;
+        counts[index] = 0;
+        return event;
+    }
+
+    private void deliver(Event event) {
+        try {
+            sink.deliverEvent(event.snapshot(event.getSampleRate()));
+        } catch (RuntimeException e) {
+            Log.e(Constants.TAG, "Could not deliver coalesced event " + event.getName(), e);
+        }
+    }
+
+    private static boolean isDuplicate(Event held, Event event) {
+        return held.getName().equals(event.getName())
+                && (held.getSource() != null ? held.getSource().equals(event.getSource())
+                : event.getSource() == null)
+                && held.getEventType().equals(event.getEventType())
+                && held.getPriority() == event.getPriority()
+                && held.getData().equals(event.getData());
+    }
+
+    /**
+     * Computes a 64 bit fingerprint of the fields that make up a duplicate, independent of the
+     * order of the data.
+     *
+     * @param event to fingerprint.
+     * @return the fingerprint.
+     */
+    static long fingerprint(@NonNull Event event) {
+        long hash = combine(0, hashOf(event.getName()));
+        hash = combine(hash, hashOf(event.getSource()));
+        hash = combine(hash, hashOf(event.getEventType()));
+        hash = combine(hash, event.getPriority().ordinal());
+        long data = 0;
+        for (Map.Entry<String, String> entry : event.getData().entrySet()) {
+            long key = hashOf(entry.getKey());
+            long value = hashOf(entry.getValue()) & 0xFFFFFFFFL;
+            data += mix(key << 32 ^ value);
+        }
+        return mix(combine(hash, data));
+    }
+
+    private static int hashOf(String value) {
+        return value != null ? value.hashCode() : 0;
+    }
+
+    private static long combine(long hash, long value) {
+        return Long.rotateLeft((hash ^ value) * GOLDEN_RATIO, 31);
+    }
+
+    /**
+     * Finalizer of MurmurHash3, spreading every input bit over the whole output.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * <p>
+ * Constants and primitives of the compact binary format of {@link Event} shared by
+ * {@link EventEncoder}, {@link EventDecoder} and {@link EncodedEventView}.
+ * </p>
+ * <p>
+ * An event is laid out as its priority, name, source and event type followed by the data,
+ * counters, timers, metrics and timer histograms, each map prefixed with its entry count, and
+ * the sample rate. Counts and lengths are
+ * unsigned varints. A string is a varint tag: 0 for null, an odd tag refers to the entry
+ * {@code tag >> 1} of the dictionary of the stream, an even tag is followed by
+ * {@code (tag >> 1) - 1} bytes of UTF-8 that are added to the dictionary. A number is a varint
+ * tag: an even tag is the zig-zag encoded integral value {@code tag >> 1}, an odd tag is
+ * followed by the 8 bytes of the double. A histogram is its lowest discernible duration shift
+ * and precision bytes, its minimum, maximum and sum followed by the non-empty buckets as pairs
+ * of index delta and count.
+ * </p>
+ */
+final class EventCodec {
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Maximum number of strings in the dictionary of a stream, later strings are written
+     * inline every time.
+     */
+    static final int MAX_DICTIONARY_SIZE = 4096;
+
+    /**
+     * Largest bucket index accepted in a histogram, that of the longest duration at the
+     * highest precision.
+     */
+    static final int MAX_HISTOGRAM_BUCKETS =
+            TimerHistogram.indexOf(Long.MAX_VALUE, TimerHistogram.MAX_PRECISION_BITS);
+
+    static final int STRING_NULL = 0;
+    static final int METRIC_STRING = 0;
+    static final int METRIC_FALSE = 1;
+    static final int METRIC_TRUE = 2;
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    /**
+     * Largest magnitude of a double that is written as an integer.
+     */
+    private static final double MAX_INTEGRAL = 1L << 53;
+
+    private EventCodec() {
+    }
+
+    static void writeVarint(@NonNull ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long readVarint(@NonNull ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint.");
+    }
+
+    static int readCount(@NonNull ByteBuffer buffer) {
+        long count = readVarint(buffer);
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("Malformed entry count " + count);
+        }
+        return (int) count;
+    }
+
+    static void writeNumber(@NonNull ByteBuffer buffer, double value) {
+        long integral = (long) value;
+        if (integral == value && Math.abs(value) < MAX_INTEGRAL) {
+            writeVarint(buffer, ((integral << 1) ^ (integral >> 63)) << 1);
+        } else {
+            writeVarint(buffer, 1);
+            buffer.putDouble(value);
+        }
+    }
+
+    static double readNumber(@NonNull ByteBuffer buffer) {
+        long tag = readVarint(buffer);
+        if ((tag & 1) == 1) {
+            return buffer.getDouble();
+        }
+        long zigZag = tag >>> 1;
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    /**
+     * Reads a string, adding literals to the dictionary.
+     *
+     * @param buffer     to read from.
+     * @param dictionary strings of the stream read so far.
+     * @return the string, or null.
+     */
+    @Nullable
+    static String readString(@NonNull ByteBuffer buffer, @NonNull List<String> dictionary) {
+        long tag = readVarint(buffer);
+        if (tag == STRING_NULL) {
+            return null;
+        }
+        if ((tag & 1) == 1) {
+            long index = tag >>> 1;
+            if (index >= dictionary.size()) {
+                throw new IllegalArgumentException("Unknown dictionary entry " + index);
+            }
+            return dictionary.get((int) index);
+        }
+        long length = (tag >>> 1) - 1;
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("Malformed string length " + length);
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), (int) length, UTF_8);
+            buffer.position(buffer.position() + (int) length);
+        } else {
+            byte[] bytes = new byte[(int) length];
+            buffer.get(bytes);
+            value = new String(bytes, UTF_8);
+        }
+        if (dictionary.size() < MAX_DICTIONARY_SIZE) {
+            dictionary.add(value);
+        }
+        return value;
+    }
+
+    static HistogramSnapshot readHistogram(@NonNull ByteBuffer buffer) {
+        int unitShift = buffer.get();
+        int precisionBits = buffer.get();
+        if (unitShift < 0 || unitShift > 62 || precisionBits < TimerHistogram.MIN_PRECISION_BITS
+                || precisionBits > TimerHistogram.MAX_PRECISION_BITS) {
+            throw new IllegalArgumentException("Malformed histogram layout.");
+        }
+        long min = readVarint(buffer);
+        long max = readVarint(buffer);
+        long sum = readVarint(buffer);
+        int used = readCount(buffer);
+        int[] indexes = new int[used];
+        long[] values = new long[used];
+        long index = 0;
+        for (int i = 0; i < used; i++) {
+            index += readVarint(buffer);
+            if (index < 0 || index > MAX_HISTOGRAM_BUCKETS) {
+                throw new IllegalArgumentException("Malformed histogram bucket " + index);
+            }
+            indexes[i] = (int) index;
+            values[i] = readVarint(buffer);
+        }
+        long[] counts = new long[used > 0 ? indexes[used - 1] + 1 : 0];
+        for (int i = 0; i < used; i++) {
+            counts[indexes[i]] += values[i];
+        }
+        return new HistogramSnapshot(unitShift, precisionBits, counts, min, max, sum);
+    }
+
+    static Priority readPriority(@NonNull ByteBuffer buffer) {
+        int ordinal = buffer.get();
+        if (ordinal < 0 || ordinal >= PRIORITIES.length) {
+            throw new IllegalArgumentException("Unknown priority " + ordinal);
+        }
+        return PRIORITIES[ordinal];
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Reads events written by an {@link EventEncoder}. The events of a stream have to be decoded
+ * in the order they were encoded by the same decoder, use {@link #reset()} when the encoder
+ * was reset.
+ * </p>
+ * <p>
+ * A decoder keeps the state of its stream and is not thread safe.
+ * </p>
+ */
+public class EventDecoder {
+
+    private final List<String> dictionary;
+
+    public EventDecoder() {
+        dictionary = new ArrayList<>();
+    }
+
+    /**
+     * Clears the dictionary so that the next event is read as the start of a new stream.
+     */
+    public void reset() {
+        dictionary.clear();
+    }
+
+    /**
+     * Reads the event at the position of the buffer, advancing the position past it.
+     *
+     * @param buffer to read from.
+     * @return the event.
+     * @throws IllegalArgumentException if the buffer does not contain a valid event.
+     */
+    @NonNull
+    public Event decode(@NonNull ByteBuffer buffer) {
+        try {
+            Priority priority = EventCodec.readPriority(buffer);
+            String name = EventCodec.readString(buffer, dictionary);
+            String source = EventCodec.readString(buffer, dictionary);
+            String eventType = EventCodec.readString(buffer, dictionary);
+            if (name == null || eventType == null) {
+                throw new IllegalArgumentException("Event without name or event type.");
+            }
+            Event event = new Event(name, source, eventType, priority);
+            for (int i = EventCodec.readCount(buffer); i > 0; i--) {
+                event.addData(readKey(buffer), readKey(buffer));
+            }
+            for (int i = EventCodec.readCount(buffer); i > 0; i--) {
+                event.setCounter(readKey(buffer), EventCodec.readNumber(buffer));
+            }
+            for (int i = EventCodec.readCount(buffer); i > 0; i--) {
+                event.setTimer(readKey(buffer), EventCodec.readNumber(buffer));
+            }
+            for (int i = EventCodec.readCount(buffer); i > 0; i--) {
+                String key = readKey(buffer);
+                int type = buffer.get();
+                if (type == EventCodec.METRIC_STRING) {
+                    event.addMetric(key, readKey(buffer));
+                } else {
+                    event.addMetric(key, type == EventCodec.METRIC_TRUE);
+                }
+            }
+            for (int i = EventCodec.readCount(buffer); i > 0; i--) {
+                event.addTimerHistogram(readKey(buffer), EventCodec.readHistogram(buffer));
+            }
+            double sampleRate = EventCodec.readNumber(buffer);
+            if (!(sampleRate > 0 && sampleRate <= 1)) {
+                throw new IllegalArgumentException("Malformed sample rate " + sampleRate);
+            }
+            event.setSampleRate(sampleRate);
+            return event;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated event.", e);
+        }
+    }
+
+    private String readKey(ByteBuffer buffer) {
+        String key = EventCodec.readString(buffer, dictionary);
+        if (key == null) {
+            throw new IllegalArgumentException("Unexpected null entry.");
+        }
+        return key;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Writes events in the compact binary format read by {@link EventDecoder}. Strings are
+ * interned in a dictionary for the lifetime of the encoder, so a string repeated across the
+ * events of a stream, like names, event types and keys, is only written once. Use
+ * {@link #reset()} to start a new, self-contained stream.
+ * </p>
+ * <p>
+ * An encoder keeps the state of its stream and is not thread safe.
+ * </p>
+ */
+public class EventEncoder {
+
+    private final Map<String, Integer> dictionary;
+
+    public EventEncoder() {
+        dictionary = new HashMap<>();
+    }
+
+    /**
+     * Clears the dictionary so that the next event starts a new stream.
+     */
+    public void reset() {
+        dictionary.clear();
+    }
+
+    /**
+     * Writes the event at the position of the buffer. If the buffer is too small a
+     * {@link java.nio.BufferOverflowException} is thrown and the encoder has to be reset
+     * before writing to a new stream.
+     *
+     * @param event  to write.
+     * @param buffer to write to.
+     */
+    public void encode(@NonNull Event event, @NonNull ByteBuffer buffer) {
+        buffer.put((byte) event.getPriority().ordinal());
+        writeString(buffer, event.getName());
+        writeString(buffer, event.getSource());
+        writeString(buffer, event.getEventType());
+        Map<String, String> data = event.getData();
+        EventCodec.writeVarint(buffer, data.size());
+        for (Map.Entry<String, String> entry : data.entrySet()) {
+            writeString(buffer, entry.getKey());
+            writeString(buffer, entry.getValue());
+        }
+        writeNumbers(buffer, event.getCounterValues());
+        writeNumbers(buffer, event.getTimerValues());
+        Map<String, Object> metrics = event.getMetrics();
+        EventCodec.writeVarint(buffer, metrics.size());
+        for (Map.Entry<String, Object> entry : metrics.entrySet()) {
+            writeString(buffer, entry.getKey());
+            Object value = entry.getValue();
+            if (value instanceof Boolean) {
+                buffer.put((byte) ((Boolean) value ? EventCodec.METRIC_TRUE : EventCodec.METRIC_FALSE));
+            } else {
+                buffer.put((byte) EventCodec.METRIC_STRING);
+                writeString(buffer, String.valueOf(value));
+            }
+        }
+        Map<String, HistogramSnapshot> histograms = event.getTimerHistograms();
+        EventCodec.writeVarint(buffer, histograms.size());
+        for (Map.Entry<String, HistogramSnapshot> entry : histograms.entrySet()) {
+            writeString(buffer, entry.getKey());
+            writeHistogram(buffer, entry.getValue());
+        }
+        EventCodec.writeNumber(buffer, event.getSampleRate());
+    }
+
+    private void writeHistogram(ByteBuffer buffer, HistogramSnapshot histogram) {
+        buffer.put((byte) histogram.getUnitShift());
+        buffer.put((byte) histogram.getPrecisionBits());
+        EventCodec.writeVarint(buffer, histogram.getMinNanos());
+        EventCodec.writeVarint(buffer, histogram.getMaxNanos());
+        EventCodec.writeVarint(buffer, histogram.getSumNanos());
+        int used = 0;
+        for (int i = 0; i < histogram.getBucketCount(); i++) {
+            if (histogram.getCountAtBucket(i) > 0) {
+                used++;
+            }
+        }
+        EventCodec.writeVarint(buffer, used);
+        int previous = 0;
+        for (int i = 0; i < histogram.getBucketCount(); i++) {
+            long count = histogram.getCountAtBucket(i);
+            if (count > 0) {
+                EventCodec.writeVarint(buffer, i - previous);
+                EventCodec.writeVarint(buffer, count);
+                previous = i;
+            }
+        }
+    }
+
+    private void writeNumbers(ByteBuffer buffer, @Nullable DoubleValues numbers) {
+        if (numbers == null) {
+            EventCodec.writeVarint(buffer, 0);
+            return;
+        }
+        EventCodec.writeVarint(buffer, numbers.size());
+        for (int slot = 0; slot < numbers.capacity(); slot++) {
+            String key = numbers.keyAt(slot);
+            if (key != null) {
+                writeString(buffer, key);
+                EventCodec.writeNumber(buffer, numbers.valueAt(slot));
+            }
+        }
+    }
+
+    private void writeString(ByteBuffer buffer, @Nullable String value) {
+        if (value == null) {
+            EventCodec.writeVarint(buffer, EventCodec.STRING_NULL);
+            return;
+        }
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            EventCodec.writeVarint(buffer, ((long) index << 1) | 1);
+            return;
+        }
+        byte[] bytes = value.getBytes(EventCodec.UTF_8);
+        EventCodec.writeVarint(buffer, (long) (bytes.length + 1) << 1);
+        buffer.put(bytes);
+        if (dictionary.size() < EventCodec.MAX_DICTIONARY_SIZE) {
+            dictionary.put(value, dictionary.size());
+        }
+    }
+}
@@ -19,6 +19,7 @@ public class EventFactory {
 
     private String source;
     private String eventType;
+    private EventPool pool;
 
     public EventFactory() {
     }
@@ -78,12 +79,7 @@ public class EventFactory {
                              @Nullable String source,
                              @Nullable Priority priority,
                              @Nullable String eventType) {
-        source = !TextUtils.isEmpty(source) ? source : this.source;
-        eventType = !TextUtils.isEmpty(eventType) ? eventType : this.eventType;
-        if (TextUtils.isEmpty(eventType)) {
-            eventType = Constants.UNKNOWN_TYPE;
-        }
-        return new Event(name, source, eventType, priority);
+        return new Event(name, resolveSource(source), resolveEventType(eventType), priority);
     }
 
     /**
@@ -111,4 +107,70 @@ public class EventFactory {
                              @Nullable Priority priority) {
         return this.createEvent(name, source, priority, eventType);
     }
+
+    /**
+     * Method to get a pooled Event with the provided name, source, priority and event type.
+     * The event behaves like one returned by {@link #createEvent(String, String, Priority, String)}
+     * but is reused once given back with {@link #releaseEvent(Event)}, so that recording events
+     * at a high frequency does not allocate. A pooled event must not be used after it has been
+     * released, the hub keeps its own hold on the events it still has to deliver. The events the
+     * collectors receive for a pooled event share its maps, they are only valid until their
+     * delivery returns.
+     *
+     * @param name      - mandatory field for event creation
+     * @param source    - optional field for event creation
+     * @param priority  - optional field for event creation
+     * @param eventType - mandatory field for event creation. Either event factory should have a
+     *                  default event type or you have to provide it in this method.
+     * @return pooled event
+     */
+    public Event acquireEvent(@NonNull String name,
+                              @Nullable String source,
+                              @Nullable Priority priority,
+                              @Nullable String eventType) {
+        EventPool eventPool;
+        synchronized (this) {
+            if (pool == null) {
+                pool = new EventPool(EventPool.DEFAULT_MAX_IDLE);
+            }
+            eventPool = pool;
+        }
+        return eventPool.acquire(name, resolveSource(source), resolveEventType(eventType), priority);
+    }
+
+    /**
+     * Method to get a pooled Event with the provided name and priority.
+     *
+     * @param name     - mandatory field for event creation
+     * @param priority - optional field for event creation
+     * @return pooled event
+     * @see #acquireEvent(String, String, Priority, String)
+     */
+    public Event acquireEvent(@NonNull String name,
+                              @Nullable Priority priority) {
+        return this.acquireEvent(name, source, priority, eventType);
+    }
+
+    /**
+     * Gives a pooled event back once the caller is done with it, usually right after recording
+     * it. Events that were not acquired from a factory are ignored.
+     *
+     * @param event to give back.
+     */
+    public void releaseEvent(@NonNull Event event) {
+        event.release();
+    }
+
+    private String resolveSource(@Nullable String source) {
+        return !TextUtils.isEmpty(source) ? source : this.source;
+    }
+
+    @NonNull
+    private String resolveEventType(@Nullable String eventType) {
+        eventType = !TextUtils.isEmpty(eventType) ? eventType : this.eventType;
+        if (TextUtils.isEmpty(eventType)) {
+            eventType = Constants.UNKNOWN_TYPE;
+        }
+        return eventType;
+    }
 }
@@ -0,0 +1,469 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ * Predicate on the name, source, priority and data of an event, deciding which of the events
+ * routed to a collector are delivered to it. Filters are built from the factory methods and
+ * combined with {@link #and}, {@link #or} and {@link #not}.
+ * </p>
+ * <p>
+ * A filter is compiled once when it is set with
+ * {@link AppAnalyticsHub#setCollectorFilter(String, EventFilter)}: nested combinations are
+ * flattened, constant branches folded away and the cheapest checks moved first, so that an
+ * event costs a few field comparisons and set lookups. Filters are immutable and thread safe.
+ * </p>
+ */
+public abstract class EventFilter {
+
+    /**
+     * Filter keeping every event.
+     */
+    public static final EventFilter ALL = new Constant(true);
+
+    /**
+     * Filter dropping every event.
+     */
+    public static final EventFilter NONE = new Constant(false);
+
+    private static final int COST_CONSTANT = 0;
+    private static final int COST_FIELD = 1;
+    private static final int COST_PATTERN = 2;
+    private static final int COST_DATA = 3;
+
+    EventFilter() {
+    }
+
+    /**
+     * Creates a filter keeping the events with one of the given names.
+     *
+     * @param names of the events.
+     * @return the filter.
+     */
+    @NonNull
+    public static EventFilter nameIs(@NonNull String... names) {
+        return new FieldIn(Field.NAME, names);
+    }
+
+    /**
+     * Creates a filter keeping the events whose name matches a pattern, where
+     * {@link RoutingSpec#WILDCARD} matches any run of characters.
+     *
+     * @param pattern of the names, for example {@code Playback*}.
+     * @return the filter.
+     */
+    @NonNull
+    public static EventFilter nameMatches(@NonNull String pattern) {
+        return new NameMatches(pattern);
+    }
+
+    /**
+     * Creates a filter keeping the events from one of the given sources.
+     *
+     * @param sources of the events.
+     * @return the filter.
+     */
+    @NonNull
+    public static EventFilter sourceIs(@NonNull String... sources) {
+        return new FieldIn(Field.SOURCE, sources);
+    }
+
+    /**
+     * Creates a filter keeping the events with one of the given priorities.
+     *
+     * @param priorities of the events.
+     * @return the filter.
+     */
+    @NonNull
+    public static EventFilter priorityIs(@NonNull Priority... priorities) {
+        return new PriorityIn(priorities);
+    }
+
+    /**
+     * Creates a filter keeping the events with the given data.
+     *
+     * @param dataName name of the data.
+     * @return the filter.
+     */
+    @NonNull
+    public static EventFilter hasData(@NonNull String dataName) {
+        return new DataIn(dataName, null);
+    }
+
+    /**
+     * Creates a filter keeping the events whose data has one of the given values.
+     *
+     * @param dataName name of the data.
+     * @param values   of the data.
+     * @return the filter.
+     */
+    @NonNull
+    public static EventFilter dataIs(@NonNull String dataName, @NonNull String... values) {
+        return new DataIn(dataName, values);
+    }
+
+    /**
+     * Creates a filter keeping the events all the given filters keep.
+     *
+     * @param filters to combine.
+     * @return the filter.
+     */
+    @NonNull
+    public static EventFilter and(@NonNull EventFilter... filters) {
+        return new Combination(true, Arrays.asList(filters.clone()));
+    }
+
+    /**
+     * Creates a filter keeping the events any of the given filters keeps.
+     *
+     * @param filters to combine.
+     * @return the filter.
+     */
+    @NonNull
+    public static EventFilter or(@NonNull EventFilter... filters) {
+        return new Combination(false, Arrays.asList(filters.clone()));
+    }
+
+    /**
+     * Creates a filter keeping the events the given filter drops.
+     *
+     * @param filter to negate.
+     * @return the filter.
+     */
+    @NonNull
+    public static EventFilter not(@NonNull EventFilter filter) {
+        return new Not(filter);
+    }
+
+    /**
+     * Decides whether to deliver the event.
+     *
+     * @param event to decide for.
+     * @return true if the event is kept.
+     */
+    abstract boolean matches(@NonNull Event event);
+
+    /**
+     * Gets the filter to evaluate in place of this one, with the same result for every event.
+     *
+     * @return the compiled filter.
+     */
+    @NonNull
+    EventFilter compile() {
+        return this;
+    }
+
+    /**
+     * Gets the relative cost of evaluating the filter, used to evaluate the cheapest filters
+     * of a combination first.
+     *
+     * @return the cost.
+     */
+    abstract int cost();
+
+    private enum Field {
+        NAME,
+        SOURCE
+    }
+
+    private static final class Constant extends EventFilter {
+        private final boolean result;
+
+        Constant(boolean result) {
+            this.result = result;
+        }
+
+        @Override
+        boolean matches(@NonNull Event event) {
+            return result;
+        }
+
+        @Override
+        int cost() {
+            return COST_CONSTANT;
+        }
+    }
+
+    private static final class FieldIn extends EventFilter {
+        private final Field field;
+        private final String single;
+        private final Set<String> values;
+
+        FieldIn(Field field, String[] values) {
+            this.field = field;
+            this.single = values.length == 1 ? values[0] : null;
+            this.values = values.length == 1 ? null : new HashSet<>(Arrays.asList(values));
+        }
+
+        @Override
+        boolean matches(@NonNull Event event) {
+            String value = field == Field.NAME ? event.getName() : event.getSource();
+            if (value == null) {
+                return false;
+            }
+            return single != null ? single.equals(value) : values.contains(value);
+        }
+
+        @Override
+        EventFilter compile() {
+            return single == null && values.isEmpty() ? NONE : this;
+        }
+
+        @Override
+        int cost() {
+            return COST_FIELD;
+        }
+    }
+
+    /**
+     * Matches the name against the literal segments between the wildcards of the pattern: the
+     * first is a prefix, the last a suffix and the others are found in order in between.
+     */
+    private static final class NameMatches extends EventFilter {
+        private final String[] segments;
+
+        NameMatches(String pattern) {
+            List<String> segmentList = new ArrayList<>();
+            int start = 0;
+            for (int i = 0; i <= pattern.length(); i++) {
+                if (i == pattern.length() || pattern.charAt(i) == RoutingSpec.WILDCARD) {
+                    segmentList.add(pattern.substring(start, i));
+                    start = i + 1;
+                }
+            }
+            this.segments = segmentList.toArray(new String[0]);
+        }
+
+        @Override
+        boolean matches(@NonNull Event event) {
+            String name = event.getName();
+            int last = segments.length - 1;
+            if (last == 0) {
+                return segments[0].equals(name);
+            }
+            if (name.length() < segments[0].length() + segments[last].length()
+                    || !name.startsWith(segments[0]) || !name.endsWith(segments[last])) {
+                return false;
+            }
+            int position = segments[0].length();
+            int end = name.length() - segments[last].length();
+            for (int i = 1; i < last; i++) {
+                int found = name.indexOf(segments[i], position);
+                if (found < 0 || found + segments[i].length() > end) {
+                    return false;
+                }
+                position = found + segments[i].length();
+            }
+            return true;
+        }
+
+        @Override
+        EventFilter compile() {
+            for (String segment : segments) {
+                if (!segment.isEmpty()) {
+                    return this;
+                }
+            }
+            return segments.length > 1 ? ALL : this;
+        }
+
+        @Override
+        int cost() {
+            return COST_PATTERN;
+        }
+    }
+
+    private static final class PriorityIn extends EventFilter {
+        private final boolean[] kept;
+
+        PriorityIn(Priority[] priorities) {
+            kept = new boolean[Priority.values().length];
+            for (Priority priority : priorities) {
+                kept[priority.ordinal()] = true;
+            }
+        }
+
+        @Override
+        boolean matches(@NonNull Event event) {
+            return kept[event.getPriority().ordinal()];
+        }
+
+        @Override
+        EventFilter compile() {
+            boolean all = true;
+            boolean none = true;
+            for (boolean priorityKept : kept) {
+                all &= priorityKept;
+                none &= !priorityKept;
+            }
+            return all ? ALL : none ? NONE : this;
+        }
+
+        @Override
+        int cost() {
+            return COST_FIELD;
+        }
+    }
+
+    private static final class DataIn extends EventFilter {
+        private final String dataName;
+        private final String single;
+        private final Set<String> values;
+
+        /**
+         * @param values of the data to keep, null to keep any value.
+         */
+        DataIn(String dataName, String[] values) {
+            this.dataName = dataName;
+            this.single = values != null && values.length == 1 ? values[0] : null;
+            this.values = values != null && values.length != 1
+                    ? new HashSet<>(Arrays.asList(values)) : null;
+        }
+
+        @Override
+        boolean matches(@NonNull Event event) {
+            String value = event.getData().get(dataName);
+            if (value == null) {
+                return false;
+            }
+            if (single != null) {
+                return single.equals(value);
+            }
+            return values == null || values.contains(value);
+        }
+
+        @Override
+        EventFilter compile() {
+            return values != null && values.isEmpty() ? NONE : this;
+        }
+
+        @Override
+        int cost() {
+            return COST_DATA;
+        }
+    }
+
+    private static final class Not extends EventFilter {
+        private final EventFilter filter;
+
+        Not(EventFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        boolean matches(@NonNull Event event) {
+            return !filter.matches(event);
+        }
+
+        @Override
+        EventFilter compile() {
+            EventFilter compiled = filter.compile();
+            if (compiled == ALL) {
+                return NONE;
+            }
+            if (compiled == NONE) {
+                return ALL;
+            }
+            if (compiled instanceof Not) {
+                return ((Not) compiled).filter;
+            }
+            return compiled == filter ? this : new Not(compiled);
+        }
+
+        @Override
+        int cost() {
+            return filter.cost();
+        }
+    }
+
+    private static final class Combination extends EventFilter {
+        private final boolean and;
+        private final EventFilter[] filters;
+
+        Combination(boolean and, List<EventFilter> filters) {
+            this.and = and;
+            this.filters = filters.toArray(new EventFilter[0]);
+        }
+
+        @Override
+        boolean matches(@NonNull Event event) {
+            for (EventFilter filter : filters) {
+                if (filter.matches(event) != and) {
+                    return !and;
+                }
+            }
+            return and;
+        }
+
+        @Override
+        EventFilter compile() {
+            // The neutral element is skipped, the absorbing one decides the whole combination.
+            EventFilter neutral = and ? ALL : NONE;
+            EventFilter absorbing = and ? NONE : ALL;
+            List<EventFilter> flattened = new ArrayList<>();
+            if (!flatten(flattened, neutral, absorbing)) {
+                return absorbing;
+            }
+            if (flattened.isEmpty()) {
+                return neutral;
+            }
+            if (flattened.size() == 1) {
+                return flattened.get(0);
+            }
+            Collections.sort(flattened, new Comparator<EventFilter>() {
+                @Override
+                public int compare(EventFilter first, EventFilter second) {
+                    return first.cost() - second.cost();
+                }
+            });
+            return new Combination(and, flattened);
+        }
+
+        /**
+         * Adds the compiled filters of the combination and of the nested combinations of the
+         * same kind to the list.
+         *
+         * @return false if a filter is the absorbing element.
+         */
+        private boolean flatten(List<EventFilter> flattened, EventFilter neutral,
+                                EventFilter absorbing) {
+            for (EventFilter filter : filters) {
+                EventFilter compiledFilter = filter.compile();
+                if (compiledFilter == absorbing) {
+                    return false;
+                }
+                if (compiledFilter == neutral) {
+                    continue;
+                }
+                if (compiledFilter instanceof Combination && ((Combination) compiledFilter).and == and) {
+                    Collections.addAll(flattened, ((Combination) compiledFilter).filters);
+                } else {
+                    flattened.add(compiledFilter);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        int cost() {
+            int cost = 0;
+            for (EventFilter filter : filters) {
+                cost = Math.max(cost, filter.cost());
+            }
+            return cost;
+        }
+    }
+}
@@ -0,0 +1,693 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * <p>
+ * Append-only journal of the recorded events, kept in memory-mapped segment files so that
+ * events that have not reached every collector survive the process dying. Every collector
+ * has a checkpoint and on start up the events after the checkpoints are replayed.
+ * </p>
+ * <p>
+ * The checkpoint of a collector is the sequence before the oldest event it may still receive:
+ * the events appended and not yet routed by the hub, those held for it by the stages that
+ * deliver later, like batching and isolation, and those still to be replayed to it. Events
+ * received out of order or dropped by a stage never move the checkpoint past an event still
+ * on its way, and a collector without pending events follows the last appended event, so
+ * that collectors seldom routed to do not keep the segments on disk.
+ * </p>
+ * <p>
+ * Appending only copies the event into the mapped segment and never touches the disk: the
+ * next segment is created and mapped ahead of time on the I/O executor, a full segment is
+ * flushed and closed there as well, and the active segment is flushed by {@link #sync()},
+ * which the hub calls periodically off the recording thread and which does not hold the
+ * lock appending takes while flushing. A record is laid out as its payload length, its
+ * sequence and the event written by a freshly reset {@link EventEncoder}. The length is
+ * written last so that a record is only visible once complete.
+ * </p>
+ */
+class EventJournal {
+
+    private static final String SEGMENT_PREFIX = "events-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoints";
+    private static final String CHECKPOINT_TEMP_FILE = "checkpoints.tmp";
+    private static final String SPARE_SEGMENT_FILE = "spare.seg.tmp";
+    private static final int CHECKPOINT_VERSION = 1;
+    private static final int RECORD_HEADER_BYTES = 4 + 8;
+    private static final int INITIAL_PAYLOAD_BYTES = 1024;
+
+    private final JournalConfig config;
+    private final File directory;
+    private final TreeMap<Long, File> segments;
+    private final ConcurrentHashMap<String, CollectorCheckpoint> checkpoints;
+    private final Map<String, Long> replayCheckpoints;
+    private final long replayEndSequence;
+    private final PendingSequences dispatching;
+    private final EventEncoder encoder;
+    private final Executor ioExecutor;
+    private final Object syncLock;
+    private final List<Segment> retiredSegments;
+    private ByteBuffer payload;
+    private Segment activeSegment;
+    private Segment spareSegment;
+    private boolean preparingSpare;
+    private long nextSequence;
+    private long nextReplaySequence;
+    private boolean dirty;
+    private boolean closed;
+
+    private EventJournal(@NonNull JournalConfig config, @NonNull Executor ioExecutor)
+            throws IOException {
+        this.config = config;
+        this.directory = config.getDirectory();
+        this.segments = listSegments(directory);
+        this.checkpoints = new ConcurrentHashMap<>();
+        this.replayCheckpoints = readCheckpoints(new File(directory, CHECKPOINT_FILE));
+        this.dispatching = new PendingSequences();
+        this.encoder = new EventEncoder();
+        this.ioExecutor = ioExecutor;
+        this.syncLock = new Object();
+        this.retiredSegments = new ArrayList<>();
+        this.payload = ByteBuffer.allocate(Math.min(INITIAL_PAYLOAD_BYTES, config.getSegmentBytes()));
+        openActiveSegment();
+        replayEndSequence = nextSequence;
+        nextReplaySequence = replayEndSequence;
+        for (Long checkpoint : replayCheckpoints.values()) {
+            nextReplaySequence = Math.min(nextReplaySequence, checkpoint + 1);
+        }
+        synchronized (this) {
+            prepareSpareSegment();
+        }
+    }
+
+    /**
+     * Opens the journal in the configured directory, creating the directory if needed.
+     *
+     * @param config     of the journal.
+     * @param ioExecutor creating the next segment and flushing the full ones off the
+     *                   recording thread.
+     * @return the journal.
+     * @throws IOException if the journal files cannot be read or created.
+     */
+    static EventJournal open(@NonNull JournalConfig config, @NonNull Executor ioExecutor)
+            throws IOException {
+        File directory = config.getDirectory();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create journal directory " + directory);
+        }
+        return new EventJournal(config, ioExecutor);
+    }
+
+    /**
+     * Appends the event to the journal. The event is pending for every collector until
+     * {@link #dispatched(long)} is called with its sequence.
+     *
+     * @param event to append.
+     * @return the sequence of the event or -1 if it could not be appended.
+     */
+    synchronized long append(@NonNull Event event) {
+        if (closed) {
+            return -1;
+        }
+        if (!encodePayload(event)) {
+            Log.w(Constants.TAG, "Event " + event.getName() + " is too large for the journal.");
+            return -1;
+        }
+        try {
+            int length = payload.remaining();
+            if (activeSegment.buffer.remaining() < RECORD_HEADER_BYTES + length) {
+                rotate();
+            }
+            MappedByteBuffer buffer = activeSegment.buffer;
+            long sequence = nextSequence++;
+            int position = buffer.position();
+            buffer.position(position + 4);
+            buffer.putLong(sequence);
+            buffer.put(payload);
+            buffer.putInt(position, length);
+            dirty = true;
+            dispatching.add(sequence);
+            return sequence;
+        } catch (IOException e) {
+            Log.e(Constants.TAG, "Could not append event " + event.getName() + " to the journal.", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Makes sure the collector has a checkpoint. Collectors seen for the first time do not
+     * receive the events appended before.
+     *
+     * @param collectorName name of the collector.
+     */
+    void registerCollector(@NonNull String collectorName) {
+        if (!checkpoints.containsKey(collectorName)) {
+            checkpoints.putIfAbsent(collectorName, new CollectorCheckpoint());
+        }
+    }
+
+    /**
+     * Records that the hub routed the event with the given sequence, it is no longer pending
+     * for the collectors that did not hold it.
+     *
+     * @param sequence of the event.
+     */
+    synchronized void dispatched(long sequence) {
+        dispatching.remove(sequence);
+    }
+
+    /**
+     * Records that a stage holds the event with the given sequence for the collector, it
+     * stays pending until {@link #release(String, long)} is called. Holding an event already
+     * held has no effect.
+     *
+     * @param collectorName name of the collector.
+     * @param sequence      of the event.
+     */
+    void hold(@NonNull String collectorName, long sequence) {
+        CollectorCheckpoint checkpoint = checkpoints.get(collectorName);
+        if (checkpoint != null && sequence >= 0) {
+            checkpoint.hold(sequence);
+        }
+    }
+
+    /**
+     * Records that the collector received the event with the given sequence or that a stage
+     * dropped it.
+     *
+     * @param collectorName name of the collector.
+     * @param sequence      of the event.
+     */
+    void release(@NonNull String collectorName, long sequence) {
+        CollectorCheckpoint checkpoint = checkpoints.get(collectorName);
+        if (checkpoint != null && sequence >= 0) {
+            checkpoint.release(sequence);
+        }
+    }
+
+    /**
+     * Checks whether the event with the given sequence has to be replayed to the collector,
+     * based on the checkpoints found when the journal was opened.
+     *
+     * @param collectorName name of the collector.
+     * @param sequence      of the event.
+     * @return true if the collector did not receive the event before the journal was opened.
+     */
+    boolean needsReplay(@NonNull String collectorName, long sequence) {
+        Long checkpoint = replayCheckpoints.get(collectorName);
+        return checkpoint != null && sequence > checkpoint && sequence < replayEndSequence;
+    }
+
+    /**
+     * Hands every event appended before the journal was opened and not received by every
+     * collector to the sink, oldest first, with its journal sequence set.
+     *
+     * @param sink to hand the events to.
+     */
+    void replay(@NonNull EventSink sink) {
+        long firstSequence = Long.MAX_VALUE;
+        for (Long checkpoint : replayCheckpoints.values()) {
+            firstSequence = Math.min(firstSequence, checkpoint + 1);
+        }
+        if (firstSequence < replayEndSequence) {
+            List<File> files;
+            synchronized (this) {
+                files = new ArrayList<>(segments.values());
+            }
+            for (File file : files) {
+                try {
+                    replaySegment(file, firstSequence, sink);
+                } catch (IOException e) {
+                    Log.e(Constants.TAG, "Could not replay journal segment " + file.getName(), e);
+                }
+            }
+        }
+        replayed(replayEndSequence);
+    }
+
+    /**
+     * Flushes the segments to disk, saves the checkpoints and deletes the segments that every
+     * collector has received, that are too old or that exceed the total size. Only the state
+     * is read while holding the lock of the journal, the disk is written without it so that
+     * appending never waits for the disk.
+     */
+    void sync() {
+        synchronized (syncLock) {
+            syncSegments();
+        }
+    }
+
+    /**
+     * Syncs and closes the journal, events appended afterwards are ignored.
+     */
+    void close() {
+        synchronized (syncLock) {
+            syncSegments();
+            Segment spare;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                retiredSegments.add(activeSegment);
+                activeSegment = null;
+                spare = spareSegment;
+                spareSegment = null;
+            }
+            if (spare != null) {
+                spare.close();
+                if (!spare.file.delete()) {
+                    Log.w(Constants.TAG, "Could not delete the spare journal segment.");
+                }
+            }
+            closeRetiredSegments();
+        }
+    }
+
+    /**
+     * Does the work of {@link #sync()}, has to be called while holding the sync lock.
+     */
+    private void syncSegments() {
+        MappedByteBuffer dirtyBuffer;
+        Map<String, Long> currentCheckpoints = new HashMap<>();
+        long minCheckpoint;
+        List<Map.Entry<Long, File>> closedSegments;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            dirtyBuffer = dirty ? activeSegment.buffer : null;
+            dirty = false;
+            minCheckpoint = nextSequence - 1;
+            for (Map.Entry<String, CollectorCheckpoint> entry : checkpoints.entrySet()) {
+                long checkpoint = checkpointOf(entry.getKey(), entry.getValue());
+                currentCheckpoints.put(entry.getKey(), checkpoint);
+                minCheckpoint = Math.min(minCheckpoint, checkpoint);
+            }
+            closedSegments = new ArrayList<>(segments.entrySet());
+        }
+        closeRetiredSegments();
+        if (dirtyBuffer != null) {
+            // Appends running meanwhile mark the journal dirty again and are flushed next time.
+            dirtyBuffer.force();
+        }
+        try {
+            writeCheckpoints(currentCheckpoints);
+        } catch (IOException e) {
+            Log.e(Constants.TAG, "Could not save the journal checkpoints.", e);
+        }
+        compact(minCheckpoint, closedSegments);
+    }
+
+    /**
+     * Gets the current checkpoint of a collector, has to be called while holding the lock of
+     * the journal so that no event moves from being dispatched to being held meanwhile.
+     */
+    private long checkpointOf(String collectorName, CollectorCheckpoint checkpoint) {
+        long pending = dispatching.first(nextSequence);
+        pending = Math.min(pending, checkpoint.firstHeld(nextSequence));
+        Long replayCheckpoint = replayCheckpoints.get(collectorName);
+        if (replayCheckpoint != null && replayCheckpoint + 1 < replayEndSequence) {
+            pending = Math.min(pending, Math.max(replayCheckpoint + 1, nextReplaySequence));
+        }
+        return pending - 1;
+    }
+
+    private synchronized void replayed(long sequence) {
+        nextReplaySequence = Math.max(nextReplaySequence, sequence);
+    }
+
+    /**
+     * Deletes the segments before the active one that are received, expired or exceed the
+     * total size.
+     *
+     * @param minCheckpoint  lowest checkpoint of the collectors.
+     * @param segmentEntries first sequence and file of every segment, oldest first, the last
+     *                       one is the active segment.
+     */
+    private void compact(long minCheckpoint, List<Map.Entry<Long, File>> segmentEntries) {
+        long now = System.currentTimeMillis();
+        long totalBytes = 0;
+        for (Map.Entry<Long, File> entry : segmentEntries) {
+            totalBytes += entry.getValue().length();
+        }
+        for (int i = 0; i < segmentEntries.size() - 1; i++) {
+            Long firstSequence = segmentEntries.get(i).getKey();
+            File file = segmentEntries.get(i).getValue();
+            long lastSequence = segmentEntries.get(i + 1).getKey() - 1;
+            boolean delivered = lastSequence <= minCheckpoint;
+            boolean expired = now - file.lastModified() > config.getMaxAgeMillis();
+            boolean oversized = totalBytes > config.getMaxTotalBytes();
+            if (delivered || expired || oversized) {
+                long length = file.length();
+                if (file.delete()) {
+                    synchronized (this) {
+                        segments.remove(firstSequence);
+                    }
+                    totalBytes -= length;
+                } else {
+                    Log.w(Constants.TAG, "Could not delete journal segment " + file.getName());
+                }
+            }
+        }
+    }
+
+    private boolean encodePayload(Event event) {
+        int maxPayloadBytes = config.getSegmentBytes() - RECORD_HEADER_BYTES;
+        while (true) {
+            payload.clear();
+            encoder.reset();
+            try {
+                encoder.encode(event, payload);
+                payload.flip();
+                return payload.remaining() <= maxPayloadBytes;
+            } catch (BufferOverflowException e) {
+                if (payload.capacity() >= maxPayloadBytes) {
+                    return false;
+                }
+                payload = ByteBuffer.allocate(Math.min(payload.capacity() * 2, maxPayloadBytes));
+            }
+        }
+    }
+
+    private void openActiveSegment() throws IOException {
+        if (segments.isEmpty()) {
+            nextSequence = 0;
+            startSegment(null);
+            return;
+        }
+        File last = segments.lastEntry().getValue();
+        RandomAccessFile file = new RandomAccessFile(last, "rw");
+        MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+        nextSequence = segments.lastKey();
+        while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+            int length = buffer.getInt(buffer.position());
+            if (length <= 0 || buffer.remaining() < RECORD_HEADER_BYTES + length) {
+                break;
+            }
+            nextSequence = buffer.getLong(buffer.position() + 4) + 1;
+            buffer.position(buffer.position() + RECORD_HEADER_BYTES + length);
+        }
+        if (file.length() == config.getSegmentBytes()) {
+            activeSegment = new Segment(last, file, buffer);
+        } else {
+            file.close();
+            startSegment(null);
+        }
+    }
+
+    /**
+     * Replaces the full active segment with the spare one, has to be called while holding the
+     * lock of the journal. The full segment is flushed and closed on the I/O executor. Only if
+     * the spare segment is not ready yet, because segments fill faster than they are created,
+     * is the next segment created on the calling thread.
+     */
+    private void rotate() throws IOException {
+        Segment full = activeSegment;
+        Segment spare = spareSegment;
+        spareSegment = null;
+        startSegment(spare);
+        retiredSegments.add(full);
+        executeIo(new Runnable() {
+            @Override
+            public void run() {
+                closeRetiredSegments();
+            }
+        });
+        prepareSpareSegment();
+    }
+
+    /**
+     * Starts a new active segment named after the next sequence, has to be called while
+     * holding the lock of the journal or from the constructor.
+     *
+     * @param spare segment created ahead of time and renamed, null to create the segment.
+     */
+    private void startSegment(@Nullable Segment spare) throws IOException {
+        File file = new File(directory, String.format(Locale.US, "%s%020d%s",
+                SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+        if (spare != null && spare.file.renameTo(file)) {
+            activeSegment = new Segment(file, spare.randomAccessFile, spare.buffer);
+        } else {
+            if (spare != null) {
+                Log.w(Constants.TAG, "Could not rename the spare journal segment.");
+                spare.close();
+            }
+            activeSegment = Segment.create(file, config.getSegmentBytes());
+        }
+        segments.put(nextSequence, file);
+    }
+
+    /**
+     * Creates and maps the spare segment on the I/O executor unless it exists or is being
+     * created, has to be called while holding the lock of the journal.
+     */
+    private void prepareSpareSegment() {
+        if (closed || spareSegment != null || preparingSpare) {
+            return;
+        }
+        preparingSpare = true;
+        if (!executeIo(new Runnable() {
+            @Override
+            public void run() {
+                Segment spare = null;
+                try {
+                    spare = Segment.create(new File(directory, SPARE_SEGMENT_FILE),
+                            config.getSegmentBytes());
+                } catch (IOException e) {
+                    Log.w(Constants.TAG, "Could not create the spare journal segment.", e);
+                }
+                synchronized (EventJournal.this) {
+                    preparingSpare = false;
+                    if (spare != null && !closed) {
+                        spareSegment = spare;
+                        spare = null;
+                    }
+                }
+                if (spare != null) {
+                    spare.close();
+                }
+            }
+        })) {
+            preparingSpare = false;
+        }
+    }
+
+    /**
+     * Flushes, closes and dates the segments replaced since the last call, without holding
+     * the lock of the journal.
+     */
+    private void closeRetiredSegments() {
+        List<Segment> retired;
+        synchronized (this) {
+            if (retiredSegments.isEmpty()) {
+                return;
+            }
+            retired = new ArrayList<>(retiredSegments);
+            retiredSegments.clear();
+        }
+        for (Segment segment : retired) {
+            segment.buffer.force();
+            segment.close();
+            segment.file.setLastModified(System.currentTimeMillis());
+        }
+    }
+
+    private boolean executeIo(Runnable task) {
+        try {
+            ioExecutor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            Log.w(Constants.TAG, "Could not hand journal I/O to the I/O executor.", e);
+            return false;
+        }
+    }
+
+    private void replaySegment(File file, long firstSequence, EventSink sink) throws IOException {
+        RandomAccessFile segment = new RandomAccessFile(file, "r");
+        try {
+            MappedByteBuffer buffer = segment.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+                    segment.length());
+            EventDecoder decoder = new EventDecoder();
+            while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+                int length = buffer.getInt();
+                if (length <= 0 || buffer.remaining() < 8 + length) {
+                    return;
+                }
+                long sequence = buffer.getLong();
+                if (sequence >= replayEndSequence) {
+                    return;
+                }
+                if (sequence < firstSequence) {
+                    buffer.position(buffer.position() + length);
+                    continue;
+                }
+                ByteBuffer record = buffer.duplicate();
+                record.limit(record.position() + length);
+                buffer.position(buffer.position() + length);
+                decoder.reset();
+                Event event;
+                try {
+                    event = decoder.decode(record);
+                } catch (IllegalArgumentException e) {
+                    Log.e(Constants.TAG, "Skipping corrupt journal record " + sequence, e);
+                    continue;
+                }
+                event.journalSequence = sequence;
+                sink.deliverEvent(event);
+                replayed(sequence + 1);
+            }
+        } finally {
+            segment.close();
+        }
+    }
+
+    private void writeCheckpoints(Map<String, Long> currentCheckpoints) throws IOException {
+        File temp = new File(directory, CHECKPOINT_TEMP_FILE);
+        DataOutputStream output = new DataOutputStream(new FileOutputStream(temp));
+        try {
+            output.writeInt(CHECKPOINT_VERSION);
+            output.writeInt(currentCheckpoints.size());
+            for (Map.Entry<String, Long> entry : currentCheckpoints.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeLong(entry.getValue());
+            }
+        } finally {
+            output.close();
+        }
+        if (!temp.renameTo(new File(directory, CHECKPOINT_FILE))) {
+            throw new IOException("Could not replace the checkpoint file.");
+        }
+    }
+
+    private static Map<String, Long> readCheckpoints(File file) throws IOException {
+        Map<String, Long> checkpoints = new HashMap<>();
+        if (!file.exists()) {
+            return checkpoints;
+        }
+        DataInputStream input = new DataInputStream(new FileInputStream(file));
+        try {
+            if (input.readInt() != CHECKPOINT_VERSION) {
+                Log.w(Constants.TAG, "Ignoring journal checkpoints of an unknown version.");
+                return checkpoints;
+            }
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                checkpoints.put(input.readUTF(), input.readLong());
+            }
+        } finally {
+            input.close();
+        }
+        return checkpoints;
+    }
+
+    private static TreeMap<Long, File> listSegments(File directory) {
+        TreeMap<Long, File> segments = new TreeMap<>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return segments;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                try {
+                    segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    Log.w(Constants.TAG, "Ignoring unexpected journal file " + name);
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Sequences of the events held for a collector by the stages in front of it.
+     */
+    private static final class CollectorCheckpoint {
+        private final PendingSequences held = new PendingSequences();
+
+        synchronized void hold(long sequence) {
+            held.add(sequence);
+        }
+
+        synchronized void release(long sequence) {
+            held.remove(sequence);
+        }
+
+        synchronized long firstHeld(long defaultSequence) {
+            return held.first(defaultSequence);
+        }
+    }
+
+    /**
+     * Segment file mapped in memory.
+     */
+    private static final class Segment {
+        final File file;
+        final RandomAccessFile randomAccessFile;
+        final MappedByteBuffer buffer;
+
+        Segment(File file, RandomAccessFile randomAccessFile, MappedByteBuffer buffer) {
+            this.file = file;
+            this.randomAccessFile = randomAccessFile;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Creates the file of a new segment at its full size and maps it.
+         */
+        static Segment create(File file, int segmentBytes) throws IOException {
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Could not replace journal file " + file.getName());
+            }
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                randomAccessFile.setLength(segmentBytes);
+                MappedByteBuffer buffer = randomAccessFile.getChannel().map(
+                        FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+                return new Segment(file, randomAccessFile, buffer);
+            } catch (IOException e) {
+                randomAccessFile.close();
+                throw e;
+            }
+        }
+
+        void close() {
+            try {
+                randomAccessFile.close();
+            } catch (IOException e) {
+                Log.w(Constants.TAG, "Could not close journal segment " + file.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * <p>
+ * Bounded pool of reusable events, so that events recorded at a high frequency do not
+ * allocate once the pool is warm. Events are handed out by {@link EventFactory#acquireEvent}
+ * and come back once every holder released them.
+ * </p>
+ */
+class EventPool {
+
+    /**
+     * Default maximum number of idle events kept by a pool.
+     */
+    static final int DEFAULT_MAX_IDLE = 64;
+
+    private final Event[] idle;
+    private int idleCount;
+
+    EventPool(int maxIdle) {
+        idle = new Event[maxIdle];
+    }
+
+    /**
+     * Takes an idle event from the pool, or creates one if the pool is empty, and resets it.
+     *
+     * @param name      of the event.
+     * @param source    of the event.
+     * @param eventType of the event.
+     * @param priority  of the event.
+     * @return the event, held once by the caller.
+     */
+    @NonNull
+    Event acquire(@NonNull String name, @Nullable String source, @NonNull String eventType,
+                  @Nullable Priority priority) {
+        Event event = null;
+        synchronized (this) {
+            if (idleCount > 0) {
+                event = idle[--idleCount];
+                idle[idleCount] = null;
+            }
+        }
+        if (event == null) {
+            event = new Event(this);
+        }
+        event.reset(name, source, eventType, priority);
+        return event;
+    }
+
+    /**
+     * Returns a released event to the pool, dropping it if the pool is full.
+     *
+     * @param event released by all its holders.
+     */
+    void recycle(@NonNull Event event) {
+        synchronized (this) {
+            if (idleCount < idle.length) {
+                idle[idleCount++] = event;
+            }
+        }
+    }
+}
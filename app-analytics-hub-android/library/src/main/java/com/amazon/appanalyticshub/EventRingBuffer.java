@@ -0,0 +1,327 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>
+ * Bounded queue of events with one FIFO lane per {@link Priority}, each backed by arrays that
+ * are allocated once, so that queueing an event does not allocate. Every slot also keeps the
+ * time the event was queued at. A full lane never takes space from the other lanes, so
+ * {@link Priority#NORMAL} traffic cannot crowd out {@link Priority#CRITICAL} events.
+ * </p>
+ * <p>
+ * Lanes are drained by weighted round robin, most urgent lane first: every lane with events
+ * gets up to its weight of events per round, so that urgent events overtake the queued
+ * normal ones without ever starving them. The position in the round is kept between drains.
+ * </p>
+ */
+class EventRingBuffer {
+
+    /**
+     * The event was queued.
+     */
+    static final int ACCEPTED = 0;
+
+    /**
+     * The event was queued after evicting the oldest queued event.
+     */
+    static final int ACCEPTED_EVICTED_OLDEST = 1;
+
+    /**
+     * The event was not queued.
+     */
+    static final int REJECTED = 2;
+
+    /**
+     * The event was not queued because the buffer is closed.
+     */
+    static final int CLOSED = 3;
+
+    /**
+     * Priorities of the lanes in drain order.
+     */
+    private static final Priority[] LANE_PRIORITIES = {Priority.CRITICAL, Priority.HIGH, Priority.NORMAL};
+    private static final int CRITICAL_LANE = 0;
+
+    private final Lane[] lanes;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final EventSink evictedSink;
+    private int size;
+    private int currentLane;
+    private int remainingQuota;
+    private boolean closed;
+    private volatile int criticalSize;
+
+    EventRingBuffer(@NonNull AsyncDispatchConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * @param config      of the dispatch.
+     * @param evictedSink to hand the evicted events to before releasing them, null to only
+     *                    release them.
+     */
+    EventRingBuffer(@NonNull AsyncDispatchConfig config, @Nullable EventSink evictedSink) {
+        this.evictedSink = evictedSink;
+        lock = new ReentrantLock();
+        notEmpty = lock.newCondition();
+        lanes = new Lane[LANE_PRIORITIES.length];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(config.getCapacity(LANE_PRIORITIES[i]), config.getWeight(LANE_PRIORITIES[i]),
+                    lock.newCondition());
+        }
+        remainingQuota = lanes[0].weight;
+    }
+
+    /**
+     * Queues the event in the lane of its priority applying the overflow policy if the lane is
+     * full. {@link Priority#CRITICAL} events are never evicted and always wait for space. An
+     * evicted event is handed to the evicted sink and the hold of the buffer on it released
+     * once the lock of the buffer is released, so that the sink never holds up the producers
+     * and the consumer.
+     *
+     * @param event          to queue.
+     * @param enqueueTime    time stamp stored along with the event.
+     * @param overflowPolicy policy to apply when the lane is full.
+     * @param maxBlockNanos  maximum time to wait for space.
+     * @return {@link #ACCEPTED}, {@link #ACCEPTED_EVICTED_OLDEST}, {@link #REJECTED} or
+     * {@link #CLOSED}.
+     */
+    int offer(@NonNull Event event, long enqueueTime, @NonNull OverflowPolicy overflowPolicy,
+              long maxBlockNanos) {
+        int result = ACCEPTED;
+        int laneIndex = laneOf(event.getPriority());
+        Lane lane = lanes[laneIndex];
+        Event evicted = null;
+        lock.lock();
+        try {
+            if (closed) {
+                return CLOSED;
+            }
+            if (lane.size == lane.events.length) {
+                if (event.getPriority() == Priority.CRITICAL || overflowPolicy == OverflowPolicy.BLOCK) {
+                    long nanos = maxBlockNanos;
+                    while (lane.size == lane.events.length && nanos > 0 && !closed) {
+                        nanos = lane.notFull.awaitNanos(nanos);
+                    }
+                    if (closed) {
+                        return CLOSED;
+                    }
+                    if (lane.size == lane.events.length) {
+                        return REJECTED;
+                    }
+                } else if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                    evicted = lane.events[lane.head];
+                    lane.poll();
+                    size--;
+                    result = ACCEPTED_EVICTED_OLDEST;
+                } else {
+                    return REJECTED;
+                }
+            }
+            int tail = (lane.head + lane.size) % lane.events.length;
+            lane.events[tail] = event;
+            lane.enqueueTimes[tail] = enqueueTime;
+            lane.size++;
+            size++;
+            if (laneIndex == CRITICAL_LANE) {
+                criticalSize = lane.size;
+            }
+            notEmpty.signal();
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return REJECTED;
+        } finally {
+            lock.unlock();
+            if (evicted != null) {
+                if (evictedSink != null) {
+                    evictedSink.deliverEvent(evicted);
+                }
+                evicted.release();
+            }
+        }
+    }
+
+    /**
+     * Stops accepting events, the events already queued can still be drained. Offers waiting
+     * for space return {@link #CLOSED}.
+     */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            for (Lane lane : lanes) {
+                lane.notFull.signalAll();
+            }
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves up to {@code drained.length} events into the given arrays in weighted round robin
+     * order, waiting for the given time if the buffer is empty.
+     *
+     * @param drained      array the events are moved to.
+     * @param drainedTimes array the time stamps of the events are copied to.
+     * @param timeoutNanos maximum time to wait for an event.
+     * @return the number of events moved.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    int drainTo(@NonNull Event[] drained, @NonNull long[] drainedTimes, long timeoutNanos)
+            throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = timeoutNanos;
+            while (size == 0 && nanos > 0) {
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            int count = 0;
+            while (count < drained.length && size > 0) {
+                Lane lane = lanes[currentLane];
+                if (lane.size == 0 || remainingQuota == 0) {
+                    currentLane = (currentLane + 1) % lanes.length;
+                    remainingQuota = lanes[currentLane].weight;
+                    continue;
+                }
+                count = take(lane, drained, drainedTimes, count);
+                remainingQuota--;
+            }
+            criticalSize = lanes[CRITICAL_LANE].size;
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves up to {@code drained.length} {@link Priority#CRITICAL} events into the given arrays
+     * without waiting, so that the dispatcher can deliver them ahead of the events it already
+     * drained.
+     *
+     * @param drained      array the events are moved to.
+     * @param drainedTimes array the time stamps of the events are copied to.
+     * @return the number of events moved.
+     */
+    int drainCriticalTo(@NonNull Event[] drained, @NonNull long[] drainedTimes) {
+        lock.lock();
+        try {
+            Lane lane = lanes[CRITICAL_LANE];
+            int count = 0;
+            while (count < drained.length && lane.size > 0) {
+                count = take(lane, drained, drainedTimes, count);
+            }
+            criticalSize = lane.size;
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets whether {@link Priority#CRITICAL} events are queued, without taking the lock.
+     *
+     * @return true if critical events are queued.
+     */
+    boolean hasCritical() {
+        return criticalSize > 0;
+    }
+
+    /**
+     * Gets the number of queued events.
+     *
+     * @return the number of queued events.
+     */
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of queued events of a priority.
+     *
+     * @param priority of the lane.
+     * @return the number of queued events.
+     */
+    int size(@NonNull Priority priority) {
+        lock.lock();
+        try {
+            return lanes[laneOf(priority)].size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of events the buffer can hold.
+     *
+     * @return the capacity of all the lanes.
+     */
+    int capacity() {
+        int capacity = 0;
+        for (Lane lane : lanes) {
+            capacity += lane.events.length;
+        }
+        return capacity;
+    }
+
+    private int take(Lane lane, Event[] drained, long[] drainedTimes, int count) {
+        drained[count] = lane.events[lane.head];
+        drainedTimes[count] = lane.enqueueTimes[lane.head];
+        lane.poll();
+        size--;
+        lane.notFull.signal();
+        return count + 1;
+    }
+
+    private static int laneOf(Priority priority) {
+        switch (priority) {
+            case CRITICAL:
+                return CRITICAL_LANE;
+            case HIGH:
+                return 1;
+            default:
+                return 2;
+        }
+    }
+
+    /**
+     * FIFO of the events of one priority.
+     */
+    private static final class Lane {
+        final Event[] events;
+        final long[] enqueueTimes;
+        final int weight;
+        final Condition notFull;
+        int head;
+        int size;
+
+        Lane(int capacity, int weight, Condition notFull) {
+            this.events = new Event[capacity];
+            this.enqueueTimes = new long[capacity];
+            this.weight = weight;
+            this.notFull = notFull;
+        }
+
+        void poll() {
+            events[head] = null;
+            head = (head + 1) % events.length;
+            size--;
+        }
+    }
+}
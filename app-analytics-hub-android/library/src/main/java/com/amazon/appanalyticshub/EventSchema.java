@@ -0,0 +1,343 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Declaration of the fields of a well-known event. Each data, counter, timer and metric field
+ * gets a slot index in the order it is declared, and the {@link SchemaEvent}s created from the
+ * schema store their values in arrays indexed by slot instead of hashing string keys into maps.
+ * </p>
+ * <p>
+ * The schema is validated once, when it is registered with
+ * {@link AppAnalyticsHub#registerSchema(EventSchema)}, and cannot be changed afterwards. Events
+ * can only be created from a registered schema.
+ * </p>
+ */
+public class EventSchema {
+
+    private final String name;
+    private final String eventType;
+    private String source;
+    private Priority priority;
+    private final List<String> dataNames;
+    private final List<String> counterNames;
+    private final List<String> timerNames;
+    private final List<String> metricNames;
+    private volatile boolean registered;
+    private String[] dataKeys;
+    private String[] counterKeys;
+    private String[] timerKeys;
+    private String[] metricKeys;
+    private Map<String, Integer> dataSlots;
+    private Map<String, Integer> counterSlots;
+    private Map<String, Integer> timerSlots;
+    private Map<String, Integer> metricSlots;
+
+    /**
+     * Creates the schema of the events with the given name and event type.
+     *
+     * @param name      of the events.
+     * @param eventType of the events.
+     */
+    public EventSchema(@NonNull String name, @NonNull String eventType) {
+        this.name = name;
+        this.eventType = eventType;
+        this.priority = Priority.NORMAL;
+        this.dataNames = new ArrayList<>();
+        this.counterNames = new ArrayList<>();
+        this.timerNames = new ArrayList<>();
+        this.metricNames = new ArrayList<>();
+    }
+
+    /**
+     * Creates the schema of the events with the given name and event type.
+     *
+     * @param name      of the events.
+     * @param eventType of the events.
+     */
+    public EventSchema(@NonNull String name, @NonNull EventType eventType) {
+        this(name, eventType.name());
+    }
+
+    /**
+     * Sets the source of the events created from the schema.
+     *
+     * @param source of the events.
+     * @return the current schema.
+     */
+    public EventSchema setSource(@Nullable String source) {
+        checkNotRegistered();
+        this.source = source;
+        return this;
+    }
+
+    /**
+     * Sets the priority of the events created from the schema.
+     *
+     * @param priority of the events.
+     * @return the current schema.
+     */
+    public EventSchema setPriority(@NonNull Priority priority) {
+        checkNotRegistered();
+        this.priority = priority;
+        return this;
+    }
+
+    /**
+     * Declares a data field, its slot is the number of data fields declared before it.
+     *
+     * @param fieldName of the data.
+     * @return the current schema.
+     */
+    public EventSchema addData(@NonNull String fieldName) {
+        checkNotRegistered();
+        dataNames.add(fieldName);
+        return this;
+    }
+
+    /**
+     * Declares a counter, its slot is the number of counters declared before it.
+     *
+     * @param fieldName of the counter.
+     * @return the current schema.
+     */
+    public EventSchema addCounter(@NonNull String fieldName) {
+        checkNotRegistered();
+        counterNames.add(fieldName);
+        return this;
+    }
+
+    /**
+     * Declares a timer, its slot is the number of timers declared before it.
+     *
+     * @param fieldName of the timer.
+     * @return the current schema.
+     */
+    public EventSchema addTimer(@NonNull String fieldName) {
+        checkNotRegistered();
+        timerNames.add(fieldName);
+        return this;
+    }
+
+    /**
+     * Declares a custom metric, its slot is the number of metrics declared before it.
+     *
+     * @param fieldName of the metric.
+     * @return the current schema.
+     */
+    public EventSchema addMetric(@NonNull String fieldName) {
+        checkNotRegistered();
+        metricNames.add(fieldName);
+        return this;
+    }
+
+    /**
+     * Creates an event from the schema.
+     *
+     * @return the event.
+     * @throws IllegalStateException if the schema is not registered.
+     */
+    @NonNull
+    public SchemaEvent createEvent() {
+        if (!registered) {
+            throw new IllegalStateException("Schema " + name + " has to be registered first.");
+        }
+        return new SchemaEvent(this);
+    }
+
+    /**
+     * Gets the name of the events of the schema.
+     *
+     * @return the event name.
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the event type of the events of the schema.
+     *
+     * @return the event type.
+     */
+    @NonNull
+    public String getEventType() {
+        return eventType;
+    }
+
+    /**
+     * Gets the source of the events of the schema.
+     *
+     * @return the source.
+     */
+    @Nullable
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the priority of the events of the schema.
+     *
+     * @return the priority.
+     */
+    @NonNull
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Gets the slot of a data field.
+     *
+     * @param fieldName of the data.
+     * @return the slot or -1 if the field is not declared.
+     */
+    public int getDataSlot(@NonNull String fieldName) {
+        return registered ? slotOf(dataSlots, fieldName) : dataNames.indexOf(fieldName);
+    }
+
+    /**
+     * Gets the slot of a counter.
+     *
+     * @param fieldName of the counter.
+     * @return the slot or -1 if the counter is not declared.
+     */
+    public int getCounterSlot(@NonNull String fieldName) {
+        return registered ? slotOf(counterSlots, fieldName) : counterNames.indexOf(fieldName);
+    }
+
+    /**
+     * Gets the slot of a timer.
+     *
+     * @param fieldName of the timer.
+     * @return the slot or -1 if the timer is not declared.
+     */
+    public int getTimerSlot(@NonNull String fieldName) {
+        return registered ? slotOf(timerSlots, fieldName) : timerNames.indexOf(fieldName);
+    }
+
+    /**
+     * Gets the slot of a custom metric.
+     *
+     * @param fieldName of the metric.
+     * @return the slot or -1 if the metric is not declared.
+     */
+    public int getMetricSlot(@NonNull String fieldName) {
+        return registered ? slotOf(metricSlots, fieldName) : metricNames.indexOf(fieldName);
+    }
+
+    /**
+     * Validates the schema and freezes it, interning its field names and building the slot
+     * lookups. Registering an already registered schema does nothing.
+     *
+     * @throws IllegalArgumentException if the schema is invalid.
+     */
+    synchronized void register() {
+        if (registered) {
+            return;
+        }
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Schema without event name.");
+        }
+        if (eventType == null || eventType.isEmpty()) {
+            throw new IllegalArgumentException("Schema " + name + " without event type.");
+        }
+        dataKeys = intern(dataNames, "data");
+        counterKeys = intern(counterNames, "counter");
+        timerKeys = intern(timerNames, "timer");
+        metricKeys = intern(metricNames, "metric");
+        dataSlots = slots(dataKeys);
+        counterSlots = slots(counterKeys);
+        timerSlots = slots(timerKeys);
+        metricSlots = slots(metricKeys);
+        registered = true;
+    }
+
+    boolean isRegistered() {
+        return registered;
+    }
+
+    String[] getDataKeys() {
+        return dataKeys;
+    }
+
+    String[] getCounterKeys() {
+        return counterKeys;
+    }
+
+    String[] getTimerKeys() {
+        return timerKeys;
+    }
+
+    String[] getMetricKeys() {
+        return metricKeys;
+    }
+
+    Map<String, Integer> getDataSlots() {
+        return dataSlots;
+    }
+
+    Map<String, Integer> getCounterSlots() {
+        return counterSlots;
+    }
+
+    Map<String, Integer> getTimerSlots() {
+        return timerSlots;
+    }
+
+    Map<String, Integer> getMetricSlots() {
+        return metricSlots;
+    }
+
+    private void checkNotRegistered() {
+        if (registered) {
+            throw new IllegalStateException("Schema " + name + " cannot change once registered.");
+        }
+    }
+
+    private String[] intern(List<String> fieldNames, String kind) {
+        String[] keys = new String[fieldNames.size()];
+        for (int i = 0; i < keys.length; i++) {
+            String fieldName = fieldNames.get(i);
+            if (fieldName == null || fieldName.isEmpty()) {
+                throw new IllegalArgumentException("Schema " + name + " has a " + kind
+                        + " without name.");
+            }
+            keys[i] = fieldName.intern();
+            for (int j = 0; j < i; j++) {
+                if (keys[j] == keys[i]) {
+                    throw new IllegalArgumentException("Schema " + name + " declares the " + kind
+                            + " " + fieldName + " twice.");
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static Map<String, Integer> slots(String[] keys) {
+        if (keys.length == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> slots = new HashMap<>(keys.length * 2);
+        for (int i = 0; i < keys.length; i++) {
+            slots.put(keys[i], i);
+        }
+        return slots;
+    }
+
+    private static int slotOf(Map<String, Integer> slots, String fieldName) {
+        Integer slot = slots.get(fieldName);
+        return slot != null ? slot : -1;
+    }
+}
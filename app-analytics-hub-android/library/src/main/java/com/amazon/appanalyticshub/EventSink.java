@@ -0,0 +1,22 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+/**
+ * <p>
+ * Internal interface for the stages of the hub that hand events on to the next stage.
+ * </p>
+ */
+interface EventSink {
+
+    /**
+     * Delivers the event to the next stage.
+     *
+     * @param event to be delivered.
+     */
+    void deliverEvent(@NonNull Event event);
+}
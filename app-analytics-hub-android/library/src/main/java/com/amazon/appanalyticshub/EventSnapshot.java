@@ -0,0 +1,236 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * <p>
+ * Immutable snapshot of an event, taken by the hub when the event is recorded and delivered to
+ * the collectors in its place. The caller can keep changing or reuse the recorded event, the
+ * collectors, including the ones delivered to on other threads, see it as it was recorded.
+ * </p>
+ * <p>
+ * Taking a snapshot copies nothing: the snapshot shares the maps of the event, and the event
+ * copies a map the next time it changes it. An event recorded and then dropped, as most are,
+ * never copies its fields. The snapshot of a pooled event holds the event until the hub
+ * released it, so that the maps of the event are cleared and reused for its next use rather
+ * than allocated again. Collectors that keep the events of a pooled event factory past their
+ * delivery have to copy what they keep.
+ * </p>
+ * <p>
+ * The snapshot cannot be changed: its adders and removers log a warning and leave it as is.
+ * </p>
+ */
+final class EventSnapshot extends Event {
+
+    private Event pooledEvent;
+    private Map<String, String> data;
+    private DoubleValues counters;
+    private DoubleValues timers;
+    private Map<String, HistogramSnapshot> timerHistograms;
+    private Map<String, Object> metrics;
+    private Map<String, String> dataView;
+    private Map<String, HistogramSnapshot> timerHistogramsView;
+    private Map<String, Object> metricsView;
+
+    /**
+     * Creates an empty snapshot, its fields are set by {@link #share}.
+     */
+    EventSnapshot(@NonNull String name, @Nullable String source, @NonNull String eventType,
+                  @Nullable Priority priority) {
+        super(name, source, eventType, priority);
+    }
+
+    /**
+     * Sets the pooled event the snapshot holds until it is released.
+     *
+     * @param pooledEvent of the snapshot, already retained for the snapshot.
+     */
+    void setPooledEvent(@NonNull Event pooledEvent) {
+        this.pooledEvent = pooledEvent;
+    }
+
+    /**
+     * Sets the fields of the snapshot, none of them is changed afterwards.
+     */
+    void share(@Nullable Map<String, String> data, @Nullable DoubleValues counters,
+               @Nullable DoubleValues timers,
+               @Nullable Map<String, HistogramSnapshot> timerHistograms,
+               @Nullable Map<String, Object> metrics) {
+        this.data = data;
+        this.counters = counters;
+        this.timers = timers;
+        this.timerHistograms = timerHistograms;
+        this.metrics = metrics;
+        this.dataView = null;
+        this.timerHistogramsView = null;
+        this.metricsView = null;
+    }
+
+    @Override
+    void shareFieldsWith(@NonNull EventSnapshot snapshot) {
+        snapshot.share(data, counters, timers, timerHistograms, metrics);
+    }
+
+    @Override
+    Event getPooledEvent() {
+        return pooledEvent;
+    }
+
+    /**
+     * Adds a holder to the pooled event of the snapshot, so that its maps are not reused
+     * before the holder releases the snapshot. Does nothing for snapshots of other events.
+     */
+    @Override
+    void retain() {
+        if (pooledEvent != null) {
+            pooledEvent.retain();
+        }
+    }
+
+    /**
+     * Removes a holder from the pooled event of the snapshot.
+     */
+    @Override
+    void release() {
+        if (pooledEvent != null) {
+            pooledEvent.release();
+        }
+    }
+
+    @Override
+    public Event addData(@NonNull String name, @NonNull String value) {
+        return warnReadOnly();
+    }
+
+    @Override
+    public Event removeData(@NonNull String name) {
+        return warnReadOnly();
+    }
+
+    @Override
+    public Event incrementCounter(@NonNull String name, double incrementBy) {
+        return warnReadOnly();
+    }
+
+    @Override
+    public Event setCounter(@NonNull String name, double value) {
+        return warnReadOnly();
+    }
+
+    @Override
+    public Event removeCounter(@NonNull String name) {
+        return warnReadOnly();
+    }
+
+    @Override
+    public Event incrementTimer(String name, double incrementBy) {
+        return warnReadOnly();
+    }
+
+    @Override
+    public Event setTimer(@NonNull String name, double value) {
+        return warnReadOnly();
+    }
+
+    @Override
+    public Event removeTimer(String name) {
+        return warnReadOnly();
+    }
+
+    @Override
+    public Event addTimerHistogram(@NonNull String name, @NonNull HistogramSnapshot histogram) {
+        return warnReadOnly();
+    }
+
+    @Override
+    public Event removeTimerHistogram(@NonNull String name) {
+        return warnReadOnly();
+    }
+
+    @Override
+    public Event addMetric(String name, Object value) {
+        return warnReadOnly();
+    }
+
+    @Override
+    public Event removeMetric(String name) {
+        return warnReadOnly();
+    }
+
+    @Override
+    public void setPriority(@NonNull Priority priority) {
+        warnReadOnly();
+    }
+
+    // The views are created on first read, possibly by several collector threads at once,
+    // which is harmless as they are read-only wrappers of maps that no longer change.
+
+    @Override
+    public Map<String, String> getData() {
+        if (data == null) {
+            return Collections.emptyMap();
+        }
+        if (dataView == null) {
+            dataView = Collections.unmodifiableMap(data);
+        }
+        return dataView;
+    }
+
+    @Override
+    public Map<String, Double> getCounters() {
+        return counters != null ? counters.asMap() : Collections.<String, Double>emptyMap();
+    }
+
+    @Override
+    public Map<String, Double> getTimers() {
+        return timers != null ? timers.asMap() : Collections.<String, Double>emptyMap();
+    }
+
+    @Override
+    public Map<String, HistogramSnapshot> getTimerHistograms() {
+        if (timerHistograms == null) {
+            return Collections.emptyMap();
+        }
+        if (timerHistogramsView == null) {
+            timerHistogramsView = Collections.unmodifiableMap(timerHistograms);
+        }
+        return timerHistogramsView;
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        if (metrics == null) {
+            return Collections.emptyMap();
+        }
+        if (metricsView == null) {
+            metricsView = Collections.unmodifiableMap(metrics);
+        }
+        return metricsView;
+    }
+
+    @Override
+    DoubleValues getCounterValues() {
+        return counters;
+    }
+
+    @Override
+    DoubleValues getTimerValues() {
+        return timers;
+    }
+
+    private Event warnReadOnly() {
+        Log.w(Constants.TAG, "Event " + getName() + " was recorded and is read-only, "
+                + "the change is ignored.");
+        return this;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Event type patterns compiled into a trie, where {@link RoutingSpec#WILDCARD} matches any run
+ * of characters, possibly empty. Patterns sharing a start share the nodes of the trie, so an
+ * event type is matched against every pattern in one walk instead of one comparison per
+ * pattern. Patterns without wildcard match only the identical event type.
+ * </p>
+ * <p>
+ * The children of a node are kept in sorted arrays of characters and nodes. A walk visits
+ * every node at every position of the event type at most once, so that matching stays
+ * proportional to the size of the trie times the length of the event type however many
+ * wildcards the patterns have. The visited states are marked in a scratch array kept per
+ * thread and stamped per walk, so that a walk neither allocates nor clears it.
+ * </p>
+ */
+final class EventTypeMatcher {
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
+    private final Node root;
+    private final int patternCount;
+    private int nodeCount;
+
+    /**
+     * @param patterns to compile, they are identified by their index.
+     */
+    EventTypeMatcher(@NonNull String[] patterns) {
+        root = newNode();
+        for (int index = 0; index < patterns.length; index++) {
+            Node node = root;
+            String pattern = patterns[index];
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c == RoutingSpec.WILDCARD) {
+                    // Consecutive wildcards match the same as a single one.
+                    if (node.wildcard == null) {
+                        node.wildcard = newNode();
+                    }
+                    node = node.wildcard;
+                    while (i + 1 < pattern.length() && pattern.charAt(i + 1) == RoutingSpec.WILDCARD) {
+                        i++;
+                    }
+                } else {
+                    int slot = Arrays.binarySearch(node.keys, c);
+                    if (slot < 0) {
+                        slot = -slot - 1;
+                        node.insertChild(slot, c, newNode());
+                    }
+                    node = node.children[slot];
+                }
+            }
+            node.patterns = append(node.patterns, index);
+        }
+        patternCount = patterns.length;
+    }
+
+    /**
+     * Finds the patterns matching an event type.
+     *
+     * @param eventType to match.
+     * @return for every pattern index, whether the pattern matches.
+     */
+    @NonNull
+    boolean[] match(@NonNull String eventType) {
+        boolean[] matched = new boolean[patternCount];
+        Scratch scratch = SCRATCH.get();
+        int[] visited = scratch.startWalk(nodeCount * (eventType.length() + 1));
+        match(root, eventType, 0, matched, visited, scratch.stamp);
+        return matched;
+    }
+
+    private static void match(Node node, String eventType, int position, boolean[] matched,
+                              int[] visited, int stamp) {
+        int state = node.id * (eventType.length() + 1) + position;
+        if (visited[state] == stamp) {
+            return;
+        }
+        visited[state] = stamp;
+        if (node.wildcard != null) {
+            // The wildcard consumes from none to all of the remaining characters.
+            for (int end = position; end <= eventType.length(); end++) {
+                match(node.wildcard, eventType, end, matched, visited, stamp);
+            }
+        }
+        if (position == eventType.length()) {
+            for (int index : node.patterns) {
+                matched[index] = true;
+            }
+            return;
+        }
+        int slot = Arrays.binarySearch(node.keys, eventType.charAt(position));
+        if (slot >= 0) {
+            match(node.children[slot], eventType, position + 1, matched, visited, stamp);
+        }
+    }
+
+    private Node newNode() {
+        return new Node(nodeCount++);
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] appended = new int[values.length + 1];
+        System.arraycopy(values, 0, appended, 0, values.length);
+        appended[values.length] = value;
+        return appended;
+    }
+
+    /**
+     * Visited marks of the walks of a thread, a state is visited in the current walk if its
+     * mark equals the stamp of the walk.
+     */
+    private static final class Scratch {
+        private int[] marks = new int[64];
+        private int stamp;
+
+        int[] startWalk(int states) {
+            if (marks.length < states) {
+                marks = new int[Math.max(states, marks.length * 2)];
+            }
+            if (++stamp == 0) {
+                Arrays.fill(marks, 0);
+                stamp = 1;
+            }
+            return marks;
+        }
+    }
+
+    private static final class Node {
+
+        private static final int[] NO_PATTERNS = new int[0];
+
+        private final int id;
+        private char[] keys = NO_CHARS;
+        private Node[] children = NO_NODES;
+        private Node wildcard;
+        private int[] patterns = NO_PATTERNS;
+
+        Node(int id) {
+            this.id = id;
+        }
+
+        void insertChild(int slot, char key, Node child) {
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, slot);
+            System.arraycopy(children, 0, newChildren, 0, slot);
+            newKeys[slot] = key;
+            newChildren[slot] = child;
+            System.arraycopy(keys, slot, newKeys, slot + 1, keys.length - slot);
+            System.arraycopy(children, slot, newChildren, slot + 1, children.length - slot);
+            keys = newKeys;
+            children = newChildren;
+        }
+    }
+}
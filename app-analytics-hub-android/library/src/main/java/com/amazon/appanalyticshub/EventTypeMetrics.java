@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+/**
+ * <p>
+ * Throughput of an event type through {@link AppAnalyticsHub}, part of {@link HubMetrics}.
+ * </p>
+ */
+public class EventTypeMetrics {
+
+    private final String eventType;
+    private final long recordedCount;
+    private final long droppedCount;
+    private final long fannedOutCount;
+    private final long deliveryCount;
+
+    EventTypeMetrics(@NonNull String eventType, long recordedCount, long droppedCount,
+                     long fannedOutCount, long deliveryCount) {
+        this.eventType = eventType;
+        this.recordedCount = recordedCount;
+        this.droppedCount = droppedCount;
+        this.fannedOutCount = fannedOutCount;
+        this.deliveryCount = deliveryCount;
+    }
+
+    /**
+     * Gets the event type.
+     *
+     * @return the event type.
+     */
+    @NonNull
+    public String getEventType() {
+        return eventType;
+    }
+
+    /**
+     * Gets the number of events passed to {@link AppAnalyticsHub#recordEvent}.
+     *
+     * @return the recorded count.
+     */
+    public long getRecordedCount() {
+        return recordedCount;
+    }
+
+    /**
+     * Gets the number of events sampled out or routed to no collector.
+     *
+     * @return the dropped count.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Gets the number of events handed to at least one collector. Aggregated and coalesced
+     * events are counted once per event handed over, not once per event recorded.
+     *
+     * @return the fanned out count.
+     */
+    public long getFannedOutCount() {
+        return fannedOutCount;
+    }
+
+    /**
+     * Gets the number of times an event was handed to a collector, the sum of the fan-out
+     * widths.
+     *
+     * @return the delivery count.
+     */
+    public long getDeliveryCount() {
+        return deliveryCount;
+    }
+
+    /**
+     * Gets the average number of collectors an event was handed to.
+     *
+     * @return the average fan-out width, 0 if no event was handed over.
+     */
+    public double getAverageFanOut() {
+        return fannedOutCount > 0 ? (double) deliveryCount / fannedOutCount : 0;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "eventType = " + eventType +
+                " recorded = " + recordedCount +
+                " dropped = " + droppedCount +
+                " fannedOut = " + fannedOutCount +
+                " averageFanOut = " + getAverageFanOut();
+    }
+}
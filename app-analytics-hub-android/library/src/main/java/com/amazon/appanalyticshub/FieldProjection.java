@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * <p>
+ * Selection of the fields of the events delivered to a collector, so that a collector only
+ * interested in a few fields does not receive the others. Each kind of field, data, counters,
+ * timers, timer histograms and metrics, is delivered whole until one of the include methods is
+ * called for it, then only the named fields of that kind are delivered. Calling an include
+ * method without names drops every field of the kind. The name, source, event type, priority
+ * and sample rate of the events are always delivered.
+ * </p>
+ * <p>
+ * The projection is copied when it is set with
+ * {@link AppAnalyticsHub#setCollectorProjection(String, FieldProjection)}, later changes do not
+ * affect the collector.
+ * </p>
+ */
+public class FieldProjection {
+
+    private String[] data;
+    private String[] counters;
+    private String[] timers;
+    private String[] timerHistograms;
+    private String[] metrics;
+
+    public FieldProjection() {
+    }
+
+    /**
+     * Delivers only the given data, adding to the data already included.
+     *
+     * @param names of the data.
+     * @return the projection.
+     */
+    @NonNull
+    public FieldProjection includeData(@NonNull String... names) {
+        data = include(data, names);
+        return this;
+    }
+
+    /**
+     * Delivers only the given counters, adding to the counters already included.
+     *
+     * @param names of the counters.
+     * @return the projection.
+     */
+    @NonNull
+    public FieldProjection includeCounters(@NonNull String... names) {
+        counters = include(counters, names);
+        return this;
+    }
+
+    /**
+     * Delivers only the given timers, adding to the timers already included.
+     *
+     * @param names of the timers.
+     * @return the projection.
+     */
+    @NonNull
+    public FieldProjection includeTimers(@NonNull String... names) {
+        timers = include(timers, names);
+        return this;
+    }
+
+    /**
+     * Delivers only the given timer histograms, adding to the timer histograms already
+     * included.
+     *
+     * @param names of the timer histograms.
+     * @return the projection.
+     */
+    @NonNull
+    public FieldProjection includeTimerHistograms(@NonNull String... names) {
+        timerHistograms = include(timerHistograms, names);
+        return this;
+    }
+
+    /**
+     * Delivers only the given metrics, adding to the metrics already included.
+     *
+     * @param names of the metrics.
+     * @return the projection.
+     */
+    @NonNull
+    public FieldProjection includeMetrics(@NonNull String... names) {
+        metrics = include(metrics, names);
+        return this;
+    }
+
+    /**
+     * Gets the names of the data delivered.
+     *
+     * @return the names or null if every data is delivered.
+     */
+    @Nullable
+    String[] getData() {
+        return data;
+    }
+
+    /**
+     * Gets the names of the counters delivered.
+     *
+     * @return the names or null if every counter is delivered.
+     */
+    @Nullable
+    String[] getCounters() {
+        return counters;
+    }
+
+    /**
+     * Gets the names of the timers delivered.
+     *
+     * @return the names or null if every timer is delivered.
+     */
+    @Nullable
+    String[] getTimers() {
+        return timers;
+    }
+
+    /**
+     * Gets the names of the timer histograms delivered.
+     *
+     * @return the names or null if every timer histogram is delivered.
+     */
+    @Nullable
+    String[] getTimerHistograms() {
+        return timerHistograms;
+    }
+
+    /**
+     * Gets the names of the metrics delivered.
+     *
+     * @return the names or null if every metric is delivered.
+     */
+    @Nullable
+    String[] getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Checks whether the projection delivers every field.
+     *
+     * @return true if no include method was called.
+     */
+    boolean isIdentity() {
+        return data == null && counters == null && timers == null && timerHistograms == null
+                && metrics == null;
+    }
+
+    /**
+     * Copies the projection, later changes to this projection do not affect the copy.
+     *
+     * @return the copy.
+     */
+    @NonNull
+    FieldProjection copy() {
+        FieldProjection copy = new FieldProjection();
+        copy.data = data;
+        copy.counters = counters;
+        copy.timers = timers;
+        copy.timerHistograms = timerHistograms;
+        copy.metrics = metrics;
+        return copy;
+    }
+
+    /**
+     * Adds names to the included names of a kind, into a new array so that the arrays of
+     * copies are never modified.
+     */
+    private static String[] include(String[] included, String[] names) {
+        Set<String> updated = new LinkedHashSet<>();
+        if (included != null) {
+            Collections.addAll(updated, included);
+        }
+        Collections.addAll(updated, names);
+        return updated.toArray(new String[0]);
+    }
+
+    private static String toString(String[] names) {
+        return names != null ? Arrays.toString(names) : "all";
+    }
+
+    @Override
+    public String toString() {
+        return "data = " + toString(data) + " counters = " + toString(counters) +
+                " timers = " + toString(timers) +
+                " timerHistograms = " + toString(timerHistograms) +
+                " metrics = " + toString(metrics);
+    }
+}
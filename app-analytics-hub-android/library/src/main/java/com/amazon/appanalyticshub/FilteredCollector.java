@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+/**
+ * <p>
+ * Drops the events routed to a collector that its {@link EventFilter} does not keep. It sits
+ * in front of all the other stages of the collector, so that filtered out events are neither
+ * sampled, projected, batched nor queued.
+ * </p>
+ */
+class FilteredCollector extends CollectorDecorator {
+
+    private final AnalyticsCollector target;
+    private final EventFilter filter;
+
+    /**
+     * @param filter compiled filter of the collector.
+     */
+    FilteredCollector(@NonNull AnalyticsCollector target, @NonNull EventFilter filter) {
+        super(target);
+        this.target = target;
+        this.filter = filter;
+    }
+
+    @Override
+    public void recordEvent(@NonNull Event event) {
+        if (filter.matches(event)) {
+            target.recordEvent(event);
+        }
+    }
+}
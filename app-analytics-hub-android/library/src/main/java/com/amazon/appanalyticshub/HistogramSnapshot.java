@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Immutable distribution of the durations recorded by a {@link TimerHistogram}. Snapshots of
+ * histograms with the same lowest discernible duration and precision can be merged, for
+ * example to combine the intervals of a session or the histograms of several events.
+ * </p>
+ * <p>
+ * Percentiles are reported as the middle of the bucket they fall in, clamped to the minimum
+ * and maximum recorded durations.
+ * </p>
+ */
+public final class HistogramSnapshot {
+
+    private final int unitShift;
+    private final int precisionBits;
+    private final long[] counts;
+    private final long count;
+    private final long min;
+    private final long max;
+    private final long sum;
+
+    HistogramSnapshot(int unitShift, int precisionBits, @NonNull long[] counts, long min, long max, long sum) {
+        this.unitShift = unitShift;
+        this.precisionBits = precisionBits;
+        this.counts = counts;
+        long total = 0;
+        for (long bucket : counts) {
+            total += bucket;
+        }
+        this.count = total;
+        this.min = total > 0 ? min : 0;
+        this.max = total > 0 ? max : 0;
+        this.sum = total > 0 ? sum : 0;
+    }
+
+    /**
+     * Gets the number of recorded durations.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the shortest recorded duration, 0 if none were recorded.
+     *
+     * @param unit to get the duration in.
+     * @return the duration.
+     */
+    public double getMin(@NonNull TimeUnit unit) {
+        return convert(min, unit);
+    }
+
+    /**
+     * Gets the longest recorded duration, 0 if none were recorded.
+     *
+     * @param unit to get the duration in.
+     * @return the duration.
+     */
+    public double getMax(@NonNull TimeUnit unit) {
+        return convert(max, unit);
+    }
+
+    /**
+     * Gets the average recorded duration, 0 if none were recorded.
+     *
+     * @param unit to get the duration in.
+     * @return the duration.
+     */
+    public double getMean(@NonNull TimeUnit unit) {
+        return count > 0 ? convert(sum, unit) / count : 0;
+    }
+
+    /**
+     * Gets the duration below or at which the given percentage of the recorded durations are.
+     *
+     * @param percentile from 0 to 100.
+     * @param unit       to get the duration in.
+     * @return the duration, 0 if none were recorded.
+     */
+    public double getValueAtPercentile(double percentile, @NonNull TimeUnit unit) {
+        if (count == 0) {
+            return 0;
+        }
+        double clamped = Math.min(Math.max(percentile, 0), 100);
+        long rank = Math.max(1, (long) Math.ceil(clamped / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long middle = (TimerHistogram.lowerBoundOf(i, precisionBits) << unitShift)
+                        + ((TimerHistogram.widthOf(i, precisionBits) << unitShift) >> 1);
+                return convert(Math.min(Math.max(middle, min), max), unit);
+            }
+        }
+        return convert(max, unit);
+    }
+
+    /**
+     * Gets the number of buckets, the highest bucket index plus one.
+     *
+     * @return the bucket count.
+     */
+    public int getBucketCount() {
+        return counts.length;
+    }
+
+    /**
+     * Gets the number of durations recorded in a bucket.
+     *
+     * @param index of the bucket.
+     * @return the count.
+     */
+    public long getCountAtBucket(int index) {
+        return counts[index];
+    }
+
+    /**
+     * Gets the shortest duration of a bucket.
+     *
+     * @param index of the bucket.
+     * @return the duration in nanoseconds.
+     */
+    public long getBucketLowerBoundNanos(int index) {
+        return TimerHistogram.lowerBoundOf(index, precisionBits) << unitShift;
+    }
+
+    /**
+     * Combines this snapshot with another one.
+     *
+     * @param other snapshot to merge.
+     * @return a new snapshot of the durations of both.
+     * @throws IllegalArgumentException if the snapshots have different lowest discernible
+     *                                  durations or precisions.
+     */
+    @NonNull
+    public HistogramSnapshot merge(@NonNull HistogramSnapshot other) {
+        if (other.unitShift != unitShift || other.precisionBits != precisionBits) {
+            throw new IllegalArgumentException("Cannot merge histograms of different layouts.");
+        }
+        long[] merged = Arrays.copyOf(counts, Math.max(counts.length, other.counts.length));
+        for (int i = 0; i < other.counts.length; i++) {
+            merged[i] += other.counts[i];
+        }
+        if (count == 0) {
+            return new HistogramSnapshot(unitShift, precisionBits, merged, other.min, other.max, other.sum);
+        }
+        if (other.count == 0) {
+            return new HistogramSnapshot(unitShift, precisionBits, merged, min, max, sum);
+        }
+        return new HistogramSnapshot(unitShift, precisionBits, merged,
+                Math.min(min, other.min), Math.max(max, other.max), sum + other.sum);
+    }
+
+    int getUnitShift() {
+        return unitShift;
+    }
+
+    int getPrecisionBits() {
+        return precisionBits;
+    }
+
+    long getMinNanos() {
+        return min;
+    }
+
+    long getMaxNanos() {
+        return max;
+    }
+
+    long getSumNanos() {
+        return sum;
+    }
+
+    private static double convert(long nanos, TimeUnit unit) {
+        return (double) nanos / unit.toNanos(1);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        TimeUnit unit = TimeUnit.MILLISECONDS;
+        return "count = " + count +
+                " min = " + getMin(unit) +
+                " p50 = " + getValueAtPercentile(50, unit) +
+                " p95 = " + getValueAtPercentile(95, unit) +
+                " p99 = " + getValueAtPercentile(99, unit) +
+                " max = " + getMax(unit);
+    }
+}
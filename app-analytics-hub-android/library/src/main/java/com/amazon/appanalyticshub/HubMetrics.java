@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Map;
+
+/**
+ * <p>
+ * Point in time snapshot of the metrics {@link AppAnalyticsHub} keeps about itself, per event
+ * type and per collector.
+ * </p>
+ */
+public class HubMetrics {
+
+    private final long intervalMillis;
+    private final Map<String, EventTypeMetrics> eventTypeMetrics;
+    private final Map<String, CollectorMetrics> collectorMetrics;
+
+    HubMetrics(long intervalMillis, @NonNull Map<String, EventTypeMetrics> eventTypeMetrics,
+               @NonNull Map<String, CollectorMetrics> collectorMetrics) {
+        this.intervalMillis = intervalMillis;
+        this.eventTypeMetrics = eventTypeMetrics;
+        this.collectorMetrics = collectorMetrics;
+    }
+
+    /**
+     * Gets the time the metrics were collected over, since they were enabled or last emitted.
+     *
+     * @return the time in milliseconds.
+     */
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * Gets the metrics of every event type recorded.
+     *
+     * @return read-only map of event type to metrics.
+     */
+    @NonNull
+    public Map<String, EventTypeMetrics> getEventTypeMetrics() {
+        return eventTypeMetrics;
+    }
+
+    /**
+     * Gets the metrics of an event type.
+     *
+     * @param eventType of the events.
+     * @return the metrics or null if no event of the type was recorded.
+     */
+    @Nullable
+    public EventTypeMetrics getEventTypeMetrics(@NonNull String eventType) {
+        return eventTypeMetrics.get(eventType);
+    }
+
+    /**
+     * Gets the metrics of every collector events were handed to.
+     *
+     * @return read-only map of collector name to metrics.
+     */
+    @NonNull
+    public Map<String, CollectorMetrics> getCollectorMetrics() {
+        return collectorMetrics;
+    }
+
+    /**
+     * Gets the metrics of a collector.
+     *
+     * @param collectorName name of the collector.
+     * @return the metrics or null if no event was handed to the collector.
+     */
+    @Nullable
+    public CollectorMetrics getCollectorMetrics(@NonNull String collectorName) {
+        return collectorMetrics.get(collectorName);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "intervalMillis = " + intervalMillis +
+                " eventTypes = " + eventTypeMetrics.values() +
+                " collectors = " + collectorMetrics.values();
+    }
+}
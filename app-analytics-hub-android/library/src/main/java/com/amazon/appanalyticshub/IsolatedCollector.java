@@ -0,0 +1,299 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Delivers the events and batches routed to a collector on a dedicated thread through a
+ * bounded queue, so that a collector that blocks or throws never holds up the recording
+ * thread or the other collectors. It sits directly in front of the journal checkpoint of the
+ * collector, behind its batcher.
+ * </p>
+ * <p>
+ * A circuit breaker opens after the configured number of consecutive failures, a failure
+ * being an exception, a delivery slower than the timeout or a delivery dropped because the
+ * queue is full. A collector still recording past the timeout opens it immediately. While
+ * open, deliveries are dropped. Once the open time has elapsed the next delivery is let
+ * through, and a single further failure opens the breaker again.
+ * </p>
+ * <p>
+ * Each queued event or batch costs one small {@code Delivery} allocation on the recording
+ * thread, the queue itself is array backed and adds no node per entry. Deliveries dropped
+ * while the breaker is open allocate nothing.
+ * </p>
+ */
+class IsolatedCollector extends CollectorDecorator implements BatchAnalyticsCollector {
+
+    private final IsolationConfig config;
+    private final long timeoutNanos;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong deliveredCount;
+    private final AtomicLong failedCount;
+    private final AtomicLong timedOutCount;
+    private final AtomicLong droppedCount;
+    private final AtomicInteger consecutiveFailures;
+    private final AtomicLong openUntilNanos;
+    private final AtomicBoolean timeoutReported;
+    private volatile AnalyticsCollector deliveryTarget;
+    private volatile JournalCheckpointer checkpointer;
+    private volatile long deliveryStartNanos;
+
+    IsolatedCollector(@NonNull AnalyticsCollector collector, @NonNull IsolationConfig config) {
+        super(collector);
+        this.config = config;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getTimeoutMillis());
+        this.deliveryTarget = collector;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(config.getQueueCapacity()),
+                new DaemonThreadFactory("collector-" + collector.getName()));
+        this.deliveredCount = new AtomicLong();
+        this.failedCount = new AtomicLong();
+        this.timedOutCount = new AtomicLong();
+        this.droppedCount = new AtomicLong();
+        this.consecutiveFailures = new AtomicInteger();
+        this.openUntilNanos = new AtomicLong();
+        this.timeoutReported = new AtomicBoolean();
+    }
+
+    @Override
+    public void recordEvent(@NonNull Event event) {
+        if (allowDelivery()) {
+            submit(new Delivery(event, null));
+        } else {
+            // events come straight from the hub, no stage in front holds them in the journal.
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void recordEvents(@NonNull List<Event> events) {
+        if (allowDelivery()) {
+            submit(new Delivery(null, events));
+        } else {
+            // batches come from the batcher, which holds their events in the journal.
+            droppedCount.incrementAndGet();
+            JournalCheckpointer eventsCheckpointer = checkpointer;
+            if (eventsCheckpointer != null) {
+                eventsCheckpointer.releaseAll(events);
+            }
+        }
+    }
+
+    /**
+     * Sets what the events are delivered to, the collector itself or the stages directly in
+     * front of it.
+     *
+     * @param deliveryTarget to deliver to.
+     * @param checkpointer   journal checkpoint of the collector holding the queued events,
+     *                       null if the hub has no journal.
+     */
+    void setDeliveryTarget(@NonNull AnalyticsCollector deliveryTarget,
+                           @Nullable JournalCheckpointer checkpointer) {
+        this.deliveryTarget = deliveryTarget;
+        this.checkpointer = checkpointer;
+    }
+
+    /**
+     * Stops the delivery thread once the queued deliveries are done, dropping those still
+     * queued after the timeout.
+     *
+     * @param timeoutMillis maximum time to wait for the queued deliveries.
+     */
+    void shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Runnable pending : executor.shutdownNow()) {
+            ((Delivery) pending).drop();
+        }
+    }
+
+    @NonNull
+    CollectorStats getStats() {
+        return new CollectorStats(getName(), deliveredCount.get(), failedCount.get(),
+                timedOutCount.get(), droppedCount.get(), executor.getQueue().size(), isOpen(System.nanoTime()));
+    }
+
+    private void submit(Delivery delivery) {
+        delivery.retain();
+        try {
+            executor.execute(delivery);
+        } catch (RejectedExecutionException e) {
+            delivery.drop();
+            if (!executor.isShutdown()) {
+                Log.w(Constants.TAG, "Queue of collector " + getName() + " is full, dropping events.");
+                droppedCount.incrementAndGet();
+                recordFailure();
+            }
+        }
+    }
+
+    private boolean allowDelivery() {
+        long now = System.nanoTime();
+        long start = deliveryStartNanos;
+        if (start != 0 && now - start > timeoutNanos && timeoutReported.compareAndSet(false, true)) {
+            timedOutCount.incrementAndGet();
+            Log.w(Constants.TAG, "Collector " + getName() + " is stuck, opening its circuit breaker.");
+            open(now);
+        }
+        long openUntil = openUntilNanos.get();
+        if (openUntil == 0) {
+            return true;
+        }
+        if (now - openUntil < 0) {
+            return false;
+        }
+        if (openUntilNanos.compareAndSet(openUntil, 0)) {
+            consecutiveFailures.set(config.getFailureThreshold() - 1);
+        }
+        return true;
+    }
+
+    private boolean isOpen(long now) {
+        long openUntil = openUntilNanos.get();
+        return openUntil != 0 && now - openUntil < 0;
+    }
+
+    private void open(long now) {
+        long openUntil = now + TimeUnit.MILLISECONDS.toNanos(config.getOpenMillis());
+        openUntilNanos.set(openUntil != 0 ? openUntil : 1);
+    }
+
+    private void recordFailure() {
+        if (consecutiveFailures.incrementAndGet() >= config.getFailureThreshold()) {
+            open(System.nanoTime());
+        }
+    }
+
+    private void deliver(@Nullable Event event, @Nullable List<Event> events) {
+        timeoutReported.set(false);
+        long start = System.nanoTime();
+        deliveryStartNanos = start != 0 ? start : 1;
+        boolean failed = false;
+        try {
+            AnalyticsCollector target = deliveryTarget;
+            if (event != null) {
+                target.recordEvent(event);
+            } else if (target instanceof BatchAnalyticsCollector) {
+                ((BatchAnalyticsCollector) target).recordEvents(events);
+            } else {
+                for (Event batched : events) {
+                    target.recordEvent(batched);
+                }
+            }
+            deliveredCount.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed = true;
+            failedCount.incrementAndGet();
+            Log.e(Constants.TAG, "Collector " + getName() + " failed to record "
+                    + (event != null ? "event " + event.getName() : events.size() + " events"), e);
+        } finally {
+            deliveryStartNanos = 0;
+        }
+        if (System.nanoTime() - start > timeoutNanos) {
+            failed = true;
+            if (timeoutReported.compareAndSet(false, true)) {
+                timedOutCount.incrementAndGet();
+            }
+        }
+        if (failed) {
+            recordFailure();
+        } else {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    /**
+     * Event or batch waiting for the collector, holding the pooled events until delivered and
+     * the journal checkpoint of the collector until received or dropped.
+     */
+    private final class Delivery implements Runnable {
+        private final Event event;
+        private final List<Event> events;
+        private final JournalCheckpointer checkpointer;
+
+        Delivery(@Nullable Event event, @Nullable List<Event> events) {
+            this.event = event;
+            this.events = events;
+            this.checkpointer = IsolatedCollector.this.checkpointer;
+        }
+
+        void retain() {
+            if (event != null) {
+                event.retain();
+            } else {
+                for (Event batched : events) {
+                    batched.retain();
+                }
+            }
+            if (checkpointer != null) {
+                if (event != null) {
+                    checkpointer.hold(event);
+                } else {
+                    checkpointer.holdAll(events);
+                }
+            }
+        }
+
+        /**
+         * Releases the journal checkpoint held by {@link #retain()}.
+         */
+        void releaseCheckpoint() {
+            if (checkpointer != null) {
+                if (event != null) {
+                    checkpointer.release(event);
+                } else {
+                    checkpointer.releaseAll(events);
+                }
+            }
+        }
+
+        /**
+         * Gives up a queued delivery.
+         */
+        void drop() {
+            releaseCheckpoint();
+            discard();
+        }
+
+        void discard() {
+            if (event != null) {
+                event.release();
+            } else {
+                for (Event batched : events) {
+                    batched.release();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                deliver(event, events);
+            } finally {
+                discard();
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+/**
+ * <p>
+ * Configuration of the isolation of a collector on its own delivery thread. A collector that
+ * keeps failing, takes longer than the timeout or lets its queue fill up trips a circuit
+ * breaker, and the events routed to it are dropped until the breaker lets a trial event
+ * through again.
+ * </p>
+ */
+public class IsolationConfig {
+
+    /**
+     * Default maximum number of deliveries waiting for the collector.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    /**
+     * Default maximum time the collector may take to record an event or a batch.
+     */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Default number of consecutive failures tripping the circuit breaker.
+     */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+    /**
+     * Default time the circuit breaker stays open before a trial event is let through.
+     */
+    public static final long DEFAULT_OPEN_MILLIS = 30 * 1000;
+
+    private int queueCapacity;
+    private long timeoutMillis;
+    private int failureThreshold;
+    private long openMillis;
+
+    public IsolationConfig() {
+        queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+        failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+        openMillis = DEFAULT_OPEN_MILLIS;
+    }
+
+    /**
+     * Sets the maximum number of deliveries waiting for the collector, deliveries beyond it
+     * are dropped and count as failures.
+     *
+     * @param queueCapacity number of deliveries, has to be positive.
+     * @return the current config.
+     */
+    public IsolationConfig setQueueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity has to be positive.");
+        }
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * Sets the maximum time the collector may take to record an event or a batch. A collector
+     * still recording past it trips the circuit breaker, a delivery that completes late counts
+     * as a failure.
+     *
+     * @param timeoutMillis time in milliseconds, has to be positive.
+     * @return the current config.
+     */
+    public IsolationConfig setTimeoutMillis(long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("Timeout has to be positive.");
+        }
+        this.timeoutMillis = timeoutMillis;
+        return this;
+    }
+
+    /**
+     * Sets the number of consecutive failures tripping the circuit breaker.
+     *
+     * @param failureThreshold number of failures, has to be positive.
+     * @return the current config.
+     */
+    public IsolationConfig setFailureThreshold(int failureThreshold) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Failure threshold has to be positive.");
+        }
+        this.failureThreshold = failureThreshold;
+        return this;
+    }
+
+    /**
+     * Sets the time the circuit breaker stays open before a trial event is let through.
+     *
+     * @param openMillis time in milliseconds, has to be positive.
+     * @return the current config.
+     */
+    public IsolationConfig setOpenMillis(long openMillis) {
+        if (openMillis <= 0) {
+            throw new IllegalArgumentException("Open time has to be positive.");
+        }
+        this.openMillis = openMillis;
+        return this;
+    }
+
+    /**
+     * Gets the maximum number of deliveries waiting for the collector.
+     *
+     * @return the number of deliveries.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Gets the maximum time the collector may take to record an event or a batch.
+     *
+     * @return the time in milliseconds.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Gets the number of consecutive failures tripping the circuit breaker.
+     *
+     * @return the number of failures.
+     */
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * Gets the time the circuit breaker stays open before a trial event is let through.
+     *
+     * @return the time in milliseconds.
+     */
+    public long getOpenMillis() {
+        return openMillis;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Releases the events received by a collector from its journal checkpoint. It sits directly
+ * in front of the collector, the stages holding events for the collector until later, like
+ * batching and isolation, hold them in the checkpoint through it, so that events still
+ * waiting in a batch or a queue are not considered received.
+ * </p>
+ */
+class JournalCheckpointer extends CollectorDecorator implements BatchAnalyticsCollector {
+
+    private final AnalyticsCollector collector;
+    private final EventJournal journal;
+
+    JournalCheckpointer(@NonNull AnalyticsCollector collector, @NonNull EventJournal journal) {
+        super(collector);
+        this.collector = collector;
+        this.journal = journal;
+    }
+
+    @Override
+    public void recordEvent(@NonNull Event event) {
+        try {
+            collector.recordEvent(event);
+        } finally {
+            release(event);
+        }
+    }
+
+    @Override
+    public void recordEvents(@NonNull List<Event> events) {
+        try {
+            if (collector instanceof BatchAnalyticsCollector) {
+                ((BatchAnalyticsCollector) collector).recordEvents(events);
+            } else {
+                for (Event event : events) {
+                    collector.recordEvent(event);
+                }
+            }
+        } finally {
+            releaseAll(events);
+        }
+    }
+
+    /**
+     * Keeps the checkpoint of the collector before the event until it is received or released.
+     *
+     * @param event held by a stage in front of the collector.
+     */
+    void hold(@NonNull Event event) {
+        journal.hold(collector.getName(), event.journalSequence);
+    }
+
+    /**
+     * Keeps the checkpoint of the collector before the events until they are received or
+     * released.
+     *
+     * @param events held by a stage in front of the collector.
+     */
+    void holdAll(@NonNull List<Event> events) {
+        for (Event event : events) {
+            hold(event);
+        }
+    }
+
+    /**
+     * Lets the checkpoint of the collector move past an event dropped by a stage.
+     *
+     * @param event that the collector will not receive.
+     */
+    void release(@NonNull Event event) {
+        journal.release(collector.getName(), event.journalSequence);
+    }
+
+    /**
+     * Lets the checkpoint of the collector move past events dropped by a stage.
+     *
+     * @param events that the collector will not receive.
+     */
+    void releaseAll(@NonNull List<Event> events) {
+        for (Event event : events) {
+            release(event);
+        }
+    }
+}
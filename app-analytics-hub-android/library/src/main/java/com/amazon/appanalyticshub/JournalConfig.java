@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+
+/**
+ * <p>
+ * Configuration of the on-device event journal of {@link AppAnalyticsHub}. The journal is
+ * kept in segment files of a fixed size in the given directory, usually a directory under
+ * {@code Context.getFilesDir()}.
+ * </p>
+ */
+public class JournalConfig {
+
+    /**
+     * Default size of a segment file.
+     */
+    public static final int DEFAULT_SEGMENT_BYTES = 1024 * 1024;
+
+    /**
+     * Default maximum size of all the segment files.
+     */
+    public static final long DEFAULT_MAX_TOTAL_BYTES = 8 * 1024 * 1024;
+
+    /**
+     * Default age after which a segment is deleted even if not every collector received its
+     * events.
+     */
+    public static final long DEFAULT_MAX_AGE_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    /**
+     * Default interval at which the journal is flushed to disk and the checkpoints are saved.
+     */
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 1000;
+
+    private final File directory;
+    private int segmentBytes;
+    private long maxTotalBytes;
+    private long maxAgeMillis;
+    private long syncIntervalMillis;
+
+    /**
+     * Creates a journal configuration for the given directory.
+     *
+     * @param directory in which the journal files are kept, created if missing.
+     */
+    public JournalConfig(@NonNull File directory) {
+        this.directory = directory;
+        segmentBytes = DEFAULT_SEGMENT_BYTES;
+        maxTotalBytes = DEFAULT_MAX_TOTAL_BYTES;
+        maxAgeMillis = DEFAULT_MAX_AGE_MILLIS;
+        syncIntervalMillis = DEFAULT_SYNC_INTERVAL_MILLIS;
+    }
+
+    /**
+     * Sets the size of a segment file. A new segment is started once the current one is full.
+     *
+     * @param segmentBytes size in bytes, has to be positive.
+     * @return the current config.
+     */
+    public JournalConfig setSegmentBytes(int segmentBytes) {
+        if (segmentBytes <= 0) {
+            throw new IllegalArgumentException("Segment size has to be positive.");
+        }
+        this.segmentBytes = segmentBytes;
+        return this;
+    }
+
+    /**
+     * Sets the maximum size of all the segment files, the oldest segments are deleted when it
+     * is exceeded.
+     *
+     * @param maxTotalBytes size in bytes, has to be positive.
+     * @return the current config.
+     */
+    public JournalConfig setMaxTotalBytes(long maxTotalBytes) {
+        if (maxTotalBytes <= 0) {
+            throw new IllegalArgumentException("Total size has to be positive.");
+        }
+        this.maxTotalBytes = maxTotalBytes;
+        return this;
+    }
+
+    /**
+     * Sets the age after which a segment is deleted.
+     *
+     * @param maxAgeMillis age in milliseconds, has to be positive.
+     * @return the current config.
+     */
+    public JournalConfig setMaxAgeMillis(long maxAgeMillis) {
+        if (maxAgeMillis <= 0) {
+            throw new IllegalArgumentException("Age has to be positive.");
+        }
+        this.maxAgeMillis = maxAgeMillis;
+        return this;
+    }
+
+    /**
+     * Sets the interval at which the journal is flushed to disk, the checkpoints of the
+     * collectors are saved and old segments are deleted. Recording an event never waits for
+     * the disk.
+     *
+     * @param syncIntervalMillis interval in milliseconds, has to be positive.
+     * @return the current config.
+     */
+    public JournalConfig setSyncIntervalMillis(long syncIntervalMillis) {
+        if (syncIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Sync interval has to be positive.");
+        }
+        this.syncIntervalMillis = syncIntervalMillis;
+        return this;
+    }
+
+    /**
+     * Gets the directory of the journal.
+     *
+     * @return the directory.
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the size of a segment file.
+     *
+     * @return the size in bytes.
+     */
+    public int getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    /**
+     * Gets the maximum size of all the segment files.
+     *
+     * @return the size in bytes.
+     */
+    public long getMaxTotalBytes() {
+        return maxTotalBytes;
+    }
+
+    /**
+     * Gets the age after which a segment is deleted.
+     *
+     * @return the age in milliseconds.
+     */
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    /**
+     * Gets the interval at which the journal is flushed to disk.
+     *
+     * @return the interval in milliseconds.
+     */
+    public long getSyncIntervalMillis() {
+        return syncIntervalMillis;
+    }
+}
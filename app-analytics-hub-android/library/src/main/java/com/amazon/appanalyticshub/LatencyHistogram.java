@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Fixed-bucket histogram of short durations recorded from many threads, cheaper than a
+ * {@link TimerHistogram} on the hot path: a duration costs two atomic additions on the row of
+ * the stripe of the recording thread, one to its bucket and one to the sum, and no minimum or
+ * maximum is tracked. The minimum and maximum of its snapshots are the bounds of the lowest and
+ * highest non-empty buckets.
+ * </p>
+ * <p>
+ * Buckets use the log-linear layout of {@link TimerHistogram} with durations from 64 ns to 10
+ * seconds, every bucket at most 25% wide. Longer durations are counted in the last bucket.
+ * </p>
+ */
+final class LatencyHistogram {
+
+    private static final int UNIT_SHIFT = 6;
+    private static final int PRECISION_BITS = 3;
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * Number of buckets, the sum follows them in every row.
+     */
+    private static final int BUCKETS =
+            TimerHistogram.indexOf(HIGHEST_TRACKABLE_NANOS >>> UNIT_SHIFT, PRECISION_BITS) + 1;
+
+    /**
+     * Length of a row in longs, the buckets and the sum rounded up to whole 64 bytes cache
+     * lines so that stripes do not share lines.
+     */
+    private static final int ROW = (BUCKETS + 1 + 7) & ~7;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    /**
+     * @param stripes number of stripes, a power of two.
+     */
+    LatencyHistogram(int stripes) {
+        this.cells = new AtomicLongArray(stripes * ROW);
+        this.mask = stripes - 1;
+    }
+
+    /**
+     * Records a duration, negative durations are recorded as 0.
+     *
+     * @param nanos duration in nanoseconds.
+     */
+    void recordNanos(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int row = StripedLongAdder.stripe(mask) * ROW;
+        int index = Math.min(TimerHistogram.indexOf(nanos >>> UNIT_SHIFT, PRECISION_BITS), BUCKETS - 1);
+        cells.incrementAndGet(row + index);
+        cells.addAndGet(row + BUCKETS, nanos);
+    }
+
+    /**
+     * Copies the durations recorded so far, optionally starting a new interval. Durations
+     * recorded concurrently with a reset end up in exactly one of the intervals, though their
+     * bucket and sum may land in different ones.
+     *
+     * @param reset whether to reset the histogram.
+     * @return the snapshot.
+     */
+    @NonNull
+    HistogramSnapshot snapshot(boolean reset) {
+        long[] counts = new long[BUCKETS];
+        long sum = 0;
+        for (int row = 0; row < cells.length(); row += ROW) {
+            for (int index = 0; index < BUCKETS; index++) {
+                counts[index] += reset ? cells.getAndSet(row + index, 0L) : cells.get(row + index);
+            }
+            sum += reset ? cells.getAndSet(row + BUCKETS, 0L) : cells.get(row + BUCKETS);
+        }
+        int lowest = -1;
+        int highest = -1;
+        for (int index = 0; index < BUCKETS; index++) {
+            if (counts[index] > 0) {
+                if (lowest < 0) {
+                    lowest = index;
+                }
+                highest = index;
+            }
+        }
+        if (lowest < 0) {
+            return new HistogramSnapshot(UNIT_SHIFT, PRECISION_BITS, counts, 0, 0, 0);
+        }
+        long min = TimerHistogram.lowerBoundOf(lowest, PRECISION_BITS) << UNIT_SHIFT;
+        long max = ((TimerHistogram.lowerBoundOf(highest, PRECISION_BITS)
+                + TimerHistogram.widthOf(highest, PRECISION_BITS)) << UNIT_SHIFT) - 1;
+        return new HistogramSnapshot(UNIT_SHIFT, PRECISION_BITS, counts, min, max, sum);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+/**
+ * <p>
+ * Configuration of the metrics the hub keeps about itself: the events recorded, dropped and
+ * delivered per event type and the time spent in every collector.
+ * </p>
+ */
+public class MetricsConfig {
+
+    /**
+     * Name of the {@link EventType#OPERATIONAL} events the metrics are emitted as.
+     */
+    public static final String METRICS_EVENT_NAME = "AppAnalyticsHubMetrics";
+
+    /**
+     * Source of the events the metrics are emitted as.
+     */
+    public static final String METRICS_EVENT_SOURCE = "AppAnalyticsHub";
+
+    private long emitIntervalMillis;
+    private int stripes;
+
+    public MetricsConfig() {
+        emitIntervalMillis = 0;
+        stripes = defaultStripes();
+    }
+
+    /**
+     * Sets the interval at which the metrics are recorded as an {@link EventType#OPERATIONAL}
+     * event, every event carrying the metrics of its interval. 0, the default, keeps the
+     * metrics until {@link AppAnalyticsHub#getMetrics()} is called instead.
+     *
+     * @param emitIntervalMillis time in milliseconds, 0 or positive.
+     * @return the current config.
+     */
+    public MetricsConfig setEmitIntervalMillis(long emitIntervalMillis) {
+        if (emitIntervalMillis < 0) {
+            throw new IllegalArgumentException("Emit interval cannot be negative.");
+        }
+        this.emitIntervalMillis = emitIntervalMillis;
+        return this;
+    }
+
+    /**
+     * Sets the number of stripes of every counter and histogram, the more threads record
+     * events concurrently the more stripes avoid contention. Defaults to the number of
+     * processors, up to 8.
+     *
+     * @param stripes number of stripes, has to be a power of two.
+     * @return the current config.
+     */
+    public MetricsConfig setStripes(int stripes) {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripes have to be a positive power of two.");
+        }
+        this.stripes = stripes;
+        return this;
+    }
+
+    /**
+     * Gets the interval at which the metrics are emitted.
+     *
+     * @return the time in milliseconds, 0 if the metrics are not emitted.
+     */
+    public long getEmitIntervalMillis() {
+        return emitIntervalMillis;
+    }
+
+    /**
+     * Gets the number of stripes of every counter and histogram.
+     *
+     * @return the number of stripes.
+     */
+    public int getStripes() {
+        return stripes;
+    }
+
+    private static int defaultStripes() {
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        return Integer.highestOneBit(Math.max(processors, 1));
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Keeps the metrics of {@link AppAnalyticsHub} about itself. Counters and recording time
+ * histograms are striped, so recording threads rarely touch the same cache lines: a recorded
+ * event costs a few uncontended atomic additions per event and per collector, plus one clock
+ * reading per collector. The counters of an event type or collector are created the first time
+ * it is seen, and the events handed to a collector are counted by its histogram.
+ * </p>
+ */
+final class MetricsRecorder {
+
+    private final int stripes;
+    private final ConcurrentMap<String, EventTypeCounters> eventTypes;
+    private final ConcurrentMap<String, CollectorCounters> collectors;
+    private volatile long intervalStartNanos;
+
+    MetricsRecorder(@NonNull MetricsConfig config) {
+        this.stripes = config.getStripes();
+        this.eventTypes = new ConcurrentHashMap<>();
+        this.collectors = new ConcurrentHashMap<>();
+        this.intervalStartNanos = System.nanoTime();
+    }
+
+    void eventRecorded(@NonNull String eventType) {
+        eventType(eventType).recorded.increment();
+    }
+
+    void eventDropped(@NonNull String eventType) {
+        eventType(eventType).dropped.increment();
+    }
+
+    /**
+     * Counts an event handed to the collectors it is routed to, or dropped if it is routed to
+     * none.
+     *
+     * @param eventType of the event.
+     * @param width     number of collectors the event is handed to.
+     */
+    void eventFannedOut(@NonNull String eventType, int width) {
+        EventTypeCounters counters = eventType(eventType);
+        if (width == 0) {
+            counters.dropped.increment();
+        } else {
+            counters.fannedOut.increment();
+            counters.deliveries.add(width);
+        }
+    }
+
+    /**
+     * Counts an event handed to a collector.
+     *
+     * @param collectorName name of the collector.
+     * @param nanos         time spent in the collector.
+     * @param failed        whether the collector threw an exception.
+     */
+    void collectorFinished(@NonNull String collectorName, long nanos, boolean failed) {
+        CollectorCounters counters = collector(collectorName);
+        counters.recordEventTime.recordNanos(nanos);
+        if (failed) {
+            counters.failed.increment();
+        }
+    }
+
+    /**
+     * Takes a snapshot of the metrics.
+     *
+     * @param reset whether to start a new interval, the counts recorded concurrently are then
+     *              part of exactly one of the intervals.
+     * @return the metrics.
+     */
+    @NonNull
+    HubMetrics snapshot(boolean reset) {
+        long now = System.nanoTime();
+        long intervalMillis = TimeUnit.NANOSECONDS.toMillis(now - intervalStartNanos);
+        if (reset) {
+            intervalStartNanos = now;
+        }
+        Map<String, EventTypeMetrics> eventTypeMetrics = new HashMap<>();
+        for (Map.Entry<String, EventTypeCounters> entry : eventTypes.entrySet()) {
+            EventTypeCounters counters = entry.getValue();
+            eventTypeMetrics.put(entry.getKey(), new EventTypeMetrics(entry.getKey(),
+                    sum(counters.recorded, reset), sum(counters.dropped, reset),
+                    sum(counters.fannedOut, reset), sum(counters.deliveries, reset)));
+        }
+        Map<String, CollectorMetrics> collectorMetrics = new HashMap<>();
+        for (Map.Entry<String, CollectorCounters> entry : collectors.entrySet()) {
+            CollectorCounters counters = entry.getValue();
+            long failed = sum(counters.failed, reset);
+            HistogramSnapshot recordEventTime = counters.recordEventTime.snapshot(reset);
+            collectorMetrics.put(entry.getKey(), new CollectorMetrics(entry.getKey(),
+                    Math.max(recordEventTime.getCount() - failed, 0), failed, recordEventTime));
+        }
+        return new HubMetrics(intervalMillis, Collections.unmodifiableMap(eventTypeMetrics),
+                Collections.unmodifiableMap(collectorMetrics));
+    }
+
+    /**
+     * Converts the metrics to the {@link EventType#OPERATIONAL} event they are emitted as. Its
+     * counters are named after the event type or collector followed by the metric, for example
+     * {@code ENGAGEMENT.recordedCount} or {@code myCollector.recordEventTime}.
+     *
+     * @param metrics to convert.
+     * @return the event.
+     */
+    @NonNull
+    static Event toEvent(@NonNull HubMetrics metrics) {
+        Event event = new Event(MetricsConfig.METRICS_EVENT_NAME, MetricsConfig.METRICS_EVENT_SOURCE,
+                EventType.OPERATIONAL.name(), Priority.NORMAL);
+        event.setCounter("intervalMillis", metrics.getIntervalMillis());
+        for (EventTypeMetrics eventType : metrics.getEventTypeMetrics().values()) {
+            String prefix = eventType.getEventType() + ".";
+            event.setCounter(prefix + "recordedCount", eventType.getRecordedCount());
+            event.setCounter(prefix + "droppedCount", eventType.getDroppedCount());
+            event.setCounter(prefix + "fannedOutCount", eventType.getFannedOutCount());
+            event.setCounter(prefix + "deliveryCount", eventType.getDeliveryCount());
+        }
+        for (CollectorMetrics collector : metrics.getCollectorMetrics().values()) {
+            String prefix = collector.getCollectorName() + ".";
+            event.setCounter(prefix + "deliveredCount", collector.getDeliveredCount());
+            event.setCounter(prefix + "failedCount", collector.getFailedCount());
+            event.addTimerHistogram(prefix + "recordEventTime", collector.getRecordEventTime());
+        }
+        return event;
+    }
+
+    private EventTypeCounters eventType(String eventType) {
+        EventTypeCounters counters = eventTypes.get(eventType);
+        if (counters == null) {
+            EventTypeCounters created = new EventTypeCounters(stripes);
+            counters = eventTypes.putIfAbsent(eventType, created);
+            if (counters == null) {
+                counters = created;
+            }
+        }
+        return counters;
+    }
+
+    private CollectorCounters collector(String collectorName) {
+        CollectorCounters counters = collectors.get(collectorName);
+        if (counters == null) {
+            CollectorCounters created = new CollectorCounters(stripes);
+            counters = collectors.putIfAbsent(collectorName, created);
+            if (counters == null) {
+                counters = created;
+            }
+        }
+        return counters;
+    }
+
+    private static long sum(StripedLongAdder adder, boolean reset) {
+        return reset ? adder.sumThenReset() : adder.sum();
+    }
+
+    private static final class EventTypeCounters {
+
+        private final StripedLongAdder recorded;
+        private final StripedLongAdder dropped;
+        private final StripedLongAdder fannedOut;
+        private final StripedLongAdder deliveries;
+
+        EventTypeCounters(int stripes) {
+            recorded = new StripedLongAdder(stripes);
+            dropped = new StripedLongAdder(stripes);
+            fannedOut = new StripedLongAdder(stripes);
+            deliveries = new StripedLongAdder(stripes);
+        }
+    }
+
+    private static final class CollectorCounters {
+
+        private final LatencyHistogram recordEventTime;
+        private final StripedLongAdder failed;
+
+        CollectorCounters(int stripes) {
+            recordEventTime = new LatencyHistogram(stripes);
+            failed = new StripedLongAdder(stripes);
+        }
+    }
+}
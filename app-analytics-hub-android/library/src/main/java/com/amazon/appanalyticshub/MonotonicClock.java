@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+/**
+ * <p>
+ * Source of monotonic time used by {@link TimerMetric}. Readings only make sense relative to
+ * each other, they never jump with wall clock changes. Provide your own implementation to make
+ * timers deterministic in tests, or to use {@code SystemClock.elapsedRealtimeNanos()} for
+ * timers that should keep counting while the device is in deep sleep.
+ * </p>
+ */
+public interface MonotonicClock {
+
+    /**
+     * Clock backed by {@link System#nanoTime()}, the default of every timer.
+     */
+    MonotonicClock SYSTEM = new MonotonicClock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * Returns the current reading of the clock.
+     *
+     * @return the reading in nanoseconds.
+     */
+    long nanoTime();
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ * Periodic task of a hub stage that calls the collectors. The scheduler firing it only hands
+ * the work to the delivery executor, so that a slow collector never delays the timers of the
+ * other stages. A run fired while the previous one is still going is skipped, the next one
+ * catches up, so that a stuck collector does not pile up delivery threads.
+ * </p>
+ */
+class OffloadedTask implements Runnable {
+
+    private final Executor executor;
+    private final Runnable task;
+    private final AtomicBoolean running;
+    private final Runnable run;
+
+    OffloadedTask(@NonNull Executor executor, @NonNull Runnable task) {
+        this.executor = executor;
+        this.task = task;
+        this.running = new AtomicBoolean();
+        this.run = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    OffloadedTask.this.task.run();
+                } finally {
+                    running.set(false);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(run);
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            Log.w(Constants.TAG, "Could not hand a timed task to the delivery executor.", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+/**
+ * <p>
+ * This enumeration defines what the asynchronous dispatcher of {@link AppAnalyticsHub} does
+ * when an event is recorded while its queue is full.
+ * {@link Priority#CRITICAL} events are never dropped by any of the policies, they wait for
+ * space and are delivered on the caller's thread if none frees up in time.
+ * </p>
+ */
+public enum OverflowPolicy {
+    /**
+     * Evicts the oldest queued event to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Discards the event being recorded and keeps the queued ones.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Blocks the caller until there is space in the queue or the configured block timeout
+     * elapses, in which case the event being recorded is discarded.
+     */
+    BLOCK
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+/**
+ * <p>
+ * Set of the journal sequences still pending, kept sorted in a ring of primitive longs. The
+ * sequences mostly arrive in increasing order and leave close to it, so adding appends at the
+ * tail and removing the oldest advances the head, neither boxes nor allocates once the ring
+ * has grown to the number of pending sequences. A sequence removed from the middle is marked
+ * as removed in place and skipped once it reaches the head.
+ * </p>
+ * <p>
+ * The set is not thread-safe, its owner synchronizes the calls.
+ * </p>
+ */
+final class PendingSequences {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Sequences from the head, a removed sequence {@code s} is stored as {@code -s - 1}.
+     */
+    private long[] ring;
+    private int head;
+    private int length;
+    private int size;
+
+    PendingSequences() {
+        ring = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds a sequence, adding a sequence already pending has no effect.
+     *
+     * @param sequence to add, not negative.
+     */
+    void add(long sequence) {
+        if (length > 0 && sequence <= keyAt(length - 1)) {
+            int index = indexOf(sequence);
+            if (index >= 0) {
+                int slot = slot(index);
+                if (ring[slot] < 0) {
+                    ring[slot] = sequence;
+                    size++;
+                }
+                return;
+            }
+            insert(-index - 1, sequence);
+        } else {
+            insert(length, sequence);
+        }
+        size++;
+    }
+
+    /**
+     * Removes a sequence, removing a sequence that is not pending has no effect.
+     *
+     * @param sequence to remove.
+     * @return true if the sequence was pending.
+     */
+    boolean remove(long sequence) {
+        int index = indexOf(sequence);
+        if (index < 0) {
+            return false;
+        }
+        int slot = slot(index);
+        if (ring[slot] < 0) {
+            return false;
+        }
+        ring[slot] = -sequence - 1;
+        size--;
+        while (length > 0 && ring[head] < 0) {
+            head = (head + 1) & (ring.length - 1);
+            length--;
+        }
+        while (length > 0 && ring[slot(length - 1)] < 0) {
+            length--;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the oldest pending sequence.
+     *
+     * @param defaultSequence returned when no sequence is pending.
+     * @return the oldest sequence.
+     */
+    long first(long defaultSequence) {
+        return size > 0 ? ring[head] : defaultSequence;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private long keyAt(int index) {
+        long value = ring[slot(index)];
+        return value >= 0 ? value : -value - 1;
+    }
+
+    private int slot(int index) {
+        return (head + index) & (ring.length - 1);
+    }
+
+    /**
+     * Binary search over the sequences from the head, including the removed ones.
+     *
+     * @return the index of the sequence, or {@code -insertionIndex - 1} if missing.
+     */
+    private int indexOf(long sequence) {
+        int low = 0;
+        int high = length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long key = keyAt(middle);
+            if (key < sequence) {
+                low = middle + 1;
+            } else if (key > sequence) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    private void insert(int index, long sequence) {
+        if (length == ring.length) {
+            if (size < length) {
+                compact();
+                index = -indexOf(sequence) - 1;
+            } else {
+                grow();
+            }
+        }
+        if (index == 0 && length > 0) {
+            head = (head - 1) & (ring.length - 1);
+        } else {
+            for (int i = length; i > index; i--) {
+                ring[slot(i)] = ring[slot(i - 1)];
+            }
+        }
+        ring[slot(index)] = sequence;
+        length++;
+    }
+
+    /**
+     * Drops the removed sequences in place, moving the pending ones towards the head.
+     */
+    private void compact() {
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            long value = ring[slot(i)];
+            if (value >= 0) {
+                ring[slot(count++)] = value;
+            }
+        }
+        length = count;
+    }
+
+    private void grow() {
+        long[] grown = new long[ring.length * 2];
+        for (int i = 0; i < length; i++) {
+            grown[i] = ring[slot(i)];
+        }
+        ring = grown;
+        head = 0;
+    }
+}
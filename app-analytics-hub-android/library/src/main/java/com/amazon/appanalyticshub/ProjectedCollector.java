@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+/**
+ * <p>
+ * Delivers to a collector a copy of the events routed to it holding only the fields of its
+ * {@link FieldProjection}. The event is shared with the other collectors so it is never
+ * modified. The copies are not pooled, the collector can keep them like any event it receives.
+ * </p>
+ */
+class ProjectedCollector extends CollectorDecorator {
+
+    private final AnalyticsCollector target;
+    private final FieldProjection projection;
+
+    /**
+     * @param projection immutable copy of the projection of the collector.
+     */
+    ProjectedCollector(@NonNull AnalyticsCollector target, @NonNull FieldProjection projection) {
+        super(target);
+        this.target = target;
+        this.projection = projection;
+    }
+
+    @Override
+    public void recordEvent(@NonNull Event event) {
+        Event projected = new Event(event.getName(), event.getSource(), event.getEventType(),
+                event.getPriority());
+        projected.copyFieldsFrom(event, projection);
+        projected.journalSequence = event.journalSequence;
+        target.recordEvent(projected);
+    }
+}
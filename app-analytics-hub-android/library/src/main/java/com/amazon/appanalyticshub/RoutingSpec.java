@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * Complete routing of {@link AppAnalyticsHub}: the collectors to register, the collectors every
+ * event type is delivered to and the default collector. Installing a spec with
+ * {@link AppAnalyticsHub#setRouting(RoutingSpec)} replaces the routing in one step, building the
+ * routing table once instead of once per route.
+ * </p>
+ * <p>
+ * An event type containing {@value #WILDCARD} is a pattern route, the wildcard matching any run
+ * of characters: {@code PLAYBACK_*} routes every event type starting with {@code PLAYBACK_} and
+ * {@code *_ERROR} every event type ending with {@code _ERROR}. An event type is delivered to
+ * the collectors of its exact route and of every pattern it matches.
+ * </p>
+ */
+public class RoutingSpec {
+
+    /**
+     * Character matching any run of characters in the event type of a pattern route.
+     */
+    public static final char WILDCARD = '*';
+
+    private final Map<String, AnalyticsCollector> collectors;
+    private final Map<String, Set<String>> routes;
+    private String defaultCollectorName;
+
+    public RoutingSpec() {
+        collectors = new LinkedHashMap<>();
+        routes = new LinkedHashMap<>();
+    }
+
+    /**
+     * Adds a collector to register, replacing the collector with the same name if any.
+     *
+     * @param collector to register.
+     * @return the current spec.
+     */
+    public RoutingSpec addCollector(@NonNull AnalyticsCollector collector) {
+        collectors.put(collector.getName(), collector);
+        return this;
+    }
+
+    /**
+     * Routes an event type, or the event types matching a pattern, to the given collectors,
+     * on top of the collectors it is already routed to in the spec.
+     *
+     * @param eventType      exact event type or pattern containing {@value #WILDCARD}.
+     * @param collectorNames names of collectors of the spec or already registered with the hub.
+     * @return the current spec.
+     */
+    public RoutingSpec addRoute(@NonNull String eventType, @NonNull String... collectorNames) {
+        Set<String> names = routes.get(eventType);
+        if (names == null) {
+            names = new LinkedHashSet<>();
+            routes.put(eventType, names);
+        }
+        Collections.addAll(names, collectorNames);
+        return this;
+    }
+
+    /**
+     * Routes an event type to the given collectors, on top of the collectors it is already
+     * routed to in the spec.
+     *
+     * @param eventType      of the events.
+     * @param collectorNames names of collectors of the spec or already registered with the hub.
+     * @return the current spec.
+     */
+    public RoutingSpec addRoute(@NonNull EventType eventType, @NonNull String... collectorNames) {
+        return addRoute(eventType.name(), collectorNames);
+    }
+
+    /**
+     * Adds every route of a map, for example loaded from a configuration file.
+     *
+     * @param routes names of the collectors of every event type or pattern.
+     * @return the current spec.
+     */
+    public RoutingSpec addRoutes(@NonNull Map<String, ? extends Collection<String>> routes) {
+        for (Map.Entry<String, ? extends Collection<String>> entry : routes.entrySet()) {
+            addRoute(entry.getKey(), entry.getValue().toArray(new String[0]));
+        }
+        return this;
+    }
+
+    /**
+     * Sets the collector every event is delivered to.
+     *
+     * @param collectorName name of a collector of the spec or already registered with the hub,
+     *                      null for none.
+     * @return the current spec.
+     */
+    public RoutingSpec setDefaultCollector(@Nullable String collectorName) {
+        this.defaultCollectorName = collectorName;
+        return this;
+    }
+
+    /**
+     * Gets the collectors to register.
+     *
+     * @return read-only map of collector name to collector.
+     */
+    @NonNull
+    public Map<String, AnalyticsCollector> getCollectors() {
+        return Collections.unmodifiableMap(collectors);
+    }
+
+    /**
+     * Gets the routes of the spec.
+     *
+     * @return read-only map of event type or pattern to collector names.
+     */
+    @NonNull
+    public Map<String, Set<String>> getRoutes() {
+        return Collections.unmodifiableMap(routes);
+    }
+
+    /**
+     * Gets the name of the default collector.
+     *
+     * @return the collector name or null if there is none.
+     */
+    @Nullable
+    public String getDefaultCollector() {
+        return defaultCollectorName;
+    }
+
+    /**
+     * Checks whether an event type of a route is a pattern.
+     *
+     * @param eventType of the route.
+     * @return true if the route matches the event types matching its pattern.
+     */
+    static boolean isPattern(@NonNull String eventType) {
+        return eventType.indexOf(WILDCARD) >= 0;
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * Immutable table of the collectors every event type is delivered to, with the default
+ * collector already merged in. The table is rebuilt whenever the routing of the hub changes
+ * so that recording an event only needs a lookup and an array walk.
+ * </p>
+ * <p>
+ * Pattern routes, with {@link RoutingSpec#WILDCARD}s, are compiled into an
+ * {@link EventTypeMatcher} and merged into the exact routes they match when the table is
+ * built. The routes of the other event types are resolved by the matcher the first time they
+ * are looked up and memoized, so that later lookups are a single map hit. Once the memo is
+ * full, a clock evicts an event type not looked up since the hand last passed it, so that a
+ * stream of distinct event types costs one resolution each without growing the memo past its
+ * bound or evicting the event types recorded all the time. The memo belongs to the table and
+ * is discarded with it whenever the routing changes.
+ * </p>
+ */
+final class RoutingTable {
+
+    /**
+     * Maximum number of memoized event types, one is evicted before memoizing more.
+     */
+    static final int MAX_MEMOIZED_EVENT_TYPES = 1024;
+
+    private static final AnalyticsCollector[] NO_COLLECTORS = new AnalyticsCollector[0];
+
+    private final Map<String, AnalyticsCollector[]> routes;
+    private final AnalyticsCollector[] defaultRoute;
+    private final EventTypeMatcher matcher;
+    private final String[] patterns;
+    private final Map<String, Set<String>> eventTypeToCollectorMap;
+    private final Map<String, AnalyticsCollector> deliveryTargets;
+    private final AnalyticsCollector defaultAnalyticsCollector;
+    private final ConcurrentMap<String, MemoEntry> memo;
+    /**
+     * Memoized event types in the order of the clock, guarded by itself.
+     */
+    private final String[] clock;
+    private int clockSize;
+    private int clockHand;
+
+    private RoutingTable(Map<String, AnalyticsCollector[]> routes, AnalyticsCollector[] defaultRoute,
+                         EventTypeMatcher matcher, String[] patterns,
+                         Map<String, Set<String>> eventTypeToCollectorMap,
+                         Map<String, AnalyticsCollector> deliveryTargets,
+                         AnalyticsCollector defaultAnalyticsCollector) {
+        this.routes = routes;
+        this.defaultRoute = defaultRoute;
+        this.matcher = matcher;
+        this.patterns = patterns;
+        this.eventTypeToCollectorMap = eventTypeToCollectorMap;
+        this.deliveryTargets = deliveryTargets;
+        this.defaultAnalyticsCollector = defaultAnalyticsCollector;
+        this.memo = matcher != null ? new ConcurrentHashMap<String, MemoEntry>() : null;
+        this.clock = matcher != null ? new String[MAX_MEMOIZED_EVENT_TYPES] : null;
+    }
+
+    /**
+     * Builds the routing table for the given routing configuration.
+     *
+     * @param eventTypeToCollectorMap   names of the collectors linked to each event type or
+     *                                  pattern.
+     * @param deliveryTargets           what to deliver to for each registered collector name,
+     *                                  the collector itself or the stages in front of it.
+     * @param defaultAnalyticsCollector what to deliver every event to, if any.
+     * @return the routing table.
+     */
+    static RoutingTable build(@NonNull Map<String, Set<String>> eventTypeToCollectorMap,
+                              @NonNull Map<String, AnalyticsCollector> deliveryTargets,
+                              @Nullable AnalyticsCollector defaultAnalyticsCollector) {
+        AnalyticsCollector[] defaultRoute = defaultAnalyticsCollector != null
+                ? new AnalyticsCollector[]{defaultAnalyticsCollector} : NO_COLLECTORS;
+        List<String> patternList = new ArrayList<>();
+        for (String eventType : eventTypeToCollectorMap.keySet()) {
+            if (RoutingSpec.isPattern(eventType)) {
+                patternList.add(eventType);
+            }
+        }
+        if (patternList.isEmpty()) {
+            Map<String, AnalyticsCollector[]> routes = new HashMap<>();
+            List<AnalyticsCollector> route = new ArrayList<>();
+            for (Map.Entry<String, Set<String>> entry : eventTypeToCollectorMap.entrySet()) {
+                routes.put(entry.getKey(), toRoute(entry.getValue(), deliveryTargets,
+                        defaultAnalyticsCollector, route));
+            }
+            return new RoutingTable(routes, defaultRoute, null, null,
+                    new HashMap<String, Set<String>>(eventTypeToCollectorMap), null, null);
+        }
+        // Sorted so that the collectors of the patterns are always merged in the same order.
+        Collections.sort(patternList);
+        String[] patterns = patternList.toArray(new String[0]);
+        Map<String, Set<String>> snapshot = new HashMap<>(eventTypeToCollectorMap);
+        RoutingTable table = new RoutingTable(new HashMap<String, AnalyticsCollector[]>(),
+                defaultRoute, new EventTypeMatcher(patterns), patterns, snapshot, deliveryTargets,
+                defaultAnalyticsCollector);
+        for (String eventType : snapshot.keySet()) {
+            if (!RoutingSpec.isPattern(eventType)) {
+                table.routes.put(eventType, table.resolve(eventType));
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Builds an empty routing table.
+     *
+     * @return the routing table.
+     */
+    static RoutingTable empty() {
+        return new RoutingTable(Collections.<String, AnalyticsCollector[]>emptyMap(), NO_COLLECTORS,
+                null, null, null, null, null);
+    }
+
+    /**
+     * Gets the collectors an event of the given type is delivered to. The returned array is
+     * shared and must not be modified.
+     *
+     * @param eventType of the event.
+     * @return the collectors.
+     */
+    @NonNull
+    AnalyticsCollector[] route(@NonNull String eventType) {
+        AnalyticsCollector[] route = routes.get(eventType);
+        if (route != null) {
+            return route;
+        }
+        if (matcher == null) {
+            return defaultRoute;
+        }
+        MemoEntry entry = memo.get(eventType);
+        if (entry != null) {
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            return entry.route;
+        }
+        route = resolve(eventType);
+        synchronized (clock) {
+            if (!memo.containsKey(eventType)) {
+                memoize(eventType, route);
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Memoizes the route of an event type, has to be called while holding the clock.
+     */
+    private void memoize(String eventType, AnalyticsCollector[] route) {
+        if (clockSize < clock.length) {
+            clock[clockSize++] = eventType;
+        } else {
+            // Referenced event types get a second chance, the hand clears their bit on its way.
+            while (true) {
+                MemoEntry candidate = memo.get(clock[clockHand]);
+                if (!candidate.referenced) {
+                    break;
+                }
+                candidate.referenced = false;
+                clockHand = (clockHand + 1) % clock.length;
+            }
+            memo.remove(clock[clockHand]);
+            clock[clockHand] = eventType;
+            clockHand = (clockHand + 1) % clock.length;
+        }
+        memo.put(eventType, new MemoEntry(route));
+    }
+
+    /**
+     * Gets the number of event types whose pattern routes are memoized.
+     *
+     * @return the memo size.
+     */
+    int getMemoizedCount() {
+        return memo != null ? memo.size() : 0;
+    }
+
+    /**
+     * Gets the names of the collectors linked to an event type, by its exact route first and
+     * then by the patterns it matches, in the order {@link #route(String)} delivers to them.
+     * The default collector is only included if it is linked.
+     *
+     * @param eventType of the events.
+     * @return the collector names.
+     */
+    @NonNull
+    Set<String> getCollectorNames(@NonNull String eventType) {
+        Set<String> names = new LinkedHashSet<>();
+        if (eventTypeToCollectorMap == null) {
+            return names;
+        }
+        Set<String> exact = eventTypeToCollectorMap.get(eventType);
+        if (exact != null) {
+            names.addAll(exact);
+        }
+        if (matcher != null) {
+            boolean[] matched = matcher.match(eventType);
+            for (int i = 0; i < patterns.length; i++) {
+                if (matched[i]) {
+                    names.addAll(eventTypeToCollectorMap.get(patterns[i]));
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Resolves the route of an event type, from its exact route and the patterns it matches.
+     */
+    private AnalyticsCollector[] resolve(String eventType) {
+        Set<String> names = getCollectorNames(eventType);
+        if (names.isEmpty() && !eventTypeToCollectorMap.containsKey(eventType)) {
+            return defaultRoute;
+        }
+        return toRoute(names, deliveryTargets, defaultAnalyticsCollector,
+                new ArrayList<AnalyticsCollector>(names.size() + 1));
+    }
+
+    private static AnalyticsCollector[] toRoute(Set<String> names,
+                                                Map<String, AnalyticsCollector> deliveryTargets,
+                                                AnalyticsCollector defaultAnalyticsCollector,
+                                                List<AnalyticsCollector> route) {
+        route.clear();
+        boolean containsDefault = false;
+        for (String collectorName : names) {
+            AnalyticsCollector collector = deliveryTargets.get(collectorName);
+            if (collector == null) {
+                continue;
+            }
+            if (defaultAnalyticsCollector != null
+                    && collectorName.equals(defaultAnalyticsCollector.getName())) {
+                containsDefault = true;
+            }
+            route.add(collector);
+        }
+        if (!containsDefault && defaultAnalyticsCollector != null) {
+            route.add(defaultAnalyticsCollector);
+        }
+        return route.toArray(NO_COLLECTORS);
+    }
+
+    /**
+     * Memoized route, with the reference bit of the clock.
+     */
+    private static final class MemoEntry {
+        final AnalyticsCollector[] route;
+        volatile boolean referenced;
+
+        MemoEntry(AnalyticsCollector[] route) {
+            this.route = route;
+        }
+    }
+}
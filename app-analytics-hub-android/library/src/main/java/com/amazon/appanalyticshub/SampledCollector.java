@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+/**
+ * <p>
+ * Drops the events routed to a collector that its {@link SamplingPolicy} does not keep. It
+ * sits in front of all the other stages of the collector, so that dropped events are never
+ * batched or queued. The event is shared with the other collectors, so the sample rate of
+ * the collector is not multiplied into it.
+ * </p>
+ */
+class SampledCollector extends CollectorDecorator {
+
+    private final AnalyticsCollector target;
+    private final SamplingPolicy policy;
+
+    SampledCollector(@NonNull AnalyticsCollector target, @NonNull SamplingPolicy policy) {
+        super(target);
+        this.target = target;
+        this.policy = policy;
+    }
+
+    @Override
+    public void recordEvent(@NonNull Event event) {
+        if (policy.apply(event) > 0) {
+            target.recordEvent(event);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Decides which events of an event type or of a collector are kept, to shed load before the
+ * events are fanned out to the collectors. The rate an event was kept at is multiplied into
+ * its {@link Event#getSampleRate()} when the policy applies to its event type, so that
+ * backends can re-weight the events they receive.
+ * </p>
+ * <p>
+ * {@link Priority#CRITICAL} events are always kept unless {@link #setExemptCritical(boolean)}
+ * is disabled. Policies are thread safe.
+ * </p>
+ */
+public abstract class SamplingPolicy {
+
+    private static final ThreadLocal<Random> RANDOM = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+
+    private volatile boolean exemptCritical;
+
+    SamplingPolicy() {
+        exemptCritical = true;
+    }
+
+    /**
+     * Creates a policy keeping every event with the given probability.
+     *
+     * @param rate probability to keep an event, from 0 to 1.
+     * @return the policy.
+     */
+    @NonNull
+    public static SamplingPolicy probabilistic(double rate) {
+        return new Probabilistic(checkRate(rate));
+    }
+
+    /**
+     * Creates a policy keeping the events by hash of the value of a data, so that all the
+     * events with the same value, for example of a session id, are either kept or dropped.
+     * Events without the data are kept with the given probability.
+     *
+     * @param dataName name of the data to hash.
+     * @param rate     share of the values whose events are kept, from 0 to 1.
+     * @return the policy.
+     */
+    @NonNull
+    public static SamplingPolicy byDataHash(@NonNull String dataName, double rate) {
+        return new DataHash(dataName, checkRate(rate));
+    }
+
+    /**
+     * Creates a token bucket policy keeping at most the given number of events per second on
+     * average, with bursts of up to the given number of events. The sample rate of a kept
+     * event is the share of the events kept over the last one to two seconds.
+     *
+     * @param eventsPerSecond average number of events kept per second, has to be positive.
+     * @param burst           number of events that can be kept at once, has to be positive.
+     * @return the policy.
+     */
+    @NonNull
+    public static SamplingPolicy rateLimit(double eventsPerSecond, int burst) {
+        if (!(eventsPerSecond > 0)) {
+            throw new IllegalArgumentException("Events per second have to be positive.");
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("Burst has to be positive.");
+        }
+        return new RateLimit(eventsPerSecond, burst);
+    }
+
+    /**
+     * Sets whether {@link Priority#CRITICAL} events are always kept. Enabled by default.
+     *
+     * @param exemptCritical true to always keep critical events.
+     * @return the current policy.
+     */
+    public SamplingPolicy setExemptCritical(boolean exemptCritical) {
+        this.exemptCritical = exemptCritical;
+        return this;
+    }
+
+    /**
+     * Gets whether {@link Priority#CRITICAL} events are always kept.
+     *
+     * @return true if critical events are always kept.
+     */
+    public boolean isExemptCritical() {
+        return exemptCritical;
+    }
+
+    /**
+     * Decides whether to keep the event.
+     *
+     * @param event to decide for.
+     * @return the rate the event was kept at, from above 0 to 1, or 0 if it is dropped.
+     */
+    final double apply(@NonNull Event event) {
+        if (exemptCritical && event.getPriority() == Priority.CRITICAL) {
+            return 1;
+        }
+        return sample(event);
+    }
+
+    abstract double sample(@NonNull Event event);
+
+    private static double checkRate(double rate) {
+        if (!(rate >= 0 && rate <= 1)) {
+            throw new IllegalArgumentException("Rate has to be between 0 and 1.");
+        }
+        return rate;
+    }
+
+    private static final class Probabilistic extends SamplingPolicy {
+        private final double rate;
+
+        Probabilistic(double rate) {
+            this.rate = rate;
+        }
+
+        @Override
+        double sample(@NonNull Event event) {
+            return RANDOM.get().nextDouble() < rate ? rate : 0;
+        }
+    }
+
+    private static final class DataHash extends SamplingPolicy {
+        private final String dataName;
+        private final double rate;
+        private final long threshold;
+
+        DataHash(String dataName, double rate) {
+            this.dataName = dataName;
+            this.rate = rate;
+            this.threshold = (long) (rate * (1L << 32));
+        }
+
+        @Override
+        double sample(@NonNull Event event) {
+            String value = event.getData().get(dataName);
+            if (value == null) {
+                return RANDOM.get().nextDouble() < rate ? rate : 0;
+            }
+            int hash = value.hashCode();
+            hash ^= hash >>> 16;
+            hash *= 0x85EBCA6B;
+            hash ^= hash >>> 13;
+            hash *= 0xC2B2AE35;
+            hash ^= hash >>> 16;
+            return (hash & 0xFFFFFFFFL) < threshold ? rate : 0;
+        }
+    }
+
+    private static final class RateLimit extends SamplingPolicy {
+        private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        private final double tokensPerNano;
+        private final int burst;
+        private double tokens;
+        private long refillNanos;
+        private long windowStartNanos;
+        private long offered;
+        private long kept;
+        private long previousOffered;
+        private long previousKept;
+
+        RateLimit(double eventsPerSecond, int burst) {
+            this.tokensPerNano = eventsPerSecond / WINDOW_NANOS;
+            this.burst = burst;
+            this.tokens = burst;
+            this.refillNanos = System.nanoTime();
+            this.windowStartNanos = refillNanos;
+        }
+
+        @Override
+        synchronized double sample(@NonNull Event event) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refillNanos) * tokensPerNano);
+            refillNanos = now;
+            if (now - windowStartNanos >= WINDOW_NANOS) {
+                boolean skippedWindow = now - windowStartNanos >= 2 * WINDOW_NANOS;
+                previousOffered = skippedWindow ? 0 : offered;
+                previousKept = skippedWindow ? 0 : kept;
+                offered = 0;
+                kept = 0;
+                windowStartNanos = now;
+            }
+            offered++;
+            if (tokens < 1) {
+                return 0;
+            }
+            tokens--;
+            kept++;
+            return (double) (kept + previousKept) / (offered + previousOffered);
+        }
+    }
+}
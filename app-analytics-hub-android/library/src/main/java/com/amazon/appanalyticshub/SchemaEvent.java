@@ -0,0 +1,349 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.Map;
+
+/**
+ * <p>
+ * Event created from a registered {@link EventSchema}. Its data, counters, timers and metrics
+ * are stored in arrays indexed by the slots of the schema, so that setting a field by slot
+ * neither hashes its name nor allocates a map entry. Look the slots up once with the getters
+ * of the schema and keep them, for example in constants.
+ * </p>
+ * <p>
+ * The event can still be used as a plain {@link Event}: fields set by name are resolved to
+ * their slot and collectors read the fields by name through the usual getters. Fields the
+ * schema does not declare are ignored with a warning.
+ * </p>
+ * <p>
+ * Recording the event shares its slot values with the snapshot delivered to the collectors,
+ * the event copies them the next time it changes them.
+ * </p>
+ */
+public class SchemaEvent extends Event {
+
+    private final EventSchema schema;
+    private SlotMap<String> data;
+    private SlotDoubleMap counters;
+    private SlotDoubleMap timers;
+    private SlotMap<Object> metrics;
+
+    /**
+     * Slot fields shared with snapshots of the event, they are copied before being changed.
+     */
+    private int sharedFields;
+
+    SchemaEvent(@NonNull EventSchema schema) {
+        super(schema.getName(), schema.getSource(), schema.getEventType(), schema.getPriority());
+        this.schema = schema;
+        this.data = new SlotMap<>(schema.getDataKeys(), schema.getDataSlots());
+        this.counters = new SlotDoubleMap(schema.getCounterKeys(), schema.getCounterSlots());
+        this.timers = new SlotDoubleMap(schema.getTimerKeys(), schema.getTimerSlots());
+        this.metrics = new SlotMap<>(schema.getMetricKeys(), schema.getMetricSlots());
+    }
+
+    /**
+     * Gets the schema the event was created from.
+     *
+     * @return the schema.
+     */
+    @NonNull
+    public EventSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Adds Data to the event.
+     *
+     * @param slot  of the data in the schema.
+     * @param value of the data.
+     * @return the current event.
+     */
+    public SchemaEvent addData(int slot, @NonNull String value) {
+        ownData().put(slot, value);
+        return this;
+    }
+
+    /**
+     * Adds a counter metric to the event with the value provided.
+     *
+     * @param slot  of the counter in the schema.
+     * @param count for the counter.
+     * @return the current event.
+     */
+    public SchemaEvent addCounter(int slot, double count) {
+        ownCounters().add(slot, count);
+        return this;
+    }
+
+    /**
+     * Increments the counter metric with the value provided, creating it if it is not set.
+     *
+     * @param slot        of the counter in the schema.
+     * @param incrementBy value by which the current value has to be incremented.
+     * @return the current event.
+     */
+    public SchemaEvent incrementCounter(int slot, double incrementBy) {
+        ownCounters().add(slot, incrementBy);
+        return this;
+    }
+
+    /**
+     * Increments the counter metric with 1, creating it if it is not set.
+     *
+     * @param slot of the counter in the schema.
+     * @return the current event.
+     */
+    public SchemaEvent incrementCounter(int slot) {
+        ownCounters().add(slot, 1);
+        return this;
+    }
+
+    /**
+     * Adds a Timer metric to the event with the time value provided.
+     *
+     * @param slot of the timer in the schema.
+     * @param time for the timer.
+     * @return the current event.
+     */
+    public SchemaEvent addTimer(int slot, double time) {
+        ownTimers().add(slot, time);
+        return this;
+    }
+
+    /**
+     * Increments Timer metric with the provided value, creating it if it is not set.
+     *
+     * @param slot        of the timer in the schema.
+     * @param incrementBy value by which the current value has to be incremented.
+     * @return the current event.
+     */
+    public SchemaEvent incrementTimer(int slot, double incrementBy) {
+        ownTimers().add(slot, incrementBy);
+        return this;
+    }
+
+    /**
+     * Adds a string custom metric to the event.
+     *
+     * @param slot  of the metric in the schema.
+     * @param value of the metric.
+     * @return the current event.
+     */
+    public SchemaEvent addMetric(int slot, @NonNull String value) {
+        ownMetrics().put(slot, value);
+        return this;
+    }
+
+    /**
+     * Adds a boolean custom metric to the event.
+     *
+     * @param slot  of the metric in the schema.
+     * @param value of the metric.
+     * @return the current event.
+     */
+    public SchemaEvent addMetric(int slot, boolean value) {
+        ownMetrics().put(slot, value);
+        return this;
+    }
+
+    @Override
+    public Event addData(@NonNull String name, @NonNull String value) {
+        int slot = schema.getDataSlot(name);
+        if (slot >= 0) {
+            ownData().put(slot, value);
+        } else {
+            warnUndeclared("data", name);
+        }
+        return this;
+    }
+
+    @Override
+    public Event removeData(@NonNull String name) {
+        int slot = schema.getDataSlot(name);
+        if (slot < 0) {
+            warnUndeclared("data", name);
+        } else if (data.get(slot) != null) {
+            ownData().remove(slot);
+        }
+        return this;
+    }
+
+    @Override
+    public Event incrementCounter(@NonNull String name, double incrementBy) {
+        int slot = schema.getCounterSlot(name);
+        if (slot >= 0) {
+            ownCounters().add(slot, incrementBy);
+        } else {
+            warnUndeclared("counter", name);
+        }
+        return this;
+    }
+
+    @Override
+    public Event setCounter(@NonNull String name, double value) {
+        int slot = schema.getCounterSlot(name);
+        if (slot >= 0) {
+            ownCounters().put(slot, value);
+        } else {
+            warnUndeclared("counter", name);
+        }
+        return this;
+    }
+
+    @Override
+    public Event removeCounter(@NonNull String name) {
+        int slot = schema.getCounterSlot(name);
+        if (slot < 0) {
+            warnUndeclared("counter", name);
+        } else if (counters.keyAt(slot) != null) {
+            ownCounters().remove(slot);
+        }
+        return this;
+    }
+
+    @Override
+    public Event incrementTimer(String name, double incrementBy) {
+        int slot = schema.getTimerSlot(name);
+        if (slot >= 0) {
+            ownTimers().add(slot, incrementBy);
+        } else {
+            warnUndeclared("timer", name);
+        }
+        return this;
+    }
+
+    @Override
+    public Event setTimer(@NonNull String name, double value) {
+        int slot = schema.getTimerSlot(name);
+        if (slot >= 0) {
+            ownTimers().put(slot, value);
+        } else {
+            warnUndeclared("timer", name);
+        }
+        return this;
+    }
+
+    @Override
+    public Event removeTimer(String name) {
+        int slot = schema.getTimerSlot(name);
+        if (slot < 0) {
+            warnUndeclared("timer", name);
+        } else if (timers.keyAt(slot) != null) {
+            ownTimers().remove(slot);
+        }
+        return this;
+    }
+
+    @Override
+    public Event addMetric(String name, Object value) {
+        if (!(value instanceof String || value instanceof Boolean)) {
+            Log.e(Constants.TAG, "Metric not added as the value is not a string or boolean");
+            return this;
+        }
+        int slot = schema.getMetricSlot(name);
+        if (slot >= 0) {
+            ownMetrics().put(slot, value);
+        } else {
+            warnUndeclared("metric", name);
+        }
+        return this;
+    }
+
+    @Override
+    public Event removeMetric(String name) {
+        int slot = schema.getMetricSlot(name);
+        if (slot < 0) {
+            warnUndeclared("metric", name);
+        } else if (metrics.get(slot) != null) {
+            ownMetrics().remove(slot);
+        }
+        return this;
+    }
+
+    @Override
+    public Map<String, String> getData() {
+        return data.asMap();
+    }
+
+    @Override
+    public Map<String, Double> getCounters() {
+        return counters.asMap();
+    }
+
+    @Override
+    public Map<String, Double> getTimers() {
+        return timers.asMap();
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        return metrics.asMap();
+    }
+
+    /**
+     * Shares the slot values with the snapshot, they are copied the next time they are changed.
+     */
+    @Override
+    void shareFieldsWith(@NonNull EventSnapshot snapshot) {
+        sharedFields = SHARED_DATA | SHARED_COUNTERS | SHARED_TIMERS | SHARED_METRICS;
+        snapshot.share(data.asMap(), counters, timers, shareTimerHistograms(), metrics.asMap());
+    }
+
+    @Override
+    DoubleValues getCounterValues() {
+        return counters;
+    }
+
+    @Override
+    DoubleValues getTimerValues() {
+        return timers;
+    }
+
+    /**
+     * Gets the data to change, copying it if shared with a snapshot.
+     */
+    private SlotMap<String> ownData() {
+        if ((sharedFields & SHARED_DATA) != 0) {
+            data = data.copy();
+            sharedFields &= ~SHARED_DATA;
+        }
+        return data;
+    }
+
+    private SlotDoubleMap ownCounters() {
+        if ((sharedFields & SHARED_COUNTERS) != 0) {
+            counters = counters.copy();
+            sharedFields &= ~SHARED_COUNTERS;
+        }
+        return counters;
+    }
+
+    private SlotDoubleMap ownTimers() {
+        if ((sharedFields & SHARED_TIMERS) != 0) {
+            timers = timers.copy();
+            sharedFields &= ~SHARED_TIMERS;
+        }
+        return timers;
+    }
+
+    private SlotMap<Object> ownMetrics() {
+        if ((sharedFields & SHARED_METRICS) != 0) {
+            metrics = metrics.copy();
+            sharedFields &= ~SHARED_METRICS;
+        }
+        return metrics;
+    }
+
+    private void warnUndeclared(String kind, String name) {
+        Log.w(Constants.TAG, "The " + kind + " " + name + " is not declared in the schema of "
+                + schema.getName() + ", it is ignored.");
+    }
+}
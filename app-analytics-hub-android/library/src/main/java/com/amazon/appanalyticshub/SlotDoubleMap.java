@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>
+ * Values of the counters or timers of a {@link SchemaEvent}, stored as primitive doubles in an
+ * array indexed by the slots of its {@link EventSchema}. Collectors read the values by name
+ * through the read-only {@link Map} returned by {@link #asMap()}.
+ * </p>
+ */
+class SlotDoubleMap implements DoubleValues {
+
+    private final String[] keys;
+    private final Map<String, Integer> slots;
+    private final double[] values;
+    private final boolean[] present;
+    private int size;
+    private Map<String, Double> view;
+
+    SlotDoubleMap(@NonNull String[] keys, @NonNull Map<String, Integer> slots) {
+        this.keys = keys;
+        this.slots = slots;
+        this.values = new double[keys.length];
+        this.present = new boolean[keys.length];
+    }
+
+    /**
+     * Copies the values, the keys and slots are shared with the copy.
+     *
+     * @return the copy.
+     */
+    @NonNull
+    SlotDoubleMap copy() {
+        SlotDoubleMap copy = new SlotDoubleMap(keys, slots);
+        System.arraycopy(values, 0, copy.values, 0, values.length);
+        System.arraycopy(present, 0, copy.present, 0, present.length);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Adds the delta to the value of a slot, setting it to the delta if not set.
+     *
+     * @param slot  of the field.
+     * @param delta to add.
+     */
+    void add(int slot, double delta) {
+        if (present[slot]) {
+            values[slot] += delta;
+        } else {
+            present[slot] = true;
+            values[slot] = delta;
+            size++;
+        }
+    }
+
+    /**
+     * Sets the value of a slot.
+     *
+     * @param slot  of the field.
+     * @param value to set.
+     */
+    void put(int slot, double value) {
+        if (!present[slot]) {
+            present[slot] = true;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Removes the value of a slot.
+     *
+     * @param slot of the field.
+     */
+    void remove(int slot) {
+        if (present[slot]) {
+            present[slot] = false;
+            values[slot] = 0;
+            size--;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int capacity() {
+        return keys.length;
+    }
+
+    @Nullable
+    @Override
+    public String keyAt(int slot) {
+        return present[slot] ? keys[slot] : null;
+    }
+
+    @Override
+    public double valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Gets a read-only {@link Map} view of the values set, keyed by field name. Values are
+     * boxed as they are read.
+     *
+     * @return the view.
+     */
+    @NonNull
+    @Override
+    public Map<String, Double> asMap() {
+        if (view == null) {
+            view = new MapView();
+        }
+        return view;
+    }
+
+    /**
+     * Read-only view of the enclosing slots.
+     */
+    private class MapView extends AbstractMap<String, Double> {
+
+        private Set<Entry<String, Double>> entries;
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            Integer slot = slots.get(key);
+            return slot != null && present[slot];
+        }
+
+        @Override
+        public Double get(Object key) {
+            Integer slot = slots.get(key);
+            return slot != null && present[slot] ? values[slot] : null;
+        }
+
+        @NonNull
+        @Override
+        public Set<Entry<String, Double>> entrySet() {
+            if (entries == null) {
+                entries = new AbstractSet<Entry<String, Double>>() {
+                    @NonNull
+                    @Override
+                    public Iterator<Entry<String, Double>> iterator() {
+                        return new EntryIterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+                };
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Iterator over the slots of the enclosing map that are set.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<String, Double>> {
+
+        private int next = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public Map.Entry<String, Double> next() {
+            if (next >= keys.length) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Double> entry =
+                    new AbstractMap.SimpleImmutableEntry<>(keys[next], values[next]);
+            next = advance(next + 1);
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Event counters and timers are read-only.");
+        }
+
+        private int advance(int from) {
+            int index = from;
+            while (index < keys.length && !present[index]) {
+                index++;
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>
+ * Values of the data or metric fields of a {@link SchemaEvent}, stored in an array indexed by
+ * the slots of its {@link EventSchema}. Collectors read the values by name through the
+ * read-only {@link Map} returned by {@link #asMap()}.
+ * </p>
+ *
+ * @param <V> type of the values.
+ */
+class SlotMap<V> {
+
+    private final String[] keys;
+    private final Map<String, Integer> slots;
+    private final Object[] values;
+    private int size;
+    private Map<String, V> view;
+
+    SlotMap(@NonNull String[] keys, @NonNull Map<String, Integer> slots) {
+        this.keys = keys;
+        this.slots = slots;
+        this.values = new Object[keys.length];
+    }
+
+    /**
+     * Copies the values, the keys and slots are shared with the copy.
+     *
+     * @return the copy.
+     */
+    @NonNull
+    SlotMap<V> copy() {
+        SlotMap<V> copy = new SlotMap<>(keys, slots);
+        System.arraycopy(values, 0, copy.values, 0, values.length);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Sets the value of a slot.
+     *
+     * @param slot  of the field.
+     * @param value of the field, null to remove it.
+     */
+    void put(int slot, @Nullable V value) {
+        if (value == null) {
+            remove(slot);
+            return;
+        }
+        if (values[slot] == null) {
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Removes the value of a slot.
+     *
+     * @param slot of the field.
+     */
+    void remove(int slot) {
+        if (values[slot] != null) {
+            values[slot] = null;
+            size--;
+        }
+    }
+
+    /**
+     * Gets the value of a slot.
+     *
+     * @param slot of the field.
+     * @return the value or null if not set.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    V get(int slot) {
+        return (V) values[slot];
+    }
+
+    /**
+     * Gets a read-only {@link Map} view of the values set, keyed by field name.
+     *
+     * @return the view.
+     */
+    @NonNull
+    Map<String, V> asMap() {
+        if (view == null) {
+            view = new MapView();
+        }
+        return view;
+    }
+
+    /**
+     * Read-only view of the enclosing slots.
+     */
+    private class MapView extends AbstractMap<String, V> {
+
+        private Set<Entry<String, V>> entries;
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public V get(Object key) {
+            Integer slot = slots.get(key);
+            return slot != null ? SlotMap.this.get(slot) : null;
+        }
+
+        @NonNull
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            if (entries == null) {
+                entries = new AbstractSet<Entry<String, V>>() {
+                    @NonNull
+                    @Override
+                    public Iterator<Entry<String, V>> iterator() {
+                        return new EntryIterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+                };
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Iterator over the slots of the enclosing map that are set.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<String, V>> {
+
+        private int next = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public Map.Entry<String, V> next() {
+            if (next >= values.length) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, V> entry = new AbstractMap.SimpleImmutableEntry<>(keys[next], get(next));
+            next = advance(next + 1);
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Event fields are read-only.");
+        }
+
+        private int advance(int from) {
+            int index = from;
+            while (index < values.length && values[index] == null) {
+                index++;
+            }
+            return index;
+        }
+    }
+}
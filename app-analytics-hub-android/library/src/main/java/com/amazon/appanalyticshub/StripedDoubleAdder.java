@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Sum of doubles updated from many threads, spread over stripes picked by thread so that
+ * concurrent updates rarely compete for the same cell. Stripes are a cache line apart to
+ * avoid false sharing.
+ * </p>
+ */
+final class StripedDoubleAdder {
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    /**
+     * @param stripes number of stripes, a power of two.
+     */
+    StripedDoubleAdder(int stripes) {
+        this.cells = new AtomicLongArray(stripes * StripedLongAdder.STRIDE);
+        this.mask = stripes - 1;
+    }
+
+    void add(double value) {
+        int index = StripedLongAdder.stripe(mask) * StripedLongAdder.STRIDE;
+        long current;
+        do {
+            current = cells.get(index);
+        } while (!cells.compareAndSet(index, current,
+                Double.doubleToRawLongBits(Double.longBitsToDouble(current) + value)));
+    }
+
+    /**
+     * Gets the sum and resets it to zero. Updates made concurrently are either part of the
+     * returned sum or of the next one.
+     *
+     * @return the sum.
+     */
+    double sumThenReset() {
+        double sum = 0;
+        for (int index = 0; index < cells.length(); index += StripedLongAdder.STRIDE) {
+            sum += Double.longBitsToDouble(cells.getAndSet(index, 0L));
+        }
+        return sum;
+    }
+}
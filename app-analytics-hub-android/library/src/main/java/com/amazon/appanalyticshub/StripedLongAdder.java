@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Count updated from many threads, spread over stripes picked by thread so that concurrent
+ * updates rarely compete for the same cell. Stripes are a cache line apart to avoid false
+ * sharing.
+ * </p>
+ */
+final class StripedLongAdder {
+
+    /**
+     * Distance between two stripes in longs, a 64 bytes cache line.
+     */
+    static final int STRIDE = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    /**
+     * @param stripes number of stripes, a power of two.
+     */
+    StripedLongAdder(int stripes) {
+        this.cells = new AtomicLongArray(stripes * STRIDE);
+        this.mask = stripes - 1;
+    }
+
+    void add(long value) {
+        cells.addAndGet(stripe(mask) * STRIDE, value);
+    }
+
+    void increment() {
+        cells.incrementAndGet(stripe(mask) * STRIDE);
+    }
+
+    /**
+     * Gets the count. Updates made concurrently may or may not be part of it.
+     *
+     * @return the count.
+     */
+    long sum() {
+        long sum = 0;
+        for (int index = 0; index < cells.length(); index += STRIDE) {
+            sum += cells.get(index);
+        }
+        return sum;
+    }
+
+    /**
+     * Gets the count and resets it to zero. Updates made concurrently are either part of the
+     * returned count or of the next one.
+     *
+     * @return the count.
+     */
+    long sumThenReset() {
+        long sum = 0;
+        for (int index = 0; index < cells.length(); index += STRIDE) {
+            sum += cells.getAndSet(index, 0L);
+        }
+        return sum;
+    }
+
+    /**
+     * Picks the stripe of the current thread.
+     *
+     * @param mask number of stripes minus one, the number being a power of two.
+     * @return the stripe index.
+     */
+    static int stripe(int mask) {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
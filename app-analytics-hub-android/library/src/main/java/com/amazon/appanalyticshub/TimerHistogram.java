@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Fixed-memory histogram of durations, used to keep the distribution of a timer instead of
+ * only its sum. Buckets are log-linear: every power of two range is split into the same
+ * number of linear sub-buckets, so the relative error of a recorded duration is bounded by
+ * the precision whatever its magnitude. Durations longer than the highest trackable one are
+ * counted in the last bucket.
+ * </p>
+ * <p>
+ * Recording is lock-free and thread safe. Read the distribution through a
+ * {@link HistogramSnapshot}, for example once per interval with {@link #snapshotAndReset()}.
+ * </p>
+ */
+public class TimerHistogram {
+
+    public static final long DEFAULT_LOWEST_DISCERNIBLE_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    public static final long DEFAULT_HIGHEST_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+    public static final int DEFAULT_PRECISION_BITS = 6;
+
+    static final int MIN_PRECISION_BITS = 2;
+    static final int MAX_PRECISION_BITS = 16;
+
+    private final int unitShift;
+    private final int precisionBits;
+    private final AtomicLongArray counts;
+    private final AtomicLong min;
+    private final AtomicLong max;
+    private final AtomicLong sum;
+
+    /**
+     * Creates a histogram tracking durations from 1 microsecond to 1 hour with a relative
+     * error below 2%.
+     */
+    public TimerHistogram() {
+        this(DEFAULT_LOWEST_DISCERNIBLE_NANOS, DEFAULT_HIGHEST_TRACKABLE_NANOS, DEFAULT_PRECISION_BITS);
+    }
+
+    /**
+     * Creates a histogram for the given range and precision.
+     *
+     * @param lowestDiscernibleNanos smallest difference between durations to tell apart,
+     *                               rounded down to a power of two.
+     * @param highestTrackableNanos  longest duration to track precisely.
+     * @param precisionBits          number of bits of every duration kept, from 2 to 16. Each
+     *                               bit halves the relative error, 6 bits give 2^-5 or ~3%
+     *                               bucket width, and doubles the memory used.
+     * @throws IllegalArgumentException if the range or precision is invalid.
+     */
+    public TimerHistogram(long lowestDiscernibleNanos, long highestTrackableNanos, int precisionBits) {
+        if (lowestDiscernibleNanos < 1) {
+            throw new IllegalArgumentException("Lowest discernible duration must be positive.");
+        }
+        if (highestTrackableNanos < 2 * lowestDiscernibleNanos) {
+            throw new IllegalArgumentException("Highest trackable duration must be at least twice the lowest.");
+        }
+        if (precisionBits < MIN_PRECISION_BITS || precisionBits > MAX_PRECISION_BITS) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION_BITS
+                    + " and " + MAX_PRECISION_BITS + " bits.");
+        }
+        this.unitShift = 63 - Long.numberOfLeadingZeros(lowestDiscernibleNanos);
+        this.precisionBits = precisionBits;
+        this.counts = new AtomicLongArray(indexOf(highestTrackableNanos >>> unitShift, precisionBits) + 1);
+        this.min = new AtomicLong(Long.MAX_VALUE);
+        this.max = new AtomicLong(0);
+        this.sum = new AtomicLong(0);
+    }
+
+    /**
+     * Records a duration, negative durations are recorded as 0.
+     *
+     * @param nanos duration in nanoseconds.
+     */
+    public void recordNanos(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int index = Math.min(indexOf(nanos >>> unitShift, precisionBits), counts.length() - 1);
+        counts.incrementAndGet(index);
+        sum.addAndGet(nanos);
+        long current;
+        while (nanos < (current = min.get()) && !min.compareAndSet(current, nanos)) {
+            // Retry until the minimum is at most the duration.
+        }
+        while (nanos > (current = max.get()) && !max.compareAndSet(current, nanos)) {
+            // Retry until the maximum is at least the duration.
+        }
+    }
+
+    /**
+     * Records a duration, negative durations are recorded as 0.
+     *
+     * @param duration duration in the given unit, fractions are kept down to nanoseconds.
+     * @param unit     of the duration.
+     */
+    public void record(double duration, @NonNull TimeUnit unit) {
+        recordNanos((long) (duration * unit.toNanos(1)));
+    }
+
+    /**
+     * Copies the durations recorded so far.
+     *
+     * @return the snapshot.
+     */
+    @NonNull
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new HistogramSnapshot(unitShift, precisionBits, copy, min.get(), max.get(), sum.get());
+    }
+
+    /**
+     * Moves the durations recorded so far to a snapshot, so that the histogram starts a new
+     * interval. Durations recorded concurrently end up in exactly one of the intervals.
+     *
+     * @return the snapshot.
+     */
+    @NonNull
+    public HistogramSnapshot snapshotAndReset() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.getAndSet(i, 0);
+        }
+        return new HistogramSnapshot(unitShift, precisionBits, copy,
+                min.getAndSet(Long.MAX_VALUE), max.getAndSet(0), sum.getAndSet(0));
+    }
+
+    /**
+     * Gets the index of the bucket of a duration.
+     *
+     * @param scaled        duration in units of the lowest discernible duration.
+     * @param precisionBits of the histogram.
+     * @return the bucket index.
+     */
+    static int indexOf(long scaled, int precisionBits) {
+        int subBuckets = 1 << precisionBits;
+        if (scaled < subBuckets) {
+            return (int) scaled;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(scaled) - precisionBits;
+        int halfSubBuckets = subBuckets >> 1;
+        return subBuckets + (shift - 1) * halfSubBuckets + (int) (scaled >>> shift) - halfSubBuckets;
+    }
+
+    /**
+     * Gets the smallest duration of a bucket.
+     *
+     * @param index         of the bucket.
+     * @param precisionBits of the histogram.
+     * @return the duration in units of the lowest discernible duration.
+     */
+    static long lowerBoundOf(int index, int precisionBits) {
+        int subBuckets = 1 << precisionBits;
+        if (index < subBuckets) {
+            return index;
+        }
+        int halfSubBuckets = subBuckets >> 1;
+        int offset = index - subBuckets;
+        int shift = offset / halfSubBuckets + 1;
+        return (long) (offset % halfSubBuckets + halfSubBuckets) << shift;
+    }
+
+    /**
+     * Gets the number of durations a bucket spans.
+     *
+     * @param index         of the bucket.
+     * @param precisionBits of the histogram.
+     * @return the width in units of the lowest discernible duration.
+     */
+    static long widthOf(int index, int precisionBits) {
+        int subBuckets = 1 << precisionBits;
+        if (index < subBuckets) {
+            return 1;
+        }
+        return 1L << ((index - subBuckets) / (subBuckets >> 1) + 1);
+    }
+}
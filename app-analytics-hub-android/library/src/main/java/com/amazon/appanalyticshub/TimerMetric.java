@@ -10,6 +10,8 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.concurrent.TimeUnit;
+
 
 /**
  * <p>
@@ -18,30 +20,81 @@ import androidx.annotation.Nullable;
  * The recording of this Timer metric is provided in this object only so that
  * Event object need not know or understand this TimerMetric object.
  * </p>
+ * <p>
+ * Time is measured with a monotonic nanosecond {@link MonotonicClock} and recorded in the
+ * configured unit, milliseconds by default, keeping the fraction so that sub-millisecond
+ * durations are not lost.
+ * </p>
+ * <p>
+ * With a {@link TimerHistogram} every start and stop session is also recorded in it, and
+ * recording the timer adds the distribution of the sessions to the events next to the total.
+ * A histogram can be shared by many timers to aggregate them.
+ * </p>
  */
 public class TimerMetric {
+    private final MonotonicClock clock;
+    private final TimeUnit unit;
+    private boolean running;
     private long startTime;
     private long totalTime;
     private String name;
     private Event parentEvent;
+    private TimerHistogram histogram;
 
     public TimerMetric(@NonNull String name) {
         this(name, null);
     }
 
     public TimerMetric(@NonNull String name, @Nullable Event parentEvent) {
+        this(name, parentEvent, MonotonicClock.SYSTEM, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a timer reading the given clock and recording in the given unit.
+     *
+     * @param name        of the timer.
+     * @param parentEvent event the timer is recorded in by {@link #recordTimer()}.
+     * @param clock       monotonic clock to measure time with.
+     * @param unit        unit the timer is recorded in.
+     */
+    public TimerMetric(@NonNull String name, @Nullable Event parentEvent,
+                       @NonNull MonotonicClock clock, @NonNull TimeUnit unit) {
         this.name = name;
         this.parentEvent = parentEvent;
-        startTime = 0;
+        this.clock = clock;
+        this.unit = unit;
+        running = false;
         totalTime = 0;
     }
 
+    /**
+     * Sets the histogram every session of the timer is recorded in.
+     *
+     * @param histogram to record in, null to only keep the total.
+     * @return the current time metric.
+     */
+    public TimerMetric setHistogram(@Nullable TimerHistogram histogram) {
+        this.histogram = histogram;
+        return this;
+    }
+
+    /**
+     * Gets the histogram the sessions of the timer are recorded in.
+     *
+     * @return the histogram or null if not set.
+     */
+    @Nullable
+    public TimerHistogram getHistogram() {
+        return histogram;
+    }
+
     /**
      * Starts the timer if not already started.
      */
     public void startTimer() {
-        if (startTime == 0) {
-            startTime = System.currentTimeMillis();
+        if (!running) {
+            startTime = clock.nanoTime();
+            running = true;
         }
     }
 
@@ -52,10 +105,13 @@ public class TimerMetric {
      * Will change it to end and record if needed.
      */
     public void stopTimer() {
-        if (startTime > 0) {
-            long sessionTime = System.currentTimeMillis() - startTime;
+        if (running) {
+            long sessionTime = clock.nanoTime() - startTime;
             totalTime += sessionTime;
-            startTime = 0;
+            running = false;
+            if (histogram != null) {
+                histogram.recordNanos(sessionTime);
+            }
         } else {
             Log.e(Constants.TAG, "Trying to stop a timer without starting it.");
         }
@@ -70,7 +126,11 @@ public class TimerMetric {
         this.stopTimer();
         if (parentEvent != null) {
             parentEvent.removeTimer(this.name);
-            parentEvent.addTimer(this.name, totalTime);
+            parentEvent.addTimer(this.name, getTotalTime());
+            if (histogram != null) {
+                parentEvent.removeTimerHistogram(this.name);
+                parentEvent.addTimerHistogram(this.name, histogram.snapshot());
+            }
         } else {
             Log.e(Constants.TAG, "Could not log this metric as no parent event is defined.");
         }
@@ -85,9 +145,24 @@ public class TimerMetric {
      */
     public void recordTimerInEvents(@NonNull Event... events) {
         this.stopTimer();
+        double total = getTotalTime();
+        HistogramSnapshot snapshot = histogram != null ? histogram.snapshot() : null;
         for (Event event : events) {
             event.removeTimer(this.name);
-            event.addTimer(this.name, totalTime);
+            event.addTimer(this.name, total);
+            if (snapshot != null) {
+                event.removeTimerHistogram(this.name);
+                event.addTimerHistogram(this.name, snapshot);
+            }
         }
     }
+
+    /**
+     * Gets the time measured so far, excluding the running session if any.
+     *
+     * @return the time in the unit of the timer.
+     */
+    public double getTotalTime() {
+        return (double) totalTime / unit.toNanos(1);
+    }
 }
@@ -0,0 +1,112 @@
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Stress test recording events from many threads while collectors are linked and unlinked.
+ */
+public class AppAnalyticsHubConcurrencyTest {
+
+    private static final int RECORDING_THREADS = 8;
+    private static final int EVENTS_PER_THREAD = 20000;
+    private static final int RECONFIGURING_THREADS = 2;
+
+    @Test
+    public void recordEvent_whileReconfiguring_deliversEveryEventWithoutErrors() throws InterruptedException {
+        final AppAnalyticsHub hub = new AppAnalyticsHub();
+        final CountingCollector stableCollector = new CountingCollector("stable");
+        hub.addCollectorToEventType(EventType.OPERATIONAL, stableCollector);
+        final List<CountingCollector> toggledCollectors = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            toggledCollectors.add(new CountingCollector("toggled" + i));
+        }
+
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        final AtomicBoolean recording = new AtomicBoolean(true);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch recordersDone = new CountDownLatch(RECORDING_THREADS);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < RECORDING_THREADS; t++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                            hub.recordEvent(new Event("event", null, EventType.OPERATIONAL.name()));
+                            hub.getCollectors(EventType.OPERATIONAL);
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    } finally {
+                        recordersDone.countDown();
+                    }
+                }
+            }));
+        }
+        for (int t = 0; t < RECONFIGURING_THREADS; t++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        int i = 0;
+                        while (recording.get()) {
+                            CountingCollector collector = toggledCollectors.get(i++ % toggledCollectors.size());
+                            hub.addCollectorToEventType(EventType.OPERATIONAL, collector);
+                            hub.removeCollectorFromEventType(EventType.OPERATIONAL, collector);
+                            hub.setDefaultAnalyticsCollector(i % 2 == 0 ? collector : null);
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        assertTrue(recordersDone.await(60, TimeUnit.SECONDS));
+        recording.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue("Unexpected errors: " + errors, errors.isEmpty());
+        assertEquals(RECORDING_THREADS * EVENTS_PER_THREAD, stableCollector.count.get());
+    }
+
+    private static class CountingCollector implements AnalyticsCollector {
+        private final String name;
+        private final AtomicLong count = new AtomicLong();
+
+        CountingCollector(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void recordEvent(@NonNull Event event) {
+            count.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the asynchronous dispatch mode of {@link AppAnalyticsHub}.
+ */
+public class AsyncDispatchTest {
+
+    @Test
+    public void ringBuffer_dropOldest_keepsNewestEvents() {
+        EventRingBuffer ringBuffer = new EventRingBuffer(new AsyncDispatchConfig().setCapacity(2));
+        Event first = new Event("first", null, "type");
+        Event second = new Event("second", null, "type");
+        Event third = new Event("third", null, "type");
+        assertEquals(EventRingBuffer.ACCEPTED, ringBuffer.offer(first, 0, OverflowPolicy.DROP_OLDEST, 0));
+        assertEquals(EventRingBuffer.ACCEPTED, ringBuffer.offer(second, 0, OverflowPolicy.DROP_OLDEST, 0));
+        assertEquals(EventRingBuffer.ACCEPTED_EVICTED_OLDEST,
+                ringBuffer.offer(third, 0, OverflowPolicy.DROP_OLDEST, 0));
+        assertEquals(2, ringBuffer.size());
+    }
+
+    @Test
+    public void ringBuffer_dropOldest_neverEvictsCriticalEvents() throws InterruptedException {
+        EventRingBuffer ringBuffer = new EventRingBuffer(new AsyncDispatchConfig()
+                .setCapacity(1).setCapacity(Priority.CRITICAL, 1));
+        Event normal = new Event("normal", null, "type");
+        Event critical = new Event("critical", null, "type", Priority.CRITICAL);
+        ringBuffer.offer(normal, 0, OverflowPolicy.DROP_OLDEST, 0);
+        assertEquals(EventRingBuffer.ACCEPTED, ringBuffer.offer(critical, 0, OverflowPolicy.DROP_OLDEST, 0));
+        assertEquals(EventRingBuffer.REJECTED, ringBuffer.offer(
+                new Event("second critical", null, "type", Priority.CRITICAL), 0, OverflowPolicy.DROP_OLDEST, 0));
+
+        Event[] drained = new Event[2];
+        assertEquals(2, ringBuffer.drainTo(drained, new long[2], 0));
+        assertSame(critical, drained[0]);
+        assertSame(normal, drained[1]);
+    }
+
+    @Test
+    public void ringBuffer_weightedRoundRobin_doesNotStarveNormalLane() throws InterruptedException {
+        EventRingBuffer ringBuffer = new EventRingBuffer(new AsyncDispatchConfig()
+                .setWeight(Priority.CRITICAL, 2).setWeight(Priority.HIGH, 1).setWeight(Priority.NORMAL, 1));
+        for (int i = 0; i < 4; i++) {
+            ringBuffer.offer(new Event("normal", null, "type"), 0, OverflowPolicy.DROP_OLDEST, 0);
+            ringBuffer.offer(new Event("high", null, "type", Priority.HIGH), 0, OverflowPolicy.DROP_OLDEST, 0);
+            ringBuffer.offer(new Event("critical", null, "type", Priority.CRITICAL), 0, OverflowPolicy.DROP_OLDEST, 0);
+        }
+        StringBuilder order = new StringBuilder();
+        Event[] drained = new Event[3];
+        long[] drainedTimes = new long[3];
+        int count;
+        while ((count = ringBuffer.drainTo(drained, drainedTimes, 0)) > 0) {
+            for (int i = 0; i < count; i++) {
+                order.append(drained[i].getName().charAt(0));
+            }
+        }
+        assertEquals("cchncchnhnhn", order.toString());
+    }
+
+    @Test
+    public void ringBuffer_dropOldest_handsEvictedEventOverOutsideTheLock() {
+        final List<String> evicted = new ArrayList<>();
+        final EventRingBuffer[] ringBuffer = new EventRingBuffer[1];
+        ringBuffer[0] = new EventRingBuffer(new AsyncDispatchConfig().setCapacity(1), new EventSink() {
+            @Override
+            public void deliverEvent(@NonNull Event event) {
+                // A consumer on another thread has to get through while the sink runs.
+                final int[] drainedCount = new int[1];
+                Thread consumer = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            drainedCount[0] = ringBuffer[0].drainTo(new Event[1], new long[1], 0);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+                consumer.start();
+                try {
+                    consumer.join(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (!consumer.isAlive() && drainedCount[0] == 1) {
+                    evicted.add(event.getName());
+                }
+            }
+        });
+        ringBuffer[0].offer(new Event("first", null, "type"), 0, OverflowPolicy.DROP_OLDEST, 0);
+        assertEquals(EventRingBuffer.ACCEPTED_EVICTED_OLDEST,
+                ringBuffer[0].offer(new Event("second", null, "type"), 0, OverflowPolicy.DROP_OLDEST, 0));
+        assertEquals(Collections.singletonList("first"), evicted);
+    }
+
+    @Test
+    public void ringBuffer_dropNewest_rejectsWhenFull() {
+        EventRingBuffer ringBuffer = new EventRingBuffer(new AsyncDispatchConfig().setCapacity(1));
+        ringBuffer.offer(new Event("first", null, "type"), 0, OverflowPolicy.DROP_NEWEST, 0);
+        assertEquals(EventRingBuffer.REJECTED,
+                ringBuffer.offer(new Event("second", null, "type"), 0, OverflowPolicy.DROP_NEWEST, 0));
+    }
+
+    @Test
+    public void ringBuffer_closed_rejectsNewEventsButDrainsQueuedOnes() throws InterruptedException {
+        EventRingBuffer ringBuffer = new EventRingBuffer(new AsyncDispatchConfig());
+        ringBuffer.offer(new Event("queued", null, "type"), 0, OverflowPolicy.DROP_NEWEST, 0);
+        ringBuffer.close();
+        assertEquals(EventRingBuffer.CLOSED,
+                ringBuffer.offer(new Event("late", null, "type"), 0, OverflowPolicy.DROP_NEWEST, 0));
+        Event[] drained = new Event[2];
+        assertEquals(1, ringBuffer.drainTo(drained, new long[2], 0));
+        assertEquals("queued", drained[0].getName());
+    }
+
+    @Test
+    public void stopAsyncDispatch_whileRecording_deliversEveryEvent() throws InterruptedException {
+        final AtomicInteger delivered = new AtomicInteger();
+        final AppAnalyticsHub hub = new AppAnalyticsHub();
+        hub.setDefaultAnalyticsCollector(new AnalyticsCollector() {
+            @Override
+            public String getName() {
+                return "collector";
+            }
+
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                delivered.incrementAndGet();
+            }
+        });
+        hub.startAsyncDispatch(new AsyncDispatchConfig().setCapacity(1 << 16));
+        final int eventsPerThread = 2000;
+        Thread[] recorders = new Thread[4];
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < eventsPerThread; j++) {
+                        hub.recordEvent(new Event("event", null, EventType.OPERATIONAL.name()));
+                    }
+                }
+            });
+            recorders[i].start();
+        }
+        hub.stopAsyncDispatch(5000);
+        for (Thread recorder : recorders) {
+            recorder.join(5000);
+        }
+        assertEquals(recorders.length * eventsPerThread, delivered.get());
+    }
+
+    @Test
+    public void recordEvent_asyncDispatch_deliversOnDispatcherThread() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(10);
+        final List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        hub.setDefaultAnalyticsCollector(new AnalyticsCollector() {
+            @Override
+            public String getName() {
+                return "collector";
+            }
+
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                threads.add(Thread.currentThread().getName());
+                latch.countDown();
+            }
+        });
+        hub.startAsyncDispatch(new AsyncDispatchConfig().setCapacity(16));
+        for (int i = 0; i < 10; i++) {
+            hub.recordEvent(new Event("event" + i, null, EventType.OPERATIONAL.name()));
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertFalse(threads.contains(Thread.currentThread().getName()));
+
+        DispatchStats stats = hub.getDispatchStats();
+        assertNotNull(stats);
+        assertEquals(10, stats.getEnqueuedCount());
+        assertEquals(0, stats.getDroppedCount());
+
+        hub.stopAsyncDispatch(1000);
+        assertNull(hub.getDispatchStats());
+    }
+
+    @Test
+    public void recordEvent_criticalEvent_overtakesQueuedNormalEvents() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> delivered = Collections.synchronizedList(new ArrayList<String>());
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        hub.setDefaultAnalyticsCollector(new AnalyticsCollector() {
+            @Override
+            public String getName() {
+                return "collector";
+            }
+
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                if (event.getName().equals("blocker")) {
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                delivered.add(event.getName());
+            }
+        });
+        hub.startAsyncDispatch(new AsyncDispatchConfig());
+        hub.recordEvent(new Event("blocker", null, EventType.OPERATIONAL.name()));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            hub.recordEvent(new Event("normal", null, EventType.OPERATIONAL.name()));
+        }
+        hub.recordEvent(new Event("critical", null, EventType.OPERATIONAL.name(), Priority.CRITICAL));
+        assertEquals(100, hub.getDispatchStats().getQueueDepth(Priority.NORMAL));
+        release.countDown();
+        hub.stopAsyncDispatch(5000);
+        assertEquals(102, delivered.size());
+        assertEquals("critical", delivered.get(1));
+    }
+}
@@ -0,0 +1,58 @@
+package com.amazon.appanalyticshub;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link DoubleMap}.
+ */
+public class DoubleMapTest {
+
+    @Test
+    public void randomOperations_matchHashMap() {
+        Random random = new Random(42);
+        DoubleMap map = new DoubleMap();
+        Map<String, Double> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            String key = "key" + random.nextInt(40);
+            switch (random.nextInt(3)) {
+                case 0:
+                    map.add(key, 1.5);
+                    Double current = expected.get(key);
+                    expected.put(key, current != null ? current + 1.5 : 1.5);
+                    break;
+                case 1:
+                    map.put(key, i);
+                    expected.put(key, (double) i);
+                    break;
+                default:
+                    map.remove(key);
+                    expected.remove(key);
+                    break;
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(expected, map.asMap());
+        assertEquals(map.asMap(), expected);
+    }
+
+    @Test
+    public void add_existingKey_reportsNotCreated() {
+        DoubleMap map = new DoubleMap();
+        assertTrue(map.add("counter", 1));
+        assertFalse(map.add("counter", 2));
+        assertEquals(3, map.get("counter", 0), 0);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void asMap_isReadOnly() {
+        DoubleMap map = new DoubleMap();
+        map.put("timer", 1);
+        map.asMap().put("timer", 2d);
+    }
+}
@@ -0,0 +1,192 @@
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EventAggregator}.
+ */
+public class EventAggregatorTest {
+
+    private ScheduledExecutorService scheduler;
+    private List<Event> emitted;
+    private EventSink sink;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        emitted = Collections.synchronizedList(new ArrayList<Event>());
+        sink = new EventSink() {
+            @Override
+            public void deliverEvent(@NonNull Event event) {
+                emitted.add(event);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void flush_rollsUpByNameSourceAndKeyData() {
+        EventAggregator aggregator = new EventAggregator(
+                new AggregationConfig().setWindowMillis(60000).setKeyDataNames("screen"),
+                sink, scheduler, scheduler);
+        assertTrue(aggregator.add(newEvent("Tap", "home").incrementCounter("taps", 2).addTimer("latency", 5)));
+        assertTrue(aggregator.add(newEvent("Tap", "home").incrementCounter("taps", 3).addTimer("latency", 7)));
+        assertTrue(aggregator.add(newEvent("Tap", "settings").incrementCounter("taps", 1)));
+        aggregator.flush();
+
+        assertEquals(2, emitted.size());
+        Event home = find("home");
+        assertEquals(5, home.getCounters().get("taps"), 0);
+        assertEquals(12, home.getTimers().get("latency"), 0);
+        assertEquals(2, home.getCounters().get(AggregationConfig.AGGREGATED_EVENT_COUNT), 0);
+        assertEquals(1, find("settings").getCounters().get(AggregationConfig.AGGREGATED_EVENT_COUNT), 0);
+
+        emitted.clear();
+        aggregator.flush();
+        assertTrue(emitted.isEmpty());
+    }
+
+    @Test
+    public void flush_sampledEvents_weightedByInverseSampleRate() {
+        EventAggregator aggregator = new EventAggregator(
+                new AggregationConfig().setWindowMillis(60000).setKeyDataNames("screen"),
+                sink, scheduler, scheduler);
+        assertTrue(aggregator.add(newEvent("Tap", "home").incrementCounter("taps", 2).addTimer("latency", 5), 0.25));
+        assertTrue(aggregator.add(newEvent("Tap", "home").incrementCounter("taps", 1), 1));
+        aggregator.flush();
+
+        Event home = find("home");
+        assertEquals(1, home.getSampleRate(), 0);
+        assertEquals(9, home.getCounters().get("taps"), 0);
+        assertEquals(20, home.getTimers().get("latency"), 0);
+        assertEquals(5, home.getCounters().get(AggregationConfig.AGGREGATED_EVENT_COUNT), 0);
+    }
+
+    @Test
+    public void add_criticalOrBeyondMaxKeys_notAggregated() {
+        EventAggregator aggregator = new EventAggregator(
+                new AggregationConfig().setWindowMillis(60000).setKeyDataNames("screen").setMaxKeys(1),
+                sink, scheduler, scheduler);
+        Event critical = newEvent("Crash", "home");
+        critical.setPriority(Priority.CRITICAL);
+        assertFalse(aggregator.add(critical));
+        assertTrue(aggregator.add(newEvent("Tap", "home")));
+        assertFalse(aggregator.add(newEvent("Tap", "settings")));
+        assertTrue(aggregator.add(newEvent("Tap", "home")));
+    }
+
+    @Test
+    public void flush_idleKey_freesItsPlaceForNewKeys() {
+        EventAggregator aggregator = new EventAggregator(
+                new AggregationConfig().setWindowMillis(60000).setKeyDataNames("screen").setMaxKeys(1),
+                sink, scheduler, scheduler);
+        assertTrue(aggregator.add(newEvent("Tap", "home")));
+        aggregator.flush();
+        assertFalse(aggregator.add(newEvent("Tap", "settings")));
+        aggregator.flush();
+        assertTrue(aggregator.add(newEvent("Tap", "settings")));
+        aggregator.flush();
+        assertEquals(2, emitted.size());
+        assertEquals(1, find("home").getCounters().get(AggregationConfig.AGGREGATED_EVENT_COUNT), 0);
+        assertEquals(1, find("settings").getCounters().get(AggregationConfig.AGGREGATED_EVENT_COUNT), 0);
+    }
+
+    @Test
+    public void add_concurrentProducers_countsEveryEvent() throws InterruptedException {
+        final EventAggregator aggregator = new EventAggregator(
+                new AggregationConfig().setWindowMillis(60000).setStripes(4),
+                sink, scheduler, scheduler);
+        final int threads = 4;
+        final int perThread = 10000;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perThread; i++) {
+                        aggregator.add(newEvent("Tap", "home").incrementCounter("taps"));
+                        if (i % 1000 == 0) {
+                            aggregator.flush();
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        aggregator.flush();
+
+        double taps = 0;
+        double count = 0;
+        synchronized (emitted) {
+            for (Event event : emitted) {
+                // The values of an event racing with a flush can be emitted a window before it is counted.
+                Double eventTaps = event.getCounters().get("taps");
+                Double eventCount = event.getCounters().get(AggregationConfig.AGGREGATED_EVENT_COUNT);
+                taps += eventTaps != null ? eventTaps : 0;
+                count += eventCount != null ? eventCount : 0;
+            }
+        }
+        assertEquals(threads * perThread, taps, 0);
+        assertEquals(threads * perThread, count, 0);
+    }
+
+    @Test
+    public void recordEvent_aggregatedEventType_recordsOnFlush() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        final List<Event> recorded = new ArrayList<>();
+        hub.addCollectorToEventType(EventType.OPERATIONAL, new AnalyticsCollector() {
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                recorded.add(event);
+            }
+
+            @Override
+            public String getName() {
+                return "recording";
+            }
+        });
+        hub.enableAggregation(EventType.OPERATIONAL.name(), new AggregationConfig().setWindowMillis(60000));
+        hub.recordEvent(newEvent("Tap", "home").incrementCounter("taps"));
+        hub.recordEvent(newEvent("Tap", "home").incrementCounter("taps"));
+        assertTrue(recorded.isEmpty());
+        hub.flush();
+        assertEquals(1, recorded.size());
+        assertEquals(2, recorded.get(0).getCounters().get("taps"), 0);
+
+        hub.disableAggregation(EventType.OPERATIONAL.name());
+        hub.recordEvent(newEvent("Tap", "home"));
+        assertEquals(2, recorded.size());
+    }
+
+    private Event find(String screen) {
+        for (Event event : emitted) {
+            if (screen.equals(event.getData().get("screen"))) {
+                return event;
+            }
+        }
+        throw new AssertionError("No event for " + screen);
+    }
+
+    private static Event newEvent(String name, String screen) {
+        return new Event(name, "source", EventType.OPERATIONAL.name()).addData("screen", screen);
+    }
+}
@@ -0,0 +1,247 @@
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EventBatcher}.
+ */
+public class EventBatcherTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    };
+
+    private ScheduledExecutorService scheduler;
+    private RecordingBatchCollector collector;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        collector = new RecordingBatchCollector();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void recordEvent_batchFull_flushesBatch() {
+        EventBatcher batcher = new EventBatcher(collector,
+                new BatchConfig().setMaxBatchSize(3).setMaxLatencyMillis(60000), scheduler, DIRECT);
+        batcher.recordEvent(newEvent(Priority.NORMAL));
+        batcher.recordEvent(newEvent(Priority.NORMAL));
+        assertTrue(collector.batches.isEmpty());
+        batcher.recordEvent(newEvent(Priority.NORMAL));
+        assertEquals(1, collector.batches.size());
+        assertEquals(3, collector.batches.get(0).size());
+    }
+
+    @Test
+    public void recordEvent_criticalEvent_flushesImmediately() {
+        EventBatcher batcher = new EventBatcher(collector,
+                new BatchConfig().setMaxLatencyMillis(60000), scheduler, DIRECT);
+        batcher.recordEvent(newEvent(Priority.NORMAL));
+        batcher.recordEvent(newEvent(Priority.CRITICAL));
+        assertEquals(1, collector.batches.size());
+        assertEquals(2, collector.batches.get(0).size());
+    }
+
+    @Test
+    public void recordEvent_highPriorityDeadline_flushesBatchEarly() throws InterruptedException {
+        EventBatcher batcher = new EventBatcher(collector, new BatchConfig()
+                .setMaxLatencyMillis(60000)
+                .setMaxLatencyMillis(Priority.HIGH, 50)
+                .setMaxLatencyMillis(Priority.CRITICAL, 0)
+                .setFlushOnHighPriority(false), scheduler, DIRECT);
+        batcher.recordEvent(newEvent(Priority.NORMAL));
+        batcher.recordEvent(newEvent(Priority.HIGH));
+        assertTrue(collector.batches.isEmpty());
+        assertTrue(collector.flushed.await(5, TimeUnit.SECONDS));
+        assertEquals(2, collector.batches.get(0).size());
+
+        batcher.recordEvent(newEvent(Priority.CRITICAL));
+        assertEquals(2, collector.batches.size());
+    }
+
+    @Test
+    public void recordEvent_maxLatencyElapsed_flushesOnTimer() throws InterruptedException {
+        EventBatcher batcher = new EventBatcher(collector,
+                new BatchConfig().setMaxLatencyMillis(20), scheduler, scheduler);
+        batcher.recordEvent(newEvent(Priority.NORMAL));
+        assertTrue(collector.flushed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, collector.batches.get(0).size());
+    }
+
+    @Test
+    public void recordEvent_maxBytesReached_flushesBatch() {
+        Event event = newEvent(Priority.NORMAL).addData("key", "value");
+        EventBatcher batcher = new EventBatcher(collector,
+                new BatchConfig().setMaxBatchBytes(EventBatcher.estimateSize(event) * 2)
+                        .setMaxLatencyMillis(60000), scheduler, DIRECT);
+        batcher.recordEvent(event);
+        assertTrue(collector.batches.isEmpty());
+        batcher.recordEvent(event);
+        assertEquals(1, collector.batches.size());
+    }
+
+    @Test
+    public void recordEvent_batchFull_handsBatchOverOnDeliveryExecutor() {
+        final List<Runnable> deliveries = new ArrayList<>();
+        EventBatcher batcher = new EventBatcher(collector,
+                new BatchConfig().setMaxBatchSize(2).setMaxLatencyMillis(60000), scheduler, new Executor() {
+                    @Override
+                    public void execute(@NonNull Runnable command) {
+                        deliveries.add(command);
+                    }
+                });
+        for (int i = 0; i < 6; i++) {
+            batcher.recordEvent(newEvent(Priority.NORMAL).addCounter("index", i));
+        }
+        batcher.recordEvent(newEvent(Priority.NORMAL).addCounter("index", 6));
+        assertTrue(collector.batches.isEmpty());
+        assertEquals(1, deliveries.size());
+
+        deliveries.get(0).run();
+        assertEquals(3, collector.batches.size());
+        batcher.flush();
+        assertEquals(4, collector.batches.size());
+        int expected = 0;
+        for (List<Event> batch : collector.batches) {
+            for (Event event : batch) {
+                assertEquals(expected++, event.getCounters().get("index"), 0);
+            }
+        }
+        assertEquals(7, expected);
+    }
+
+    @Test
+    public void flush_filledBatchesQueued_handsThemOverFirst() {
+        final List<Runnable> deliveries = new ArrayList<>();
+        EventBatcher batcher = new EventBatcher(collector,
+                new BatchConfig().setMaxBatchSize(2).setMaxLatencyMillis(60000), scheduler, new Executor() {
+                    @Override
+                    public void execute(@NonNull Runnable command) {
+                        deliveries.add(command);
+                    }
+                });
+        for (int i = 0; i < 3; i++) {
+            batcher.recordEvent(newEvent(Priority.NORMAL).addCounter("index", i));
+        }
+        batcher.flush();
+        assertEquals(2, collector.batches.size());
+        assertEquals(0, collector.batches.get(0).get(0).getCounters().get("index"), 0);
+        assertEquals(2, collector.batches.get(1).get(0).getCounters().get("index"), 0);
+
+        deliveries.get(0).run();
+        assertEquals(2, collector.batches.size());
+    }
+
+    @Test
+    public void recordEvent_slowCollectorOnTimer_doesNotHoldUpScheduler() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        RecordingBatchCollector slow = new RecordingBatchCollector() {
+            @Override
+            public void recordEvents(@NonNull List<Event> events) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.recordEvents(events);
+            }
+        };
+        ExecutorService delivery = Executors.newCachedThreadPool();
+        try {
+            BatchConfig config = new BatchConfig().setMaxLatencyMillis(20);
+            new EventBatcher(slow, config, scheduler, delivery).recordEvent(newEvent(Priority.NORMAL));
+            Thread.sleep(50);
+            new EventBatcher(collector, config, scheduler, delivery).recordEvent(newEvent(Priority.NORMAL));
+            assertTrue(collector.flushed.await(1, TimeUnit.SECONDS));
+            release.countDown();
+            assertTrue(slow.flushed.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            delivery.shutdownNow();
+        }
+    }
+
+    @Test
+    public void flush_concurrentWithFullBatches_deliversInRecordingOrder() throws InterruptedException {
+        final EventBatcher batcher = new EventBatcher(collector,
+                new BatchConfig().setMaxBatchSize(4).setMaxLatencyMillis(60000), scheduler, scheduler);
+        final int events = 20000;
+        Thread flusher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!Thread.currentThread().isInterrupted()) {
+                    batcher.flush();
+                }
+            }
+        });
+        flusher.start();
+        try {
+            for (int i = 0; i < events; i++) {
+                batcher.recordEvent(newEvent(Priority.NORMAL).addCounter("index", i));
+            }
+        } finally {
+            flusher.interrupt();
+            flusher.join();
+        }
+        batcher.flush();
+
+        int expected = 0;
+        synchronized (collector) {
+            for (List<Event> batch : collector.batches) {
+                assertTrue(batch.size() <= 4);
+                for (Event event : batch) {
+                    assertEquals(expected++, event.getCounters().get("index"), 0);
+                }
+            }
+        }
+        assertEquals(events, expected);
+    }
+
+    private static Event newEvent(Priority priority) {
+        return new Event("event", "source", EventType.ENGAGEMENT.name(), priority);
+    }
+
+    private static class RecordingBatchCollector implements BatchAnalyticsCollector {
+        private final List<List<Event>> batches = new ArrayList<>();
+        private final CountDownLatch flushed = new CountDownLatch(1);
+
+        @Override
+        public String getName() {
+            return "batch";
+        }
+
+        @Override
+        public void recordEvent(@NonNull Event event) {
+            throw new AssertionError("Events should be recorded in batches.");
+        }
+
+        @Override
+        public synchronized void recordEvents(@NonNull List<Event> events) {
+            batches.add(events);
+            flushed.countDown();
+        }
+    }
+}
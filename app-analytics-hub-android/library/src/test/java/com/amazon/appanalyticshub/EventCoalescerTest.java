@@ -0,0 +1,160 @@
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EventCoalescer}.
+ */
+public class EventCoalescerTest {
+
+    private ScheduledExecutorService scheduler;
+    private List<Map<String, Double>> emitted;
+    private EventSink sink;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        emitted = Collections.synchronizedList(new ArrayList<Map<String, Double>>());
+        sink = new EventSink() {
+            @Override
+            public void deliverEvent(@NonNull Event event) {
+                Map<String, Double> counters = new HashMap<>(event.getCounters());
+                counters.put(event.getData().get("screen"), 0d);
+                emitted.add(counters);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void flush_mergesDuplicatesIntoOneEvent() {
+        EventCoalescer coalescer = newCoalescer(60000, 16);
+        assertTrue(coalescer.add(newEvent("home").incrementCounter("taps", 2)));
+        assertTrue(coalescer.add(newEvent("home").incrementCounter("taps", 3)));
+        assertTrue(coalescer.add(newEvent("home").incrementCounter("taps", 1)));
+        coalescer.flush();
+
+        assertEquals(1, emitted.size());
+        assertEquals(6, emitted.get(0).get("taps"), 0);
+        assertEquals(3, emitted.get(0).get(CoalescingConfig.COALESCED_EVENT_COUNT), 0);
+
+        emitted.clear();
+        coalescer.flush();
+        assertTrue(emitted.isEmpty());
+    }
+
+    @Test
+    public void flush_distinctDataNotMerged() {
+        EventCoalescer coalescer = newCoalescer(60000, 16);
+        assertTrue(coalescer.add(newEvent("home").incrementCounter("taps", 1)));
+        assertTrue(coalescer.add(newEvent("settings").incrementCounter("taps", 1)));
+        coalescer.flush();
+
+        assertEquals(2, emitted.size());
+        for (Map<String, Double> counters : emitted) {
+            assertEquals(1, counters.get("taps"), 0);
+            assertFalse(counters.containsKey(CoalescingConfig.COALESCED_EVENT_COUNT));
+        }
+    }
+
+    @Test
+    public void add_criticalOrCacheFull_notCoalesced() {
+        EventCoalescer coalescer = newCoalescer(60000, 1);
+        Event critical = newEvent("home");
+        critical.setPriority(Priority.CRITICAL);
+        assertFalse(coalescer.add(critical));
+        assertTrue(coalescer.add(newEvent("home")));
+        assertFalse(coalescer.add(newEvent("settings")));
+        assertTrue(coalescer.add(newEvent("home")));
+    }
+
+    @Test
+    public void add_afterWindow_recordsExpiredEvent() throws InterruptedException {
+        EventCoalescer coalescer = newCoalescer(60000, 1);
+        assertTrue(coalescer.add(newEvent("home")));
+        coalescer.close();
+        assertEquals(1, emitted.size());
+
+        EventCoalescer expiring = newCoalescer(10, 1);
+        emitted.clear();
+        assertTrue(expiring.add(newEvent("home")));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (emitted.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, emitted.size());
+        assertTrue(expiring.add(newEvent("settings")));
+        expiring.close();
+    }
+
+    @Test
+    public void fingerprint_independentOfDataOrder() {
+        Event first = newEvent("home").addData("tab", "feed");
+        Event second = new Event("Tap", "app", EventType.OPERATIONAL.name())
+                .addData("tab", "feed").addData("screen", "home");
+        assertEquals(EventCoalescer.fingerprint(first), EventCoalescer.fingerprint(second));
+        assertNotEquals(EventCoalescer.fingerprint(first),
+                EventCoalescer.fingerprint(newEvent("home")));
+    }
+
+    @Test
+    public void recordEvent_coalescedThroughHub() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        final List<Event> recorded = new ArrayList<>();
+        hub.addCollectorToEventType(EventType.OPERATIONAL, new AnalyticsCollector() {
+            @Override
+            public String getName() {
+                return "collector";
+            }
+
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                recorded.add(event);
+            }
+        });
+        hub.enableCoalescing(EventType.OPERATIONAL.name(),
+                new CoalescingConfig().setWindowMillis(60000));
+        for (int i = 0; i < 5; i++) {
+            hub.recordEvent(newEvent("home").incrementCounter("taps"));
+        }
+        assertTrue(recorded.isEmpty());
+        hub.flush();
+        assertEquals(1, recorded.size());
+        // The coalesced copies are not pooled, the events the collector keeps are not reused.
+        hub.recordEvent(newEvent("settings").incrementCounter("taps"));
+        hub.flush();
+        assertEquals(2, recorded.size());
+        assertEquals(5, recorded.get(0).getCounters().get("taps"), 0);
+        assertEquals("home", recorded.get(0).getData().get("screen"));
+        assertEquals(1, recorded.get(1).getCounters().get("taps"), 0);
+        assertEquals("settings", recorded.get(1).getData().get("screen"));
+        hub.disableCoalescing(EventType.OPERATIONAL.name());
+    }
+
+    private EventCoalescer newCoalescer(long windowMillis, int cacheSize) {
+        return new EventCoalescer(new CoalescingConfig().setWindowMillis(windowMillis)
+                .setCacheSize(cacheSize), sink, scheduler, scheduler);
+    }
+
+    private static Event newEvent(String screen) {
+        return new Event("Tap", "app", EventType.OPERATIONAL.name()).addData("screen", screen);
+    }
+}
@@ -0,0 +1,146 @@
+package com.amazon.appanalyticshub;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EventEncoder}, {@link EventDecoder} and {@link EncodedEventView}.
+ */
+public class EventCodecTest {
+
+    @Test
+    public void decode_streamOfEvents_roundTripsEveryField() {
+        EventEncoder encoder = new EventEncoder();
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        Event first = newEvent("PlaybackStart");
+        Event second = newEvent("PlaybackStop").addCounter("negative", -42).addTimer("fraction", 0.125);
+        encoder.encode(first, buffer);
+        encoder.encode(second, buffer);
+        buffer.flip();
+
+        EventDecoder decoder = new EventDecoder();
+        assertEventEquals(first, decoder.decode(buffer));
+        assertEventEquals(second, decoder.decode(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void encode_repeatedStrings_areWrittenOnce() {
+        EventEncoder encoder = new EventEncoder();
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        encoder.encode(newEvent("PlaybackStart"), buffer);
+        int firstSize = buffer.position();
+        encoder.encode(newEvent("PlaybackStart"), buffer);
+        int secondSize = buffer.position() - firstSize;
+        assertTrue(secondSize < firstSize / 2);
+    }
+
+    @Test
+    public void encode_isSmallerThanJson() {
+        Event event = newEvent("PlaybackStart");
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        new EventEncoder().encode(event, buffer);
+        int jsonSize = toJson(event).getBytes(EventCodec.UTF_8).length;
+        assertTrue("binary " + buffer.position() + " json " + jsonSize, buffer.position() < jsonSize * 0.6);
+    }
+
+    @Test
+    public void view_readsHeaderWithoutDecodingEvent() {
+        Event event = newEvent("PlaybackStart");
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        new EventEncoder().encode(event, buffer);
+        buffer.flip();
+
+        EncodedEventView view = new EncodedEventView(buffer);
+        assertEquals(Priority.HIGH, view.getPriority());
+        assertEquals("PlaybackStart", view.getName());
+        assertEquals("Player", view.getSource());
+        assertEquals("PLAYBACK", view.getEventType());
+        assertEventEquals(event, view.toEvent());
+    }
+
+    @Test
+    public void view_readsEntriesWithoutDecodingEvent() {
+        // Repeated strings are written as references to the dictionary of the event.
+        Event event = newEvent("PlaybackStart")
+                .addData("HD", "quality")
+                .addCounter("quality", 3)
+                .addTimer("frames", -0.5);
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(4096), ByteBuffer.allocateDirect(4096)}) {
+            new EventEncoder().encode(event, buffer);
+            buffer.flip();
+
+            EncodedEventView view = new EncodedEventView(buffer);
+            assertEquals("a1b2c3", view.getData("contentId"));
+            assertEquals("HD", view.getData("quality"));
+            assertEquals("quality", view.getData("HD"));
+            assertNull(view.getData("frames"));
+            assertEquals(1200, view.getCounter("frames"), 0);
+            assertEquals(3, view.getCounter("quality"), 0);
+            assertNull(view.getCounter("startupTime"));
+            assertEquals(153.5, view.getTimer("startupTime"), 0);
+            assertEquals(-0.5, view.getTimer("frames"), 0);
+            assertNull(view.getTimer("missing"));
+            assertEquals("PlaybackStart", view.getName());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_truncatedEvent_throws() {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        new EventEncoder().encode(newEvent("PlaybackStart"), buffer);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 3);
+        new EventDecoder().decode(buffer);
+    }
+
+    private static Event newEvent(String name) {
+        return new Event(name, "Player", "PLAYBACK", Priority.HIGH)
+                .addData("contentId", "a1b2c3")
+                .addData("quality", "HD")
+                .addCounter("frames", 1200)
+                .addCounter("rebuffers", 2)
+                .addTimer("startupTime", 153.5)
+                .addMetric("autoplay", true)
+                .addMetric("codec", "h264");
+    }
+
+    private static void assertEventEquals(Event expected, Event actual) {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getSource(), actual.getSource());
+        assertEquals(expected.getEventType(), actual.getEventType());
+        assertEquals(expected.getPriority(), actual.getPriority());
+        assertEquals(expected.getData(), actual.getData());
+        assertEquals(expected.getCounters(), actual.getCounters());
+        assertEquals(expected.getTimers(), actual.getTimers());
+        assertEquals(expected.getMetrics(), actual.getMetrics());
+    }
+
+    private static String toJson(Event event) {
+        StringBuilder json = new StringBuilder("{\"name\":\"").append(event.getName())
+                .append("\",\"source\":\"").append(event.getSource())
+                .append("\",\"eventType\":\"").append(event.getEventType())
+                .append("\",\"priority\":\"").append(event.getPriority()).append("\"");
+        appendMap(json, "data", event.getData(), true);
+        appendMap(json, "counters", event.getCounters(), false);
+        appendMap(json, "timers", event.getTimers(), false);
+        appendMap(json, "metrics", event.getMetrics(), false);
+        return json.append('}').toString();
+    }
+
+    private static void appendMap(StringBuilder json, String name, Map<String, ?> map, boolean quoteValues) {
+        json.append(",\"").append(name).append("\":{");
+        String separator = "";
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            json.append(separator).append('"').append(entry.getKey()).append("\":");
+            boolean quote = quoteValues || entry.getValue() instanceof String;
+            json.append(quote ? "\"" : "").append(entry.getValue()).append(quote ? "\"" : "");
+            separator = ",";
+        }
+        json.append('}');
+    }
+}
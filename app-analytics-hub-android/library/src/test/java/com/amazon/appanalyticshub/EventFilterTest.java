@@ -0,0 +1,185 @@
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EventFilter}, {@link FieldProjection} and their use by
+ * {@link AppAnalyticsHub}.
+ */
+public class EventFilterTest {
+
+    @Test
+    public void matches_fieldFilters() {
+        Event event = newEvent("PlaybackStarted", Priority.HIGH).addData("screen", "home");
+        assertTrue(EventFilter.nameIs("Other", "PlaybackStarted").matches(event));
+        assertFalse(EventFilter.nameIs("Other").matches(event));
+        assertTrue(EventFilter.nameMatches("Playback*").matches(event));
+        assertFalse(EventFilter.nameMatches("*Stopped").matches(event));
+        assertTrue(EventFilter.nameMatches("Play*Sta*ed").matches(event));
+        assertTrue(EventFilter.nameMatches("*back*").matches(event));
+        assertFalse(EventFilter.nameMatches("*Started*Started").matches(event));
+        assertFalse(EventFilter.nameMatches("PlaybackStartedd*").matches(event));
+        assertTrue(EventFilter.nameMatches("PlaybackStarted").matches(event));
+        assertTrue(EventFilter.sourceIs("player").matches(event));
+        assertFalse(EventFilter.sourceIs("other").matches(new Event("event", null, "type")));
+        assertTrue(EventFilter.priorityIs(Priority.HIGH, Priority.CRITICAL).matches(event));
+        assertFalse(EventFilter.priorityIs(Priority.NORMAL).matches(event));
+        assertTrue(EventFilter.hasData("screen").matches(event));
+        assertFalse(EventFilter.hasData("session").matches(event));
+        assertTrue(EventFilter.dataIs("screen", "home", "settings").matches(event));
+        assertFalse(EventFilter.dataIs("screen", "settings").matches(event));
+    }
+
+    @Test
+    public void matches_combinations() {
+        Event event = newEvent("PlaybackStarted", Priority.NORMAL).addData("screen", "home");
+        EventFilter filter = EventFilter.and(EventFilter.nameMatches("Playback*"),
+                EventFilter.or(EventFilter.priorityIs(Priority.CRITICAL),
+                        EventFilter.not(EventFilter.dataIs("screen", "settings"))));
+        assertTrue(filter.matches(event));
+        assertTrue(filter.compile().matches(event));
+        event.addData("screen", "settings");
+        assertFalse(filter.matches(event));
+        assertFalse(filter.compile().matches(event));
+    }
+
+    @Test
+    public void compile_foldsConstantsAndFlattens() {
+        EventFilter name = EventFilter.nameIs("event");
+        assertSame(EventFilter.NONE, EventFilter.and(name, EventFilter.NONE).compile());
+        assertSame(EventFilter.ALL, EventFilter.or(name, EventFilter.not(EventFilter.NONE)).compile());
+        assertSame(name, EventFilter.and(name, EventFilter.ALL).compile());
+        assertSame(name, EventFilter.not(EventFilter.not(name)).compile());
+        assertSame(EventFilter.ALL, EventFilter.priorityIs(Priority.values()).compile());
+        assertSame(EventFilter.NONE, EventFilter.nameIs().compile());
+        assertSame(EventFilter.ALL, EventFilter.nameMatches("**").compile());
+
+        EventFilter data = EventFilter.hasData("screen");
+        EventFilter priority = EventFilter.priorityIs(Priority.HIGH);
+        EventFilter compiled = EventFilter.and(data, EventFilter.and(EventFilter.ALL, priority, name))
+                .compile();
+        Event event = newEvent("event", Priority.HIGH).addData("screen", "home");
+        assertTrue(compiled.matches(event));
+        assertEquals(data.cost(), compiled.cost());
+    }
+
+    @Test
+    public void recordEvent_collectorFilter() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        RecordingCollector all = new RecordingCollector("all");
+        RecordingCollector playback = new RecordingCollector("playback");
+        hub.addCollectorToEventType(EventType.OPERATIONAL, all);
+        hub.addCollectorToEventType(EventType.OPERATIONAL, playback);
+        hub.setCollectorFilter("playback", EventFilter.nameMatches("Playback*"));
+
+        hub.recordEvent(newEvent("PlaybackStarted", Priority.NORMAL));
+        hub.recordEvent(newEvent("ScreenViewed", Priority.NORMAL));
+        assertEquals(2, all.names.size());
+        assertEquals(Collections.singletonList("PlaybackStarted"), playback.names);
+
+        hub.setCollectorFilter("playback", EventFilter.NONE);
+        hub.recordEvent(newEvent("PlaybackStopped", Priority.NORMAL));
+        assertEquals(1, playback.names.size());
+
+        hub.setCollectorFilter("playback", null);
+        hub.recordEvent(newEvent("ScreenViewed", Priority.NORMAL));
+        assertEquals(2, playback.names.size());
+        assertEquals(4, all.names.size());
+    }
+
+    @Test
+    public void recordEvent_collectorProjection() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        RecordingCollector all = new RecordingCollector("all");
+        RecordingCollector projected = new RecordingCollector("projected");
+        hub.addCollectorToEventType(EventType.OPERATIONAL, all);
+        hub.addCollectorToEventType(EventType.OPERATIONAL, projected);
+        FieldProjection projection = new FieldProjection()
+                .includeData("screen")
+                .includeCounters("views")
+                .includeMetrics();
+        hub.setCollectorProjection("projected", projection);
+        projection.includeData("session");
+
+        Event event = newEvent("ScreenViewed", Priority.NORMAL)
+                .addData("screen", "home")
+                .addData("session", "s1")
+                .addCounter("views", 1)
+                .addCounter("scrolls", 3)
+                .addTimer("load", 12)
+                .addMetric("network", "wifi");
+        hub.recordEvent(event);
+
+        assertEquals(2, all.data.get(0).size());
+        assertEquals(Collections.singletonMap("screen", "home"), projected.data.get(0));
+        assertEquals(Collections.singletonMap("views", 1.0), projected.counters.get(0));
+        assertEquals(Collections.singletonMap("load", 12.0), projected.timers.get(0));
+        assertTrue(projected.metrics.get(0).isEmpty());
+        assertEquals(2, event.getData().size());
+        assertEquals(2, event.getCounters().size());
+        assertEquals(1, event.getMetrics().size());
+    }
+
+    @Test
+    public void recordEvent_collectorProjection_collectorKeepsCopies() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        RecordingCollector projected = new RecordingCollector("projected");
+        hub.addCollectorToEventType(EventType.OPERATIONAL, projected);
+        hub.setCollectorProjection("projected", new FieldProjection().includeData("screen"));
+
+        hub.recordEvent(newEvent("first", Priority.NORMAL).addData("screen", "home"));
+        hub.recordEvent(newEvent("second", Priority.NORMAL).addData("screen", "settings"));
+
+        assertEquals("first", projected.events.get(0).getName());
+        assertEquals(Collections.singletonMap("screen", "home"), projected.events.get(0).getData());
+        assertEquals("second", projected.events.get(1).getName());
+        assertEquals(Collections.singletonMap("screen", "settings"),
+                projected.events.get(1).getData());
+    }
+
+    private static Event newEvent(String name, Priority priority) {
+        return new Event(name, "player", EventType.OPERATIONAL.name(), priority);
+    }
+
+    /**
+     * Keeps the events it receives and copies of their fields as they were delivered.
+     */
+    private static class RecordingCollector implements AnalyticsCollector {
+        final List<Event> events = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final List<Map<String, String>> data = new ArrayList<>();
+        final List<Map<String, Double>> counters = new ArrayList<>();
+        final List<Map<String, Double>> timers = new ArrayList<>();
+        final List<Map<String, Object>> metrics = new ArrayList<>();
+        private final String name;
+
+        RecordingCollector(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void recordEvent(@NonNull Event event) {
+            events.add(event);
+            names.add(event.getName());
+            data.add(new HashMap<>(event.getData()));
+            counters.add(new HashMap<>(event.getCounters()));
+            timers.add(new HashMap<>(event.getTimers()));
+            metrics.add(new HashMap<>(event.getMetrics()));
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
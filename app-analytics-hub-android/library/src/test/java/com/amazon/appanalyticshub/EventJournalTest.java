@@ -0,0 +1,213 @@
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EventJournal}.
+ */
+public class EventJournalTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replay_afterRestart_deliversEventsPastCheckpoint() throws IOException {
+        JournalConfig config = new JournalConfig(folder.getRoot());
+        EventJournal journal = EventJournal.open(config, DIRECT);
+        journal.registerCollector("collector");
+        long first = journal.append(newEvent("first").addCounter("count", 2));
+        long second = journal.append(newEvent("second").addData("key", "value"));
+        journal.hold("collector", second);
+        journal.dispatched(first);
+        journal.dispatched(second);
+        journal.sync();
+
+        // the process dies without closing the journal.
+        EventJournal reopened = EventJournal.open(config, DIRECT);
+        RecordingSink sink = new RecordingSink();
+        reopened.replay(sink);
+
+        assertFalse(reopened.needsReplay("collector", first));
+        assertTrue(reopened.needsReplay("collector", second));
+        assertEquals(1, sink.events.size());
+        Event replayed = sink.events.get(0);
+        assertEquals("second", replayed.getName());
+        assertEquals("value", replayed.getData().get("key"));
+        assertEquals(second, replayed.journalSequence);
+        assertEquals(second + 1, reopened.append(newEvent("third")));
+    }
+
+    @Test
+    public void sync_segmentsReceivedByEveryCollector_areDeleted() throws IOException {
+        JournalConfig config = new JournalConfig(folder.getRoot()).setSegmentBytes(256);
+        EventJournal journal = EventJournal.open(config, DIRECT);
+        journal.registerCollector("collector");
+        long last = -1;
+        for (int i = 0; i < 50; i++) {
+            last = journal.append(newEvent("event" + i));
+        }
+        assertTrue(countSegments() > 1);
+        journal.sync();
+        assertTrue(countSegments() > 1);
+
+        for (long sequence = 0; sequence <= last; sequence++) {
+            journal.dispatched(sequence);
+        }
+        journal.sync();
+        assertEquals(1, countSegments());
+        journal.close();
+    }
+
+    @Test
+    public void replay_eventsReceivedOutOfOrder_replaysFromOldestPending() throws IOException {
+        JournalConfig config = new JournalConfig(folder.getRoot());
+        EventJournal journal = EventJournal.open(config, DIRECT);
+        journal.registerCollector("collector");
+        long first = journal.append(newEvent("first"));
+        long second = journal.append(newEvent("second"));
+        journal.hold("collector", first);
+        journal.hold("collector", second);
+        journal.dispatched(first);
+        journal.dispatched(second);
+        journal.release("collector", second);
+        journal.sync();
+
+        EventJournal reopened = EventJournal.open(config, DIRECT);
+        RecordingSink sink = new RecordingSink();
+        reopened.replay(sink);
+
+        assertTrue(reopened.needsReplay("collector", first));
+        assertEquals(2, sink.events.size());
+        assertEquals("first", sink.events.get(0).getName());
+    }
+
+    @Test
+    public void sync_collectorWithoutPendingEvents_doesNotKeepSegments() throws IOException {
+        JournalConfig config = new JournalConfig(folder.getRoot()).setSegmentBytes(256);
+        EventJournal journal = EventJournal.open(config, DIRECT);
+        journal.registerCollector("routed");
+        journal.registerCollector("idle");
+        for (int i = 0; i < 50; i++) {
+            long sequence = journal.append(newEvent("event" + i));
+            journal.hold("routed", sequence);
+            journal.dispatched(sequence);
+            journal.release("routed", sequence);
+        }
+        assertTrue(countSegments() > 1);
+
+        journal.sync();
+        assertEquals(1, countSegments());
+        journal.close();
+    }
+
+    @Test
+    public void replay_inProgress_keepsCheckpointBeforeEventsNotReplayed() throws IOException {
+        JournalConfig config = new JournalConfig(folder.getRoot());
+        EventJournal journal = EventJournal.open(config, DIRECT);
+        journal.registerCollector("collector");
+        journal.append(newEvent("first"));
+        journal.append(newEvent("second"));
+        journal.sync();
+
+        // the process dies while the replay is running, before it reaches the second event.
+        final EventJournal reopened = EventJournal.open(config, DIRECT);
+        reopened.registerCollector("collector");
+        reopened.replay(new EventSink() {
+            @Override
+            public void deliverEvent(@NonNull Event event) {
+                if ("first".equals(event.getName())) {
+                    reopened.sync();
+                }
+            }
+        });
+
+        RecordingSink sink = new RecordingSink();
+        EventJournal.open(config, DIRECT).replay(sink);
+        assertEquals(2, sink.events.size());
+    }
+
+    @Test
+    public void sync_totalSizeExceeded_deletesOldestSegments() throws IOException {
+        JournalConfig config = new JournalConfig(folder.getRoot()).setSegmentBytes(256)
+                .setMaxTotalBytes(1024);
+        EventJournal journal = EventJournal.open(config, DIRECT);
+        journal.registerCollector("collector");
+        for (int i = 0; i < 100; i++) {
+            journal.append(newEvent("event" + i));
+        }
+        journal.sync();
+        assertTrue(countSegments() <= 4);
+        journal.close();
+    }
+
+    @Test
+    public void append_segmentsRotatedInBackground_replaysEveryEvent() throws Exception {
+        JournalConfig config = new JournalConfig(folder.getRoot()).setSegmentBytes(256);
+        ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+        EventJournal journal = EventJournal.open(config, ioExecutor);
+        journal.registerCollector("collector");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, journal.append(newEvent("event" + i)));
+            if (i % 10 == 0) {
+                journal.sync();
+            }
+        }
+        journal.sync();
+        ioExecutor.shutdown();
+        assertTrue(ioExecutor.awaitTermination(5, TimeUnit.SECONDS));
+
+        // the process dies without closing the journal.
+        RecordingSink sink = new RecordingSink();
+        EventJournal.open(config, DIRECT).replay(sink);
+        assertEquals(100, sink.events.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("event" + i, sink.events.get(i).getName());
+        }
+    }
+
+    private int countSegments() {
+        File[] files = folder.getRoot().listFiles();
+        int segments = 0;
+        for (File file : files) {
+            if (file.getName().endsWith(".seg")) {
+                segments++;
+            }
+        }
+        return segments;
+    }
+
+    private static Event newEvent(String name) {
+        return new Event(name, "source", EventType.OPERATIONAL.name(), Priority.HIGH);
+    }
+
+    private static class RecordingSink implements EventSink {
+        private final List<Event> events = new ArrayList<>();
+
+        @Override
+        public void deliverEvent(@NonNull Event event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.amazon.appanalyticshub;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the pooled events handed out by {@link EventFactory}.
+ */
+public class EventPoolTest {
+
+    @Test
+    public void acquireEvent_afterRelease_reusesClearedEvent() {
+        EventFactory factory = new EventFactory("source", EventType.ENGAGEMENT);
+        Event event = factory.acquireEvent("first", Priority.HIGH);
+        event.addData("key", "value").addCounter("counter", 1).addMetric("metric", true);
+        factory.releaseEvent(event);
+
+        Event reused = factory.acquireEvent("second", null);
+        assertSame(event, reused);
+        assertEquals("second", reused.getName());
+        assertEquals("source", reused.getSource());
+        assertEquals(EventType.ENGAGEMENT.name(), reused.getEventType());
+        assertEquals(Priority.NORMAL, reused.getPriority());
+        assertTrue(reused.getData().isEmpty());
+        assertTrue(reused.getCounters().isEmpty());
+        assertTrue(reused.getMetrics().isEmpty());
+    }
+
+    @Test
+    public void releaseEvent_whileHeldByHub_isNotReusedUntilDelivered() {
+        EventFactory factory = new EventFactory("source", EventType.ENGAGEMENT);
+        Event event = factory.acquireEvent("first", null);
+        event.retain();
+        factory.releaseEvent(event);
+        assertNotSame(event, factory.acquireEvent("second", null));
+
+        event.release();
+        assertSame(event, factory.acquireEvent("third", null));
+    }
+
+    @Test
+    public void newEvent_withoutEntries_allocatesNoMaps() {
+        Event event = new Event("name", null, EventType.OPERATIONAL.name());
+        assertTrue(event.getData().isEmpty());
+        assertTrue(event.getTimers().isEmpty());
+        event.removeData("missing").removeCounter("missing").removeTimer("missing");
+        assertEquals(1, event.addTimer("timer", 1).getTimers().size());
+    }
+}
@@ -0,0 +1,192 @@
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EventSchema} and {@link SchemaEvent}.
+ */
+public class EventSchemaTest {
+
+    private static EventSchema playbackSchema() {
+        return new EventSchema("Playback", EventType.ENGAGEMENT)
+                .setSource("Player")
+                .addData("contentId")
+                .addData("quality")
+                .addCounter("frames")
+                .addCounter("stalls")
+                .addTimer("bufferTime")
+                .addMetric("autoplay");
+    }
+
+    @Test
+    public void slotsFollowDeclarationOrder() {
+        EventSchema schema = playbackSchema();
+        new AppAnalyticsHub().registerSchema(schema);
+
+        assertEquals(1, schema.getDataSlot("quality"));
+        assertEquals(1, schema.getCounterSlot("stalls"));
+        assertEquals(0, schema.getTimerSlot("bufferTime"));
+        assertEquals(-1, schema.getMetricSlot("missing"));
+    }
+
+    @Test
+    public void collectorsReadFieldsSetBySlotByName() {
+        EventSchema schema = playbackSchema();
+        new AppAnalyticsHub().registerSchema(schema);
+        int contentId = schema.getDataSlot("contentId");
+        int frames = schema.getCounterSlot("frames");
+
+        SchemaEvent event = schema.createEvent();
+        event.addData(contentId, "a1b2c3")
+                .addCounter(frames, 60)
+                .incrementCounter(frames)
+                .addTimer(schema.getTimerSlot("bufferTime"), 12.5)
+                .addMetric(schema.getMetricSlot("autoplay"), true);
+        event.incrementCounter("stalls", 2);
+
+        assertEquals("Playback", event.getName());
+        assertEquals("Player", event.getSource());
+        assertEquals("ENGAGEMENT", event.getEventType());
+        Map<String, String> expectedData = new HashMap<>();
+        expectedData.put("contentId", "a1b2c3");
+        assertEquals(expectedData, event.getData());
+        Map<String, Double> expectedCounters = new HashMap<>();
+        expectedCounters.put("frames", 61.0);
+        expectedCounters.put("stalls", 2.0);
+        assertEquals(expectedCounters, event.getCounters());
+        assertEquals(12.5, event.getTimers().get("bufferTime"), 0);
+        assertEquals(Boolean.TRUE, event.getMetrics().get("autoplay"));
+    }
+
+    @Test
+    public void ignoresUndeclaredFieldsAndRemovesByName() {
+        EventSchema schema = playbackSchema();
+        new AppAnalyticsHub().registerSchema(schema);
+        SchemaEvent event = schema.createEvent();
+
+        event.addData("undeclared", "value").addData("quality", "hd").addCounter("frames", 1);
+        event.addMetric("autoplay", 3);
+        event.removeCounter("frames");
+
+        assertEquals(1, event.getData().size());
+        assertEquals("hd", event.getData().get("quality"));
+        assertTrue(event.getCounters().isEmpty());
+        assertTrue(event.getMetrics().isEmpty());
+    }
+
+    @Test
+    public void snapshotSharesSlotsUntilEventChanges() {
+        EventSchema schema = playbackSchema();
+        new AppAnalyticsHub().registerSchema(schema);
+        int frames = schema.getCounterSlot("frames");
+        SchemaEvent event = schema.createEvent();
+        event.addData(schema.getDataSlot("quality"), "hd").addCounter(frames, 60);
+
+        Event snapshot = event.snapshot(1);
+        assertSame(event.getCounterValues(), snapshot.getCounterValues());
+        event.addCounter(frames, 1).removeData("quality");
+        event.removeData("undeclared");
+
+        assertNotSame(event.getCounterValues(), snapshot.getCounterValues());
+        assertEquals(61, event.getCounters().get("frames"), 0);
+        assertTrue(event.getData().isEmpty());
+        assertEquals(60, snapshot.getCounters().get("frames"), 0);
+        assertEquals("hd", snapshot.getData().get("quality"));
+    }
+
+    @Test
+    public void validatesAtRegistration() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        try {
+            hub.registerSchema(new EventSchema("Tap", EventType.ENGAGEMENT)
+                    .addCounter("taps")
+                    .addCounter("taps"));
+            fail("Duplicated counter accepted.");
+        } catch (IllegalArgumentException expected) {
+            assertNull(hub.getSchema("Tap"));
+        }
+        try {
+            hub.registerSchema(new EventSchema("Tap", EventType.ENGAGEMENT).addData(""));
+            fail("Data without name accepted.");
+        } catch (IllegalArgumentException expected) {
+            assertNull(hub.getSchema("Tap"));
+        }
+        EventSchema schema = playbackSchema();
+        hub.registerSchema(schema);
+        hub.registerSchema(schema);
+        assertSame(schema, hub.getSchema("Playback"));
+        try {
+            hub.registerSchema(playbackSchema());
+            fail("Second schema for the same event accepted.");
+        } catch (IllegalArgumentException expected) {
+            assertSame(schema, hub.getSchema("Playback"));
+        }
+    }
+
+    @Test
+    public void freezesOnceRegistered() {
+        EventSchema schema = playbackSchema();
+        try {
+            schema.createEvent();
+            fail("Event created from an unregistered schema.");
+        } catch (IllegalStateException expected) {
+            // The schema has to be validated first.
+        }
+        new AppAnalyticsHub().registerSchema(schema);
+        try {
+            schema.addCounter("late");
+            fail("Registered schema changed.");
+        } catch (IllegalStateException expected) {
+            assertEquals(-1, schema.getCounterSlot("late"));
+        }
+    }
+
+    @Test
+    public void encodesAndAggregatesLikePlainEvents() {
+        EventSchema schema = playbackSchema();
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        hub.registerSchema(schema);
+        SchemaEvent event = schema.createEvent();
+        event.addData(0, "a1b2c3").addCounter(0, 60).addTimer(0, 12.5).addMetric(0, false);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        new EventEncoder().encode(event, buffer);
+        buffer.flip();
+        Event decoded = new EventDecoder().decode(buffer);
+        assertEquals(event.getData(), decoded.getData());
+        assertEquals(event.getCounters(), decoded.getCounters());
+        assertEquals(event.getTimers(), decoded.getTimers());
+        assertEquals(event.getMetrics(), decoded.getMetrics());
+
+        final List<Event> recorded = new ArrayList<>();
+        hub.addCollectorToEventType(EventType.ENGAGEMENT, new AnalyticsCollector() {
+            @Override
+            public String getName() {
+                return "collector";
+            }
+
+            @Override
+            public void recordEvent(@NonNull Event recordedEvent) {
+                recorded.add(recordedEvent);
+            }
+        });
+        hub.enableAggregation(EventType.ENGAGEMENT.name(), new AggregationConfig());
+        hub.recordEvent(event);
+        hub.recordEvent(event);
+        hub.flush();
+        hub.disableAggregation(EventType.ENGAGEMENT.name());
+        assertEquals(1, recorded.size());
+        assertEquals(120.0, recorded.get(0).getCounters().get("frames"), 0);
+        assertEquals(25.0, recorded.get(0).getTimers().get("bufferTime"), 0);
+    }
+}
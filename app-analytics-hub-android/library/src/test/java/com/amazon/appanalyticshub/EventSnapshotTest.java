@@ -0,0 +1,232 @@
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link EventSnapshot}s {@link AppAnalyticsHub} delivers to the collectors.
+ */
+public class EventSnapshotTest {
+
+    @Test
+    public void recordEvent_changedAfterwards_collectorsSeeRecordedEvent() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        final List<Event> events = new ArrayList<>();
+        hub.setDefaultAnalyticsCollector(new AnalyticsCollector() {
+            @Override
+            public String getName() {
+                return "collector";
+            }
+
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                events.add(event);
+            }
+        });
+        Event event = newEvent().addData("screen", "home").addCounter("taps", 1).addTimer("load", 5)
+                .addMetric("online", true);
+        hub.recordEvent(event);
+        event.addData("screen", "settings").incrementCounter("taps").removeTimer("load");
+        hub.recordEvent(event);
+
+        Event first = events.get(0);
+        assertNotSame(event, first);
+        assertEquals(Collections.singletonMap("screen", "home"), first.getData());
+        assertEquals(Collections.singletonMap("taps", 1.0), first.getCounters());
+        assertEquals(Collections.singletonMap("load", 5.0), first.getTimers());
+        assertEquals(Collections.<String, Object>singletonMap("online", true), first.getMetrics());
+        Event second = events.get(1);
+        assertEquals("settings", second.getData().get("screen"));
+        assertEquals(2.0, second.getCounters().get("taps"), 0);
+        assertTrue(second.getTimers().isEmpty());
+    }
+
+    @Test
+    public void recordEvent_asyncDispatch_collectorSeesRecordedEvent() throws InterruptedException {
+        final CountDownLatch delivered = new CountDownLatch(1);
+        final List<String> screens = Collections.synchronizedList(new ArrayList<String>());
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        hub.setDefaultAnalyticsCollector(new AnalyticsCollector() {
+            @Override
+            public String getName() {
+                return "collector";
+            }
+
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                screens.add(event.getData().get("screen"));
+                delivered.countDown();
+            }
+        });
+        hub.startAsyncDispatch(new AsyncDispatchConfig());
+        Event event = newEvent().addData("screen", "home");
+        hub.recordEvent(event);
+        event.addData("screen", "settings");
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("home"), screens);
+        hub.stopAsyncDispatch(1000);
+    }
+
+    @Test
+    public void snapshot_isReadOnly() {
+        Event snapshot = newEvent().addData("screen", "home").addCounter("taps", 1).snapshot(1);
+        snapshot.addData("screen", "settings").removeData("screen").addCounter("taps", 1)
+                .addTimer("load", 1).addMetric("online", true);
+        snapshot.setPriority(Priority.CRITICAL);
+        assertEquals(Collections.singletonMap("screen", "home"), snapshot.getData());
+        assertEquals(Collections.singletonMap("taps", 1.0), snapshot.getCounters());
+        assertTrue(snapshot.getTimers().isEmpty());
+        assertTrue(snapshot.getMetrics().isEmpty());
+        assertEquals(Priority.NORMAL, snapshot.getPriority());
+        try {
+            snapshot.getData().put("screen", "settings");
+            fail();
+        } catch (UnsupportedOperationException expected) {
+            assertEquals("home", snapshot.getData().get("screen"));
+        }
+    }
+
+    @Test
+    public void getData_isReadOnly() {
+        Event event = newEvent().addData("screen", "home").addMetric("online", true);
+        try {
+            event.getData().put("screen", "settings");
+            fail();
+        } catch (UnsupportedOperationException expected) {
+            assertEquals("home", event.getData().get("screen"));
+        }
+        try {
+            event.getMetrics().clear();
+            fail();
+        } catch (UnsupportedOperationException expected) {
+            assertEquals(1, event.getMetrics().size());
+        }
+    }
+
+    @Test
+    public void snapshot_pooledEvent_holdsEventUntilReleased() {
+        EventFactory factory = new EventFactory("source", EventType.ENGAGEMENT);
+        Event event = factory.acquireEvent("first", null).addData("screen", "home")
+                .addCounter("taps", 1);
+        EventSnapshot first = event.snapshot(0.5);
+        factory.releaseEvent(event);
+
+        Event next = factory.acquireEvent("second", null);
+        assertNotSame(event, next);
+        assertEquals("first", first.getName());
+        assertEquals(0.5, first.getSampleRate(), 0);
+        assertEquals(Collections.singletonMap("screen", "home"), first.getData());
+        assertEquals(Collections.singletonMap("taps", 1.0), first.getCounters());
+
+        first.release();
+        assertSame(event, factory.acquireEvent("third", null));
+    }
+
+    @Test
+    public void recordEvent_pooledEvent_reusesMapsOnceDelivered() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        final List<String> screens = new ArrayList<>();
+        hub.setDefaultAnalyticsCollector(new AnalyticsCollector() {
+            @Override
+            public String getName() {
+                return "collector";
+            }
+
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                screens.add(event.getData().get("screen"));
+            }
+        });
+        EventFactory factory = new EventFactory("source", EventType.ENGAGEMENT);
+        Event event = factory.acquireEvent("first", null).addData("screen", "home")
+                .addCounter("taps", 1);
+        DoubleValues counters = event.getCounterValues();
+        hub.recordEvent(event);
+        factory.releaseEvent(event);
+
+        Event next = factory.acquireEvent("second", null).addData("screen", "settings")
+                .addCounter("taps", 1);
+        assertSame(event, next);
+        assertSame(counters, next.getCounterValues());
+        hub.recordEvent(next);
+        factory.releaseEvent(next);
+        assertEquals(Arrays.asList("home", "settings"), screens);
+    }
+
+    @Test
+    public void recordEvent_pooledEventHeldByBatcher_reusedOnceBatchDelivered() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        final List<String> screens = new ArrayList<>();
+        BatchAnalyticsCollector collector = new BatchAnalyticsCollector() {
+            @Override
+            public String getName() {
+                return "collector";
+            }
+
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                screens.add(event.getData().get("screen"));
+            }
+
+            @Override
+            public void recordEvents(@NonNull List<Event> events) {
+                for (Event event : events) {
+                    recordEvent(event);
+                }
+            }
+        };
+        hub.setDefaultAnalyticsCollector(collector);
+        hub.enableBatching(collector, new BatchConfig().setMaxLatencyMillis(60000));
+        EventFactory factory = new EventFactory("source", EventType.ENGAGEMENT);
+        Event event = factory.acquireEvent("first", null).addData("screen", "home");
+        hub.recordEvent(event);
+        factory.releaseEvent(event);
+        assertNotSame(event, factory.acquireEvent("second", null));
+
+        hub.flush();
+        assertEquals(Collections.singletonList("home"), screens);
+        assertSame(event, factory.acquireEvent("third", null));
+    }
+
+    @Test
+    public void recordEvent_sampled_leavesCallerSampleRate() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        final List<Double> sampleRates = new ArrayList<>();
+        hub.setDefaultAnalyticsCollector(new AnalyticsCollector() {
+            @Override
+            public String getName() {
+                return "collector";
+            }
+
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                sampleRates.add(event.getSampleRate());
+            }
+        });
+        SamplingPolicy policy = SamplingPolicy.byDataHash("session", 0.5);
+        hub.setSamplingPolicy(EventType.OPERATIONAL.name(), policy);
+        // The policy keeps events without the data at random, the session is set first.
+        Event event = newEvent().addData("session", "session-0");
+        for (int session = 1; policy.apply(event) == 0; session++) {
+            event.addData("session", "session-" + session);
+        }
+        hub.recordEvent(event);
+        hub.recordEvent(event);
+        assertEquals(1, event.getSampleRate(), 0);
+        assertEquals(Collections.nCopies(2, 0.5), sampleRates);
+    }
+
+    private static Event newEvent() {
+        return new Event("event", null, EventType.OPERATIONAL.name());
+    }
+}
@@ -0,0 +1,152 @@
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the metrics {@link AppAnalyticsHub} keeps about itself.
+ */
+public class HubMetricsTest {
+
+    @Test
+    public void getMetrics_notEnabled_null() {
+        assertNull(new AppAnalyticsHub().getMetrics());
+    }
+
+    @Test
+    public void getMetrics_countsRecordedDroppedAndFanOut() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        hub.enableMetrics(new MetricsConfig());
+        hub.addCollectorToEventType(EventType.ENGAGEMENT, new ListCollector("first"));
+        hub.addCollectorToEventType(EventType.ENGAGEMENT, new ListCollector("second"));
+        hub.setSamplingPolicy(EventType.OPERATIONAL.name(), SamplingPolicy.probabilistic(0));
+
+        for (int i = 0; i < 3; i++) {
+            hub.recordEvent(newEvent(EventType.ENGAGEMENT));
+        }
+        hub.recordEvent(newEvent(EventType.OPERATIONAL));
+        hub.recordEvent(new Event("Purchase", "app", "UNROUTED"));
+
+        HubMetrics metrics = hub.getMetrics();
+        EventTypeMetrics engagement = metrics.getEventTypeMetrics(EventType.ENGAGEMENT.name());
+        assertEquals(3, engagement.getRecordedCount());
+        assertEquals(3, engagement.getFannedOutCount());
+        assertEquals(6, engagement.getDeliveryCount());
+        assertEquals(2, engagement.getAverageFanOut(), 0);
+        assertEquals(0, engagement.getDroppedCount());
+        assertEquals(1, metrics.getEventTypeMetrics(EventType.OPERATIONAL.name()).getDroppedCount());
+        assertEquals(1, metrics.getEventTypeMetrics("UNROUTED").getDroppedCount());
+
+        CollectorMetrics first = metrics.getCollectorMetrics("first");
+        assertEquals(3, first.getDeliveredCount());
+        assertEquals(0, first.getFailedCount());
+        assertEquals(3, first.getRecordEventTime().getCount());
+        assertEquals(3, hub.getMetrics().getEventTypeMetrics(EventType.ENGAGEMENT.name()).getRecordedCount());
+    }
+
+    @Test
+    public void getMetrics_collectorFailure_counted() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        hub.enableMetrics(new MetricsConfig().setStripes(2));
+        hub.addCollectorToEventType(EventType.ENGAGEMENT, new AnalyticsCollector() {
+            @Override
+            public String getName() {
+                return "failing";
+            }
+
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                throw new IllegalStateException("Collector failure.");
+            }
+        });
+
+        hub.recordEvent(newEvent(EventType.ENGAGEMENT));
+
+        CollectorMetrics failing = hub.getMetrics().getCollectorMetrics("failing");
+        assertEquals(0, failing.getDeliveredCount());
+        assertEquals(1, failing.getFailedCount());
+    }
+
+    @Test
+    public void enableMetrics_withEmitInterval_recordsOperationalEvent() throws InterruptedException {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        ListCollector engagement = new ListCollector("engagement");
+        ListCollector operational = new ListCollector("operational");
+        hub.addCollectorToEventType(EventType.ENGAGEMENT, engagement);
+        hub.addCollectorToEventType(EventType.OPERATIONAL, operational);
+        hub.enableMetrics(new MetricsConfig().setEmitIntervalMillis(20));
+
+        hub.recordEvent(newEvent(EventType.ENGAGEMENT));
+        hub.recordEvent(newEvent(EventType.ENGAGEMENT));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (operational.events.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        hub.disableMetrics();
+
+        Event emitted = operational.events.get(0);
+        assertEquals(MetricsConfig.METRICS_EVENT_NAME, emitted.getName());
+        assertEquals(2, emitted.getCounters().get("ENGAGEMENT.recordedCount"), 0);
+        assertEquals(2, emitted.getCounters().get("engagement.deliveredCount"), 0);
+        assertEquals(2, emitted.getTimerHistograms().get("engagement.recordEventTime").getCount());
+        assertNull(hub.getMetrics());
+    }
+
+    @Test
+    public void recordEventTime_measuresTheCollector() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        hub.enableMetrics(new MetricsConfig());
+        hub.addCollectorToEventType(EventType.ENGAGEMENT, new AnalyticsCollector() {
+            @Override
+            public String getName() {
+                return "slow";
+            }
+
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        hub.recordEvent(newEvent(EventType.ENGAGEMENT));
+
+        HistogramSnapshot time = hub.getMetrics().getCollectorMetrics("slow").getRecordEventTime();
+        assertTrue(time.getMin(TimeUnit.MILLISECONDS) >= 1.5);
+    }
+
+    private static Event newEvent(EventType eventType) {
+        return new Event("Tap", "app", eventType.name());
+    }
+
+    private static class ListCollector implements AnalyticsCollector {
+
+        private final String name;
+        private final List<Event> events = Collections.synchronizedList(new ArrayList<Event>());
+
+        ListCollector(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void recordEvent(@NonNull Event event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link IsolatedCollector} and the failure containment of {@link AppAnalyticsHub}.
+ */
+public class IsolatedCollectorTest {
+
+    @Test
+    public void recordEvent_throwingCollector_otherCollectorsStillReceive() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        RecordingCollector recording = new RecordingCollector("recording");
+        hub.addCollectorToEventType(EventType.OPERATIONAL, new ThrowingCollector("a-throwing"));
+        hub.addCollectorToEventType(EventType.OPERATIONAL, recording);
+        hub.addCollectorToEventType(EventType.OPERATIONAL, new ThrowingCollector("z-throwing"));
+        hub.recordEvent(newEvent());
+        assertEquals(1, recording.events.size());
+    }
+
+    @Test
+    public void recordEvent_blockedCollector_doesNotBlockRecordingThread() throws InterruptedException {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        AnalyticsCollector blocking = new RecordingCollector("blocking") {
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.recordEvent(event);
+            }
+        };
+        RecordingCollector recording = new RecordingCollector("recording");
+        hub.addCollectorToEventType(EventType.OPERATIONAL, blocking);
+        hub.addCollectorToEventType(EventType.OPERATIONAL, recording);
+        hub.enableIsolation(blocking, new IsolationConfig().setQueueCapacity(4));
+        hub.recordEvent(newEvent());
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 9; i++) {
+            hub.recordEvent(newEvent());
+        }
+        assertEquals(10, recording.events.size());
+        CollectorStats stats = hub.getCollectorStats("blocking");
+        assertEquals(4, stats.getQueueDepth());
+        assertEquals(5, stats.getDroppedCount());
+
+        release.countDown();
+        hub.disableIsolation("blocking", 1000);
+        assertEquals(5, ((RecordingCollector) blocking).events.size());
+        assertNull(hub.getCollectorStats("blocking"));
+    }
+
+    @Test
+    public void recordEvent_failingCollector_opensCircuitThenRetries() throws InterruptedException {
+        ThrowingCollector throwing = new ThrowingCollector("throwing");
+        IsolatedCollector isolator = new IsolatedCollector(throwing,
+                new IsolationConfig().setFailureThreshold(2).setOpenMillis(200));
+        isolator.recordEvent(newEvent());
+        isolator.recordEvent(newEvent());
+        awaitCalls(throwing, 2);
+        isolator.recordEvent(newEvent());
+        CollectorStats stats = isolator.getStats();
+        assertTrue(stats.isCircuitOpen());
+        assertEquals(2, stats.getFailedCount());
+        assertEquals(1, stats.getDroppedCount());
+
+        Thread.sleep(250);
+        isolator.recordEvent(newEvent());
+        awaitCalls(throwing, 3);
+        assertTrue(isolator.getStats().isCircuitOpen());
+        isolator.shutdown(1000);
+    }
+
+    @Test
+    public void recordEvent_stuckCollector_opensCircuit() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        RecordingCollector stuck = new RecordingCollector("stuck") {
+            @Override
+            public void recordEvent(@NonNull Event event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        IsolatedCollector isolator = new IsolatedCollector(stuck, new IsolationConfig().setTimeoutMillis(50));
+        isolator.recordEvent(newEvent());
+        Thread.sleep(100);
+        isolator.recordEvent(newEvent());
+        CollectorStats stats = isolator.getStats();
+        assertTrue(stats.isCircuitOpen());
+        assertEquals(1, stats.getTimedOutCount());
+        release.countDown();
+        isolator.shutdown(1000);
+        assertEquals(1, isolator.getStats().getDeliveredCount());
+    }
+
+    @Test
+    public void recordEvent_circuitOpen_releasesOnlyHeldEvents() throws InterruptedException {
+        ThrowingCollector throwing = new ThrowingCollector("throwing");
+        IsolatedCollector isolator = new IsolatedCollector(throwing,
+                new IsolationConfig().setFailureThreshold(1).setOpenMillis(60000));
+        final List<Event> released = new ArrayList<>();
+        isolator.setDeliveryTarget(throwing, new JournalCheckpointer(throwing, null) {
+            @Override
+            void hold(@NonNull Event event) {
+            }
+
+            @Override
+            void release(@NonNull Event event) {
+                released.add(event);
+            }
+        });
+        isolator.recordEvent(newEvent());
+        awaitCalls(throwing, 1);
+        assertTrue(isolator.getStats().isCircuitOpen());
+
+        // a single event was never held, the events of a batch are held by the batcher.
+        isolator.recordEvent(newEvent());
+        List<Event> batch = Arrays.asList(newEvent(), newEvent());
+        isolator.recordEvents(batch);
+        assertEquals(batch, released);
+        assertEquals(2, isolator.getStats().getDroppedCount());
+        isolator.shutdown(1000);
+    }
+
+    private static void awaitCalls(ThrowingCollector collector, int calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (collector.calls < calls) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+        Thread.sleep(20);
+    }
+
+    private static Event newEvent() {
+        return new Event("event", null, EventType.OPERATIONAL.name());
+    }
+
+    private static class RecordingCollector implements AnalyticsCollector {
+        final List<Event> events = Collections.synchronizedList(new ArrayList<Event>());
+        private final String name;
+
+        RecordingCollector(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void recordEvent(@NonNull Event event) {
+            events.add(event);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static class ThrowingCollector implements AnalyticsCollector {
+        volatile int calls;
+        private final String name;
+
+        ThrowingCollector(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void recordEvent(@NonNull Event event) {
+            calls++;
+            throw new IllegalStateException("failing collector");
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
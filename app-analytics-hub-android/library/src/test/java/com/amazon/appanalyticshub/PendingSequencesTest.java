@@ -0,0 +1,70 @@
+package com.amazon.appanalyticshub;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link PendingSequences}.
+ */
+public class PendingSequencesTest {
+
+    @Test
+    public void randomOperations_matchTreeSet() {
+        Random random = new Random(42);
+        PendingSequences sequences = new PendingSequences();
+        TreeSet<Long> expected = new TreeSet<>();
+        long next = 0;
+        for (int i = 0; i < 20000; i++) {
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    // mostly increasing, sometimes a little behind like a late hold.
+                    long added = Math.max(0, next - random.nextInt(3));
+                    next++;
+                    sequences.add(added);
+                    expected.add(added);
+                    break;
+                case 2:
+                    if (!expected.isEmpty()) {
+                        long first = expected.first();
+                        assertTrue(sequences.remove(first));
+                        expected.remove(first);
+                    }
+                    break;
+                default:
+                    long removed = Math.max(0, next - random.nextInt(40));
+                    assertEquals(expected.remove(removed), sequences.remove(removed));
+                    break;
+            }
+            assertEquals(expected.size(), sequences.size());
+            assertEquals(expected.isEmpty() ? -1 : expected.first(), sequences.first(-1));
+        }
+    }
+
+    @Test
+    public void remove_notPending_hasNoEffect() {
+        PendingSequences sequences = new PendingSequences();
+        assertFalse(sequences.remove(3));
+        sequences.add(5);
+        assertFalse(sequences.remove(3));
+        assertTrue(sequences.remove(5));
+        assertFalse(sequences.remove(5));
+        assertTrue(sequences.isEmpty());
+        assertEquals(7, sequences.first(7));
+    }
+
+    @Test
+    public void add_pending_hasNoEffect() {
+        PendingSequences sequences = new PendingSequences();
+        sequences.add(1);
+        sequences.add(2);
+        sequences.add(1);
+        assertEquals(2, sequences.size());
+        assertTrue(sequences.remove(1));
+        assertEquals(2, sequences.first(-1));
+    }
+}
@@ -0,0 +1,125 @@
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link RoutingSpec} and its use by {@link AppAnalyticsHub}.
+ */
+public class RoutingSpecTest {
+
+    @Test
+    public void setRouting_routesExactAndPrefixEventTypes() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        ListCollector exact = new ListCollector("exact");
+        ListCollector playback = new ListCollector("playback");
+        ListCollector start = new ListCollector("start");
+        ListCollector fallback = new ListCollector("fallback");
+        hub.setRouting(new RoutingSpec()
+                .addCollector(exact).addCollector(playback).addCollector(start).addCollector(fallback)
+                .addRoute("PLAYBACK_START_LIVE", "exact")
+                .addRoute("PLAYBACK_*", "playback")
+                .addRoute("PLAYBACK_START*", "start")
+                .setDefaultCollector("fallback"));
+
+        hub.recordEvent(newEvent("PLAYBACK_START_LIVE"));
+        hub.recordEvent(newEvent("PLAYBACK_START_VOD"));
+        hub.recordEvent(newEvent("PLAYBACK_STOP"));
+        hub.recordEvent(newEvent("NAVIGATION"));
+
+        assertEquals(Collections.singletonList("PLAYBACK_START_LIVE"), exact.eventTypes);
+        assertEquals(Arrays.asList("PLAYBACK_START_LIVE", "PLAYBACK_START_VOD", "PLAYBACK_STOP"),
+                playback.eventTypes);
+        assertEquals(Arrays.asList("PLAYBACK_START_LIVE", "PLAYBACK_START_VOD"), start.eventTypes);
+        assertEquals(4, fallback.eventTypes.size());
+    }
+
+    @Test
+    public void setRouting_replacesPreviousRoutes() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        ListCollector previous = new ListCollector("previous");
+        hub.addCollectorToEventType(EventType.ENGAGEMENT, previous);
+        ListCollector loaded = new ListCollector("loaded");
+        Map<String, List<String>> routes = new HashMap<>();
+        routes.put(EventType.OPERATIONAL.name(), Arrays.asList("loaded", "previous"));
+
+        hub.setRouting(new RoutingSpec().addCollector(loaded).addRoutes(routes));
+        hub.recordEvent(newEvent(EventType.ENGAGEMENT.name()));
+        hub.recordEvent(newEvent(EventType.OPERATIONAL.name()));
+
+        assertEquals(Collections.singletonList(EventType.OPERATIONAL.name()), previous.eventTypes);
+        assertEquals(Collections.singletonList(EventType.OPERATIONAL.name()), loaded.eventTypes);
+        assertTrue(hub.getCollectors(EventType.ENGAGEMENT).isEmpty());
+        assertEquals(2, hub.getCollectors(EventType.OPERATIONAL).size());
+    }
+
+    @Test
+    public void setRouting_invalidSpec_leavesRoutingUnchanged() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        ListCollector previous = new ListCollector("previous");
+        hub.addCollectorToEventType(EventType.ENGAGEMENT, previous);
+
+        try {
+            hub.setRouting(new RoutingSpec().addRoute(EventType.ENGAGEMENT, "missing"));
+            fail("Unknown collector accepted.");
+        } catch (IllegalArgumentException expected) {
+            // The spec is rejected before any change.
+        }
+        try {
+            hub.setRouting(new RoutingSpec().addRoute("PLAYBACK_*", "previous")
+                    .setDefaultCollector("missing"));
+            fail("Unknown default collector accepted.");
+        } catch (IllegalArgumentException expected) {
+            // The spec is rejected before any change.
+        }
+        hub.recordEvent(newEvent(EventType.ENGAGEMENT.name()));
+
+        assertEquals(1, previous.eventTypes.size());
+    }
+
+    @Test
+    public void addCollectorToEventType_prefixRoute_matchesEventTypes() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        ListCollector playback = new ListCollector("playback");
+        hub.addCollectorToEventType("PLAYBACK_*", playback);
+
+        hub.recordEvent(newEvent("PLAYBACK_START"));
+        hub.recordEvent(newEvent("NAVIGATION"));
+
+        assertEquals(Collections.singletonList("PLAYBACK_START"), playback.eventTypes);
+    }
+
+    private static Event newEvent(String eventType) {
+        return new Event("Event", "app", eventType);
+    }
+
+    private static class ListCollector implements AnalyticsCollector {
+
+        private final String name;
+        private final List<String> eventTypes = new ArrayList<>();
+
+        ListCollector(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void recordEvent(@NonNull Event event) {
+            eventTypes.add(event.getEventType());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link RoutingTable} and {@link EventTypeMatcher}.
+ */
+public class RoutingTableTest {
+
+    @Test
+    public void match_wildcardsAnywhere() {
+        EventTypeMatcher matcher = new EventTypeMatcher(new String[]{
+                "PLAYBACK_*", "*_ERROR", "PLAYBACK_*_LIVE", "*", "PLAYBACK_STOP", "A**B"});
+
+        assertMatches(matcher.match("PLAYBACK_START_LIVE"), 0, 2, 3);
+        assertMatches(matcher.match("PLAYBACK_ERROR"), 0, 1, 3);
+        assertMatches(matcher.match("PLAYBACK_STOP"), 0, 3, 4);
+        assertMatches(matcher.match("PLAYBACK_"), 0, 3);
+        assertMatches(matcher.match("AB"), 3, 5);
+        assertMatches(matcher.match("AxyzB"), 3, 5);
+        assertMatches(matcher.match(""), 3);
+    }
+
+    @Test(timeout = 5000)
+    public void match_manyWildcards_doesNotBacktrackExponentially() {
+        EventTypeMatcher matcher = new EventTypeMatcher(new String[]{"*A*A*A*A*A*A*A*A*A*A*B", "*A"});
+        StringBuilder eventType = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            eventType.append('A');
+        }
+        assertMatches(matcher.match(eventType.toString()), 1);
+        assertMatches(matcher.match(eventType.append('B').toString()), 0);
+    }
+
+    @Test
+    public void route_mergesExactAndPatternRoutes() {
+        Map<String, Set<String>> routes = new HashMap<>();
+        routes.put("PLAYBACK_START", names("exact"));
+        routes.put("PLAYBACK_*", names("playback"));
+        routes.put("*_ERROR", names("errors"));
+        RoutingTable table = RoutingTable.build(routes,
+                targets("exact", "playback", "errors", "default"), new NamedCollector("default"));
+
+        assertEquals(Arrays.asList("exact", "playback", "default"), namesOf(table.route("PLAYBACK_START")));
+        assertEquals(Arrays.asList("errors", "playback", "default"), namesOf(table.route("PLAYBACK_ERROR")));
+        assertEquals(Arrays.asList("errors", "default"), namesOf(table.route("NETWORK_ERROR")));
+        assertEquals(Collections.singletonList("default"), namesOf(table.route("NAVIGATION")));
+    }
+
+    @Test
+    public void route_memoizesResolvedEventTypes() {
+        Map<String, Set<String>> routes = new HashMap<>();
+        routes.put("PLAYBACK_*", names("playback"));
+        RoutingTable table = RoutingTable.build(routes, targets("playback"), null);
+
+        AnalyticsCollector[] first = table.route("PLAYBACK_STOP");
+        assertSame(first, table.route("PLAYBACK_STOP"));
+        assertEquals(0, table.route("NAVIGATION").length);
+        assertEquals(2, table.getMemoizedCount());
+
+        for (int i = 0; i < RoutingTable.MAX_MEMOIZED_EVENT_TYPES * 2; i++) {
+            assertEquals(1, table.route("PLAYBACK_" + i).length);
+        }
+        assertTrue(table.getMemoizedCount() <= RoutingTable.MAX_MEMOIZED_EVENT_TYPES);
+        // Event types seen after the memo filled up are still memoized.
+        AnalyticsCollector[] late = table.route("PLAYBACK_LATE");
+        assertSame(late, table.route("PLAYBACK_LATE"));
+    }
+
+    @Test
+    public void route_memoFull_keepsEventTypesLookedUpSinceLastPass() {
+        Map<String, Set<String>> routes = new HashMap<>();
+        routes.put("PLAYBACK_*", names("playback"));
+        RoutingTable table = RoutingTable.build(routes, targets("playback"), null);
+
+        AnalyticsCollector[] hot = table.route("PLAYBACK_HOT");
+        for (int i = 0; i < RoutingTable.MAX_MEMOIZED_EVENT_TYPES * 3; i++) {
+            table.route("PLAYBACK_" + i);
+            if (i % 100 == 0) {
+                assertSame(hot, table.route("PLAYBACK_HOT"));
+            }
+        }
+        assertEquals(RoutingTable.MAX_MEMOIZED_EVENT_TYPES, table.getMemoizedCount());
+        assertSame(hot, table.route("PLAYBACK_HOT"));
+    }
+
+    @Test
+    public void getCollectors_patternRoute_matchesRoutedCollectors() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        NamedCollector exact = new NamedCollector("exact");
+        NamedCollector playback = new NamedCollector("playback");
+        hub.addCollectorToEventType("PLAYBACK_START", exact);
+        hub.addCollectorToEventType("PLAYBACK_*", playback);
+
+        assertEquals(Arrays.asList("exact", "playback"), namesOf(hub.getCollectors("PLAYBACK_START")));
+        assertEquals(Collections.singletonList("playback"), namesOf(hub.getCollectors("PLAYBACK_STOP")));
+        assertTrue(hub.getCollectors("NAVIGATION").isEmpty());
+    }
+
+    @Test
+    public void route_afterRoutesChange_notServedFromMemo() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        NamedCollector playback = new NamedCollector("playback");
+        NamedCollector stops = new NamedCollector("stops");
+        hub.addCollectorToEventType("PLAYBACK_*", playback);
+        hub.recordEvent(new Event("Stop", null, "PLAYBACK_STOP"));
+
+        hub.addCollectorToEventType("*_STOP", stops);
+        hub.recordEvent(new Event("Stop", null, "PLAYBACK_STOP"));
+        hub.removeCollectorFromEventType("PLAYBACK_*", playback);
+        hub.recordEvent(new Event("Stop", null, "PLAYBACK_STOP"));
+
+        assertEquals(2, playback.recordedCount);
+        assertEquals(2, stops.recordedCount);
+    }
+
+    private static void assertMatches(boolean[] matched, int... expected) {
+        boolean[] expectedMatches = new boolean[matched.length];
+        for (int index : expected) {
+            expectedMatches[index] = true;
+        }
+        assertArrayEquals(expectedMatches, matched);
+    }
+
+    private static Set<String> names(String... names) {
+        return new LinkedHashSet<>(Arrays.asList(names));
+    }
+
+    private static Map<String, AnalyticsCollector> targets(String... names) {
+        Map<String, AnalyticsCollector> targets = new HashMap<>();
+        for (String name : names) {
+            targets.put(name, new NamedCollector(name));
+        }
+        return targets;
+    }
+
+    private static List<String> namesOf(AnalyticsCollector[] route) {
+        return namesOf(Arrays.asList(route));
+    }
+
+    private static List<String> namesOf(List<AnalyticsCollector> collectors) {
+        List<String> names = new ArrayList<>();
+        for (AnalyticsCollector collector : collectors) {
+            names.add(collector.getName());
+        }
+        return names;
+    }
+
+    private static class NamedCollector implements AnalyticsCollector {
+
+        private final String name;
+        private int recordedCount;
+
+        NamedCollector(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void recordEvent(@NonNull Event event) {
+            recordedCount++;
+        }
+    }
+}
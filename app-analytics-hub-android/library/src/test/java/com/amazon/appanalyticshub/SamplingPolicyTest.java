@@ -0,0 +1,122 @@
+package com.amazon.appanalyticshub;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link SamplingPolicy} and its use by {@link AppAnalyticsHub}.
+ */
+public class SamplingPolicyTest {
+
+    @Test
+    public void probabilistic_keepsAboutTheRate() {
+        SamplingPolicy policy = SamplingPolicy.probabilistic(0.25);
+        int kept = 0;
+        for (int i = 0; i < 10000; i++) {
+            double rate = policy.apply(newEvent(Priority.NORMAL));
+            if (rate > 0) {
+                assertEquals(0.25, rate, 0);
+                kept++;
+            }
+        }
+        assertEquals(2500, kept, 300);
+    }
+
+    @Test
+    public void byDataHash_sameValue_sameDecision() {
+        SamplingPolicy policy = SamplingPolicy.byDataHash("session", 0.5);
+        int keptSessions = 0;
+        for (int session = 0; session < 1000; session++) {
+            Event event = newEvent(Priority.NORMAL).addData("session", "session-" + session);
+            double first = policy.apply(event);
+            for (int i = 0; i < 5; i++) {
+                assertEquals(first, policy.apply(event), 0);
+            }
+            if (first > 0) {
+                keptSessions++;
+            }
+        }
+        assertEquals(500, keptSessions, 100);
+    }
+
+    @Test
+    public void rateLimit_keepsBurstThenDrops() {
+        SamplingPolicy policy = SamplingPolicy.rateLimit(1, 3);
+        assertEquals(1, policy.apply(newEvent(Priority.NORMAL)), 0);
+        assertTrue(policy.apply(newEvent(Priority.NORMAL)) > 0);
+        assertTrue(policy.apply(newEvent(Priority.NORMAL)) > 0);
+        assertEquals(0, policy.apply(newEvent(Priority.NORMAL)), 0);
+        assertEquals(0, policy.apply(newEvent(Priority.NORMAL)), 0);
+    }
+
+    @Test
+    public void apply_criticalEvent_exemptByDefault() {
+        SamplingPolicy policy = SamplingPolicy.probabilistic(0);
+        assertEquals(1, policy.apply(newEvent(Priority.CRITICAL)), 0);
+        assertEquals(0, policy.apply(newEvent(Priority.NORMAL)), 0);
+        policy.setExemptCritical(false);
+        assertEquals(0, policy.apply(newEvent(Priority.CRITICAL)), 0);
+    }
+
+    @Test
+    public void recordEvent_eventTypeAndCollectorPolicies() {
+        AppAnalyticsHub hub = new AppAnalyticsHub();
+        RecordingCollector all = new RecordingCollector("all");
+        RecordingCollector none = new RecordingCollector("none");
+        hub.addCollectorToEventType(EventType.OPERATIONAL, all);
+        hub.addCollectorToEventType(EventType.OPERATIONAL, none);
+        hub.setSamplingPolicy(EventType.OPERATIONAL.name(), SamplingPolicy.byDataHash("session", 1));
+        hub.setCollectorSamplingPolicy("none", SamplingPolicy.probabilistic(0));
+
+        hub.recordEvent(newEvent(Priority.NORMAL).addData("session", "a"));
+        hub.recordEvent(newEvent(Priority.CRITICAL));
+        assertEquals(2, all.events.size());
+        assertEquals(1, all.events.get(0).getSampleRate(), 0);
+        assertEquals(1, none.events.size());
+
+        hub.setSamplingPolicy(EventType.OPERATIONAL.name(), SamplingPolicy.probabilistic(0));
+        hub.setCollectorSamplingPolicy("none", null);
+        hub.recordEvent(newEvent(Priority.NORMAL));
+        assertEquals(2, all.events.size());
+    }
+
+    @Test
+    public void codec_roundTripsSampleRate() {
+        Event event = newEvent(Priority.NORMAL);
+        event.setSampleRate(0.125);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        new EventEncoder().encode(event, buffer);
+        buffer.flip();
+        assertEquals(0.125, new EventDecoder().decode(buffer).getSampleRate(), 0);
+    }
+
+    private static Event newEvent(Priority priority) {
+        return new Event("event", null, EventType.OPERATIONAL.name(), priority);
+    }
+
+    private static class RecordingCollector implements AnalyticsCollector {
+        final List<Event> events = new ArrayList<>();
+        private final String name;
+
+        RecordingCollector(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void recordEvent(@NonNull Event event) {
+            events.add(event);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.amazon.appanalyticshub;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link TimerHistogram} and {@link HistogramSnapshot}.
+ */
+public class TimerHistogramTest {
+
+    @Test
+    public void indexOf_bucketsAreContiguous() {
+        int precisionBits = 4;
+        for (int index = 0; index < 200; index++) {
+            long lower = TimerHistogram.lowerBoundOf(index, precisionBits);
+            long width = TimerHistogram.widthOf(index, precisionBits);
+            assertEquals(index, TimerHistogram.indexOf(lower, precisionBits));
+            assertEquals(index, TimerHistogram.indexOf(lower + width - 1, precisionBits));
+            assertEquals(index + 1, TimerHistogram.indexOf(lower + width, precisionBits));
+        }
+    }
+
+    @Test
+    public void getValueAtPercentile_uniformDurations_withinPrecision() {
+        TimerHistogram histogram = new TimerHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis, TimeUnit.MILLISECONDS);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500, snapshot.getValueAtPercentile(50, TimeUnit.MILLISECONDS), 500 * 0.02);
+        assertEquals(990, snapshot.getValueAtPercentile(99, TimeUnit.MILLISECONDS), 990 * 0.02);
+        assertEquals(1, snapshot.getMin(TimeUnit.MILLISECONDS), 0);
+        assertEquals(1000, snapshot.getMax(TimeUnit.MILLISECONDS), 0);
+        assertEquals(500.5, snapshot.getMean(TimeUnit.MILLISECONDS), 1e-9);
+    }
+
+    @Test
+    public void recordNanos_aboveHighestTrackable_countedInLastBucket() {
+        TimerHistogram histogram = new TimerHistogram(1, 1000, 4);
+        histogram.recordNanos(1_000_000);
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(1, snapshot.getCountAtBucket(snapshot.getBucketCount() - 1));
+        assertEquals(1_000_000, snapshot.getMax(TimeUnit.NANOSECONDS), 0);
+    }
+
+    @Test
+    public void snapshotAndReset_startsNewInterval() {
+        TimerHistogram histogram = new TimerHistogram();
+        histogram.record(5, TimeUnit.MILLISECONDS);
+        HistogramSnapshot first = histogram.snapshotAndReset();
+        histogram.record(7, TimeUnit.MILLISECONDS);
+        HistogramSnapshot second = histogram.snapshotAndReset();
+        assertEquals(1, first.getCount());
+        assertEquals(1, second.getCount());
+        assertEquals(0, histogram.snapshot().getCount());
+
+        HistogramSnapshot merged = first.merge(second);
+        assertEquals(2, merged.getCount());
+        assertEquals(5, merged.getMin(TimeUnit.MILLISECONDS), 0);
+        assertEquals(7, merged.getMax(TimeUnit.MILLISECONDS), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void merge_differentLayouts_throws() {
+        new TimerHistogram(1, 1000, 4).snapshot().merge(new TimerHistogram(1, 1000, 5).snapshot());
+    }
+
+    @Test
+    public void timerMetric_withHistogram_recordsEverySession() {
+        final long[] now = new long[1];
+        MonotonicClock clock = new MonotonicClock() {
+            @Override
+            public long nanoTime() {
+                return now[0];
+            }
+        };
+        Event event = new Event("Render", null, EventType.OPERATIONAL.name());
+        TimerMetric timer = new TimerMetric("draw", event, clock, TimeUnit.MILLISECONDS)
+                .setHistogram(new TimerHistogram());
+        for (int session = 1; session <= 3; session++) {
+            timer.startTimer();
+            now[0] += TimeUnit.MILLISECONDS.toNanos(session);
+            timer.stopTimer();
+        }
+        timer.startTimer();
+        timer.recordTimer();
+
+        HistogramSnapshot snapshot = event.getTimerHistograms().get("draw");
+        assertEquals(4, snapshot.getCount());
+        assertEquals(3, snapshot.getMax(TimeUnit.MILLISECONDS), 0);
+        assertEquals(6, event.getTimers().get("draw"), 1e-9);
+    }
+
+    @Test
+    public void codec_roundTripsHistograms() {
+        TimerHistogram histogram = new TimerHistogram();
+        for (int micros = 10; micros < 100_000; micros *= 3) {
+            histogram.record(micros, TimeUnit.MICROSECONDS);
+        }
+        Event event = new Event("Render", null, EventType.OPERATIONAL.name())
+                .addTimerHistogram("draw", histogram.snapshot());
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        new EventEncoder().encode(event, buffer);
+        buffer.flip();
+
+        HistogramSnapshot decoded = new EventDecoder().decode(buffer).getTimerHistograms().get("draw");
+        HistogramSnapshot original = event.getTimerHistograms().get("draw");
+        assertEquals(original.getCount(), decoded.getCount());
+        assertEquals(original.getMean(TimeUnit.NANOSECONDS), decoded.getMean(TimeUnit.NANOSECONDS), 0);
+        assertEquals(original.getValueAtPercentile(90, TimeUnit.NANOSECONDS),
+                decoded.getValueAtPercentile(90, TimeUnit.NANOSECONDS), 0);
+        assertFalse(buffer.hasRemaining());
+    }
+}
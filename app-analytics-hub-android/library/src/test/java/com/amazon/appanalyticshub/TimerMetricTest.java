@@ -0,0 +1,63 @@
+package com.amazon.appanalyticshub;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link TimerMetric} driven by a manual clock.
+ */
+public class TimerMetricTest {
+
+    @Test
+    public void recordTimer_subMillisecondSessions_keepsFraction() {
+        ManualClock clock = new ManualClock();
+        Event event = new Event("Render", null, EventType.OPERATIONAL.name());
+        TimerMetric timer = new TimerMetric("draw", event, clock, TimeUnit.MILLISECONDS);
+        timer.startTimer();
+        clock.advance(250, TimeUnit.MICROSECONDS);
+        timer.stopTimer();
+        timer.startTimer();
+        clock.advance(500, TimeUnit.MICROSECONDS);
+        timer.recordTimer();
+        assertEquals(0.75, event.getTimers().get("draw"), 1e-9);
+    }
+
+    @Test
+    public void startTimer_atClockReadingZero_isRunning() {
+        ManualClock clock = new ManualClock();
+        TimerMetric timer = new TimerMetric("draw", null, clock, TimeUnit.NANOSECONDS);
+        timer.startTimer();
+        clock.advance(10, TimeUnit.NANOSECONDS);
+        timer.stopTimer();
+        assertEquals(10, timer.getTotalTime(), 0);
+    }
+
+    @Test
+    public void recordTimerInEvents_recordsInConfiguredUnit() {
+        ManualClock clock = new ManualClock();
+        Event first = new Event("first", null, EventType.OPERATIONAL.name());
+        Event second = new Event("second", null, EventType.OPERATIONAL.name());
+        TimerMetric timer = new TimerMetric("load", null, clock, TimeUnit.SECONDS);
+        timer.startTimer();
+        clock.advance(1500, TimeUnit.MILLISECONDS);
+        timer.recordTimerInEvents(first, second);
+        assertEquals(1.5, first.getTimers().get("load"), 1e-9);
+        assertEquals(1.5, second.getTimers().get("load"), 1e-9);
+    }
+
+    private static class ManualClock implements MonotonicClock {
+        private long now;
+
+        void advance(long duration, TimeUnit unit) {
+            now += unit.toNanos(duration);
+        }
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+    }
+}
@@ -6,26 +6,42 @@
 package com.amazon.appanalyticshub.reactlibrary;
 
 import android.support.annotation.NonNull;
-import android.support.annotation.Nullable;
 import android.text.TextUtils;
 import android.util.Log;
 
 import com.amazon.appanalyticshub.AnalyticsHub;
-import com.amazon.appanalyticshub.Event;
-import com.amazon.appanalyticshub.Priority;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
-import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.ReadableType;
 
 public class AppAnalyticsHubReactNativeModule extends ReactContextBaseJavaModule {
 
     private final AnalyticsHub analyticsHub;
+    private final RecordingConfig recordingConfig;
+    private final RecordingWorker recordingWorker;
 
     public AppAnalyticsHubReactNativeModule(ReactApplicationContext reactContext, @NonNull AnalyticsHub analyticsHub) {
+        this(reactContext, analyticsHub, new RecordingConfig());
+    }
+
+    /**
+     * Creates the module, recording the events sent by JS on a worker thread configured by the
+     * given config.
+     *
+     * @param reactContext    of the application.
+     * @param analyticsHub    to record the events in.
+     * @param recordingConfig of the worker thread.
+     */
+    public AppAnalyticsHubReactNativeModule(ReactApplicationContext reactContext, @NonNull AnalyticsHub analyticsHub,
+                                            @NonNull RecordingConfig recordingConfig) {
         super(reactContext);
         this.analyticsHub = analyticsHub;
+        this.recordingConfig = recordingConfig;
+        this.recordingWorker = new RecordingWorker(analyticsHub, recordingConfig);
+        this.recordingWorker.start();
     }
 
     @Override
@@ -35,14 +51,52 @@ public class AppAnalyticsHubReactNativeModule extends ReactContextBaseJavaModule
 
     @ReactMethod
     public void recordEvent(ReadableMap readableMap) {
+        long start = System.nanoTime();
         if (readableMap != null) {
-            Event event = convertReadableMapToEvent(readableMap);
-            if (event != null) {
-                analyticsHub.recordEvent(event);
-            }
+            recordingWorker.submit(readableMap);
         } else {
             Log.w(Constants.TAG, "Cannot record a NULL event");
         }
+        recordingWorker.bridgeCallFinished(start);
+    }
+
+    /**
+     * Records a batch of events coalesced on the JS side, so that a burst of events costs a
+     * single bridge call.
+     *
+     * @param readableArray of events, each in the format of {@link #recordEvent(ReadableMap)}.
+     */
+    @ReactMethod
+    public void recordEvents(ReadableArray readableArray) {
+        if (readableArray == null) {
+            Log.w(Constants.TAG, "Cannot record a NULL batch of events");
+            return;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < readableArray.size(); i++) {
+            if (readableArray.getType(i) == ReadableType.Map) {
+                recordingWorker.submit(readableArray.getMap(i));
+            } else {
+                Log.w(Constants.TAG, "Cannot record a non map event at index " + i + " of the batch");
+            }
+        }
+        recordingWorker.bridgeCallFinished(start);
+    }
+
+    /**
+     * Gets a snapshot of the worker recording the events sent by JS, including the events it
+     * dropped and how long the bridge calls recording events held the native modules thread.
+     *
+     * @return the recording stats.
+     */
+    @NonNull
+    public RecordingStats getRecordingStats() {
+        return recordingWorker.getStats();
+    }
+
+    @Override
+    public void onCatalystInstanceDestroy() {
+        recordingWorker.stop(recordingConfig.getShutdownTimeoutMillis());
     }
 
     @ReactMethod
@@ -66,104 +120,4 @@ public class AppAnalyticsHubReactNativeModule extends ReactContextBaseJavaModule
             Log.w(Constants.TAG, message);
         }
     }
-
-    /**
-     * Converts the Readable Map/JS Event to Event.class so that ARTNativeMetrics can record the
-     * event.
-     *
-     * @param readableMap to convert
-     * @return event
-     */
-    @Nullable
-    private Event convertReadableMapToEvent(ReadableMap readableMap) {
-        String name, source = "", eventType;
-        try {
-            name = readableMap.getString("name");
-        } catch (Exception e) {
-            Log.w(Constants.TAG, "Event Name does not exist, so unable to record event.");
-            return null;
-        }
-        try {
-            source = readableMap.getString("source");
-        } catch (Exception e) {
-            Log.w(Constants.TAG, "Source does not exist");
-        }
-        try {
-            eventType = readableMap.getString("eventType");
-        } catch (Exception e) {
-            eventType = Constants.UNKNOWN_TYPE;
-            Log.w(Constants.TAG, "Event Type does not exist");
-        }
-        Event event = new Event(name,
-                source,
-                eventType);
-        try {
-            event.setPriority(Priority.valueOf(readableMap.getString("priority")));
-        } catch (Exception e) {
-            Log.w(Constants.TAG, "Priority does not exist");
-        }
-
-        try {
-            ReadableMap dataReadableMap = readableMap.getMap("data");
-            if (dataReadableMap != null) {
-                ReadableMapKeySetIterator dataKeyIterator = dataReadableMap.keySetIterator();
-                while (dataKeyIterator.hasNextKey()) {
-                    String key = dataKeyIterator.nextKey();
-                    String value = dataReadableMap.getString(key);
-                    if (!TextUtils.isEmpty(value)) {
-                        event.addData(key, value);
-                    } else {
-                        Log.w(Constants.TAG, key + " data value provided is not a string.");
-                    }
-                }
-            }
-        } catch (Exception e) {
-            Log.w(Constants.TAG, "Data does not exist.");
-        }
-        try {
-            ReadableMap countersReadableMap = readableMap.getMap("counters");
-            if (countersReadableMap != null) {
-                ReadableMapKeySetIterator counterKeyIterator = countersReadableMap.keySetIterator();
-                while (counterKeyIterator.hasNextKey()) {
-                    String key = counterKeyIterator.nextKey();
-                    double value = countersReadableMap.getDouble(key);
-                    event.addCounter(key, value);
-                }
-            }
-        } catch (Exception e) {
-            Log.w(Constants.TAG, "Counters don't exist.");
-        }
-        try {
-            ReadableMap timersReadableMap = readableMap.getMap("timers");
-            if (timersReadableMap != null) {
-                ReadableMapKeySetIterator timerKeyIterator = timersReadableMap.keySetIterator();
-                while (timerKeyIterator.hasNextKey()) {
-                    String key = timerKeyIterator.nextKey();
-                    double value = timersReadableMap.getDouble(key);
-                    event.addTimer(key, value);
-                }
-            }
-        } catch (Exception e) {
-            Log.w(Constants.TAG, "Timers don't exist.");
-        }
-        try {
-            ReadableMap metricsReadableMap = readableMap.getMap("metrics");
-            if (metricsReadableMap != null) {
-                ReadableMapKeySetIterator timerKeyIterator = metricsReadableMap.keySetIterator();
-                while (timerKeyIterator.hasNextKey()) {
-                    String key = timerKeyIterator.nextKey();
-                    String value = metricsReadableMap.getString(key);
-                    if (!TextUtils.isEmpty(value)) {
-                        event.addMetric(key, value);
-                    } else {
-                        boolean bool = metricsReadableMap.getBoolean(key);
-                        event.addMetric(key, bool);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            Log.e(Constants.TAG, "Metrics don't exist.");
-        }
-        return event;
-    }
-}
\ No newline at end of file
+}
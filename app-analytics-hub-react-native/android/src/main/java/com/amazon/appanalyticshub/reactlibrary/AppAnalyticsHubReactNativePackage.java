@@ -18,15 +18,21 @@ import java.util.List;
 
 public class AppAnalyticsHubReactNativePackage implements ReactPackage {
     private final AnalyticsHub analyticsHub;
+    private final RecordingConfig recordingConfig;
 
     public AppAnalyticsHubReactNativePackage(AnalyticsHub analyticsHub) {
+        this(analyticsHub, new RecordingConfig());
+    }
+
+    public AppAnalyticsHubReactNativePackage(AnalyticsHub analyticsHub, RecordingConfig recordingConfig) {
         this.analyticsHub = analyticsHub;
+        this.recordingConfig = recordingConfig;
     }
 
 
     @Override
     public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
-        return Collections.<NativeModule>singletonList(new AppAnalyticsHubReactNativeModule(reactContext, analyticsHub));
+        return Collections.<NativeModule>singletonList(new AppAnalyticsHubReactNativeModule(reactContext, analyticsHub, recordingConfig));
     }
 
     // Deprecated from RN 0.47
@@ -0,0 +1,166 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.reactlibrary;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.amazon.appanalyticshub.Event;
+import com.amazon.appanalyticshub.EventFactory;
+import com.amazon.appanalyticshub.Priority;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.ReadableType;
+
+/**
+ * <p>
+ * Converts the events sent by JS to {@link Event}s. Every field is looked up once and its type
+ * checked before it is read, so that absent or optional fields do not throw, and each map of the
+ * event is read in a single pass over its keys. Events are taken from a pool and have to be
+ * given back with {@link #release(Event)} once recorded.
+ * </p>
+ */
+class ReadableMapEventConverter {
+
+    static final String NAME = "name";
+    static final String SOURCE = "source";
+    static final String EVENT_TYPE = "eventType";
+    static final String PRIORITY = "priority";
+    static final String DATA = "data";
+    static final String COUNTERS = "counters";
+    static final String TIMERS = "timers";
+    static final String METRICS = "metrics";
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final EventFactory eventFactory;
+
+    ReadableMapEventConverter() {
+        this.eventFactory = new EventFactory(null, Constants.UNKNOWN_TYPE);
+    }
+
+    /**
+     * Converts the Readable Map/JS Event to a pooled Event so that the hub can record it.
+     *
+     * @param readableMap to convert.
+     * @return the event, or null if the map has no name.
+     */
+    @Nullable
+    Event convert(@NonNull ReadableMap readableMap) {
+        String name = getString(readableMap, NAME);
+        if (name == null || name.isEmpty()) {
+            Log.w(Constants.TAG, "Event Name does not exist, so unable to record event.");
+            return null;
+        }
+        Event event = eventFactory.acquireEvent(name, getString(readableMap, SOURCE),
+                getPriority(readableMap), getString(readableMap, EVENT_TYPE));
+        ReadableMap data = getMap(readableMap, DATA);
+        if (data != null) {
+            addData(event, data);
+        }
+        ReadableMap counters = getMap(readableMap, COUNTERS);
+        if (counters != null) {
+            addCounters(event, counters);
+        }
+        ReadableMap timers = getMap(readableMap, TIMERS);
+        if (timers != null) {
+            addTimers(event, timers);
+        }
+        ReadableMap metrics = getMap(readableMap, METRICS);
+        if (metrics != null) {
+            addMetrics(event, metrics);
+        }
+        return event;
+    }
+
+    /**
+     * Gives a converted event back to the pool once the hub recorded it.
+     *
+     * @param event returned by {@link #convert(ReadableMap)}.
+     */
+    void release(@NonNull Event event) {
+        eventFactory.releaseEvent(event);
+    }
+
+    private static void addData(Event event, ReadableMap data) {
+        ReadableMapKeySetIterator iterator = data.keySetIterator();
+        while (iterator.hasNextKey()) {
+            String key = iterator.nextKey();
+            String value = data.getType(key) == ReadableType.String ? data.getString(key) : null;
+            if (value != null && !value.isEmpty()) {
+                event.addData(key, value);
+            } else {
+                Log.w(Constants.TAG, key + " data value provided is not a string.");
+            }
+        }
+    }
+
+    private static void addCounters(Event event, ReadableMap counters) {
+        ReadableMapKeySetIterator iterator = counters.keySetIterator();
+        while (iterator.hasNextKey()) {
+            String key = iterator.nextKey();
+            if (counters.getType(key) == ReadableType.Number) {
+                event.setCounter(key, counters.getDouble(key));
+            } else {
+                Log.w(Constants.TAG, key + " counter value provided is not a number.");
+            }
+        }
+    }
+
+    private static void addTimers(Event event, ReadableMap timers) {
+        ReadableMapKeySetIterator iterator = timers.keySetIterator();
+        while (iterator.hasNextKey()) {
+            String key = iterator.nextKey();
+            if (timers.getType(key) == ReadableType.Number) {
+                event.setTimer(key, timers.getDouble(key));
+            } else {
+                Log.w(Constants.TAG, key + " timer value provided is not a number.");
+            }
+        }
+    }
+
+    private static void addMetrics(Event event, ReadableMap metrics) {
+        ReadableMapKeySetIterator iterator = metrics.keySetIterator();
+        while (iterator.hasNextKey()) {
+            String key = iterator.nextKey();
+            ReadableType type = metrics.getType(key);
+            if (type == ReadableType.String) {
+                event.addMetric(key, metrics.getString(key));
+            } else if (type == ReadableType.Boolean) {
+                event.addMetric(key, metrics.getBoolean(key));
+            } else {
+                Log.w(Constants.TAG, key + " metric value provided is not a string or boolean.");
+            }
+        }
+    }
+
+    @Nullable
+    private static Priority getPriority(ReadableMap readableMap) {
+        String priority = getString(readableMap, PRIORITY);
+        if (priority == null) {
+            return null;
+        }
+        for (Priority value : PRIORITIES) {
+            if (value.name().equalsIgnoreCase(priority)) {
+                return value;
+            }
+        }
+        Log.w(Constants.TAG, "Priority " + priority + " is not supported.");
+        return null;
+    }
+
+    @Nullable
+    private static String getString(ReadableMap readableMap, String key) {
+        return readableMap.hasKey(key) && readableMap.getType(key) == ReadableType.String
+                ? readableMap.getString(key) : null;
+    }
+
+    @Nullable
+    private static ReadableMap getMap(ReadableMap readableMap, String key) {
+        return readableMap.hasKey(key) && readableMap.getType(key) == ReadableType.Map
+                ? readableMap.getMap(key) : null;
+    }
+}
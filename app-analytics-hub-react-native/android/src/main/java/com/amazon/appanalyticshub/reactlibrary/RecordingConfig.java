@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.reactlibrary;
+
+/**
+ * <p>
+ * Configuration of the worker thread converting and recording the events sent by JS, so that
+ * the native modules thread shared with the other modules only pays for queueing them.
+ * </p>
+ */
+public class RecordingConfig {
+
+    /**
+     * Default maximum number of events waiting for the worker.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Default maximum time to wait for the queued events to be recorded on shutdown.
+     */
+    public static final long DEFAULT_SHUTDOWN_TIMEOUT_MILLIS = 2000;
+
+    private int queueCapacity;
+    private long shutdownTimeoutMillis;
+
+    public RecordingConfig() {
+        queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        shutdownTimeoutMillis = DEFAULT_SHUTDOWN_TIMEOUT_MILLIS;
+    }
+
+    /**
+     * Sets the maximum number of events waiting for the worker, events beyond it are dropped
+     * and counted in {@link RecordingStats#getDroppedCount()}.
+     *
+     * @param queueCapacity number of events, has to be positive.
+     * @return the current config.
+     */
+    public RecordingConfig setQueueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity has to be positive.");
+        }
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * Sets the maximum time to wait for the queued events to be recorded when the React
+     * instance is destroyed.
+     *
+     * @param shutdownTimeoutMillis time in milliseconds, cannot be negative.
+     * @return the current config.
+     */
+    public RecordingConfig setShutdownTimeoutMillis(long shutdownTimeoutMillis) {
+        if (shutdownTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Shutdown timeout cannot be negative.");
+        }
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * Gets the maximum number of events waiting for the worker.
+     *
+     * @return the number of events.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Gets the maximum time to wait for the queued events to be recorded on shutdown.
+     *
+     * @return the time in milliseconds.
+     */
+    public long getShutdownTimeoutMillis() {
+        return shutdownTimeoutMillis;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.reactlibrary;
+
+/**
+ * <p>
+ * Point in time snapshot of the worker recording the events sent by JS. The bridge call times
+ * are the time the module held the native modules thread, which is the delay it adds to the
+ * calls of the other modules queued behind it.
+ * </p>
+ */
+public class RecordingStats {
+
+    private final long enqueuedCount;
+    private final long droppedCount;
+    private final long recordedCount;
+    private final int queueDepth;
+    private final long bridgeCallCount;
+    private final long totalBridgeCallNanos;
+    private final long maxBridgeCallNanos;
+
+    RecordingStats(long enqueuedCount, long droppedCount, long recordedCount, int queueDepth,
+                   long bridgeCallCount, long totalBridgeCallNanos, long maxBridgeCallNanos) {
+        this.enqueuedCount = enqueuedCount;
+        this.droppedCount = droppedCount;
+        this.recordedCount = recordedCount;
+        this.queueDepth = queueDepth;
+        this.bridgeCallCount = bridgeCallCount;
+        this.totalBridgeCallNanos = totalBridgeCallNanos;
+        this.maxBridgeCallNanos = maxBridgeCallNanos;
+    }
+
+    /**
+     * Gets the number of events accepted into the queue.
+     *
+     * @return the enqueued count.
+     */
+    public long getEnqueuedCount() {
+        return enqueuedCount;
+    }
+
+    /**
+     * Gets the number of events discarded because the queue was full or the worker stopped.
+     *
+     * @return the dropped count.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Gets the number of events converted and handed to the hub by the worker.
+     *
+     * @return the recorded count.
+     */
+    public long getRecordedCount() {
+        return recordedCount;
+    }
+
+    /**
+     * Gets the number of events waiting for the worker.
+     *
+     * @return the queue depth.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Gets the number of bridge calls recording events.
+     *
+     * @return the bridge call count.
+     */
+    public long getBridgeCallCount() {
+        return bridgeCallCount;
+    }
+
+    /**
+     * Gets the total time the bridge calls recording events held the native modules thread.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long getTotalBridgeCallNanos() {
+        return totalBridgeCallNanos;
+    }
+
+    /**
+     * Gets the longest time a bridge call recording events held the native modules thread.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long getMaxBridgeCallNanos() {
+        return maxBridgeCallNanos;
+    }
+
+    /**
+     * Gets the average time a bridge call recording events held the native modules thread.
+     *
+     * @return the time in nanoseconds, 0 if there was no call.
+     */
+    public long getMeanBridgeCallNanos() {
+        return bridgeCallCount > 0 ? totalBridgeCallNanos / bridgeCallCount : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RecordingStats{" +
+                "enqueuedCount=" + enqueuedCount +
+                ", droppedCount=" + droppedCount +
+                ", recordedCount=" + recordedCount +
+                ", queueDepth=" + queueDepth +
+                ", bridgeCallCount=" + bridgeCallCount +
+                ", totalBridgeCallNanos=" + totalBridgeCallNanos +
+                ", maxBridgeCallNanos=" + maxBridgeCallNanos +
+                '}';
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.reactlibrary;
+
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import com.amazon.appanalyticshub.AnalyticsHub;
+import com.amazon.appanalyticshub.Event;
+import com.facebook.react.bridge.ReadableMap;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Converts and records the events sent by JS on a dedicated thread. The bridge call only
+ * queues the map it was given, so slow conversions or collectors do not delay the calls of the
+ * other native modules sharing the native modules thread. Events that do not fit in the bounded
+ * queue are dropped and counted.
+ * </p>
+ * <p>
+ * Submitting and stopping are serialized by a lock, so that every event accepted before the
+ * worker is stopped is recorded by its final drain.
+ * </p>
+ */
+class RecordingWorker implements Runnable {
+
+    /**
+     * Time the worker waits for events before checking whether it was stopped.
+     */
+    private static final long POLL_MILLIS = 100;
+
+    private final AnalyticsHub analyticsHub;
+    private final ReadableMapEventConverter converter;
+    private final BlockingQueue<ReadableMap> queue;
+    private final Thread thread;
+    private final AtomicLong enqueuedCount;
+    private final AtomicLong droppedCount;
+    private final AtomicLong recordedCount;
+    private final AtomicLong bridgeCallCount;
+    private final AtomicLong totalBridgeCallNanos;
+    private final AtomicLong maxBridgeCallNanos;
+    private final Object lock;
+    private volatile boolean running;
+
+    /**
+     * Reason of the last drop, logged once until an event is accepted again. Guarded by the
+     * lock.
+     */
+    private String dropReason;
+
+    RecordingWorker(@NonNull AnalyticsHub analyticsHub, @NonNull RecordingConfig config) {
+        this.analyticsHub = analyticsHub;
+        this.converter = new ReadableMapEventConverter();
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.thread = new Thread(this, Constants.TAG + "-recorder");
+        this.thread.setDaemon(true);
+        enqueuedCount = new AtomicLong();
+        droppedCount = new AtomicLong();
+        recordedCount = new AtomicLong();
+        bridgeCallCount = new AtomicLong();
+        totalBridgeCallNanos = new AtomicLong();
+        maxBridgeCallNanos = new AtomicLong();
+        lock = new Object();
+    }
+
+    /**
+     * Starts the worker thread.
+     */
+    void start() {
+        synchronized (lock) {
+            running = true;
+        }
+        thread.start();
+    }
+
+    /**
+     * Stops accepting events, records the ones already queued and waits for the worker thread
+     * to finish.
+     *
+     * @param timeoutMillis maximum time to wait for the queued events to be recorded.
+     */
+    void stop(long timeoutMillis) {
+        // Once the lock is released no event can be queued anymore, the worker sees every
+        // event queued so far when it drains the queue after seeing it was stopped.
+        synchronized (lock) {
+            running = false;
+        }
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            Log.w(Constants.TAG, "Recording worker did not stop in time, events still queued: "
+                    + queue.size());
+        }
+    }
+
+    /**
+     * Queues the event for conversion and recording on the worker thread.
+     *
+     * @param readableMap event sent by JS.
+     * @return false if the event was dropped.
+     */
+    boolean submit(@NonNull ReadableMap readableMap) {
+        synchronized (lock) {
+            if (!running) {
+                dropped("Recording worker is stopped, events are being dropped.");
+                return false;
+            }
+            if (!queue.offer(readableMap)) {
+                dropped("Recording queue is full, events are being dropped.");
+                return false;
+            }
+            dropReason = null;
+        }
+        enqueuedCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Accounts for the time a bridge call recording events held the native modules thread.
+     *
+     * @param startNanos time the call started at, from {@link System#nanoTime()}.
+     */
+    void bridgeCallFinished(long startNanos) {
+        long duration = System.nanoTime() - startNanos;
+        bridgeCallCount.incrementAndGet();
+        totalBridgeCallNanos.addAndGet(duration);
+        long current = maxBridgeCallNanos.get();
+        while (duration > current && !maxBridgeCallNanos.compareAndSet(current, duration)) {
+            current = maxBridgeCallNanos.get();
+        }
+    }
+
+    /**
+     * Gets a snapshot of the worker counters.
+     *
+     * @return the recording stats.
+     */
+    @NonNull
+    RecordingStats getStats() {
+        return new RecordingStats(enqueuedCount.get(), droppedCount.get(), recordedCount.get(),
+                queue.size(), bridgeCallCount.get(), totalBridgeCallNanos.get(),
+                maxBridgeCallNanos.get());
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                ReadableMap readableMap = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (readableMap != null) {
+                    record(readableMap);
+                }
+            }
+            ReadableMap readableMap;
+            while ((readableMap = queue.poll()) != null) {
+                record(readableMap);
+            }
+        } catch (InterruptedException e) {
+            Log.w(Constants.TAG, "Recording worker interrupted, events still queued: "
+                    + queue.size());
+        }
+    }
+
+    /**
+     * Counts a dropped event, logging the reason when the drops start or their reason changes.
+     * Has to be called while holding the lock.
+     */
+    private void dropped(String reason) {
+        droppedCount.incrementAndGet();
+        if (!reason.equals(dropReason)) {
+            dropReason = reason;
+            Log.w(Constants.TAG, reason);
+        }
+    }
+
+    private void record(ReadableMap readableMap) {
+        Event event;
+        try {
+            event = converter.convert(readableMap);
+        } catch (RuntimeException e) {
+            Log.e(Constants.TAG, "Failed to convert event.", e);
+            return;
+        }
+        if (event == null) {
+            return;
+        }
+        try {
+            analyticsHub.recordEvent(event);
+            recordedCount.incrementAndGet();
+        } catch (RuntimeException e) {
+            Log.e(Constants.TAG, "Failed to record event " + event.getName(), e);
+        } finally {
+            converter.release(event);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.reactlibrary;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.NoSuchKeyException;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.UnexpectedNativeTypeException;
+
+/**
+ * <p>
+ * Map behaving like the maps the bridge hands to native modules, whose getters throw when the
+ * key is absent or holds another type, and counting how often they did.
+ * </p>
+ */
+class FakeReadableMap extends JavaOnlyMap {
+
+    private int thrownCount;
+
+    @Override
+    public String getString(String name) {
+        check(name, ReadableType.String);
+        return super.getString(name);
+    }
+
+    @Override
+    public double getDouble(String name) {
+        check(name, ReadableType.Number);
+        return super.getDouble(name);
+    }
+
+    @Override
+    public boolean getBoolean(String name) {
+        check(name, ReadableType.Boolean);
+        return super.getBoolean(name);
+    }
+
+    @Override
+    public FakeReadableMap getMap(String name) {
+        check(name, ReadableType.Map);
+        return (FakeReadableMap) super.getMap(name);
+    }
+
+    /**
+     * Gets the number of exceptions thrown by this map and the maps nested in it.
+     *
+     * @return the number of exceptions.
+     */
+    int getThrownCount() {
+        int count = thrownCount;
+        ReadableMapKeySetIterator iterator = keySetIterator();
+        while (iterator.hasNextKey()) {
+            String key = iterator.nextKey();
+            if (getType(key) == ReadableType.Map) {
+                count += ((FakeReadableMap) super.getMap(key)).getThrownCount();
+            }
+        }
+        return count;
+    }
+
+    private void check(String name, ReadableType type) {
+        if (!hasKey(name)) {
+            thrownCount++;
+            throw new NoSuchKeyException(name);
+        }
+        if (getType(name) != type) {
+            thrownCount++;
+            throw new UnexpectedNativeTypeException("Value for " + name + " is not a " + type);
+        }
+    }
+
+    static FakeReadableMap of(Object... keysAndValues) {
+        FakeReadableMap map = new FakeReadableMap();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            String key = (String) keysAndValues[i];
+            Object value = keysAndValues[i + 1];
+            if (value instanceof String) {
+                map.putString(key, (String) value);
+            } else if (value instanceof Number) {
+                map.putDouble(key, ((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                map.putBoolean(key, (Boolean) value);
+            } else if (value instanceof ReadableMap) {
+                map.putMap(key, (ReadableMap) value);
+            } else {
+                map.putNull(key);
+            }
+        }
+        return map;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.reactlibrary;
+
+import com.amazon.appanalyticshub.Event;
+import com.amazon.appanalyticshub.Priority;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ReadableMapEventConverterTest {
+
+    private static final int ITERATIONS = 1000;
+
+    private final ReadableMapEventConverter converter = new ReadableMapEventConverter();
+
+    @Test
+    public void convertsAllFields() {
+        FakeReadableMap readableMap = fullEvent();
+
+        Event event = converter.convert(readableMap);
+
+        assertNotNull(event);
+        assertEquals("Render", event.getName());
+        assertEquals("Feed", event.getSource());
+        assertEquals("OPERATIONAL", event.getEventType());
+        assertEquals(Priority.HIGH, event.getPriority());
+        assertEquals("home", event.getData().get("screen"));
+        assertEquals(3.0, event.getCounters().get("taps"), 0);
+        assertEquals(16.5, event.getTimers().get("draw"), 0);
+        assertEquals(Boolean.TRUE, event.getMetrics().get("cached"));
+        assertEquals("wifi", event.getMetrics().get("network"));
+        assertEquals(0, readableMap.getThrownCount());
+        converter.release(event);
+    }
+
+    @Test
+    public void skipsAbsentAndMistypedFieldsWithoutThrowing() {
+        FakeReadableMap readableMap = FakeReadableMap.of(
+                ReadableMapEventConverter.NAME, "Render",
+                ReadableMapEventConverter.PRIORITY, 2,
+                ReadableMapEventConverter.DATA, "not a map",
+                ReadableMapEventConverter.COUNTERS, FakeReadableMap.of("taps", "three"),
+                ReadableMapEventConverter.METRICS, FakeReadableMap.of("ratio", 0.5, "cached", false));
+
+        Event event = converter.convert(readableMap);
+
+        assertNotNull(event);
+        assertEquals(Priority.NORMAL, event.getPriority());
+        assertTrue(event.getData().isEmpty());
+        assertTrue(event.getCounters().isEmpty());
+        assertTrue(event.getTimers().isEmpty());
+        assertEquals(1, event.getMetrics().size());
+        assertEquals(Boolean.FALSE, event.getMetrics().get("cached"));
+        assertEquals(0, readableMap.getThrownCount());
+        converter.release(event);
+    }
+
+    @Test
+    public void rejectsEventsWithoutName() {
+        FakeReadableMap readableMap = FakeReadableMap.of(ReadableMapEventConverter.SOURCE, "Feed");
+
+        assertNull(converter.convert(readableMap));
+        assertEquals(0, readableMap.getThrownCount());
+    }
+
+    @Test
+    public void reusesPooledEvents() {
+        Event first = converter.convert(fullEvent());
+        assertNotNull(first);
+        converter.release(first);
+
+        Event second = converter.convert(FakeReadableMap.of(ReadableMapEventConverter.NAME, "Tap"));
+
+        assertSame(first, second);
+        assertEquals("Tap", second.getName());
+        assertTrue(second.getData().isEmpty());
+        converter.release(second);
+    }
+
+    @Test
+    public void repeatedConversionsNeverThrow() {
+        FakeReadableMap full = fullEvent();
+        FakeReadableMap sparse = FakeReadableMap.of(ReadableMapEventConverter.NAME, "Tap");
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            converter.release(converter.convert(full));
+            converter.release(converter.convert(sparse));
+        }
+
+        assertEquals(0, full.getThrownCount());
+        assertEquals(0, sparse.getThrownCount());
+    }
+
+    private static FakeReadableMap fullEvent() {
+        return FakeReadableMap.of(
+                ReadableMapEventConverter.NAME, "Render",
+                ReadableMapEventConverter.SOURCE, "Feed",
+                ReadableMapEventConverter.EVENT_TYPE, "OPERATIONAL",
+                ReadableMapEventConverter.PRIORITY, "HIGH",
+                ReadableMapEventConverter.DATA, FakeReadableMap.of("screen", "home"),
+                ReadableMapEventConverter.COUNTERS, FakeReadableMap.of("taps", 3),
+                ReadableMapEventConverter.TIMERS, FakeReadableMap.of("draw", 16.5),
+                ReadableMapEventConverter.METRICS, FakeReadableMap.of("cached", true, "network", "wifi"));
+    }
+}
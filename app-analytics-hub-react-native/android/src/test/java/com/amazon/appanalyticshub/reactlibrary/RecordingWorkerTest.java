@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2018 Amazon.com, Inc. or its affiliates. All rights reserved.
+ */
+
+package com.amazon.appanalyticshub.reactlibrary;
+
+import android.support.annotation.NonNull;
+
+import com.amazon.appanalyticshub.AnalyticsCollector;
+import com.amazon.appanalyticshub.AppAnalyticsHub;
+import com.amazon.appanalyticshub.Event;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RecordingWorkerTest {
+
+    private static final String EVENT_TYPE = "OPERATIONAL";
+    private static final long COLLECTOR_MILLIS = 5;
+
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AppAnalyticsHub analyticsHub;
+    private BlockingCollector collector;
+
+    @Before
+    public void setUp() {
+        analyticsHub = new AppAnalyticsHub();
+        collector = new BlockingCollector();
+        analyticsHub.addCollectorToEventType(EVENT_TYPE, collector);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    public void recordsQueuedEventsOnTheWorker() {
+        release.countDown();
+        RecordingWorker worker = new RecordingWorker(analyticsHub, new RecordingConfig());
+        worker.start();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(worker.submit(event("Tap" + i)));
+        }
+        worker.stop(1000);
+
+        RecordingStats stats = worker.getStats();
+        assertEquals(10, stats.getEnqueuedCount());
+        assertEquals(10, stats.getRecordedCount());
+        assertEquals(0, stats.getDroppedCount());
+        assertEquals(10, collector.recordedCount);
+        assertEquals(Constants.TAG + "-recorder", collector.thread);
+    }
+
+    @Test
+    public void dropsEventsBeyondTheQueueCapacity() throws InterruptedException {
+        RecordingWorker worker = new RecordingWorker(analyticsHub,
+                new RecordingConfig().setQueueCapacity(2));
+        worker.start();
+
+        assertTrue(worker.submit(event("Blocked")));
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+        assertTrue(worker.submit(event("Queued1")));
+        assertTrue(worker.submit(event("Queued2")));
+        assertFalse(worker.submit(event("Dropped")));
+
+        RecordingStats stats = worker.getStats();
+        assertEquals(3, stats.getEnqueuedCount());
+        assertEquals(1, stats.getDroppedCount());
+        assertEquals(2, stats.getQueueDepth());
+        release.countDown();
+        worker.stop(1000);
+        assertEquals(3, worker.getStats().getRecordedCount());
+    }
+
+    @Test
+    public void dropsEventsOnceStopped() {
+        release.countDown();
+        RecordingWorker worker = new RecordingWorker(analyticsHub, new RecordingConfig());
+        worker.start();
+        worker.stop(1000);
+
+        assertFalse(worker.submit(event("Late")));
+        assertEquals(1, worker.getStats().getDroppedCount());
+    }
+
+    @Test
+    public void recordsEveryEventAcceptedBeforeStopping() throws InterruptedException {
+        release.countDown();
+        final RecordingWorker worker = new RecordingWorker(analyticsHub, new RecordingConfig());
+        worker.start();
+        Thread submitter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; worker.submit(event("Tap" + i)); i++) {
+                    Thread.yield();
+                }
+            }
+        });
+        submitter.start();
+        Thread.sleep(20);
+        worker.stop(5000);
+        submitter.join(5000);
+
+        RecordingStats stats = worker.getStats();
+        assertTrue(stats.getEnqueuedCount() > 0);
+        assertEquals(stats.getEnqueuedCount(), stats.getRecordedCount());
+        assertEquals(stats.getRecordedCount(), collector.recordedCount);
+    }
+
+    @Test
+    public void submit_slowCollector_doesNotHoldCallingThread() {
+        release.countDown();
+        collector.delayMillis = COLLECTOR_MILLIS;
+        RecordingWorker worker = new RecordingWorker(analyticsHub, new RecordingConfig());
+        worker.start();
+        ReadableMapEventConverter converter = new ReadableMapEventConverter();
+
+        long inlineStart = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            Event event = converter.convert(event("Inline" + i));
+            analyticsHub.recordEvent(event);
+            converter.release(event);
+        }
+        long inlineNanos = System.nanoTime() - inlineStart;
+        for (int i = 0; i < 10; i++) {
+            long start = System.nanoTime();
+            worker.submit(event("Queued" + i));
+            worker.bridgeCallFinished(start);
+        }
+        worker.stop(1000);
+
+        RecordingStats stats = worker.getStats();
+        assertEquals(10, stats.getBridgeCallCount());
+        assertTrue(stats.getMaxBridgeCallNanos() < TimeUnit.MILLISECONDS.toNanos(COLLECTOR_MILLIS));
+        assertTrue(inlineNanos >= 10 * TimeUnit.MILLISECONDS.toNanos(COLLECTOR_MILLIS));
+    }
+
+    private static FakeReadableMap event(String name) {
+        return FakeReadableMap.of(
+                ReadableMapEventConverter.NAME, name,
+                ReadableMapEventConverter.EVENT_TYPE, EVENT_TYPE);
+    }
+
+    private class BlockingCollector implements AnalyticsCollector {
+
+        private volatile int recordedCount;
+        private volatile String thread;
+        private volatile long delayMillis;
+
+        @Override
+        public String getName() {
+            return "blocking";
+        }
+
+        @Override
+        public void recordEvent(@NonNull Event event) {
+            entered.countDown();
+            try {
+                release.await();
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = Thread.currentThread().getName();
+            recordedCount++;
+        }
+    }
+}
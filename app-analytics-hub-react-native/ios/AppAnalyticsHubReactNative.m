@@ -53,6 +53,21 @@ RCT_EXPORT_METHOD(recordEvent : (NSDictionary<NSString *, id> *)dictionary) {
     }
 }
 
+/**
+ Records a batch of events coalesced on the JS side, so that a burst of events costs a single
+ bridge call.
+ 
+ @param events The events in dictionary format to record.
+ */
+RCT_EXPORT_METHOD(recordEvents : (NSArray<NSDictionary<NSString *, id> *> *)events) {
+    for (NSDictionary<NSString *, id> * dictionary in events) {
+        AppAnalyticsHubEvent * event = [self eventFromDictionary:dictionary];
+        if (event != nil) {
+            [self.analyticsHub recordEvent:event];
+        }
+    }
+}
+
 - (id<AAHAnalyticsCollector>)findRegisteredCollectorWithName:(NSString *)name {
     __block id<AAHAnalyticsCollector> collector;
     [self.analyticsHub.registeredCollectors enumerateObjectsUsingBlock:^(
@@ -1,6 +1,13 @@
-import { NativeModules } from 'react-native';
+import { AppState, NativeModules } from 'react-native';
 import { EventType } from './constants';
-import { ICollectorRegistry, IEvent, IMetricsRecorder } from './types';
+import { EventBuffer } from './event-buffer';
+import {
+  IAppStateSource,
+  ICollectorRegistry,
+  IEvent,
+  IEventData,
+  IMetricsRecorder
+} from './types';
 
 /**
  * Class which contains the all the methods exposed through the AppAnalyticsHub
@@ -8,23 +15,40 @@ import { ICollectorRegistry, IEvent, IMetricsRecorder } from './types';
  */
 export class AppAnalyticsHub implements IMetricsRecorder, ICollectorRegistry {
   private readonly AppAnalyticsHubNativeModule: any;
+  private readonly eventBuffer: EventBuffer;
 
-  constructor() {
-    this.AppAnalyticsHubNativeModule = NativeModules.AppAnalyticsHub;
+  constructor(
+    nativeModule: any = NativeModules.AppAnalyticsHub,
+    appState: IAppStateSource = AppState
+  ) {
+    this.AppAnalyticsHubNativeModule = nativeModule;
     if (this.AppAnalyticsHubNativeModule === undefined) {
       console.warn('Please integrate the AppAnalyticsHub native module.');
     }
+    this.eventBuffer = new EventBuffer((events: IEventData[]) =>
+      this.sendEvents(events)
+    );
+    // Frames stop once the app leaves the foreground, send what is buffered
+    // before the app can be suspended.
+    if (appState != null) {
+      appState.addEventListener('change', (state: string) => {
+        if (state !== 'active') {
+          this.eventBuffer.flush();
+        }
+      });
+    }
   }
 
   /**
    * This method would send the event to the Native ARTN Metric SDK class for it
    * to be recorded in the collectors registered for the event type.
+   * Events recorded during the same frame are sent in a single bridge call.
    *
    * @param {IEvent} event
    */
   public record(event: IEvent): void {
     if (this.AppAnalyticsHubNativeModule != null) {
-      this.AppAnalyticsHubNativeModule.recordEvent(event.getEventData());
+      this.eventBuffer.add(event.getEventData());
     } else {
       console.warn(
         `Please integrate the AppAnalyticsHub native module for event to be 
@@ -33,9 +57,28 @@ export class AppAnalyticsHub implements IMetricsRecorder, ICollectorRegistry {
     }
   }
 
+  /**
+   * Sends the events recorded so far to the native module without waiting for
+   * the next frame.
+   */
+  public flush(): void {
+    this.eventBuffer.flush();
+  }
+
+  /**
+   * Sets the maximum number of events sent to the native module in a single
+   * bridge call. A value of 1 sends every event as soon as it is recorded.
+   *
+   * @param {number} maxBufferedEvents has to be positive.
+   */
+  public setMaxBufferedEvents(maxBufferedEvents: number): void {
+    this.eventBuffer.setMaxBufferedEvents(maxBufferedEvents);
+  }
+
   /**
    * This method would send the given event type and metric collector to the
-   * native module for being registered.
+   * native module for being registered. The events recorded before are sent
+   * first, so that they are routed as they were when recorded.
    *
    * @param {string | EventType} eventType
    * @param {string} collectorName
@@ -45,6 +88,7 @@ export class AppAnalyticsHub implements IMetricsRecorder, ICollectorRegistry {
     collectorName: string
   ): void {
     if (this.AppAnalyticsHubNativeModule != null) {
+      this.eventBuffer.flush();
       this.AppAnalyticsHubNativeModule.addCollectorToEventType(
         eventType,
         collectorName
@@ -59,7 +103,8 @@ export class AppAnalyticsHub implements IMetricsRecorder, ICollectorRegistry {
 
   /**
    * This method would send the given event type and metric collector to the
-   * native module for being unregistered.
+   * native module for being unregistered. The events recorded before are sent
+   * first, so that they still reach the collector.
    *
    * @param {string | EventType} eventType
    * @param {string} collectorName
@@ -69,6 +114,7 @@ export class AppAnalyticsHub implements IMetricsRecorder, ICollectorRegistry {
     collectorName: string
   ): void {
     if (this.AppAnalyticsHubNativeModule != null) {
+      this.eventBuffer.flush();
       this.AppAnalyticsHubNativeModule.removeCollectorFromEventType(
         eventType,
         collectorName
@@ -80,6 +126,19 @@ export class AppAnalyticsHub implements IMetricsRecorder, ICollectorRegistry {
       );
     }
   }
+
+  private sendEvents(events: IEventData[]): void {
+    if (
+      events.length > 1 &&
+      typeof this.AppAnalyticsHubNativeModule.recordEvents === 'function'
+    ) {
+      this.AppAnalyticsHubNativeModule.recordEvents(events);
+    } else {
+      events.forEach((eventData: IEventData) =>
+        this.AppAnalyticsHubNativeModule.recordEvent(eventData)
+      );
+    }
+  }
 }
 
 export const appAnalyticsHub = new AppAnalyticsHub();
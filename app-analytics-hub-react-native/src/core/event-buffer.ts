@@ -0,0 +1,141 @@
+import { Priority } from './constants';
+import { IEventData } from './types';
+
+/**
+ * Default maximum number of events coalesced into one bridge call.
+ */
+export const DEFAULT_MAX_BUFFERED_EVENTS = 256;
+
+/**
+ * Schedules a callback to run once the current burst of events is over.
+ */
+export type FlushScheduler = (callback: () => void) => void;
+
+/**
+ * Longest time, in milliseconds, buffered events wait for a frame before they
+ * are flushed anyway. Frames stop while the app is in the background or the JS
+ * thread is busy, the timeout keeps those events from waiting indefinitely.
+ */
+export const MAX_FLUSH_DELAY_MS = 250;
+
+/**
+ * Schedules the callback for the next frame, or after {@link MAX_FLUSH_DELAY_MS}
+ * if no frame comes by then, whichever happens first. The callback runs for the
+ * next tick of the event loop when frames are not available.
+ *
+ * @param {() => void} callback
+ */
+export const nextFrame: FlushScheduler = (callback: () => void): void => {
+  if (typeof requestAnimationFrame !== 'function') {
+    setTimeout(callback, 0);
+    return;
+  }
+  let done = false;
+  const run = (): void => {
+    if (done) {
+      return;
+    }
+    done = true;
+    clearTimeout(timeout);
+    if (typeof cancelAnimationFrame === 'function') {
+      cancelAnimationFrame(frame);
+    }
+    callback();
+  };
+  const timeout = setTimeout(run, MAX_FLUSH_DELAY_MS);
+  const frame = requestAnimationFrame(run);
+};
+
+/**
+ * Coalesces the event data recorded in JS and hands it to the native module in
+ * batches, once per frame, at most {@link MAX_FLUSH_DELAY_MS} after the first
+ * buffered event, or as soon as the configured number of events is buffered.
+ * Critical events flush the buffer immediately.
+ */
+export class EventBuffer {
+  private readonly send: (events: IEventData[]) => void;
+  private readonly schedule: FlushScheduler;
+  private maxBufferedEvents: number;
+  private buffer: IEventData[];
+  private flushScheduled: boolean;
+
+  constructor(
+    send: (events: IEventData[]) => void,
+    schedule: FlushScheduler = nextFrame,
+    maxBufferedEvents: number = DEFAULT_MAX_BUFFERED_EVENTS
+  ) {
+    this.send = send;
+    this.schedule = schedule;
+    this.maxBufferedEvents = maxBufferedEvents;
+    this.buffer = [];
+    this.flushScheduled = false;
+  }
+
+  /**
+   * Sets the maximum number of events coalesced into one batch. A value of 1
+   * hands every event over as soon as it is added.
+   *
+   * @param {number} maxBufferedEvents has to be positive.
+   */
+  public setMaxBufferedEvents(maxBufferedEvents: number): void {
+    if (!(maxBufferedEvents >= 1)) {
+      throw new Error('Maximum number of buffered events has to be positive.');
+    }
+    this.maxBufferedEvents = Math.floor(maxBufferedEvents);
+    if (this.buffer.length >= this.maxBufferedEvents) {
+      this.flush();
+    }
+  }
+
+  /**
+   * Adds a copy of the event data to the buffer, so that changes made to the
+   * event after it was recorded are not sent.
+   *
+   * @param {IEventData} eventData
+   */
+  public add(eventData: IEventData): void {
+    this.buffer.push({
+      counters: { ...eventData.counters },
+      data: { ...eventData.data },
+      eventType: eventData.eventType,
+      metrics: { ...eventData.metrics },
+      name: eventData.name,
+      priority: eventData.priority,
+      source: eventData.source,
+      timers: { ...eventData.timers }
+    });
+    if (
+      this.buffer.length >= this.maxBufferedEvents ||
+      eventData.priority === Priority[Priority.CRITICAL]
+    ) {
+      this.flush();
+    } else if (!this.flushScheduled) {
+      this.flushScheduled = true;
+      this.schedule(() => {
+        this.flushScheduled = false;
+        this.flush();
+      });
+    }
+  }
+
+  /**
+   * Hands the buffered events over immediately.
+   */
+  public flush(): void {
+    if (this.buffer.length === 0) {
+      return;
+    }
+    const events = this.buffer;
+    this.buffer = [];
+    this.send(events);
+  }
+
+  /**
+   * Gets the number of events waiting to be handed over.
+   *
+   * @returns {number}
+   */
+  public size(): number {
+    return this.buffer.length;
+  }
+}
@@ -1,5 +1,6 @@
 export * from './app-analytics-hub';
 export * from './constants';
 export * from './event';
+export * from './event-buffer';
 export * from './event-factory';
 export * from './timer-metric';
@@ -273,3 +273,16 @@ export interface ITimerMetric {
    */
   recordTimerInEvents(...events: IEvent[]): void;
 }
+
+/**
+ * Source of the app state changes, implemented by React Native's AppState.
+ */
+export interface IAppStateSource {
+  /**
+   * Registers a listener called with the new state whenever the app state
+   * changes.
+   * @param {'change'} type
+   * @param {(state: string) => void} listener
+   */
+  addEventListener(type: 'change', listener: (state: string) => void): void;
+}
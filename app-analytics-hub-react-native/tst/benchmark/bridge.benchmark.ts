@@ -0,0 +1,72 @@
+import { AppAnalyticsHub, Event, EventType, IEventData } from '../../src/core';
+
+/**
+ * Compares the cost of sending a burst of events over the bridge one call per
+ * event against one call per burst. The fake native module serializes the
+ * arguments of every call the way the asynchronous bridge does, so the
+ * measured time covers the per-call serialization and message overhead but
+ * not the native side.
+ */
+describe('Bridge throughput', () => {
+  const BURST = 200;
+  const ITERATIONS = 200;
+
+  const createBridge = () => {
+    const bridge = {
+      bytes: 0,
+      calls: 0,
+      recordEvent: (eventData: IEventData): void => {
+        bridge.calls++;
+        bridge.bytes += JSON.stringify([
+          'AppAnalyticsHub',
+          'recordEvent',
+          [eventData]
+        ]).length;
+      },
+      recordEvents: (events: IEventData[]): void => {
+        bridge.calls++;
+        bridge.bytes += JSON.stringify([
+          'AppAnalyticsHub',
+          'recordEvents',
+          [events]
+        ]).length;
+      }
+    };
+    return bridge;
+  };
+
+  const createEvent = (i: number): Event => {
+    const event = new Event(`event${i}`, EventType.OPERATIONAL, 'Feed');
+    event.addData('screen', 'home');
+    event.addCounter('taps', i);
+    event.addTimer('render', 16.6);
+    return event;
+  };
+
+  const run = (label: string, maxBufferedEvents: number): number => {
+    const bridge = createBridge();
+    const hub = new AppAnalyticsHub(bridge);
+    hub.setMaxBufferedEvents(maxBufferedEvents);
+    const start = Date.now();
+    for (let iteration = 0; iteration < ITERATIONS; iteration++) {
+      for (let i = 0; i < BURST; i++) {
+        hub.record(createEvent(i));
+      }
+      hub.flush();
+    }
+    const elapsed = Math.max(Date.now() - start, 1);
+    const events = BURST * ITERATIONS;
+    console.log(
+      `${label}: ${Math.round((events * 1000) / elapsed)} events/s, ` +
+        `${bridge.calls} bridge calls, ${bridge.bytes} bytes`
+    );
+    return bridge.calls;
+  };
+
+  it('should send a burst in one call when batched', () => {
+    const perEventCalls = run('per event', 1);
+    const batchedCalls = run('batched', BURST);
+    expect(perEventCalls).toEqual(BURST * ITERATIONS);
+    expect(batchedCalls).toEqual(ITERATIONS);
+  });
+});
@@ -0,0 +1,196 @@
+import {
+  AppAnalyticsHub,
+  Event,
+  EventBuffer,
+  EventType,
+  IEventData,
+  MAX_FLUSH_DELAY_MS,
+  nextFrame,
+  Priority
+} from '../../src/core';
+
+describe('EventBuffer coalesces events', () => {
+  const createEventData = (name: string, priority?: Priority): IEventData =>
+    new Event(name, EventType.OPERATIONAL, 'source', priority).getEventData();
+
+  it('should send the events added during a frame in one batch', () => {
+    const batches: IEventData[][] = [];
+    let scheduled: Array<() => void> = [];
+    const buffer = new EventBuffer(
+      (events: IEventData[]) => batches.push(events),
+      (callback: () => void) => scheduled.push(callback)
+    );
+    for (let i = 0; i < 200; i++) {
+      buffer.add(createEventData(`event${i}`));
+    }
+    expect(batches.length).toEqual(0);
+    expect(scheduled.length).toEqual(1);
+    const frame = scheduled;
+    scheduled = [];
+    frame.forEach((callback: () => void) => callback());
+    expect(batches.length).toEqual(1);
+    expect(batches[0].length).toEqual(200);
+    expect(batches[0][199].name).toEqual('event199');
+    expect(buffer.size()).toEqual(0);
+  });
+
+  it('should flush when the maximum number of events is buffered', () => {
+    const batches: IEventData[][] = [];
+    const buffer = new EventBuffer(
+      (events: IEventData[]) => batches.push(events),
+      () => undefined,
+      50
+    );
+    for (let i = 0; i < 120; i++) {
+      buffer.add(createEventData(`event${i}`));
+    }
+    expect(batches.map((batch: IEventData[]) => batch.length)).toEqual([
+      50,
+      50
+    ]);
+    expect(buffer.size()).toEqual(20);
+  });
+
+  it('should flush critical events immediately', () => {
+    const batches: IEventData[][] = [];
+    const buffer = new EventBuffer(
+      (events: IEventData[]) => batches.push(events),
+      () => undefined
+    );
+    buffer.add(createEventData('normal'));
+    buffer.add(createEventData('critical', Priority.CRITICAL));
+    expect(batches.length).toEqual(1);
+    expect(batches[0].map((eventData: IEventData) => eventData.name)).toEqual([
+      'normal',
+      'critical'
+    ]);
+  });
+
+  it('should not send changes made after the event was recorded', () => {
+    const batches: IEventData[][] = [];
+    const buffer = new EventBuffer(
+      (events: IEventData[]) => batches.push(events),
+      () => undefined
+    );
+    const event = new Event('name', EventType.OPERATIONAL);
+    event.addCounter('counter', 1);
+    buffer.add(event.getEventData());
+    event.incrementCounter('counter');
+    buffer.flush();
+    expect(batches[0][0].counters.counter).toEqual(1);
+  });
+
+  it('should reject a non positive maximum number of events', () => {
+    const buffer = new EventBuffer(() => undefined);
+    expect(() => buffer.setMaxBufferedEvents(0)).toThrow();
+  });
+});
+
+describe('nextFrame bounds the flush delay', () => {
+  const globalScope: any = global;
+  let requestAnimationFrame: any;
+  let cancelAnimationFrame: any;
+
+  beforeEach(() => {
+    jest.useFakeTimers();
+    requestAnimationFrame = globalScope.requestAnimationFrame;
+    cancelAnimationFrame = globalScope.cancelAnimationFrame;
+  });
+
+  afterEach(() => {
+    globalScope.requestAnimationFrame = requestAnimationFrame;
+    globalScope.cancelAnimationFrame = cancelAnimationFrame;
+    jest.useRealTimers();
+  });
+
+  it('should run the callback after the maximum delay without a frame', () => {
+    globalScope.requestAnimationFrame = jest.fn(() => 1);
+    globalScope.cancelAnimationFrame = jest.fn();
+    const callback = jest.fn();
+    nextFrame(callback);
+    jest.advanceTimersByTime(MAX_FLUSH_DELAY_MS - 1);
+    expect(callback).not.toHaveBeenCalled();
+    jest.advanceTimersByTime(1);
+    expect(callback).toHaveBeenCalledTimes(1);
+    expect(globalScope.cancelAnimationFrame).toHaveBeenCalledWith(1);
+  });
+
+  it('should run the callback once on the next frame', () => {
+    const frames: Array<() => void> = [];
+    globalScope.requestAnimationFrame = jest.fn((frame: () => void) =>
+      frames.push(frame)
+    );
+    globalScope.cancelAnimationFrame = jest.fn();
+    const callback = jest.fn();
+    nextFrame(callback);
+    expect(frames.length).toEqual(1);
+    frames[0]();
+    expect(callback).toHaveBeenCalledTimes(1);
+    jest.advanceTimersByTime(MAX_FLUSH_DELAY_MS);
+    expect(callback).toHaveBeenCalledTimes(1);
+  });
+});
+
+describe('AppAnalyticsHub batches bridge calls', () => {
+  it('should record a burst of events in a single bridge call', () => {
+    const nativeModule = {
+      recordEvent: jest.fn(),
+      recordEvents: jest.fn()
+    };
+    const hub = new AppAnalyticsHub(nativeModule);
+    for (let i = 0; i < 200; i++) {
+      hub.record(new Event(`event${i}`, EventType.ENGAGEMENT));
+    }
+    hub.flush();
+    expect(nativeModule.recordEvents).toHaveBeenCalledTimes(1);
+    expect(nativeModule.recordEvents.mock.calls[0][0].length).toEqual(200);
+    expect(nativeModule.recordEvent).not.toHaveBeenCalled();
+  });
+
+  it('should fall back to recordEvent without a batch method', () => {
+    const nativeModule = { recordEvent: jest.fn() };
+    const hub = new AppAnalyticsHub(nativeModule);
+    hub.record(new Event('first', EventType.ENGAGEMENT));
+    hub.record(new Event('second', EventType.ENGAGEMENT));
+    hub.flush();
+    expect(nativeModule.recordEvent).toHaveBeenCalledTimes(2);
+  });
+
+  it('should send the buffered events before changing the routes', () => {
+    const calls: string[] = [];
+    const nativeModule = {
+      addCollectorToEventType: () => calls.push('add'),
+      recordEvent: (eventData: IEventData) => calls.push(eventData.name),
+      removeCollectorFromEventType: () => calls.push('remove')
+    };
+    const hub = new AppAnalyticsHub(nativeModule);
+    hub.record(new Event('before', EventType.ENGAGEMENT));
+    hub.addCollectorToEventType(EventType.ENGAGEMENT, 'collector');
+    hub.record(new Event('linked', EventType.ENGAGEMENT));
+    hub.removeCollectorFromEventType(EventType.ENGAGEMENT, 'collector');
+    expect(calls).toEqual(['before', 'add', 'linked', 'remove']);
+  });
+
+  it('should send the buffered events when the app leaves the foreground', () => {
+    const listeners: Array<(state: string) => void> = [];
+    const appState = {
+      addEventListener: (
+        type: 'change',
+        listener: (state: string) => void
+      ): void => {
+        listeners.push(listener);
+      }
+    };
+    const nativeModule = { recordEvent: jest.fn() };
+    const hub = new AppAnalyticsHub(nativeModule, appState);
+    hub.record(new Event('event', EventType.ENGAGEMENT));
+    listeners.forEach((listener: (state: string) => void) =>
+      listener('active')
+    );
+    expect(nativeModule.recordEvent).not.toHaveBeenCalled();
+    listeners.forEach((listener: (state: string) => void) =>
+      listener('background')
+    );
+    expect(nativeModule.recordEvent).toHaveBeenCalledTimes(1);
+  });
+});